@@ -0,0 +1,81 @@
+/*
+ * Copyright 2026 S. Webber
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projog.benchmark;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.annotations.Param;
+import org.projog.api.Projog;
+import org.projog.api.QueryPlan;
+
+/**
+ * Measures how long it takes to find the first solution of the example applications used by the Prolog tests.
+ * <p>
+ * Each application is consulted once per trial and then its query is repeatedly evaluated.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ApplicationBenchmark {
+   @Param({"eight-queens", "zebra-puzzle", "cryptarithmetic", "sudoku"})
+   private String application;
+
+   private QueryPlan plan;
+
+   @Setup
+   public void setup() {
+      Projog projog = new Projog();
+      switch (application) {
+         case "eight-queens":
+            projog.consultFile(new File("src/test/prolog/applications/eight-queens.pl"));
+            plan = projog.createPlan("queens(X).");
+            break;
+         case "zebra-puzzle":
+            projog.consultFile(new File("src/test/prolog/applications/zebra-puzzle.pl"));
+            plan = projog.createPlan("solve(People,Doors,Pets,Cigarettes,Drink).");
+            break;
+         case "cryptarithmetic":
+            projog.consultFile(new File("src/test/prolog/applications/cryptarithmetic.pl"));
+            plan = projog.createPlan("send_more_money(Send,More,Money).");
+            break;
+         case "sudoku":
+            projog.consultFile(new File("src/test/prolog/clp/sudoku.pl"));
+            plan = projog.createPlan("data(X), sudoku(X).");
+            break;
+         default:
+            throw new IllegalArgumentException(application);
+      }
+   }
+
+   @Benchmark
+   public boolean firstSolution() {
+      return plan.executeQuery().next();
+   }
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright 2026 S. Webber
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projog.benchmark;
+
+import java.io.StringReader;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.projog.api.Projog;
+import org.projog.api.QueryPlan;
+
+/**
+ * Measures backtracking over the clauses of a predicate when the query contains a large term.
+ * <p>
+ * Each clause binds only two variables, so the cost of undoing those bindings should not depend on the length of the
+ * list of variables that is also passed as an argument.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class BacktrackBenchmark {
+   private static final int NUM_CLAUSES = 20;
+
+   private QueryPlan plan;
+
+   @Setup
+   public void setup() {
+      StringBuilder program = new StringBuilder();
+      for (int i = 1; i <= NUM_CLAUSES; i++) {
+         program.append("c(_, ").append(i).append(", v").append(i).append(").\n");
+      }
+      program.append("last_clause(L) :- c(L, _, V), V == v").append(NUM_CLAUSES).append(".\n");
+
+      Projog projog = new Projog();
+      projog.consultReader(new StringReader(program.toString()));
+      plan = projog.createPlan("length(L, 500), last_clause(L).");
+   }
+
+   @Benchmark
+   public void largeQueryTerm() {
+      plan.executeOnce();
+   }
+}
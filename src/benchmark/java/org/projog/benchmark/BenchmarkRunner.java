@@ -0,0 +1,163 @@
+/*
+ * Copyright 2026 S. Webber
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projog.benchmark;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+/**
+ * Runs the JMH benchmarks and compares their scores against a recorded baseline.
+ * <p>
+ * All benchmarks report throughput (operations per second) so a higher score is better. A benchmark is reported as a
+ * regression if its score is lower than its baseline score by more than the tolerance. The process exits with a
+ * non-zero status if any regressions are found, so it can be used as a gate before a release.
+ * <p>
+ * Arguments:
+ * <ul>
+ * <li>{@code <regexp>} - only run benchmarks that match the regular expression (can be specified multiple times)</li>
+ * <li>{@code -update} - replace the baseline scores of the benchmarks that were run with the new scores</li>
+ * <li>{@code -quick} - run fewer and shorter iterations (useful for a sanity check, not for recording a baseline)</li>
+ * <li>{@code -tolerance=<fraction>} - fraction a score can drop below its baseline before it is considered a
+ * regression (default {@code 0.2})</li>
+ * </ul>
+ * <p>
+ * Baseline scores are machine specific. Before using the results as a gate, run with {@code -update} on the machine the
+ * comparison will be made on using a build of the previous release.
+ */
+public final class BenchmarkRunner {
+   private static final File BASELINE_FILE = new File("src/benchmark/benchmark-baseline.properties");
+   private static final File RESULT_FILE = new File("target/jmh-result.json");
+   private static final double DEFAULT_TOLERANCE = 0.2;
+
+   private BenchmarkRunner() {
+   }
+
+   public static void main(String[] args) throws Exception {
+      List<String> includes = new ArrayList<>();
+      boolean update = false;
+      boolean quick = false;
+      double tolerance = DEFAULT_TOLERANCE;
+      for (String arg : args) {
+         if ("-update".equals(arg)) {
+            update = true;
+         } else if ("-quick".equals(arg)) {
+            quick = true;
+         } else if (arg.startsWith("-tolerance=")) {
+            tolerance = Double.parseDouble(arg.substring("-tolerance=".length()));
+         } else if (!arg.isEmpty()) {
+            includes.add(arg);
+         }
+      }
+
+      ChainedOptionsBuilder options = new OptionsBuilder().shouldFailOnError(true).resultFormat(ResultFormatType.JSON).result(RESULT_FILE.getPath());
+      if (includes.isEmpty()) {
+         options.include(BenchmarkRunner.class.getPackage().getName() + ".*");
+         options.include("org.projog.core.*Benchmark.*");
+      } else {
+         for (String include : includes) {
+            options.include(include);
+         }
+      }
+      if (quick) {
+         options.forks(1).warmupIterations(1).warmupTime(TimeValue.seconds(1)).measurementIterations(2).measurementTime(TimeValue.seconds(1));
+      }
+
+      Collection<RunResult> results = new Runner(options.build()).run();
+
+      Properties baseline = loadBaseline();
+      if (update) {
+         for (RunResult r : results) {
+            baseline.setProperty(getKey(r), Long.toString(Math.round(r.getPrimaryResult().getScore())));
+         }
+         storeBaseline(baseline);
+         System.out.println("Updated baseline: " + BASELINE_FILE);
+      } else if (!compare(results, baseline, tolerance)) {
+         System.exit(1);
+      }
+   }
+
+   private static boolean compare(Collection<RunResult> results, Properties baseline, double tolerance) {
+      boolean success = true;
+      System.out.println();
+      System.out.println(String.format("%-70s %15s %15s %8s", "Benchmark", "Baseline", "Score", "Change"));
+      for (RunResult r : results) {
+         String key = getKey(r);
+         double score = r.getPrimaryResult().getScore();
+         String expected = baseline.getProperty(key);
+         if (expected == null) {
+            System.out.println(String.format("%-70s %15s %15.0f %8s", key, "-", score, "-"));
+         } else {
+            double baselineScore = Double.parseDouble(expected);
+            double change = (score - baselineScore) / baselineScore;
+            boolean regression = change < -tolerance;
+            System.out.println(String.format("%-70s %15.0f %15.0f %+7.1f%%%s", key, baselineScore, score, change * 100, regression ? " REGRESSION" : ""));
+            if (regression) {
+               success = false;
+            }
+         }
+      }
+      return success;
+   }
+
+   private static String getKey(RunResult r) {
+      StringBuilder key = new StringBuilder(r.getParams().getBenchmark());
+      for (String param : r.getParams().getParamsKeys()) {
+         key.append(':').append(r.getParams().getParam(param));
+      }
+      return key.toString();
+   }
+
+   private static Properties loadBaseline() throws IOException {
+      Properties p = new Properties();
+      if (BASELINE_FILE.exists()) {
+         try (InputStream is = new FileInputStream(BASELINE_FILE)) {
+            p.load(is);
+         }
+      }
+      return p;
+   }
+
+   private static void storeBaseline(Properties p) throws IOException {
+      // use TreeMap so the entries are written in a predictable order
+      StringBuilder sb = new StringBuilder();
+      sb.append("# Throughput (ops/s) recorded by BenchmarkRunner -update\n");
+      for (Map.Entry<Object, Object> e : new TreeMap<>(p).entrySet()) {
+         // escape the separators Properties.load recognises, as the keys of parameterised benchmarks contain ':'
+         String key = e.getKey().toString().replace(":", "\\:").replace("=", "\\=");
+         sb.append(key).append('=').append(e.getValue()).append('\n');
+      }
+      try (OutputStream os = new FileOutputStream(BASELINE_FILE)) {
+         os.write(sb.toString().getBytes("ISO-8859-1"));
+      }
+   }
+}
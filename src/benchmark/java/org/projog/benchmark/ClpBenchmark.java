@@ -0,0 +1,77 @@
+/*
+ * Copyright 2026 S. Webber
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projog.benchmark;
+
+import java.io.StringReader;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.projog.api.Projog;
+import org.projog.api.QueryPlan;
+
+/**
+ * Measures the propagation of CLP(FD) constraints.
+ * <p>
+ * {@code propagateChain} constrains a list of variables to be in ascending order and then narrows the bounds of the
+ * first and last variables, so every constraint of the chain has to be evaluated again for each narrowing.
+ * {@code labelDistinct} labels variables that are constrained to have different values.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ClpBenchmark {
+   private static final String PROGRAM = "" //
+                                         + "chain([_]).\n" //
+                                         + "chain([A,B|T]) :- A #< B, chain([B|T]).\n" //
+                                         + "distinct([]).\n" //
+                                         + "distinct([H|T]) :- distinct(H, T), distinct(T).\n" //
+                                         + "distinct(_, []).\n" //
+                                         + "distinct(X, [H|T]) :- X #\\= H, distinct(X, T).\n";
+
+   private QueryPlan propagateChain;
+   private QueryPlan labelDistinct;
+
+   @Setup
+   public void setup() {
+      Projog projog = new Projog();
+      projog.consultReader(new StringReader(PROGRAM));
+      propagateChain = projog.createPlan("length(L, 100), L ins 1..100000, chain(L), L = [F|_], F #> 100, "
+                                        + "last(L, Z), Z #< 90000.");
+      labelDistinct = projog.createPlan("length(L, 8), L ins 1..8, distinct(L), label(L).");
+   }
+
+   @Benchmark
+   public void propagateChain() {
+      propagateChain.executeOnce();
+   }
+
+   @Benchmark
+   public void labelDistinct() {
+      labelDistinct.executeOnce();
+   }
+}
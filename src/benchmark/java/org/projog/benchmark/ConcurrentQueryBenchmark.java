@@ -0,0 +1,101 @@
+/*
+ * Copyright 2026 S. Webber
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projog.benchmark;
+
+import java.io.StringReader;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.projog.api.Projog;
+import org.projog.api.QueryPlan;
+import org.projog.api.QueryStatement;
+import org.projog.core.term.Term;
+
+/**
+ * Measures the combined throughput of multiple threads evaluating queries against the same {@code Projog}.
+ * <p>
+ * {@link #nrev30()} only reads shared predicates. {@link #assertRetract()} also updates a dynamic predicate that all the
+ * threads share, so also measures contention on the locks that coordinate updates.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+public class ConcurrentQueryBenchmark {
+   private static final String PROGRAM = "?- dynamic(scratch/2).\n"
+                                         + "app([],L,L).\n"
+                                         + "app([H|T],L,[H|R]) :- app(T,L,R).\n"
+                                         + "nrev([],[]).\n"
+                                         + "nrev([H|T],R) :- nrev(T,RT), app(RT,[H],R).\n"
+                                         + "update(Id, X) :- assertz(scratch(Id, X)), scratch(Id, X), retract(scratch(Id, X)).\n";
+
+   private final AtomicInteger threadIds = new AtomicInteger();
+   private QueryPlan nrev;
+   private QueryPlan update;
+   private long[] input;
+
+   @Setup
+   public void setup() {
+      Projog projog = new Projog();
+      projog.consultReader(new StringReader(PROGRAM));
+      nrev = projog.createPlan("nrev(L, R).");
+      update = projog.createPlan("update(Id, X).");
+      input = new long[30];
+      for (int i = 0; i < input.length; i++) {
+         input[i] = i + 1;
+      }
+   }
+
+   @State(Scope.Thread)
+   public static class ThreadState {
+      long id;
+      long counter;
+
+      @Setup
+      public void setup(ConcurrentQueryBenchmark benchmark) {
+         id = benchmark.threadIds.incrementAndGet();
+      }
+   }
+
+   @Benchmark
+   public Term nrev30() {
+      QueryStatement statement = nrev.createStatement();
+      statement.setListOfLongs("L", input);
+      return statement.findFirstAsTerm();
+   }
+
+   @Benchmark
+   public void assertRetract(ThreadState state) {
+      QueryStatement statement = update.createStatement();
+      statement.setLong("Id", state.id);
+      statement.setLong("X", state.counter++);
+      statement.executeOnce();
+   }
+}
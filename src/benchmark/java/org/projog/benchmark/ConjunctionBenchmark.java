@@ -0,0 +1,64 @@
+/*
+ * Copyright 2026 S. Webber
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projog.benchmark;
+
+import java.io.StringReader;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.projog.api.Projog;
+import org.projog.api.QueryPlan;
+
+/** Measures the evaluation of conjunctions of retryable and non-retryable goals. */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ConjunctionBenchmark {
+   private static final String PROGRAM = "p(1).\n" + "p(2).\n" + "p(3).\n" + "q(3).\n";
+
+   private QueryPlan nonRetryable;
+   private QueryPlan retryable;
+
+   @Setup
+   public void setup() {
+      Projog projog = new Projog();
+      projog.consultReader(new StringReader(PROGRAM));
+      nonRetryable = projog.createPlan("X = 1, Y is X + 1, Y > X, Z = f(X,Y), Z \\== X.");
+      retryable = projog.createPlan("p(X), p(Y), q(Z), X > Y, Y < Z, X == Z.");
+   }
+
+   @Benchmark
+   public void nonRetryableConjunction() {
+      nonRetryable.executeOnce();
+   }
+
+   @Benchmark
+   public boolean retryableConjunction() {
+      return retryable.executeQuery().next();
+   }
+}
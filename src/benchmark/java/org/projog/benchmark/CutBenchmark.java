@@ -0,0 +1,84 @@
+/*
+ * Copyright 2026 S. Webber
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projog.benchmark;
+
+import java.io.StringReader;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.projog.api.Projog;
+import org.projog.api.QueryPlan;
+
+/**
+ * Measures programs that backtrack to a cut many times.
+ * <p>
+ * {@code cutFail} and {@code guardClauses} use cuts in the body of a clause, which are evaluated without throwing an
+ * exception. {@code goalCut} evaluates the same cut-fail idiom as {@code cutFail}, but as the body is not known until
+ * the clause is evaluated the cut is evaluated by throwing a {@link org.projog.core.predicate.CutException}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class CutBenchmark {
+   private static final String PROGRAM = "" //
+                                         + "not_positive(X) :- X > 0, !, fail.\n" //
+                                         + "not_positive(_).\n" //
+                                         + "not_positive_goal(X) :- G = (X > 0, !, fail), G.\n" //
+                                         + "not_positive_goal(_).\n" //
+                                         + "classify(X, negative) :- X < 0, !.\n" //
+                                         + "classify(0, zero) :- !.\n" //
+                                         + "classify(_, positive).\n";
+
+   private QueryPlan cutFail;
+   private QueryPlan goalCut;
+   private QueryPlan guardClauses;
+
+   @Setup
+   public void setup() {
+      Projog projog = new Projog();
+      projog.consultReader(new StringReader(PROGRAM));
+      cutFail = projog.createPlan("between(1, 1000, X), not_positive(X), fail ; true.");
+      goalCut = projog.createPlan("between(1, 1000, X), not_positive_goal(X), fail ; true.");
+      guardClauses = projog.createPlan("between(-500, 500, X), classify(X, _), fail ; true.");
+   }
+
+   @Benchmark
+   public void cutFail() {
+      cutFail.executeOnce();
+   }
+
+   @Benchmark
+   public void goalCut() {
+      goalCut.executeOnce();
+   }
+
+   @Benchmark
+   public void guardClauses() {
+      guardClauses.executeOnce();
+   }
+}
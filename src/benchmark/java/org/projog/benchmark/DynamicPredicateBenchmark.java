@@ -0,0 +1,95 @@
+/*
+ * Copyright 2026 S. Webber
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projog.benchmark;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.projog.api.Projog;
+import org.projog.api.QueryPlan;
+import org.projog.api.QueryStatement;
+
+/**
+ * Measures looking up, asserting and retracting clauses of a dynamic predicate with {@value #NUM_CLAUSES} clauses.
+ * <p>
+ * The clauses are of the form {@code fact(N, N mod 1000)}. The "by key" benchmarks retract the clause with a randomly
+ * chosen {@code N} and then assert it again, so the number of clauses stays constant. As each retracted clause is added
+ * to the end, the clauses are soon in a random order - so the retracted clause is as likely to be in the middle or at
+ * the end of the predicate as at the start.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class DynamicPredicateBenchmark {
+   private static final int NUM_CLAUSES = 1000000;
+
+   private QueryPlan lookupByFirstArgument;
+   private QueryPlan lookupBySecondArgument;
+   private QueryPlan retract;
+   private QueryPlan retractAll;
+   private final SplittableRandom random = new SplittableRandom(42);
+
+   @Setup
+   public void setup() {
+      Projog projog = new Projog();
+      projog.executeOnce("between(1, " + NUM_CLAUSES + ", N), M is N mod 1000, assertz(fact(N, M)), fail ; true.");
+      lookupByFirstArgument = projog.createPlan("fact(N, M).");
+      lookupBySecondArgument = projog.createPlan("fact(N, 42).");
+      retract = projog.createPlan("retract(fact(Key, M)), assertz(fact(Key, M)).");
+      retractAll = projog.createPlan("retractall(fact(Key, _)), M is Key mod 1000, assertz(fact(Key, M)).");
+   }
+
+   @Benchmark
+   public boolean lookupByFirstArgument() {
+      QueryStatement statement = lookupByFirstArgument.createStatement();
+      statement.setLong("N", NUM_CLAUSES);
+      return statement.executeQuery().next();
+   }
+
+   @Benchmark
+   public boolean lookupBySecondArgument() {
+      return lookupBySecondArgument.executeQuery().next();
+   }
+
+   @Benchmark
+   public void retractByKey() {
+      replace(retract);
+   }
+
+   @Benchmark
+   public void retractAllByKey() {
+      replace(retractAll);
+   }
+
+   private void replace(QueryPlan plan) {
+      QueryStatement statement = plan.createStatement();
+      statement.setLong("Key", random.nextInt(NUM_CLAUSES) + 1);
+      statement.executeOnce();
+   }
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright 2026 S. Webber
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projog.benchmark;
+
+import java.io.StringReader;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.projog.api.Projog;
+import org.projog.api.QueryPlan;
+
+/**
+ * Measures an interpreter of arithmetic expression trees, where the clause to use is selected by the principal functor
+ * of its first argument.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ExpressionEvaluatorBenchmark {
+   private static final String PROGRAM = "" //
+                                         + "eval(num(N), N).\n"
+                                         + "eval(neg(X), R) :- eval(X, A), R is -A.\n"
+                                         + "eval(add(X, Y), R) :- eval(X, A), eval(Y, B), R is A + B.\n"
+                                         + "eval(sub(X, Y), R) :- eval(X, A), eval(Y, B), R is A - B.\n"
+                                         + "eval(mul(X, Y), R) :- eval(X, A), eval(Y, B), R is A * B.\n"
+                                         + "eval(min(X, Y), R) :- eval(X, A), eval(Y, B), R is min(A, B).\n"
+                                         + "eval(max(X, Y), R) :- eval(X, A), eval(Y, B), R is max(A, B).\n"
+                                         + "eval(abs(X), R) :- eval(X, A), R is abs(A).\n"
+                                         + "eval(if(C, T, F), R) :- eval(C, A), A > 0, !, eval(T, R).\n"
+                                         + "eval(if(_, _, F), R) :- eval(F, R).\n"
+                                         + "tree(0, num(1)) :- !.\n"
+                                         + "tree(D, if(sub(L, num(1)), max(L, neg(R)), add(mul(L, R), abs(R)))) :- D1 is D - 1, tree(D1, L), tree(D1, R).\n";
+
+   private QueryPlan plan;
+
+   @Setup
+   public void setup() {
+      Projog projog = new Projog();
+      projog.consultReader(new StringReader(PROGRAM));
+      plan = projog.createPlan("tree(5, T), eval(T, R).");
+   }
+
+   @Benchmark
+   public boolean evaluate() {
+      return plan.executeQuery().next();
+   }
+}
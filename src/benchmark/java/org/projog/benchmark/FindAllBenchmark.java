@@ -0,0 +1,68 @@
+/*
+ * Copyright 2026 S. Webber
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projog.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.projog.api.Projog;
+import org.projog.api.QueryPlan;
+import org.projog.api.QueryStatement;
+
+/** Measures collecting solutions using {@code findall/3}. */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class FindAllBenchmark {
+   private QueryPlan between;
+   private QueryPlan member;
+   private long[] numbers;
+
+   @Setup
+   public void setup() {
+      Projog projog = new Projog();
+      between = projog.createPlan("findall(X, between(1, 1000, X), L).");
+      member = projog.createPlan("findall(f(X), (member(X, Ns), X mod 3 =:= 0), L).");
+      numbers = new long[1000];
+      for (int i = 0; i < numbers.length; i++) {
+         numbers[i] = i + 1;
+      }
+   }
+
+   @Benchmark
+   public boolean findAllBetween() {
+      return between.executeQuery().next();
+   }
+
+   @Benchmark
+   public boolean findAllMember() {
+      QueryStatement statement = member.createStatement();
+      statement.setListOfLongs("Ns", numbers);
+      return statement.executeQuery().next();
+   }
+}
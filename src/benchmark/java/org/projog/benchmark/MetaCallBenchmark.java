@@ -0,0 +1,73 @@
+/*
+ * Copyright 2026 S. Webber
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projog.benchmark;
+
+import java.io.StringReader;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.projog.api.Projog;
+import org.projog.api.QueryPlan;
+
+/**
+ * Measures calling goals that are not known until the clause calling them is evaluated.
+ * <p>
+ * In both benchmarks the closure is passed as an argument, so the predicate factory of the goal has to be found each
+ * time it is called.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class MetaCallBenchmark {
+   private static final String PROGRAM = "" //
+                                         + "double(X, Y) :- Y is X * 2.\n" //
+                                         + "apply_all(_, [], []).\n" //
+                                         + "apply_all(F, [X|Xs], [Y|Ys]) :- call(F, X, Y), apply_all(F, Xs, Ys).\n" //
+                                         + "apply_maplist(F, Xs, Ys) :- maplist(F, Xs, Ys).\n";
+
+   private QueryPlan callN;
+   private QueryPlan mapList;
+
+   @Setup
+   public void setup() {
+      Projog projog = new Projog();
+      projog.consultReader(new StringReader(PROGRAM));
+      callN = projog.createPlan("findall(X, between(1, 1000, X), L), apply_all(double, L, _).");
+      mapList = projog.createPlan("findall(X, between(1, 1000, X), L), apply_maplist(double, L, _).");
+   }
+
+   @Benchmark
+   public void callN() {
+      callN.executeOnce();
+   }
+
+   @Benchmark
+   public void mapList() {
+      mapList.executeOnce();
+   }
+}
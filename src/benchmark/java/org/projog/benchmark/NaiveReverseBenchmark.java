@@ -0,0 +1,77 @@
+/*
+ * Copyright 2026 S. Webber
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projog.benchmark;
+
+import java.io.StringReader;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.projog.api.Projog;
+import org.projog.api.QueryPlan;
+import org.projog.api.QueryStatement;
+import org.projog.core.term.Term;
+
+/**
+ * The "naive reverse" benchmark traditionally used to measure the logical inferences per second (LIPS) of a Prolog
+ * implementation.
+ * <p>
+ * Reversing a 30 element list using {@code nrev/2} takes 496 logical inferences, so multiplying the reported throughput
+ * by 496 gives the LIPS.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class NaiveReverseBenchmark {
+   public static final int INFERENCES_PER_OPERATION = 496;
+
+   private static final String PROGRAM = "app([],L,L).\n"
+                                         + "app([H|T],L,[H|R]) :- app(T,L,R).\n"
+                                         + "nrev([],[]).\n"
+                                         + "nrev([H|T],R) :- nrev(T,RT), app(RT,[H],R).\n";
+
+   private QueryPlan plan;
+   private long[] input;
+
+   @Setup
+   public void setup() {
+      Projog projog = new Projog();
+      projog.consultReader(new StringReader(PROGRAM));
+      plan = projog.createPlan("nrev(L, R).");
+      input = new long[30];
+      for (int i = 0; i < input.length; i++) {
+         input[i] = i + 1;
+      }
+   }
+
+   @Benchmark
+   public Term nrev30() {
+      QueryStatement statement = plan.createStatement();
+      statement.setListOfLongs("L", input);
+      return statement.findFirstAsTerm();
+   }
+}
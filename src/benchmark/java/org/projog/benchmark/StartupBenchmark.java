@@ -0,0 +1,88 @@
+/*
+ * Copyright 2026 S. Webber
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projog.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.projog.api.Projog;
+
+/**
+ * Compares creating a {@code Projog} by parsing the bootstrap script with creating one from a snapshot, and with
+ * forking an existing {@code Projog}.
+ * <p>
+ * {@link #forkAndSolve()} also includes the cost of a fork compiling the static rules it uses, so can be compared with
+ * {@link ApplicationBenchmark} for the same application.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class StartupBenchmark {
+   private File snapshot;
+   private Projog original;
+   private Projog application;
+
+   @Setup
+   public void setup() throws IOException {
+      original = new Projog();
+      snapshot = File.createTempFile("projog-startup", ".snapshot");
+      original.saveSnapshot(snapshot);
+      application = new Projog();
+      application.consultFile(new File("src/test/prolog/applications/zebra-puzzle.pl"));
+   }
+
+   @TearDown
+   public void tearDown() {
+      snapshot.delete();
+   }
+
+   @Benchmark
+   public Projog bootstrap() {
+      return new Projog();
+   }
+
+   @Benchmark
+   public Projog loadSnapshot() {
+      return Projog.loadSnapshot(snapshot);
+   }
+
+   @Benchmark
+   public Projog fork() {
+      Projog fork = original.fork();
+      fork.executeOnce("assertz(scratch(1)).");
+      return fork;
+   }
+
+   @Benchmark
+   public boolean forkAndSolve() {
+      return application.fork().executeQuery("solve(People,Doors,Pets,Cigarettes,Drink).").next();
+   }
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright 2026 S. Webber
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projog.benchmark;
+
+import static org.projog.TestUtils.parseTerm;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.projog.core.term.Atom;
+import org.projog.core.term.IntegerNumberCache;
+import org.projog.core.term.ListFactory;
+import org.projog.core.term.Term;
+import org.projog.core.term.Variable;
+
+/** Measures unification (and the backtracking that undoes it) of variables, lists and structures. */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class UnifyBenchmark {
+   private static final int LIST_LENGTH = 100;
+
+   private Variable variable;
+   private Atom atom;
+   private Term immutableList;
+   private Term mutableList;
+   private Term immutableStructure;
+   private Term mutableStructure;
+
+   @Setup
+   public void setup() {
+      variable = new Variable("X");
+      atom = new Atom("a");
+
+      Term[] immutableElements = new Term[LIST_LENGTH];
+      Term[] mutableElements = new Term[LIST_LENGTH];
+      for (int i = 0; i < LIST_LENGTH; i++) {
+         immutableElements[i] = IntegerNumberCache.valueOf(i);
+         mutableElements[i] = i % 2 == 0 ? new Variable("E" + i) : immutableElements[i];
+      }
+      immutableList = ListFactory.createList(immutableElements);
+      mutableList = ListFactory.createList(mutableElements);
+
+      immutableStructure = parseTerm("p(a, f(b, [c,d,e]), g(h(i), 1, 2.5), 'q r', [1,2,3|[]])");
+      mutableStructure = parseTerm("p(A, f(b, [C,d|T]), g(h(I), X, 2.5), Y, [1,2,Z|[]])");
+   }
+
+   @Benchmark
+   public boolean variableUnify() {
+      boolean result = variable.unify(atom);
+      variable.backtrack();
+      return result;
+   }
+
+   @Benchmark
+   public boolean listUnify() {
+      boolean result = mutableList.unify(immutableList);
+      mutableList.backtrack();
+      return result;
+   }
+
+   @Benchmark
+   public boolean structureUnify() {
+      boolean result = mutableStructure.unify(immutableStructure);
+      mutableStructure.backtrack();
+      return result;
+   }
+
+   @Benchmark
+   public Term structureCopy() {
+      return mutableStructure.copy();
+   }
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright 2026 S. Webber
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projog.core.predicate.udp;
+
+import static org.projog.TestUtils.createClauseModel;
+import static org.projog.TestUtils.parseTerm;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.projog.TestUtils;
+import org.projog.core.kb.KnowledgeBase;
+import org.projog.core.predicate.Predicate;
+import org.projog.core.predicate.PredicateKey;
+import org.projog.core.term.Term;
+
+/**
+ * Measures selecting the clauses of a static user defined predicate that match a query.
+ * <p>
+ * The predicate has {@value #NUM_CLAUSES} facts of the form {@code p(N, x(N mod 10), N mod 100)}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ClauseSelectionBenchmark {
+   private static final int NUM_CLAUSES = 1000;
+
+   private StaticUserDefinedPredicateFactory predicateFactory;
+   private Indexes indexes;
+   private Index firstArgumentIndex;
+   private Term firstArgumentQuery;
+   private Term thirdArgumentQuery;
+   private Term secondAndThirdArgumentQuery;
+   private Term noIndexQuery;
+
+   @Setup
+   public void setup() {
+      KnowledgeBase kb = TestUtils.createKnowledgeBase();
+      predicateFactory = new StaticUserDefinedPredicateFactory(kb, new PredicateKey("p", 3));
+      List<ClauseModel> models = new ArrayList<>();
+      for (int i = 0; i < NUM_CLAUSES; i++) {
+         ClauseModel model = createClauseModel("p(" + i + ", x" + (i % 10) + ", " + (i % 100) + ").");
+         models.add(model);
+         predicateFactory.addLast(model);
+      }
+      predicateFactory.compile();
+
+      Clauses clauses = Clauses.createFromModels(kb, models);
+      indexes = new Indexes(clauses);
+      firstArgumentIndex = indexes.getOrCreateIndex(1);
+
+      firstArgumentQuery = parseTerm("p(500, X, Y)");
+      thirdArgumentQuery = parseTerm("p(X, Y, 42)");
+      secondAndThirdArgumentQuery = parseTerm("p(X, x2, 42)");
+      noIndexQuery = parseTerm("p(X, Y, Z)");
+   }
+
+   @Benchmark
+   public Object indexLookup() {
+      return firstArgumentIndex.getMatches(firstArgumentQuery);
+   }
+
+   @Benchmark
+   public Object indexesLookupSingleArgument() {
+      return indexes.index(thirdArgumentQuery);
+   }
+
+   @Benchmark
+   public Object indexesLookupMultipleArguments() {
+      return indexes.index(secondAndThirdArgumentQuery);
+   }
+
+   @Benchmark
+   public boolean firstArgumentCall() {
+      return evaluateAll(firstArgumentQuery);
+   }
+
+   @Benchmark
+   public boolean thirdArgumentCall() {
+      return evaluateAll(thirdArgumentQuery);
+   }
+
+   @Benchmark
+   public boolean unindexedCall() {
+      return evaluateAll(noIndexQuery);
+   }
+
+   private boolean evaluateAll(Term query) {
+      Term copy = query.copy();
+      Predicate p = predicateFactory.getPredicate(copy);
+      boolean result = false;
+      while (p.evaluate()) {
+         result = true;
+         copy.backtrack();
+         if (!p.couldReevaluationSucceed()) {
+            break;
+         }
+      }
+      return result;
+   }
+}
@@ -25,6 +25,7 @@ import java.util.List;
 import org.projog.core.ProjogException;
 import org.projog.core.event.ProjogListener;
 import org.projog.core.kb.KnowledgeBase;
+import org.projog.core.kb.KnowledgeBaseSnapshot;
 import org.projog.core.kb.KnowledgeBaseUtils;
 import org.projog.core.kb.ProjogDefaultProperties;
 import org.projog.core.kb.ProjogProperties;
@@ -57,11 +58,70 @@ public final class Projog {
     * Constructs a new {@code Projog} object with the specified {@code ProjogProperties} and {@code ProjogListener}s.
     */
    public Projog(ProjogProperties projogProperties, ProjogListener... listeners) {
-      this.kb = KnowledgeBaseUtils.createKnowledgeBase(projogProperties);
+      this(KnowledgeBaseUtils.createKnowledgeBase(projogProperties), listeners);
+      KnowledgeBaseUtils.bootstrap(kb);
+   }
+
+   private Projog(KnowledgeBase kb, ProjogListener... listeners) {
+      this.kb = kb;
       for (ProjogListener listener : listeners) {
          addListener(listener);
       }
-      KnowledgeBaseUtils.bootstrap(kb);
+   }
+
+   /**
+    * Constructs a new {@code Projog} object using {@link ProjogDefaultProperties} and populated from the specified
+    * snapshot file.
+    * <p>
+    * The bootstrap script is not parsed, as the snapshot already contains the built-in predicates and operators.
+    *
+    * @param snapshot a file created by {@link #saveSnapshot(File)}
+    * @throws ProjogException if the file cannot be read or is not a valid snapshot
+    * @see KnowledgeBaseSnapshot
+    */
+   public static Projog loadSnapshot(File snapshot, ProjogListener... listeners) {
+      return loadSnapshot(new ProjogDefaultProperties(), snapshot, listeners);
+   }
+
+   /**
+    * Constructs a new {@code Projog} object with the specified {@code ProjogProperties} and populated from the
+    * specified snapshot file.
+    *
+    * @param snapshot a file created by {@link #saveSnapshot(File)}
+    * @throws ProjogException if the file cannot be read or is not a valid snapshot
+    * @see KnowledgeBaseSnapshot
+    */
+   public static Projog loadSnapshot(ProjogProperties projogProperties, File snapshot, ProjogListener... listeners) {
+      Projog projog = new Projog(KnowledgeBaseUtils.createKnowledgeBase(projogProperties), listeners);
+      KnowledgeBaseSnapshot.read(projog.kb, snapshot);
+      return projog;
+   }
+
+   /**
+    * Writes the contents of this objects {@code KnowledgeBase} to the specified file.
+    * <p>
+    * The file can be used by {@link #loadSnapshot(File, ProjogListener...)} to create new {@code Projog} objects
+    * without parsing the Prolog syntax used to populate this object.
+    *
+    * @throws ProjogException if the file cannot be written
+    * @see KnowledgeBaseSnapshot
+    */
+   public void saveSnapshot(File snapshot) {
+      KnowledgeBaseSnapshot.write(kb, snapshot);
+   }
+
+   /**
+    * Returns a new {@code Projog} object that starts with the same contents as this object.
+    * <p>
+    * Changes made using the returned object, e.g. by {@code assert/1} or {@code retract/1}, do not affect this object, and
+    * changes made using this object do not affect the returned object. Forking is cheap, as the contents of this object
+    * are only copied when first used by the fork or when this object is next altered.
+    *
+    * @param listeners listeners to add to the new object, in addition to the listeners of this object
+    * @see KnowledgeBase#fork()
+    */
+   public Projog fork(ProjogListener... listeners) {
+      return new Projog(kb.fork(), listeners);
    }
 
    /**
@@ -74,6 +134,20 @@ public final class Projog {
       ProjogSourceReader.parseFile(kb, prologScript);
    }
 
+   /**
+    * Populates this objects {@code KnowledgeBase} with clauses read from the specified file, using multiple threads to
+    * parse the file.
+    * <p>
+    * Intended for loading large files of facts. Uses one thread per available processor.
+    *
+    * @param prologScript source of the prolog syntax defining the clauses to add
+    * @throws ProjogException if there is any problem parsing the syntax or adding the new clauses
+    * @see ProjogSourceReader#parseFileInParallel(KnowledgeBase, File, int)
+    */
+   public void consultFileInParallel(File prologScript) {
+      ProjogSourceReader.parseFileInParallel(kb, prologScript, Runtime.getRuntime().availableProcessors());
+   }
+
    /**
     * Populates this objects {@code KnowledgeBase} with clauses read from the specified {@code Reader}.
     *
@@ -0,0 +1,274 @@
+/*
+ * Copyright 2026 S. Webber
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projog.api;
+
+import java.util.ArrayDeque;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Evaluates queries concurrently.
+ * <p>
+ * Each query submitted to a {@code QueryExecutor} is evaluated by a thread of an {@code Executor}, and its result is
+ * made available as a {@code CompletableFuture}. No more than a fixed number of queries are evaluated at the same time.
+ * Queries submitted while that number are already being evaluated wait, in the order they were submitted, until
+ * another query has finished.
+ * <p>
+ * Example usage:
+ *
+ * <pre>
+ * QueryPlan plan = projog.createPlan("ancestor(X, Y).");
+ * try (QueryExecutor executor = new QueryExecutor(4)) {
+ *    CompletableFuture&lt;List&lt;Term&gt;&gt; future = executor.submit(plan.createStatement(), s -&gt; {
+ *       s.setAtomName("X", "alice");
+ *       return s.findAllAsTerm();
+ *    }, 1, TimeUnit.SECONDS);
+ *    ...
+ * }
+ * </pre>
+ * <p>
+ * Cancelling a returned future, or the future failing to complete within its timeout, stops the evaluation of its
+ * query. See {@link QueryStatement#cancel()}.
+ * <p>
+ * The queries of a single {@code QueryExecutor} can be against any number of {@link Projog} instances. Queries against
+ * the same {@code Projog} instance are subject to the restrictions described in
+ * {@link org.projog.core.kb.KnowledgeBase}.
+ */
+public final class QueryExecutor implements AutoCloseable {
+   private final Executor executor;
+   private final ExecutorService ownedExecutor;
+   private final int maxConcurrency;
+   private final Object lock = new Object();
+   private final Queue<Task<?>> queue = new ArrayDeque<>();
+   private int running;
+   private boolean closed;
+
+   /**
+    * Creates a {@code QueryExecutor} that evaluates queries using a pool of daemon threads.
+    * <p>
+    * The threads are stopped when {@link #close()} is called.
+    *
+    * @param maxConcurrency the number of threads in the pool, and so the maximum number of queries that are evaluated
+    * at the same time
+    */
+   public QueryExecutor(int maxConcurrency) {
+      this(Executors.newFixedThreadPool(assertPositive(maxConcurrency), new DaemonThreadFactory()), maxConcurrency, true);
+   }
+
+   /**
+    * Creates a {@code QueryExecutor} that evaluates queries using the specified {@code Executor}.
+    * <p>
+    * The {@code Executor} is not shut down when {@link #close()} is called. On a Java runtime that supports them, an
+    * {@code Executor} that creates a new virtual thread for each task is a good fit, as the maximum number of queries
+    * evaluated at the same time is enforced by this object rather than by the {@code Executor}.
+    *
+    * @param executor used to evaluate the queries
+    * @param maxConcurrency the maximum number of queries to evaluate at the same time
+    */
+   public QueryExecutor(Executor executor, int maxConcurrency) {
+      this(executor, maxConcurrency, false);
+   }
+
+   private QueryExecutor(Executor executor, int maxConcurrency, boolean owned) {
+      this.executor = Objects.requireNonNull(executor);
+      this.ownedExecutor = owned ? (ExecutorService) executor : null;
+      this.maxConcurrency = assertPositive(maxConcurrency);
+   }
+
+   private static int assertPositive(int maxConcurrency) {
+      if (maxConcurrency < 1) {
+         throw new IllegalArgumentException("maxConcurrency must be at least 1 but was: " + maxConcurrency);
+      }
+      return maxConcurrency;
+   }
+
+   /**
+    * Evaluates a query without a timeout.
+    *
+    * @see #submit(QueryStatement, Function, long, TimeUnit)
+    */
+   public <T> CompletableFuture<T> submit(QueryStatement statement, Function<? super QueryStatement, ? extends T> function) {
+      Task<T> task = new Task<>(statement, function);
+      schedule(task);
+      return task.future;
+   }
+
+   /**
+    * Evaluates a query.
+    * <p>
+    * The specified {@code function} is called, by a thread of this object's {@code Executor}, with the specified
+    * {@code statement} as its argument. The function is expected to execute the statement - e.g. by calling
+    * {@link QueryStatement#findAllAsTerm()} or {@link QueryStatement#executeQuery()} - and return the value to complete
+    * the returned future with.
+    * <p>
+    * If {@code function} throws an exception then the returned future is completed exceptionally with that exception.
+    * If the returned future is not complete before the specified timeout, measured from when this method was called,
+    * then the future is completed exceptionally with a {@code TimeoutException} and the query is cancelled.
+    *
+    * @param statement the query to evaluate
+    * @param function executes {@code statement} and returns the result
+    * @param timeout how long to wait for the query to be evaluated
+    * @param unit the unit of {@code timeout}
+    * @return the result of {@code function}
+    * @throws RejectedExecutionException if {@link #close()} has already been called
+    */
+   public <T> CompletableFuture<T> submit(QueryStatement statement, Function<? super QueryStatement, ? extends T> function, long timeout, TimeUnit unit) {
+      Task<T> task = new Task<>(statement, function);
+      schedule(task);
+      ScheduledFuture<?> timer = Timer.INSTANCE.schedule(task::timeout, timeout, unit);
+      task.future.whenComplete((r, e) -> timer.cancel(false));
+      return task.future;
+   }
+
+   private void schedule(Task<?> task) {
+      synchronized (lock) {
+         if (closed) {
+            throw new RejectedExecutionException("QueryExecutor has been closed");
+         }
+         queue.add(task);
+      }
+      dispatch();
+   }
+
+   private void dispatch() {
+      while (true) {
+         Task<?> task;
+         synchronized (lock) {
+            if (running == maxConcurrency || queue.isEmpty()) {
+               return;
+            }
+            task = queue.remove();
+            running++;
+         }
+         try {
+            executor.execute(task);
+         } catch (RejectedExecutionException e) {
+            task.future.completeExceptionally(e);
+            finished();
+         }
+      }
+   }
+
+   private void finished() {
+      boolean shutdown;
+      synchronized (lock) {
+         running--;
+         shutdown = closed && running == 0 && queue.isEmpty();
+      }
+      if (shutdown) {
+         shutdownOwnedExecutor();
+      } else {
+         dispatch();
+      }
+   }
+
+   /** Returns the number of queries that have been submitted but have not yet started being evaluated. */
+   public int getQueueSize() {
+      synchronized (lock) {
+         return queue.size();
+      }
+   }
+
+   /**
+    * Stops accepting new queries.
+    * <p>
+    * Queries that have already been submitted are still evaluated. If this object created its own pool of threads then
+    * the pool is shut down once they have been.
+    */
+   @Override
+   public void close() {
+      boolean shutdown;
+      synchronized (lock) {
+         closed = true;
+         shutdown = running == 0 && queue.isEmpty();
+      }
+      if (shutdown) {
+         shutdownOwnedExecutor();
+      }
+   }
+
+   private void shutdownOwnedExecutor() {
+      if (ownedExecutor != null) {
+         ownedExecutor.shutdown();
+      }
+   }
+
+   private final class Task<T> implements Runnable {
+      final QueryStatement statement;
+      final Function<? super QueryStatement, ? extends T> function;
+      final CompletableFuture<T> future = new CompletableFuture<>();
+
+      Task(QueryStatement statement, Function<? super QueryStatement, ? extends T> function) {
+         this.statement = Objects.requireNonNull(statement);
+         this.function = Objects.requireNonNull(function);
+         // stop evaluating the query if the future is cancelled or times out
+         future.whenComplete((r, e) -> {
+            if (e != null) {
+               statement.cancel();
+            }
+         });
+      }
+
+      @Override
+      public void run() {
+         try {
+            if (!future.isDone()) {
+               future.complete(function.apply(statement));
+            }
+         } catch (Throwable t) {
+            future.completeExceptionally(t);
+         } finally {
+            finished();
+         }
+      }
+
+      void timeout() {
+         future.completeExceptionally(new TimeoutException("Query not evaluated within timeout"));
+      }
+   }
+
+   /** Schedules timeouts. Only created if a timeout is specified. */
+   private static final class Timer {
+      static final ScheduledThreadPoolExecutor INSTANCE = new ScheduledThreadPoolExecutor(1, new DaemonThreadFactory());
+
+      static {
+         INSTANCE.setRemoveOnCancelPolicy(true);
+      }
+   }
+
+   private static final class DaemonThreadFactory implements ThreadFactory {
+      private static final AtomicInteger THREAD_COUNT = new AtomicInteger();
+
+      @Override
+      public Thread newThread(Runnable r) {
+         Thread t = new Thread(r, "projog-query-executor-" + THREAD_COUNT.incrementAndGet());
+         t.setDaemon(true);
+         return t;
+      }
+   }
+}
@@ -17,12 +17,16 @@ package org.projog.api;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Stream;
 
 import org.projog.core.ProjogException;
 import org.projog.core.kb.KnowledgeBase;
 import org.projog.core.parser.ParserException;
 import org.projog.core.parser.SentenceParser;
 import org.projog.core.predicate.PredicateFactory;
+import org.projog.core.predicate.udp.StacklessPredicateFactory;
+import org.projog.core.term.AtomTable;
 import org.projog.core.term.Term;
 
 /**
@@ -39,10 +43,15 @@ public class QueryPlan {
 
    QueryPlan(KnowledgeBase kb, String prologQuery) {
       try {
-         SentenceParser sp = SentenceParser.getInstance(prologQuery, kb.getOperands());
+         // does not add to the atom table of the knowledge base, as an application could create any number of queries
+         SentenceParser sp = SentenceParser.getInstance(prologQuery, kb.getOperands(), new AtomTable(kb.getAtomTable()));
 
          this.parsedInput = sp.parseSentence();
-         this.predicateFactory = kb.getPredicates().getPreprocessedPredicateFactory(parsedInput);
+         if (kb.getProjogProperties().isStacklessExecution()) {
+            this.predicateFactory = new StacklessPredicateFactory(kb);
+         } else {
+            this.predicateFactory = kb.getPredicates().getPreprocessedPredicateFactory(parsedInput);
+         }
 
          if (sp.hasNext()) {
             throw new ProjogException("More input found after . in " + prologQuery);
@@ -145,4 +154,24 @@ public class QueryPlan {
    public List<Term> findAllAsTerm() {
       return createStatement().findAllAsTerm();
    }
+
+   public <T> Stream<T> stream(Function<? super QueryResult, ? extends T> mapper) {
+      return createStatement().stream(mapper);
+   }
+
+   public Stream<String> streamAsAtomName() {
+      return createStatement().streamAsAtomName();
+   }
+
+   public Stream<Double> streamAsDouble() {
+      return createStatement().streamAsDouble();
+   }
+
+   public Stream<Long> streamAsLong() {
+      return createStatement().streamAsLong();
+   }
+
+   public Stream<Term> streamAsTerm() {
+      return createStatement().streamAsTerm();
+   }
 }
@@ -17,7 +17,13 @@ package org.projog.api;
 
 import java.util.Map;
 import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
 import java.util.TreeSet;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import org.projog.core.ProjogException;
 import org.projog.core.predicate.CutException;
@@ -25,12 +31,14 @@ import org.projog.core.predicate.Predicate;
 import org.projog.core.predicate.PredicateFactory;
 import org.projog.core.term.Term;
 import org.projog.core.term.TermUtils;
+import org.projog.core.term.Trail;
 import org.projog.core.term.Variable;
 
 /**
  * Represents an executing query.
  */
 public final class QueryResult {
+   private final Trail trail = new Trail();
    private final Predicate predicate;
    private final Map<String, Variable> variables;
    private boolean hasBeenEvaluated;
@@ -45,7 +53,12 @@ public final class QueryResult {
     * @see QueryStatement#executeQuery()
     */
    QueryResult(PredicateFactory predicateFactory, Term query, Map<String, Variable> variables) {
-      this.predicate = predicateFactory.getPredicate(query.getTerm());
+      Trail previous = Trail.setCurrent(trail);
+      try {
+         this.predicate = predicateFactory.getPredicate(query.getTerm());
+      } finally {
+         Trail.setCurrent(previous);
+      }
       this.variables = variables;
    }
 
@@ -65,6 +78,9 @@ public final class QueryResult {
       if (hasFailed) {
          throw new ProjogException("Query has already been exhausted. Last call to QueryResult.next() returned false.");
       }
+      if (trail.isInterrupted()) {
+         throw new ProjogException("Query has been cancelled.");
+      }
 
       boolean result;
 
@@ -83,11 +99,14 @@ public final class QueryResult {
    }
 
    private boolean evaluate() {
+      Trail previous = Trail.setCurrent(trail);
       try {
          return predicate.evaluate();
       } catch (CutException e) {
          // e.g. for a query like: "?- true, !."
          return false;
+      } finally {
+         Trail.setCurrent(previous);
       }
    }
 
@@ -101,6 +120,51 @@ public final class QueryResult {
       return hasFailed || (hasBeenEvaluated && !predicate.couldReevaluationSucceed());
    }
 
+   /**
+    * Stops the evaluation of the query this object represents.
+    * <p>
+    * Unlike the other methods of this class, {@code cancel()} can be called by any thread. If another thread is
+    * currently evaluating the query then that thread will stop with a {@code ProjogException} soon after. Any
+    * subsequent calls to {@link #next()} will throw a {@code ProjogException}.
+    *
+    * @see QueryExecutor
+    */
+   public void cancel() {
+      trail.interrupt();
+   }
+
+   /**
+    * Returns a sequential {@code Stream} of the solutions to the query this object represents.
+    * <p>
+    * Solutions are found lazily - each time the stream needs another element it calls {@link #next()} and then applies
+    * {@code mapper} to this object. As variables are unbound when the query is reevaluated, {@code mapper} should return
+    * the values it needs (e.g. by calling {@link #getTerm(String)}) rather than this object.
+    * <p>
+    * Short-circuiting operations (e.g. {@code findFirst()} or {@code limit(long)}) stop evaluating the query as soon as
+    * they have the elements they need, so the remaining solutions are never searched for. Closing the stream cancels the
+    * query.
+    * <p>
+    * If {@link #next()} has already been called then the stream starts with the solution after the current one.
+    *
+    * @param mapper converts the current solution to an element of the stream
+    * @return a stream with an element for each remaining solution
+    * @throws ProjogException if an error occurs while evaluating the query
+    * @see QueryStatement#stream(Function)
+    */
+   public <T> Stream<T> stream(Function<? super QueryResult, ? extends T> mapper) {
+      Spliterator<T> spliterator = new Spliterators.AbstractSpliterator<T>(Long.MAX_VALUE, Spliterator.ORDERED) {
+         @Override
+         public boolean tryAdvance(Consumer<? super T> action) {
+            if (isExhausted() || !next()) {
+               return false;
+            }
+            action.accept(mapper.apply(QueryResult.this));
+            return true;
+         }
+      };
+      return StreamSupport.stream(spliterator, false).onClose(this::cancel);
+   }
+
    // TODO add getList?
 
    /**
@@ -21,13 +21,17 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Stream;
 
 import org.projog.core.ProjogException;
 import org.projog.core.kb.KnowledgeBase;
 import org.projog.core.parser.ParserException;
 import org.projog.core.parser.SentenceParser;
 import org.projog.core.predicate.PredicateFactory;
+import org.projog.core.predicate.udp.StacklessPredicateFactory;
 import org.projog.core.term.Atom;
+import org.projog.core.term.AtomTable;
 import org.projog.core.term.DecimalFraction;
 import org.projog.core.term.IntegerNumber;
 import org.projog.core.term.ListFactory;
@@ -37,7 +41,7 @@ import org.projog.core.term.Variable;
 /**
  * Represents a query.
  * <p>
- * single use, not multi-threaded
+ * single use, not multi-threaded (other than {@link #cancel()})
  *
  * @see Projog#createStatement(String)
  * @see Projog#createPlan(String)
@@ -49,6 +53,8 @@ public final class QueryStatement {
    private final Term parsedInput;
    private final Map<String, Variable> variables;
    private boolean invoked;
+   private volatile boolean cancelled;
+   private volatile QueryResult result;
 
    /**
     * Creates a new {@code QueryStatement} representing a query specified by {@code prologQuery}.
@@ -59,10 +65,14 @@ public final class QueryStatement {
     */
    QueryStatement(KnowledgeBase kb, String prologQuery) {
       try {
-         SentenceParser sp = SentenceParser.getInstance(prologQuery, kb.getOperands());
+         SentenceParser sp = SentenceParser.getInstance(prologQuery, kb.getOperands(), new AtomTable(kb.getAtomTable()));
 
          this.parsedInput = sp.parseSentence();
-         this.predicateFactory = kb.getPredicates().getPredicateFactory(parsedInput);
+         if (kb.getProjogProperties().isStacklessExecution()) {
+            this.predicateFactory = new StacklessPredicateFactory(kb);
+         } else {
+            this.predicateFactory = kb.getPredicates().getPredicateFactory(parsedInput);
+         }
          this.variables = sp.getParsedTermVariables();
 
          if (sp.hasNext()) {
@@ -317,7 +327,28 @@ public final class QueryStatement {
                                    + "If you want to reuse the same query then consider using a QueryPlan. See: Projog.createPlan(String)");
       }
       invoked = true;
-      return new QueryResult(predicateFactory, parsedInput, variables);
+      QueryResult r = new QueryResult(predicateFactory, parsedInput, variables);
+      result = r;
+      if (cancelled) {
+         r.cancel();
+      }
+      return r;
+   }
+
+   /**
+    * Stops the evaluation of the query represented by this object.
+    * <p>
+    * Unlike the other methods of this class, {@code cancel()} can be called by any thread. If the query has not yet
+    * been executed then it will be cancelled as soon as it is.
+    *
+    * @see QueryResult#cancel()
+    */
+   public void cancel() {
+      cancelled = true;
+      QueryResult r = result;
+      if (r != null) {
+         r.cancel();
+      }
    }
 
    /**
@@ -564,6 +595,67 @@ public final class QueryStatement {
       return terms;
    }
 
+   /**
+    * Returns a {@code Stream} of the solutions generated by the query.
+    * <p>
+    * Unlike the {@code findAllAs} methods, solutions are not all found up front. Each solution is only searched for
+    * when the stream needs its next element. See {@link QueryResult#stream(Function)}.
+    *
+    * @param mapper converts a solution to an element of the stream
+    * @return a stream with an element for each solution
+    */
+   public <T> Stream<T> stream(Function<? super QueryResult, ? extends T> mapper) {
+      return executeQuery().stream(mapper);
+   }
+
+   /**
+    * Returns a {@code Stream} of the names of the atoms the single query variable is unified with.
+    *
+    * @return a stream with an element for each solution
+    * @throws ProjogException of there is not exactly one named variable in the query this statement represents
+    * @see #findAllAsAtomName()
+    */
+   public Stream<String> streamAsAtomName() {
+      String variableId = getSingleVariableId();
+      return stream(r -> r.getAtomName(variableId));
+   }
+
+   /**
+    * Returns a {@code Stream} of the {@code double} values the single query variable is unified with.
+    *
+    * @return a stream with an element for each solution
+    * @throws ProjogException of there is not exactly one named variable in the query this statement represents
+    * @see #findAllAsDouble()
+    */
+   public Stream<Double> streamAsDouble() {
+      String variableId = getSingleVariableId();
+      return stream(r -> r.getDouble(variableId));
+   }
+
+   /**
+    * Returns a {@code Stream} of the {@code long} values the single query variable is unified with.
+    *
+    * @return a stream with an element for each solution
+    * @throws ProjogException of there is not exactly one named variable in the query this statement represents
+    * @see #findAllAsLong()
+    */
+   public Stream<Long> streamAsLong() {
+      String variableId = getSingleVariableId();
+      return stream(r -> r.getLong(variableId));
+   }
+
+   /**
+    * Returns a {@code Stream} of the {@code Term} values the single query variable is unified with.
+    *
+    * @return a stream with an element for each solution
+    * @throws ProjogException of there is not exactly one named variable in the query this statement represents
+    * @see #findAllAsTerm()
+    */
+   public Stream<Term> streamAsTerm() {
+      String variableId = getSingleVariableId();
+      return stream(r -> r.getTerm(variableId));
+   }
+
    /**
     * Returns the ID of the single variable contained in the query this statement represents.
     *
@@ -15,5 +15,10 @@
  * {@link org.projog.core.term.Variable} in the query by calling
  * {@link org.projog.api.QueryResult#getTerm(String)}.</li>
  * </ul>
+ * <p>
+ * Alternatively, {@link org.projog.api.QueryResult#stream(java.util.function.Function)} provides the solutions to a
+ * query as a {@code java.util.stream.Stream}, which finds each solution only when it is needed.
+ * <p>
+ * To evaluate many queries at the same time, submit them to a {@link org.projog.api.QueryExecutor}.
  */
 package org.projog.api;
@@ -15,8 +15,8 @@
  */
 package org.projog.core.event;
 
-import java.util.HashSet;
 import java.util.Set;
+import java.util.concurrent.CopyOnWriteArraySet;
 
 import org.projog.core.event.SpyPoints.SpyPointEvent;
 import org.projog.core.event.SpyPoints.SpyPointExitEvent;
@@ -30,7 +30,7 @@ import org.projog.core.kb.KnowledgeBase;
  * @see KnowledgeBase#getProjogListeners()
  */
 public class ProjogListeners {
-   private final Set<ProjogListener> listeners = new HashSet<>();
+   private final Set<ProjogListener> listeners = new CopyOnWriteArraySet<>();
 
    /**
     * Adds a listener to the set of listeners.
@@ -52,6 +52,17 @@ public class ProjogListeners {
       return listeners.remove(listener);
    }
 
+   /**
+    * Returns a new {@code ProjogListeners} that starts with the same listeners as this object.
+    *
+    * @see KnowledgeBase#fork()
+    */
+   public ProjogListeners copy() {
+      ProjogListeners copy = new ProjogListeners();
+      copy.listeners.addAll(listeners);
+      return copy;
+   }
+
    /** Notify all listeners of a first attempt to evaluate a goal. */
    public void notifyCall(SpyPointEvent event) {
       for (ProjogListener listener : listeners) {
@@ -18,6 +18,7 @@ package org.projog.core.event;
 import java.util.Collections;
 import java.util.Map;
 import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.projog.core.kb.KnowledgeBase;
 import org.projog.core.predicate.PredicateKey;
@@ -40,11 +41,11 @@ import org.projog.core.term.TermFormatter;
  */
 public final class SpyPoints {
    private final Object lock = new Object();
-   private final Map<PredicateKey, SpyPoint> spyPoints = new TreeMap<>(); // TODO make concurrent?
+   private final Map<PredicateKey, SpyPoint> spyPoints = new ConcurrentHashMap<>();
    private final KnowledgeBase kb;
    private final ProjogListeners projogListeners;
    private final TermFormatter termFormatter;
-   private boolean traceEnabled;
+   private volatile boolean traceEnabled;
 
    public SpyPoints(KnowledgeBase kb) {
       this.kb = kb;
@@ -88,13 +89,19 @@ public final class SpyPoints {
       }
    }
 
+   /**
+    * Returns the spy points of this object.
+    * <p>
+    * The returned map is ordered by {@code PredicateKey}. It is a snapshot, so will not reflect spy points that are
+    * created after this method is called.
+    */
    public Map<PredicateKey, SpyPoint> getSpyPoints() {
-      return Collections.unmodifiableMap(spyPoints);
+      return Collections.unmodifiableMap(new TreeMap<>(spyPoints));
    }
 
    public class SpyPoint {
       private final PredicateKey key;
-      private boolean set;
+      private volatile boolean set;
 
       private SpyPoint(PredicateKey key) {
          this.key = key;
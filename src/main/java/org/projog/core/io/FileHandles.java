@@ -21,20 +21,35 @@ import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.io.OutputStream;
 import java.io.PrintStream;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.projog.core.ProjogException;
 import org.projog.core.kb.KnowledgeBase;
+import org.projog.core.parser.Operands;
+import org.projog.core.parser.SentenceParser;
 import org.projog.core.term.Atom;
 import org.projog.core.term.Term;
+import org.projog.core.term.Trail;
 
 /**
  * Collection of input and output streams.
  * <p>
  * Each {@link org.projog.core.kb.KnowledgeBase} has a single unique {@code FileHandles} instance.
+ * <p>
+ * The current input and output streams belong to the {@code KnowledgeBase}, so a stream selected by one query is still
+ * selected when the next query is evaluated (e.g. when {@code tell/1}, {@code write/1} and {@code told/0} are evaluated
+ * as separate queries).
+ * <p>
+ * Queries that are evaluated at the same time, by different threads, do not affect each other's current streams. The
+ * first query to use the current streams uses those of the {@code KnowledgeBase}. A query that uses them while that
+ * query is still being evaluated gets its own copy of them, recorded by its {@link Trail}, which it uses until it
+ * finishes. The copy starts with the streams that were current before the first query started, so it is not affected
+ * by the streams the first query has selected.
  *
  * @see KnowledgeBase#getFileHandles()
  */
@@ -53,24 +68,82 @@ public final class FileHandles {
    public static final Atom USER_INPUT_HANDLE = new Atom("user_input");
 
    private final Object lock = new Object();
-   private final Map<String, InputStream> inputHandles = new HashMap<>();
-   private final Map<String, PrintStream> outputHandles = new HashMap<>();
+   private final Map<String, InputStream> inputHandles = new ConcurrentHashMap<>();
+   private final Map<String, PrintStream> outputHandles = new ConcurrentHashMap<>();
+   /** Parsers of input streams, created the first time a term or character is read from the stream. */
+   private final Map<String, SentenceParser> parsers = new HashMap<>();
+   /** The current streams of the {@code KnowledgeBase}. Only updated while holding {@code lock}. */
+   private final CurrentStreams sharedStreams;
+   /** The query that is using {@link #sharedStreams}, or {@code null}. Only updated while holding {@code lock}. */
+   private volatile QueryStreams owner;
 
-   /** Current input used by get_char and read */
-   private Term currentInputHandle;
-   /** Current output used by put_char, nl, write and write_canonical */
-   private Term currentOutputHandle;
+   public FileHandles() {
+      inputHandles.put(USER_INPUT_HANDLE.getName(), System.in);
+      outputHandles.put(USER_OUTPUT_HANDLE.getName(), System.out);
+      sharedStreams = new CurrentStreams();
+      sharedStreams.inputHandle = USER_INPUT_HANDLE;
+      sharedStreams.in = System.in;
+      sharedStreams.outputHandle = USER_OUTPUT_HANDLE;
+      sharedStreams.out = System.out;
+   }
 
-   private InputStream in;
-   private PrintStream out;
+   /**
+    * Returns the current streams of the query being evaluated by the calling thread.
+    * <p>
+    * Returns the streams of the {@code KnowledgeBase} unless another query, that is still being evaluated, is using
+    * them - in which case the query is given its own copy.
+    */
+   private CurrentStreams getCurrentStreams() {
+      Trail trail = Trail.getCurrent();
+      if (trail == null) {
+         return sharedStreams;
+      }
+      QueryStreams q = (QueryStreams) trail.getAttribute(this);
+      if (q == null) {
+         q = new QueryStreams(trail);
+         trail.setAttribute(this, q);
+      }
+      if (q.copy != null) {
+         return q.copy;
+      }
+      if (owner == q) {
+         return sharedStreams;
+      }
+      synchronized (lock) {
+         QueryStreams o = owner;
+         if (o == q) {
+            return sharedStreams;
+         } else if (o == null || !o.trail.isActive()) {
+            q.initial = sharedStreams.copy();
+            owner = q;
+            return sharedStreams;
+         } else {
+            q.copy = o.initial.copy();
+            return q.copy;
+         }
+      }
+   }
 
-   public FileHandles() {
-      Atom userInputHandle = USER_INPUT_HANDLE;
-      Atom userOutputHandle = USER_OUTPUT_HANDLE;
-      inputHandles.put(userInputHandle.getName(), System.in);
-      outputHandles.put(userOutputHandle.getName(), System.out);
-      setInput(userInputHandle);
-      setOutput(userOutputHandle);
+   /**
+    * Returns a new {@code FileHandles} for use by a fork of the {@code KnowledgeBase} this object belongs to.
+    * <p>
+    * The new object shares the "standard" input and output streams of this object. Other streams opened by this object
+    * are not shared, as closing them using one object would affect the other. The parser used to read from the
+    * "standard" input stream is not shared either, as a parser must not be used by more than one thread at the same
+    * time - so characters that this object has read from the stream, but not yet consumed, are not available to the
+    * new object.
+    *
+    * @see KnowledgeBase#fork()
+    */
+   public FileHandles fork() {
+      FileHandles fork = new FileHandles();
+      synchronized (lock) {
+         String userInput = USER_INPUT_HANDLE.getName();
+         fork.inputHandles.put(userInput, inputHandles.get(userInput));
+         String userOutput = USER_OUTPUT_HANDLE.getName();
+         fork.outputHandles.put(userOutput, outputHandles.get(userOutput));
+      }
+      return fork;
    }
 
    /**
@@ -79,7 +152,7 @@ public final class FileHandles {
     * By default this will be an {@code Atom} with the name "{@code user_input}".
     */
    public Term getCurrentInputHandle() {
-      return currentInputHandle;
+      return getCurrentStreams().inputHandle;
    }
 
    /**
@@ -88,7 +161,7 @@ public final class FileHandles {
     * By default this will be an {@code Atom} with the name "{@code user_output}".
     */
    public Term getCurrentOutputHandle() {
-      return currentOutputHandle;
+      return getCurrentStreams().outputHandle;
    }
 
    /**
@@ -97,7 +170,33 @@ public final class FileHandles {
     * By default this will be {@code System.in}.
     */
    public InputStream getCurrentInputStream() {
-      return in;
+      CurrentStreams c = getCurrentStreams();
+      InputStream is = inputHandles.get(getAtomName(c.inputHandle));
+      // if the stream has been closed then return it anyway, so the caller gets an error when attempting to use it
+      return is == null ? c.in : is;
+   }
+
+   /**
+    * Return the parser to use to read terms and characters from the current input stream.
+    * <p>
+    * The same parser is used for every read from a stream, so characters that are buffered but not consumed by one
+    * read are available to the next.
+    *
+    * @param operands the operands to use when parsing terms
+    * @return the parser of the current input stream
+    */
+   public SentenceParser getCurrentInputParser(Operands operands) {
+      String handleName = getAtomName(getCurrentInputHandle());
+      synchronized (lock) {
+         SentenceParser parser = parsers.get(handleName);
+         if (parser == null) {
+            parser = SentenceParser.getInstance(new InputStreamReader(getCurrentInputStream()), operands);
+            if (inputHandles.containsKey(handleName)) {
+               parsers.put(handleName, parser);
+            }
+         }
+         return parser;
+      }
    }
 
    /**
@@ -106,35 +205,35 @@ public final class FileHandles {
     * By default this will be {@code System.out}.
     */
    public PrintStream getCurrentOutputStream() {
-      return out;
+      CurrentStreams c = getCurrentStreams();
+      PrintStream ps = outputHandles.get(getAtomName(c.outputHandle));
+      // if the stream has been closed then return it anyway, so the caller gets an error when attempting to use it
+      return ps == null ? c.out : ps;
    }
 
    /**
     * Reassigns the "standard" input stream.
+    * <p>
+    * Affects all queries whose current input stream is the "standard" input stream.
     *
     * @see #USER_INPUT_HANDLE
     */
    public void setUserInput(InputStream is) {
       synchronized (lock) {
          inputHandles.put(USER_INPUT_HANDLE.getName(), is);
-         if (USER_INPUT_HANDLE.equals(currentInputHandle)) {
-            setInput(USER_INPUT_HANDLE);
-         }
+         parsers.remove(USER_INPUT_HANDLE.getName());
       }
    }
 
    /**
     * Reassigns the "standard" output stream.
+    * <p>
+    * Affects all queries whose current output stream is the "standard" output stream.
     *
     * @see #USER_OUTPUT_HANDLE
     */
    public void setUserOutput(PrintStream ps) {
-      synchronized (lock) {
-         outputHandles.put(USER_OUTPUT_HANDLE.getName(), ps);
-         if (USER_OUTPUT_HANDLE.equals(currentOutputHandle)) {
-            setOutput(USER_OUTPUT_HANDLE);
-         }
-      }
+      outputHandles.put(USER_OUTPUT_HANDLE.getName(), ps);
    }
 
    /**
@@ -144,13 +243,15 @@ public final class FileHandles {
     */
    public void setInput(Term handle) {
       String handleName = getAtomName(handle);
-      synchronized (lock) {
-         if (inputHandles.containsKey(handleName)) {
-            currentInputHandle = handle;
-            in = inputHandles.get(handleName);
-         } else {
-            throw new ProjogException("cannot find file input handle with name: " + handleName);
+      InputStream is = inputHandles.get(handleName);
+      if (is != null) {
+         CurrentStreams c = getCurrentStreams();
+         synchronized (lock) {
+            c.inputHandle = handle;
+            c.in = is;
          }
+      } else {
+         throw new ProjogException("cannot find file input handle with name: " + handleName);
       }
    }
 
@@ -161,13 +262,15 @@ public final class FileHandles {
     */
    public void setOutput(Term handle) {
       String handleName = getAtomName(handle);
-      synchronized (lock) {
-         if (outputHandles.containsKey(handleName)) {
-            currentOutputHandle = handle;
-            out = outputHandles.get(handleName);
-         } else {
-            throw new ProjogException("cannot find file output handle with name: " + handleName);
+      PrintStream ps = outputHandles.get(handleName);
+      if (ps != null) {
+         CurrentStreams c = getCurrentStreams();
+         synchronized (lock) {
+            c.outputHandle = handle;
+            c.out = ps;
          }
+      } else {
+         throw new ProjogException("cannot find file output handle with name: " + handleName);
       }
    }
 
@@ -231,6 +334,7 @@ public final class FileHandles {
          InputStream is = inputHandles.get(handleName);
          if (is != null) {
             inputHandles.remove(handleName);
+            parsers.remove(handleName);
             is.close();
             return;
          }
@@ -240,4 +344,39 @@ public final class FileHandles {
    public boolean isHandle(String handle) {
       return inputHandles.containsKey(handle) || outputHandles.containsKey(handle);
    }
+
+   /** The current streams of a query. */
+   private static final class QueryStreams {
+      final Trail trail;
+      /** The copy of the current streams used by the query, or {@code null} if it uses those of the KnowledgeBase. */
+      CurrentStreams copy;
+      /** The current streams of the KnowledgeBase when the query started using them. */
+      CurrentStreams initial;
+
+      QueryStreams(Trail trail) {
+         this.trail = trail;
+      }
+   }
+
+   /**
+    * The current input and output streams of a query.
+    * <p>
+    * The streams are recorded, as well as the handles, so a stream that has been closed is still used until the query
+    * selects another stream.
+    */
+   private static final class CurrentStreams {
+      Term inputHandle;
+      InputStream in;
+      Term outputHandle;
+      PrintStream out;
+
+      CurrentStreams copy() {
+         CurrentStreams c = new CurrentStreams();
+         c.inputHandle = inputHandle;
+         c.in = in;
+         c.outputHandle = outputHandle;
+         c.out = out;
+         return c;
+      }
+   }
 }
@@ -0,0 +1,36 @@
+/*
+ * Copyright 2026 S. Webber
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projog.core.kb;
+
+/**
+ * Implemented by objects associated with a {@link KnowledgeBase} that a fork of the {@code KnowledgeBase} should start
+ * with a copy of, rather than with a new instance.
+ * <p>
+ * Used by services (see {@link KnowledgeBaseServiceLocator}) and by built-in predicates that keep state (e.g.
+ * {@code flag/3}). The copy is only made the first time the fork uses the object.
+ *
+ * @see KnowledgeBase#fork()
+ */
+public interface Forkable<T> {
+   /**
+    * Returns the object to associate with the specified fork.
+    * <p>
+    * Can return this object if it has no state that should differ between a {@code KnowledgeBase} and its forks.
+    *
+    * @param fork the {@code KnowledgeBase} the returned object will be associated with
+    */
+   T fork(KnowledgeBase fork);
+}
@@ -15,6 +15,11 @@
  */
 package org.projog.core.kb;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Set;
+import java.util.WeakHashMap;
+
 import org.projog.core.event.ProjogListeners;
 import org.projog.core.event.SpyPoints;
 import org.projog.core.io.FileHandles;
@@ -24,6 +29,7 @@ import org.projog.core.predicate.PredicateFactory;
 import org.projog.core.predicate.PredicateKey;
 import org.projog.core.predicate.Predicates;
 import org.projog.core.predicate.builtin.kb.AddPredicateFactory;
+import org.projog.core.term.AtomTable;
 import org.projog.core.term.TermFormatter;
 
 /**
@@ -31,6 +37,25 @@ import org.projog.core.term.TermFormatter;
  * <p>
  * <img src="doc-files/KnowledgeBase.png" alt="Class diagram">
  * </p>
+ * <p>
+ * A {@code KnowledgeBase} can be used by multiple threads at the same time. Each thread can evaluate its own queries,
+ * including queries that add or remove clauses of dynamic predicates, while other threads evaluate queries against the
+ * same {@code KnowledgeBase}:
+ * <ul>
+ * <li>The tables shared by queries (predicates, operators, arithmetic operators, atoms, spy points, listeners, flags and
+ * services) can be read without a lock and are safely published to other threads when updated. Updates are coordinated
+ * by locks.</li>
+ * <li>Queries evaluated at the same time do not affect each other's current input and output streams (see {@link
+ * FileHandles}).</li>
+ * <li>A query's variables and choice points are only ever accessed by the thread evaluating it. An individual query
+ * must not be evaluated by more than one thread at the same time.</li>
+ * <li>A thread that is iterating over the clauses of a dynamic predicate may, or may not, see clauses that another
+ * thread adds or removes during the iteration.</li>
+ * </ul>
+ * <p>
+ * Consulting a program while other threads are evaluating queries is supported, but a query may see some of the clauses
+ * of a predicate that is still being consulted.
+ * </p>
  */
 public final class KnowledgeBase {
    /**
@@ -43,6 +68,8 @@ public final class KnowledgeBase {
     */
    private static final PredicateKey ADD_PREDICATE_KEY = new PredicateKey("pj_add_predicate", 2);
 
+   /** The {@code KnowledgeBase} this object is a fork of, or {@code null} if it is not a fork or has been detached. */
+   private volatile KnowledgeBase parent;
    private final ProjogProperties projogProperties;
    private final Predicates predicates;
    private final ArithmeticOperators arithmeticOperators;
@@ -51,12 +78,18 @@ public final class KnowledgeBase {
    private final TermFormatter termFormatter;
    private final SpyPoints spyPoints;
    private final FileHandles fileHandles;
+   private final AtomTable atomTable;
+   /** The forks of this object that have not been detached. Only accessed while holding {@code forks}. */
+   private final Set<KnowledgeBase> forks = Collections.newSetFromMap(new WeakHashMap<>());
+   /** {@code true} if {@link #forks} may not be empty. Avoids acquiring a lock before every update. */
+   private volatile boolean hasForks;
 
    /**
     * @see KnowledgeBaseUtils#createKnowledgeBase()
     * @see KnowledgeBaseUtils#createKnowledgeBase(ProjogProperties)
     */
    KnowledgeBase(ProjogProperties projogProperties) {
+      this.parent = null;
       this.projogProperties = projogProperties;
       this.predicates = new Predicates(this);
       this.predicates.addPredicateFactory(ADD_PREDICATE_KEY, new AddPredicateFactory(this));
@@ -66,6 +99,100 @@ public final class KnowledgeBase {
       this.termFormatter = new TermFormatter(operands);
       this.spyPoints = new SpyPoints(this);
       this.fileHandles = new FileHandles();
+      this.atomTable = new AtomTable();
+   }
+
+   /** @see #fork() */
+   private KnowledgeBase(KnowledgeBase parent) {
+      this.parent = parent;
+      this.projogProperties = parent.projogProperties;
+      this.predicates = new Predicates(this, parent.predicates);
+      this.arithmeticOperators = parent.arithmeticOperators;
+      this.projogListeners = parent.projogListeners.copy();
+      this.operands = parent.operands.fork();
+      this.termFormatter = new TermFormatter(operands);
+      this.spyPoints = new SpyPoints(this);
+      this.fileHandles = parent.fileHandles.fork();
+      this.atomTable = parent.atomTable;
+   }
+
+   /**
+    * Returns a new {@code KnowledgeBase} that starts with the same contents as this object.
+    * <p>
+    * Intended for when a number of isolated environments are required that are all based on the same program. e.g. a
+    * service that needs each request to be able to assert facts without affecting other requests. The cost of forking
+    * does not depend on the size of the program, as the contents of this object are only copied when first used by the
+    * fork:
+    * <ul>
+    * <li>Static user defined predicates that only consist of facts are shared. Other static user defined predicates
+    * share the clauses of this object but are compiled by the fork, so the predicates they call are those of the
+    * fork.</li>
+    * <li>Dynamic and tabled user defined predicates are copied, so changes to them only affect the fork. Answer tables
+    * are not copied.</li>
+    * <li>Built-in predicates are created again from their class names, unless they implement {@link Forkable}. The
+    * values of {@code flag/3} are copied.</li>
+    * <li>Services that implement {@link Forkable}, such as the recorded database, are copied. Other services are created
+    * again.</li>
+    * <li>The operators are shared until either object adds an operator, which is then only added to that object.</li>
+    * <li>The arithmetic operators and atom table are shared, so adding to them using the fork also adds to this
+    * object.</li>
+    * <li>The fork has its own collection of streams, that starts with the "standard" input and output streams of this
+    * object. It has its own spy points and its own copy of the listeners of this object.</li>
+    * </ul>
+    * <p>
+    * Changes made to this object after it has been forked are not visible to the fork. Before this object is altered
+    * each of its forks copies everything it still shares with this object (see {@link #isolateForks()}), so the cost of
+    * the copy is only paid by a fork of an object that is altered.
+    *
+    * @return a new {@code KnowledgeBase} that starts with the same contents as this object
+    */
+   public KnowledgeBase fork() {
+      KnowledgeBase fork = new KnowledgeBase(this);
+      synchronized (forks) {
+         forks.add(fork);
+         hasForks = true;
+      }
+      return fork;
+   }
+
+   /**
+    * Ensures that a change about to be made to this object will not be visible to the forks of this object.
+    * <p>
+    * Called before the predicates, {@code flag/3} values or services of this object are altered. Each fork of this
+    * object (and each fork of those forks) copies everything it has not already copied from this object and then stops
+    * being a fork of it.
+    */
+   public void isolateForks() {
+      if (hasForks) {
+         synchronized (forks) {
+            for (KnowledgeBase fork : new ArrayList<>(forks)) {
+               fork.detach();
+            }
+            forks.clear();
+            hasForks = false;
+         }
+      }
+   }
+
+   /**
+    * Copies everything this object still shares with its parent, so that it is no longer affected by changes to its
+    * parent.
+    * <p>
+    * The forks of this object are detached first, as they may still share predicates with the parent of this object.
+    */
+   private void detach() {
+      isolateForks();
+      KnowledgeBaseServiceLocator.getServiceLocator(this).detach();
+      predicates.detach();
+      parent = null;
+   }
+
+   /**
+    * Returns the {@code KnowledgeBase} this object is a fork of, or {@code null} if it is not a fork or no longer shares
+    * anything with it.
+    */
+   KnowledgeBase getParent() {
+      return parent;
    }
 
    public ProjogProperties getProjogProperties() {
@@ -99,4 +226,8 @@ public final class KnowledgeBase {
    public FileHandles getFileHandles() {
       return fileHandles;
    }
+
+   public AtomTable getAtomTable() {
+      return atomTable;
+   }
 }
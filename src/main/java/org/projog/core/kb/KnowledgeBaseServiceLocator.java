@@ -15,10 +15,12 @@
  */
 package org.projog.core.kb;
 
-import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Associates arbitrary objects with a {@code KnowledgeBase}.
@@ -39,14 +41,7 @@ public class KnowledgeBaseServiceLocator {
     * </p>
     */
    public static KnowledgeBaseServiceLocator getServiceLocator(KnowledgeBase kb) {
-      KnowledgeBaseServiceLocator l = CACHE.get(kb);
-      if (l == null) {
-         l = createServiceLocator(kb);
-      }
-      return l;
-   }
-
-   private static KnowledgeBaseServiceLocator createServiceLocator(KnowledgeBase kb) {
+      // WeakHashMap.get can remove stale entries, so all access to CACHE must be synchronized
       synchronized (CACHE) {
          KnowledgeBaseServiceLocator l = CACHE.get(kb);
          if (l == null) {
@@ -58,7 +53,7 @@ public class KnowledgeBaseServiceLocator {
    }
 
    private final KnowledgeBase kb;
-   private final Map<Class<?>, Object> services = new HashMap<>();
+   private final Map<Class<?>, Object> services = new ConcurrentHashMap<>();
 
    /** @see #getServiceLocator */
    private KnowledgeBaseServiceLocator(KnowledgeBase kb) {
@@ -73,6 +68,7 @@ public class KnowledgeBaseServiceLocator {
     */
    public void addInstance(Class<?> referenceType, Object instance) {
       assertInstanceOf(referenceType, instance);
+      kb.isolateForks();
       synchronized (services) {
          Object r = services.get(referenceType);
          if (r == null) {
@@ -130,14 +126,78 @@ public class KnowledgeBaseServiceLocator {
       synchronized (services) {
          Object r = services.get(referenceType);
          if (r == null) {
-            assertAssignableFrom(referenceType, instanceType);
-            r = KnowledgeBaseUtils.newInstance(kb, instanceType);
+            r = forkInstance(referenceType);
+            if (r == null) {
+               assertAssignableFrom(referenceType, instanceType);
+               r = KnowledgeBaseUtils.newInstance(kb, instanceType);
+            }
             services.put(referenceType, r);
          }
          return r;
       }
    }
 
+   /**
+    * Returns the service to use in place of a service with the same key that was already associated with a
+    * {@code KnowledgeBase} this {@code KnowledgeBase} is a fork of.
+    *
+    * @return the result of {@link Forkable#fork(KnowledgeBase)}, or {@code null} if there is no such service or it does
+    * not implement {@code Forkable}
+    * @see KnowledgeBase#fork()
+    */
+   private Object forkInstance(Class<?> referenceType) {
+      for (KnowledgeBase ancestor = kb.getParent(); ancestor != null; ancestor = ancestor.getParent()) {
+         KnowledgeBaseServiceLocator l;
+         synchronized (CACHE) {
+            l = CACHE.get(ancestor);
+         }
+         Object original = null;
+         if (l != null) {
+            synchronized (l.services) {
+               original = l.services.get(referenceType);
+            }
+         }
+         if (original instanceof Forkable) {
+            return ((Forkable<?>) original).fork(kb);
+         } else if (original != null) {
+            return null;
+         }
+      }
+      return null;
+   }
+
+   /**
+    * Copies the {@link Forkable} services of the ancestors of the {@code KnowledgeBase} of this object that have not yet
+    * been copied.
+    * <p>
+    * Called before the {@code KnowledgeBase} stops being a fork of its parent.
+    *
+    * @see KnowledgeBase#isolateForks()
+    */
+   void detach() {
+      Set<Class<?>> referenceTypes = new HashSet<>();
+      for (KnowledgeBase ancestor = kb.getParent(); ancestor != null; ancestor = ancestor.getParent()) {
+         KnowledgeBaseServiceLocator l;
+         synchronized (CACHE) {
+            l = CACHE.get(ancestor);
+         }
+         if (l != null) {
+            referenceTypes.addAll(l.services.keySet());
+         }
+      }
+
+      synchronized (services) {
+         for (Class<?> referenceType : referenceTypes) {
+            if (!services.containsKey(referenceType)) {
+               Object r = forkInstance(referenceType);
+               if (r != null) {
+                  services.put(referenceType, r);
+               }
+            }
+         }
+      }
+   }
+
    private void assertAssignableFrom(Class<?> referenceType, Class<?> instanceType) {
       if (!referenceType.isAssignableFrom(instanceType)) {
          throw new IllegalArgumentException(instanceType + " is not of type: " + referenceType);
@@ -0,0 +1,584 @@
+/*
+ * Copyright 2026 S. Webber
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projog.core.kb;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.zip.CRC32;
+
+import org.projog.core.ProjogException;
+import org.projog.core.math.Numeric;
+import org.projog.core.parser.Operands.Operand;
+import org.projog.core.predicate.PredicateFactory;
+import org.projog.core.predicate.PredicateKey;
+import org.projog.core.predicate.Predicates;
+import org.projog.core.predicate.builtin.clp.ExpressionFactories;
+import org.projog.core.predicate.builtin.kb.Flag;
+import org.projog.core.predicate.udp.ClauseModel;
+import org.projog.core.predicate.udp.StaticUserDefinedPredicateFactory;
+import org.projog.core.predicate.udp.TabledUserDefinedPredicateFactory;
+import org.projog.core.predicate.udp.UserDefinedPredicateFactory;
+import org.projog.core.term.Atom;
+import org.projog.core.term.DecimalFraction;
+import org.projog.core.term.EmptyList;
+import org.projog.core.term.IntegerNumberCache;
+import org.projog.core.term.ListFactory;
+import org.projog.core.term.StructureFactory;
+import org.projog.core.term.Term;
+import org.projog.core.term.TermType;
+import org.projog.core.term.TermUtils;
+import org.projog.core.term.Variable;
+
+/**
+ * Writes the contents of a {@link KnowledgeBase} to, and reads them from, a compact binary file.
+ * <p>
+ * Populating a {@code KnowledgeBase} normally involves parsing {@code projog-bootstrap.pl} and any consulted Prolog
+ * source. A snapshot records the result, so a new {@code KnowledgeBase} can be populated without parsing any Prolog
+ * syntax. A snapshot contains:
+ * <ul>
+ * <li>the names of the atoms in the {@link org.projog.core.term.AtomTable}</li>
+ * <li>the class names of the built-in predicates, arithmetic operators and CLP expressions</li>
+ * <li>the operators defined using {@code op/3}</li>
+ * <li>the values associated with keys using {@code flag/3}</li>
+ * <li>the clauses of the user defined predicates, and whether each predicate is static, dynamic or tabled</li>
+ * </ul>
+ * <p>
+ * Built-in predicates, arithmetic operators and CLP expressions are recreated from their class names, so ones added as
+ * instances (e.g. using {@code Projog.addPredicateFactory}) must have a public constructor that either has no arguments
+ * or accepts a single {@code KnowledgeBase}. Other state, such as the recorded database, open streams and tabled
+ * answers, is not included. Clauses are stored in the order they are defined and are compiled on loading, so the
+ * indexes of a predicate are still built when it is first used.
+ * <p>
+ * The file starts with a magic number and a format version. It ends with a CRC-32 checksum of the preceding bytes,
+ * which is checked before the contents are loaded.
+ */
+public final class KnowledgeBaseSnapshot {
+   /** The ASCII characters "PJKB". */
+   private static final int MAGIC_NUMBER = 0x504A4B42;
+   /** Incremented whenever the layout of the file changes. */
+   static final int FORMAT_VERSION = 1;
+   private static final int CHECKSUM_LENGTH = 8;
+   private static final int HEADER_LENGTH = 8;
+
+   private static final PredicateKey FLAG_KEY = new PredicateKey("flag", 3);
+
+   private static final byte STATIC_PREDICATE = 0;
+   private static final byte DYNAMIC_PREDICATE = 1;
+   private static final byte TABLED_PREDICATE = 2;
+
+   private static final byte ATOM = 0;
+   private static final byte INTEGER = 1;
+   private static final byte FRACTION = 2;
+   private static final byte EMPTY_LIST = 3;
+   private static final byte STRUCTURE = 4;
+   private static final byte LIST = 5;
+   private static final byte NEW_VARIABLE = 6;
+   private static final byte VARIABLE = 7;
+
+   /**
+    * Private constructor as all methods are static.
+    */
+   private KnowledgeBaseSnapshot() {
+      // do nothing
+   }
+
+   /**
+    * Writes the contents of the specified {@code KnowledgeBase} to the specified file.
+    *
+    * @throws ProjogException if the file cannot be written or the {@code KnowledgeBase} contains a clause that cannot be
+    * stored in a snapshot
+    */
+   public static void write(KnowledgeBase kb, File file) {
+      byte[] contents = new Writer(kb).write();
+      try (OutputStream os = new FileOutputStream(file)) {
+         os.write(contents);
+      } catch (IOException e) {
+         throw new ProjogException("Could not write knowledge base snapshot to file: " + file + " due to: " + e, e);
+      }
+   }
+
+   /**
+    * Populates the specified {@code KnowledgeBase} with the contents of the specified snapshot file.
+    * <p>
+    * The {@code KnowledgeBase} is expected to be newly created and not bootstrapped, as the snapshot already contains
+    * the built-in predicates and operators that bootstrapping would add.
+    *
+    * @throws ProjogException if the file cannot be read, is not a snapshot, was written using a different format
+    * version or its checksum does not match its contents
+    */
+   public static void read(KnowledgeBase kb, File file) {
+      try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+         ByteBuffer buffer = channel.map(MapMode.READ_ONLY, 0, channel.size());
+         verify(buffer, file);
+         new Reader(kb, buffer).read();
+      } catch (IOException e) {
+         throw new ProjogException("Could not read knowledge base snapshot from file: " + file + " due to: " + e, e);
+      }
+   }
+
+   private static void verify(ByteBuffer buffer, File file) {
+      if (buffer.limit() < HEADER_LENGTH + CHECKSUM_LENGTH || buffer.getInt(0) != MAGIC_NUMBER) {
+         throw new ProjogException("Not a knowledge base snapshot: " + file);
+      }
+      int version = buffer.getInt(4);
+      if (version != FORMAT_VERSION) {
+         throw new ProjogException("Cannot read knowledge base snapshot: " + file + " as it has format version: " + version + " but expected: " + FORMAT_VERSION);
+      }
+      int checksumPosition = buffer.limit() - CHECKSUM_LENGTH;
+      ByteBuffer contents = buffer.duplicate();
+      contents.limit(checksumPosition);
+      CRC32 crc = new CRC32();
+      crc.update(contents);
+      if (crc.getValue() != buffer.getLong(checksumPosition)) {
+         throw new ProjogException("Cannot read knowledge base snapshot: " + file + " as its checksum does not match its contents");
+      }
+      buffer.position(HEADER_LENGTH);
+      buffer.limit(checksumPosition);
+   }
+
+   private static final class Writer {
+      private final KnowledgeBase kb;
+      private final Map<String, Integer> strings = new LinkedHashMap<>();
+      private final Map<Variable, Integer> variables = new IdentityHashMap<>();
+      private final ByteArrayOutputStream body = new ByteArrayOutputStream();
+      private final DataOutputStream out = new DataOutputStream(body);
+
+      Writer(KnowledgeBase kb) {
+         this.kb = kb;
+      }
+
+      byte[] write() {
+         try {
+            writeAtoms();
+            writeClassNames(kb.getPredicates().getJavaPredicateClassNames());
+            writeClassNames(kb.getArithmeticOperators().getArithmeticOperatorClassNames());
+            writeClassNames(getExpressionFactories(kb).getExpressionFactoryClassNames());
+            writeOperands();
+            writeFlags();
+            writeUserDefinedPredicates();
+            return toByteArray();
+         } catch (IOException e) {
+            // not expected, as only writing to memory
+            throw new ProjogException("Could not create knowledge base snapshot due to: " + e, e);
+         }
+      }
+
+      private void writeAtoms() throws IOException {
+         // sorted so the same contents always produce the same file
+         Set<String> names = new TreeSet<>(kb.getAtomTable().getNames());
+         writeVarInt(names.size());
+         for (String name : names) {
+            writeString(name);
+         }
+      }
+
+      private void writeClassNames(Map<PredicateKey, String> classNames) throws IOException {
+         writeVarInt(classNames.size());
+         for (Map.Entry<PredicateKey, String> e : classNames.entrySet()) {
+            writePredicateKey(e.getKey());
+            writeString(e.getValue());
+         }
+      }
+
+      private void writeOperands() throws IOException {
+         List<Operand> operands = kb.getOperands().getAllOperands();
+         writeVarInt(operands.size());
+         for (Operand o : operands) {
+            writeString(o.getName());
+            writeString(o.getAssociativity());
+            writeVarInt(o.getPrecedence());
+         }
+      }
+
+      private void writeFlags() throws IOException {
+         Flag flag = getFlag(kb);
+         Map<PredicateKey, Numeric> flags = flag == null ? new LinkedHashMap<>() : flag.getFlags();
+         writeVarInt(flags.size());
+         for (Map.Entry<PredicateKey, Numeric> e : flags.entrySet()) {
+            writePredicateKey(e.getKey());
+            writeTerm(e.getValue());
+         }
+      }
+
+      private void writeUserDefinedPredicates() throws IOException {
+         Map<PredicateKey, UserDefinedPredicateFactory> userDefinedPredicates = kb.getPredicates().getUserDefinedPredicates();
+         writeVarInt(userDefinedPredicates.size());
+         for (UserDefinedPredicateFactory udp : userDefinedPredicates.values()) {
+            writePredicateKey(udp.getPredicateKey());
+            out.writeByte(getType(udp));
+            List<ClauseModel> clauses = new ArrayList<>();
+            Iterator<ClauseModel> itr = udp.getImplications();
+            while (itr.hasNext()) {
+               clauses.add(itr.next());
+            }
+            writeVarInt(clauses.size());
+            for (ClauseModel clause : clauses) {
+               variables.clear();
+               writeTerm(clause.getOriginal());
+            }
+         }
+      }
+
+      private byte getType(UserDefinedPredicateFactory udp) {
+         if (udp instanceof TabledUserDefinedPredicateFactory) {
+            return TABLED_PREDICATE;
+         } else if (udp.isDynamic()) {
+            return DYNAMIC_PREDICATE;
+         } else {
+            return STATIC_PREDICATE;
+         }
+      }
+
+      private void writePredicateKey(PredicateKey key) throws IOException {
+         writeString(key.getName());
+         writeVarInt(key.getNumArgs());
+      }
+
+      private void writeTerm(Term t) throws IOException {
+         t = t.getTerm();
+         switch (t.getType()) {
+            case ATOM:
+               out.writeByte(ATOM);
+               writeString(t.getName());
+               break;
+            case INTEGER:
+               out.writeByte(INTEGER);
+               out.writeLong(TermUtils.castToNumeric(t).getLong());
+               break;
+            case FRACTION:
+               out.writeByte(FRACTION);
+               out.writeDouble(TermUtils.castToNumeric(t).getDouble());
+               break;
+            case EMPTY_LIST:
+               out.writeByte(EMPTY_LIST);
+               break;
+            case STRUCTURE:
+               out.writeByte(STRUCTURE);
+               writeString(t.getName());
+               writeVarInt(t.getNumberOfArguments());
+               for (int i = 0; i < t.getNumberOfArguments(); i++) {
+                  writeTerm(t.getArgument(i));
+               }
+               break;
+            case LIST:
+               writeList(t);
+               break;
+            case VARIABLE:
+               writeVariable((Variable) t);
+               break;
+            default:
+               throw new ProjogException("Cannot store term in knowledge base snapshot: " + t + " of type: " + t.getType());
+         }
+      }
+
+      /** Writes the elements of a list iteratively, so long lists do not require a deep recursion. */
+      private void writeList(Term t) throws IOException {
+         List<Term> elements = new ArrayList<>();
+         Term tail = t;
+         while (tail.getType() == TermType.LIST) {
+            elements.add(tail.getArgument(0));
+            tail = tail.getArgument(1).getTerm();
+         }
+         out.writeByte(LIST);
+         writeVarInt(elements.size());
+         for (Term element : elements) {
+            writeTerm(element);
+         }
+         writeTerm(tail);
+      }
+
+      private void writeVariable(Variable v) throws IOException {
+         Integer idx = variables.get(v);
+         if (idx == null) {
+            variables.put(v, variables.size());
+            out.writeByte(NEW_VARIABLE);
+            writeString(v.getId());
+         } else {
+            out.writeByte(VARIABLE);
+            writeVarInt(idx);
+         }
+      }
+
+      private void writeString(String s) throws IOException {
+         Integer idx = strings.get(s);
+         if (idx == null) {
+            idx = strings.size();
+            strings.put(s, idx);
+         }
+         writeVarInt(idx);
+      }
+
+      private void writeVarInt(int value) throws IOException {
+         KnowledgeBaseSnapshot.writeVarInt(out, value);
+      }
+
+      /**
+       * Returns the header, the table of strings, the body and the checksum.
+       * <p>
+       * The table of strings is written before the body, so it is available when the body is read, but can only be
+       * populated once the body has been written.
+       */
+      private byte[] toByteArray() throws IOException {
+         ByteArrayOutputStream result = new ByteArrayOutputStream(body.size() + strings.size() * 16 + 64);
+         DataOutputStream dos = new DataOutputStream(result);
+         dos.writeInt(MAGIC_NUMBER);
+         dos.writeInt(FORMAT_VERSION);
+         KnowledgeBaseSnapshot.writeVarInt(dos, strings.size());
+         for (String s : strings.keySet()) {
+            byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+            KnowledgeBaseSnapshot.writeVarInt(dos, bytes.length);
+            dos.write(bytes);
+         }
+         out.flush();
+         body.writeTo(dos);
+         CRC32 crc = new CRC32();
+         crc.update(result.toByteArray());
+         dos.writeLong(crc.getValue());
+         dos.flush();
+         return result.toByteArray();
+      }
+   }
+
+   private static final class Reader {
+      private final KnowledgeBase kb;
+      private final ByteBuffer in;
+      private final List<Variable> variables = new ArrayList<>();
+      private String[] strings;
+      private Atom[] atoms;
+
+      Reader(KnowledgeBase kb, ByteBuffer in) {
+         this.kb = kb;
+         this.in = in;
+      }
+
+      void read() {
+         readStrings();
+         readAtoms();
+         readJavaPredicates();
+         readArithmeticOperators();
+         readExpressionFactories();
+         readOperands();
+         readFlags();
+         readUserDefinedPredicates();
+      }
+
+      private void readStrings() {
+         strings = new String[readVarInt()];
+         atoms = new Atom[strings.length];
+         for (int i = 0; i < strings.length; i++) {
+            byte[] bytes = new byte[readVarInt()];
+            in.get(bytes);
+            strings[i] = new String(bytes, StandardCharsets.UTF_8);
+         }
+      }
+
+      private void readAtoms() {
+         int numberOfAtoms = readVarInt();
+         for (int i = 0; i < numberOfAtoms; i++) {
+            readAtom();
+         }
+      }
+
+      private void readJavaPredicates() {
+         Predicates predicates = kb.getPredicates();
+         Set<PredicateKey> existing = predicates.getJavaPredicateClassNames().keySet();
+         int size = readVarInt();
+         for (int i = 0; i < size; i++) {
+            PredicateKey key = readPredicateKey();
+            String className = readString();
+            // ignore predicates that are added to every KnowledgeBase when it is created (e.g. pj_add_predicate/2)
+            if (!existing.contains(key)) {
+               predicates.addPredicateFactory(key, className);
+            }
+         }
+      }
+
+      private void readArithmeticOperators() {
+         int size = readVarInt();
+         for (int i = 0; i < size; i++) {
+            kb.getArithmeticOperators().addArithmeticOperator(readPredicateKey(), readString());
+         }
+      }
+
+      private void readExpressionFactories() {
+         ExpressionFactories expressionFactories = getExpressionFactories(kb);
+         int size = readVarInt();
+         for (int i = 0; i < size; i++) {
+            expressionFactories.addExpressionFactory(readPredicateKey(), readString());
+         }
+      }
+
+      private void readOperands() {
+         int size = readVarInt();
+         for (int i = 0; i < size; i++) {
+            String name = readString();
+            String associativity = readString();
+            kb.getOperands().addOperand(name, associativity, readVarInt());
+         }
+      }
+
+      private void readFlags() {
+         int size = readVarInt();
+         if (size == 0) {
+            return;
+         }
+         Flag flag = getFlag(kb);
+         if (flag == null) {
+            throw new ProjogException("Cannot restore values of " + FLAG_KEY + " as it is not defined");
+         }
+         for (int i = 0; i < size; i++) {
+            PredicateKey key = readPredicateKey();
+            flag.setFlag(key, TermUtils.castToNumeric(readTerm()));
+         }
+      }
+
+      private void readUserDefinedPredicates() {
+         Predicates predicates = kb.getPredicates();
+         List<UserDefinedPredicateFactory> userDefinedPredicates = new ArrayList<>();
+         int size = readVarInt();
+         for (int i = 0; i < size; i++) {
+            PredicateKey key = readPredicateKey();
+            byte type = in.get();
+            UserDefinedPredicateFactory udp;
+            if (type == DYNAMIC_PREDICATE) {
+               udp = predicates.createOrReturnUserDefinedPredicate(key);
+            } else if (type == TABLED_PREDICATE) {
+               udp = new TabledUserDefinedPredicateFactory(kb, key);
+            } else {
+               udp = new StaticUserDefinedPredicateFactory(kb, key);
+            }
+            int numberOfClauses = readVarInt();
+            for (int c = 0; c < numberOfClauses; c++) {
+               variables.clear();
+               udp.addLast(ClauseModel.createClauseModel(readTerm()));
+            }
+            if (type != DYNAMIC_PREDICATE) {
+               userDefinedPredicates.add(udp);
+            }
+         }
+
+         // add all the predicates before compiling any, as compiling a clause can refer to other predicates
+         for (UserDefinedPredicateFactory udp : userDefinedPredicates) {
+            predicates.addUserDefinedPredicate(udp);
+         }
+         for (UserDefinedPredicateFactory udp : userDefinedPredicates) {
+            udp.compile();
+         }
+      }
+
+      private PredicateKey readPredicateKey() {
+         String name = readString();
+         return new PredicateKey(name, readVarInt());
+      }
+
+      private Term readTerm() {
+         byte type = in.get();
+         switch (type) {
+            case ATOM:
+               return readAtom();
+            case INTEGER:
+               return IntegerNumberCache.valueOf(in.getLong());
+            case FRACTION:
+               return new DecimalFraction(in.getDouble());
+            case EMPTY_LIST:
+               return EmptyList.EMPTY_LIST;
+            case STRUCTURE:
+               String name = readAtom().getName();
+               Term[] args = new Term[readVarInt()];
+               for (int i = 0; i < args.length; i++) {
+                  args[i] = readTerm();
+               }
+               return StructureFactory.createStructure(name, args);
+            case LIST:
+               Term[] elements = new Term[readVarInt()];
+               for (int i = 0; i < elements.length; i++) {
+                  elements[i] = readTerm();
+               }
+               return ListFactory.createList(elements, readTerm());
+            case NEW_VARIABLE:
+               Variable v = new Variable(readString());
+               variables.add(v);
+               return v;
+            case VARIABLE:
+               return variables.get(readVarInt());
+            default:
+               throw new ProjogException("Unknown term type in knowledge base snapshot: " + type);
+         }
+      }
+
+      /** Returns the atom with the name at the next index, so atoms and structures share a single {@code String}. */
+      private Atom readAtom() {
+         int idx = readVarInt();
+         Atom atom = atoms[idx];
+         if (atom == null) {
+            atom = kb.getAtomTable().getAtom(strings[idx]);
+            atoms[idx] = atom;
+         }
+         return atom;
+      }
+
+      private String readString() {
+         return strings[readVarInt()];
+      }
+
+      private int readVarInt() {
+         int result = 0;
+         int shift = 0;
+         byte b;
+         do {
+            b = in.get();
+            result |= (b & 0x7F) << shift;
+            shift += 7;
+         } while ((b & 0x80) != 0);
+         return result;
+      }
+   }
+
+   /** Writes a non-negative value using as few bytes as possible, as most values (e.g. indexes and arities) are small. */
+   private static void writeVarInt(DataOutputStream out, int value) throws IOException {
+      while ((value & ~0x7F) != 0) {
+         out.writeByte((value & 0x7F) | 0x80);
+         value >>>= 7;
+      }
+      out.writeByte(value);
+   }
+
+   private static ExpressionFactories getExpressionFactories(KnowledgeBase kb) {
+      return KnowledgeBaseServiceLocator.getServiceLocator(kb).getInstance(ExpressionFactories.class);
+   }
+
+   private static Flag getFlag(KnowledgeBase kb) {
+      PredicateFactory pf = kb.getPredicates().getPredicateFactory(FLAG_KEY);
+      return pf instanceof Flag ? (Flag) pf : null;
+   }
+}
@@ -41,4 +41,33 @@ public interface ProjogProperties {
     * @see KnowledgeBaseUtils#bootstrap(KnowledgeBase)
     */
    String getBootstrapScript();
+
+   /**
+    * Returns {@code true} if queries should be evaluated without using the Java call stack to keep track of goals.
+    * <p>
+    * When {@code true} the depth of recursion of user defined predicates is limited by the size of the heap, rather
+    * than the size of the thread's stack, at the cost of some performance.
+    * <p>
+    * Returns {@code false} unless overridden.
+    *
+    * @return {@code true} if queries should be evaluated using a {@link org.projog.core.predicate.udp.StacklessPredicateFactory}
+    */
+   default boolean isStacklessExecution() {
+      return false;
+   }
+
+   /**
+    * Returns the maximum number of answers a tabled predicate should keep in its answer tables.
+    * <p>
+    * When the limit is exceeded the answer tables of the least recently used calls are discarded, and will be
+    * recalculated if the same call is made again. A single answer table with more answers than the limit is not kept.
+    * <p>
+    * Returns {@code 100000} unless overridden.
+    *
+    * @return the maximum number of answers to store for each tabled predicate
+    * @see org.projog.core.predicate.udp.TabledUserDefinedPredicateFactory
+    */
+   default int getMaxTabledAnswers() {
+      return 100000;
+   }
 }
@@ -15,8 +15,10 @@
  */
 package org.projog.core.math;
 
-import java.util.HashMap;
+import java.util.Collections;
 import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.projog.core.ProjogException;
 import org.projog.core.kb.KnowledgeBase;
@@ -39,8 +41,8 @@ import org.projog.core.term.TermUtils;
 public final class ArithmeticOperators {
    private final KnowledgeBase kb;
    private final Object lock = new Object();
-   private final Map<PredicateKey, String> operatorClassNames = new HashMap<>();
-   private final Map<PredicateKey, ArithmeticOperator> operatorInstances = new HashMap<>();
+   private final Map<PredicateKey, String> operatorClassNames = new ConcurrentHashMap<>();
+   private final Map<PredicateKey, ArithmeticOperator> operatorInstances = new ConcurrentHashMap<>();
    private final DeferredArithmeticOperator deferredArithmeticOperator;
 
    public ArithmeticOperators(KnowledgeBase kb) {
@@ -83,6 +85,17 @@ public final class ArithmeticOperators {
       }
    }
 
+   /**
+    * Returns the class names of the {@link ArithmeticOperator} instances associated with this {@code KnowledgeBase}.
+    * <p>
+    * The returned map is ordered by {@code PredicateKey}.
+    */
+   public Map<PredicateKey, String> getArithmeticOperatorClassNames() {
+      synchronized (lock) {
+         return Collections.unmodifiableMap(new TreeMap<>(operatorClassNames));
+      }
+   }
+
    /**
     * Returns the result of evaluating the specified arithmetic expression.
     *
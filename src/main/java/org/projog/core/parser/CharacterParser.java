@@ -23,14 +23,34 @@ import java.io.IOException;
  * <p>
  * Provides details of current line and column number being parsed.
  * </p>
+ * <p>
+ * Characters are read from the underlying stream a line at a time. Characters are either consumed by
+ * {@link #getNext()}, which returns each line terminator as a single {@code \n}, or by {@link #read()}, which returns
+ * the characters exactly as they appear in the underlying stream. Both use the same buffer, so they can be used
+ * interchangeably without characters being lost.
+ * </p>
  * 
  * @see SentenceParser#getInstance(java.io.Reader, org.projog.core.Operands)
  */
 final class CharacterParser {
    private static final int END_OF_STREAM = -1;
+   private static final int BUFFER_SIZE = 8192;
 
    private final BufferedReader br;
+   private final char[] buffer = new char[BUFFER_SIZE];
+   /** The index, in {@link #buffer}, of the next character that has not yet been added to a line. */
+   private int bufferPosition;
+   /** The number of characters in {@link #buffer}. */
+   private int bufferLimit;
    private String currentLine;
+   /**
+    * The characters that terminated the current line in the underlying stream.
+    * <p>
+    * Will be empty if the current line was terminated by the end of the stream.
+    */
+   private String lineTerminator;
+   /** The number of characters of {@link #lineTerminator} that have been returned by {@link #read()}. */
+   private int lineTerminatorPosition;
    /**
     * The line number of the current line being parsed.
     * <p>
@@ -63,14 +83,8 @@ final class CharacterParser {
    int getNext() {
       try {
          // proceed to next line
-         if (currentLine == null || columnNumber > currentLine.length()) {
-            String nextLine = br.readLine();
-            if (nextLine == null) {
-               return END_OF_STREAM;
-            }
-            currentLine = nextLine;
-            lineNumber++;
-            columnNumber = 0;
+         if ((currentLine == null || columnNumber > currentLine.length()) && !readLine()) {
+            return END_OF_STREAM;
          }
 
          // if reached end of a line return the new line character
@@ -85,6 +99,111 @@ final class CharacterParser {
       }
    }
 
+   /**
+    * Reads a single character exactly as it appears in the underlying stream.
+    * <p>
+    * Unlike {@link #getNext()}, line terminators are returned as they appear in the underlying stream and no new line
+    * character is returned at the end of a stream that does not end with a line terminator.
+    *
+    * @return The character read, as an integer in the range 0 to 65535 (<tt>0x00-0xffff</tt>), or -1 if the end of the
+    * stream has been reached
+    * @exception ParserException if an I/O error occurs
+    */
+   int read() {
+      try {
+         if (currentLine != null && columnNumber < currentLine.length()) {
+            return currentLine.charAt(columnNumber++);
+         }
+         if (currentLine != null && columnNumber == currentLine.length()) {
+            if (lineTerminatorPosition < lineTerminator.length()) {
+               char c = lineTerminator.charAt(lineTerminatorPosition++);
+               if (lineTerminatorPosition == lineTerminator.length()) {
+                  columnNumber++;
+               }
+               return c;
+            }
+            columnNumber++;
+         }
+         if (bufferPosition == bufferLimit && !fillBuffer()) {
+            return END_OF_STREAM;
+         }
+         return buffer[bufferPosition++];
+      } catch (IOException e) {
+         throw new ParserException("Unexpected exception getting next character", this, e);
+      }
+   }
+
+   /**
+    * Reads the next line from the underlying stream into {@link #currentLine}.
+    *
+    * @return {@code false} if the end of the stream has been reached, else {@code true}
+    */
+   private boolean readLine() throws IOException {
+      StringBuilder sb = null;
+      while (true) {
+         if (bufferPosition == bufferLimit && !fillBuffer()) {
+            if (sb == null) {
+               return false;
+            }
+            setCurrentLine(sb.toString(), "");
+            return true;
+         }
+
+         int start = bufferPosition;
+         while (bufferPosition < bufferLimit) {
+            char c = buffer[bufferPosition];
+            if (c == '\n' || c == '\r') {
+               String line = new String(buffer, start, bufferPosition - start);
+               if (sb != null) {
+                  line = sb.append(line).toString();
+               }
+               bufferPosition++;
+               if (c == '\n') {
+                  setCurrentLine(line, "\n");
+               } else if ((bufferPosition < bufferLimit || fillBuffer()) && buffer[bufferPosition] == '\n') {
+                  bufferPosition++;
+                  setCurrentLine(line, "\r\n");
+               } else {
+                  setCurrentLine(line, "\r");
+               }
+               return true;
+            }
+            bufferPosition++;
+         }
+
+         if (sb == null) {
+            sb = new StringBuilder();
+         }
+         sb.append(buffer, start, bufferPosition - start);
+      }
+   }
+
+   private void setCurrentLine(String line, String terminator) {
+      currentLine = line;
+      lineTerminator = terminator;
+      lineTerminatorPosition = 0;
+      lineNumber++;
+      columnNumber = 0;
+   }
+
+   /**
+    * Reads more characters from the underlying stream. Only called once all the characters in the buffer are used.
+    *
+    * @return {@code false} if the end of the stream has been reached, else {@code true}
+    */
+   private boolean fillBuffer() throws IOException {
+      int numberRead;
+      do {
+         numberRead = br.read(buffer, 0, BUFFER_SIZE);
+      } while (numberRead == 0);
+      if (numberRead == END_OF_STREAM) {
+         return false;
+      }
+      bufferPosition = 0;
+      bufferLimit = numberRead;
+      return true;
+   }
+
    /**
     * Reads a single character but does not consume it.
     * 
@@ -15,8 +15,10 @@
  */
 package org.projog.core.parser;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import org.projog.core.ProjogException;
@@ -35,17 +37,37 @@ import org.projog.core.kb.KnowledgeBase;
  * infix operators we can write valid prolog syntax like {@code X is 1 + 2.} instead of {@code is(X, +(1, 2)).}
  * <p>
  * Each {@link org.projog.core.kb.KnowledgeBase} has a single unique {@code Operands} instance.
+ * <p>
+ * The maps of operators are never altered once published. Adding an operator replaces the map with an altered copy, so
+ * operators can be read without a lock and a {@link #fork()} can share the maps until either object is altered.
  *
  * @see KnowledgeBase#getOperands()
  */
 public final class Operands {
    private final Object LOCK = new Object();
 
-   private final Map<String, Operand> infixOperands = new HashMap<>();
+   private volatile Map<String, Operand> infixOperands = new HashMap<>();
 
-   private final Map<String, Operand> prefixOperands = new HashMap<>();
+   private volatile Map<String, Operand> prefixOperands = new HashMap<>();
 
-   private final Map<String, Operand> postfixOperands = new HashMap<>();
+   private volatile Map<String, Operand> postfixOperands = new HashMap<>();
+
+   /**
+    * Returns a new {@code Operands} that starts with the same operators as this object.
+    * <p>
+    * Operators added to either object after the fork are not added to the other.
+    *
+    * @see KnowledgeBase#fork()
+    */
+   public Operands fork() {
+      Operands fork = new Operands();
+      synchronized (LOCK) {
+         fork.infixOperands = infixOperands;
+         fork.prefixOperands = prefixOperands;
+         fork.postfixOperands = postfixOperands;
+      }
+      return fork;
+   }
 
    /**
     * Adds a new operator.
@@ -56,8 +78,8 @@ public final class Operands {
     */
    public void addOperand(String operandName, String associativityName, int precedence) {
       Associativity a = getAssociativity(associativityName);
-      Map<String, Operand> operandsMap = getOperandsMap(a);
       synchronized (LOCK) {
+         Map<String, Operand> operandsMap = getOperandsMap(a);
          if (operandsMap.containsKey(operandName)) {
             Operand o = operandsMap.get(operandName);
             // if the operand is already registered throw an exception if the precedence is different else do nothing
@@ -65,7 +87,9 @@ public final class Operands {
                throw new ProjogException("Operand: " + operandName + " with associativity: " + o.associativity + " and precedence: " + o.precedence + " already exists");
             }
          } else {
-            operandsMap.put(operandName, new Operand(a, precedence));
+            Map<String, Operand> copy = new HashMap<>(operandsMap);
+            copy.put(operandName, new Operand(operandName, a, precedence));
+            setOperandsMap(a, copy);
          }
       }
    }
@@ -94,6 +118,20 @@ public final class Operands {
       throw new ProjogException("Do not support associativity: " + a);
    }
 
+   private void setOperandsMap(Associativity a, Map<String, Operand> operandsMap) {
+      switch (a.location) {
+         case INFIX:
+            infixOperands = operandsMap;
+            break;
+         case PREFIX:
+            prefixOperands = operandsMap;
+            break;
+         case POSTFIX:
+            postfixOperands = operandsMap;
+            break;
+      }
+   }
+
    public Operand getInfixOperand(String op) {
       return infixOperands.get(op);
    }
@@ -203,16 +241,47 @@ public final class Operands {
       return infix(commandName) || prefix(commandName) || postfix(commandName);
    }
 
+   /**
+    * Returns a copy of all the operators of this object.
+    *
+    * @see #addOperand(String, String, int)
+    */
+   public List<Operand> getAllOperands() {
+      synchronized (LOCK) {
+         List<Operand> result = new ArrayList<>();
+         result.addAll(infixOperands.values());
+         result.addAll(prefixOperands.values());
+         result.addAll(postfixOperands.values());
+         return result;
+      }
+   }
+
    public static final class Operand {
+      final String name;
+
       final Associativity associativity;
 
       final int precedence;
 
-      Operand(Associativity associativity, int precedence) {
+      Operand(String name, Associativity associativity, int precedence) {
+         this.name = name;
          this.associativity = associativity;
          this.precedence = precedence;
       }
 
+      public String getName() {
+         return name;
+      }
+
+      /** Returns the name of the associativity of this operator (i.e. one of: xfx, xfy, yfx, fx, fy, xf or yf). */
+      public String getAssociativity() {
+         return associativity.name();
+      }
+
+      public int getPrecedence() {
+         return precedence;
+      }
+
       public boolean isInfix() {
          return associativity.location == Location.INFIX;
       }
@@ -17,14 +17,25 @@ package org.projog.core.parser;
 
 import static org.projog.core.kb.KnowledgeBaseUtils.isQuestionOrDirectiveFunctionCall;
 
+import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileReader;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.Reader;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.projog.core.ProjogException;
 import org.projog.core.kb.KnowledgeBase;
@@ -42,8 +53,14 @@ import org.projog.core.term.Term;
  * </p>
  */
 public final class ProjogSourceReader {
+   /** The minimum number of characters in each chunk of a file that is parsed in parallel. */
+   private static final int BULK_LOAD_CHUNK_SIZE = 1 << 20;
+   private static final String SYMBOL_CHARACTERS = "+-*/\\^<>=~:.?@#&$";
+
    private final KnowledgeBase kb;
    private final Map<PredicateKey, UserDefinedPredicateFactory> userDefinedPredicates = new LinkedHashMap<>();
+   /** The predicates that have at least one clause that is not a fact. */
+   private final Set<PredicateKey> rules = new HashSet<>();
 
    /**
     * Populates the KnowledgeBase with clauses defined in the file.
@@ -62,6 +79,45 @@ public final class ProjogSourceReader {
       }
    }
 
+   /**
+    * Populates the KnowledgeBase with clauses defined in the file, using multiple threads to parse the file.
+    * <p>
+    * Intended for loading large files of facts. The file is split into chunks that are parsed in parallel. The parsed
+    * clauses are added to the KnowledgeBase in the same order as they appear in the file, and predicates that only
+    * consist of facts are then compiled in parallel.
+    * <p>
+    * A chunk only ends at the end of a line whose last character, ignoring whitespace and comments (including block
+    * comments that span multiple lines), is a {@code .} that is not part of a symbolic atom or quoted text. Quoted text
+    * that spans multiple lines is not supported, so the file must not contain it. As chunks are parsed in parallel, operators defined by directives in the file are not used
+    * when parsing the rest of the file. Directives are still evaluated in the order they appear in the file.
+    *
+    * @param kb the KnowledgeBase to add the clauses to
+    * @param prologSourceFile source of the prolog syntax defining clauses to add to the KnowledgeBase
+    * @param numberOfThreads the number of threads to use to parse the file
+    * @throws ProjogException if there is any problem parsing the syntax or adding the new clauses to the KnowledgeBase
+    */
+   public static void parseFileInParallel(KnowledgeBase kb, File prologSourceFile, int numberOfThreads) {
+      if (numberOfThreads < 1) {
+         throw new IllegalArgumentException("Number of threads must be greater than zero but was: " + numberOfThreads);
+      }
+      notifyReadingFromFileSystem(kb, prologSourceFile);
+      ExecutorService executor = Executors.newFixedThreadPool(numberOfThreads, r -> {
+         Thread t = new Thread(r, "projog-bulk-load");
+         t.setDaemon(true);
+         return t;
+      });
+      try (BufferedReader reader = new BufferedReader(new FileReader(prologSourceFile))) {
+         ProjogSourceReader projogSourceReader = new ProjogSourceReader(kb);
+         projogSourceReader.parseInParallel(reader, executor, numberOfThreads);
+      } catch (ProjogException e) {
+         throw e;
+      } catch (Exception e) {
+         throw new ProjogException("Could not read prolog source from file: " + prologSourceFile + " due to: " + e, e);
+      } finally {
+         executor.shutdownNow();
+      }
+   }
+
    /**
     * Populates the KnowledgeBase with clauses defined in the specified resource.
     * <p>
@@ -151,8 +207,155 @@ public final class ProjogSourceReader {
       }
    }
 
+   private void parseInParallel(BufferedReader reader, ExecutorService executor, int numberOfThreads) throws Exception {
+      // limit the number of chunks held in memory at the same time
+      int maxPending = numberOfThreads * 2;
+      Deque<Future<List<Term>>> pending = new ArrayDeque<>();
+      ClauseEndScanner scanner = new ClauseEndScanner();
+      int lineNumber = 1;
+      while (true) {
+         List<String> lines = readChunk(reader, scanner);
+         if (lines.isEmpty()) {
+            break;
+         }
+         int firstLineNumber = lineNumber;
+         lineNumber += lines.size();
+         pending.add(executor.submit(() -> parseChunk(lines, firstLineNumber)));
+         if (pending.size() > maxPending) {
+            storeParsedTerms(getChunk(pending.remove()));
+         }
+      }
+      while (!pending.isEmpty()) {
+         storeParsedTerms(getChunk(pending.remove()));
+      }
+
+      addUserDefinedPredicatesToKnowledgeBase(executor);
+   }
+
+   /**
+    * Reads lines until at least {@link #BULK_LOAD_CHUNK_SIZE} characters have been read and the last line read ends a
+    * clause.
+    *
+    * @return the lines read, or an empty list if the end of the stream has been reached
+    */
+   private static List<String> readChunk(BufferedReader reader, ClauseEndScanner scanner) throws IOException {
+      List<String> lines = new ArrayList<>();
+      int size = 0;
+      String line;
+      while ((line = reader.readLine()) != null) {
+         lines.add(line);
+         size += line.length();
+         // every line is scanned, as a block comment started by one line can continue over the lines that follow it
+         if (scanner.isEndOfClause(line) && size >= BULK_LOAD_CHUNK_SIZE) {
+            break;
+         }
+      }
+      return lines;
+   }
+
+   /**
+    * Determines which lines end a clause, so the lines can be split into chunks that are parsed independently.
+    * <p>
+    * A {@code .} that is in a comment, or in quotes, does not end a clause. e.g. the {@code .} at the end of a
+    * {@code %} comment on its own line in the middle of a rule.
+    */
+   private static final class ClauseEndScanner {
+      private boolean inBlockComment;
+
+      /**
+       * Returns {@code true} if the specified line ends a clause.
+       * <p>
+       * Must be called for every line, in order, as a block comment can continue over multiple lines.
+       */
+      boolean isEndOfClause(String line) {
+         int length = line.length();
+         // the position of the last character that is not whitespace, or part of a comment
+         int last = -1;
+         char quote = 0;
+         for (int i = 0; i < length; i++) {
+            char c = line.charAt(i);
+            if (inBlockComment) {
+               if (c == '*' && i + 1 < length && line.charAt(i + 1) == '/') {
+                  inBlockComment = false;
+                  i++;
+               }
+            } else if (quote != 0) {
+               if (c == '\\') {
+                  i++;
+               } else if (c == quote) {
+                  quote = 0;
+                  last = i;
+               }
+            } else if (c == '%') {
+               break;
+            } else if (c == '/' && i + 1 < length && line.charAt(i + 1) == '*') {
+               inBlockComment = true;
+               i++;
+            } else if (c == '\'' && last == i - 1 && line.charAt(last) == '0' && !isPartOfName(line, last - 1)) {
+               // character code, e.g. 0'a or 0'\n
+               i += i + 1 < length && line.charAt(i + 1) == '\\' ? 2 : 1;
+               last = Math.min(i, length - 1);
+            } else if (c == '\'' || c == '"' || c == '`') {
+               quote = c;
+            } else if (!Character.isWhitespace(c)) {
+               last = i;
+            }
+         }
+         // a '.' preceded by a symbol character (e.g. "=..") could be part of an atom rather than the end of the clause
+         if (quote != 0 || inBlockComment || last == -1 || line.charAt(last) != '.') {
+            return false;
+         }
+         return last == 0 || SYMBOL_CHARACTERS.indexOf(line.charAt(last - 1)) == -1;
+      }
+
+      private static boolean isPartOfName(String line, int idx) {
+         if (idx < 0) {
+            return false;
+         }
+         char c = line.charAt(idx);
+         return Character.isLetterOrDigit(c) || c == '_';
+      }
+   }
+
+   private List<Term> parseChunk(List<String> lines, int firstLineNumber) {
+      StringBuilder sb = new StringBuilder();
+      for (String line : lines) {
+         sb.append(line).append('\n');
+      }
+      try {
+         SentenceParser sp = SentenceParser.getInstance(sb.toString(), kb.getOperands(), kb.getAtomTable());
+         List<Term> terms = new ArrayList<>();
+         Term t;
+         while ((t = sp.parseSentence()) != null) {
+            terms.add(t);
+         }
+         return terms;
+      } catch (ParserException e) {
+         throw new ProjogException("Could not parse line " + (firstLineNumber + e.getLineNumber() - 1) + ": " + e.getMessage(), e);
+      }
+   }
+
+   private static List<Term> getChunk(Future<List<Term>> future) throws Exception {
+      try {
+         return future.get();
+      } catch (ExecutionException e) {
+         Throwable cause = e.getCause();
+         throw cause instanceof Exception ? (Exception) cause : e;
+      }
+   }
+
+   private void storeParsedTerms(List<Term> terms) {
+      for (Term t : terms) {
+         if (isQuestionOrDirectiveFunctionCall(t)) {
+            processQuestion(t);
+         } else {
+            storeParsedTerm(t);
+         }
+      }
+   }
+
    private void parseTerms(Reader reader) {
-      SentenceParser sp = SentenceParser.getInstance(reader, kb.getOperands());
+      SentenceParser sp = SentenceParser.getInstance(reader, kb.getOperands(), kb.getAtomTable());
       Term t;
       while ((t = sp.parseSentence()) != null) {
          if (isQuestionOrDirectiveFunctionCall(t)) {
@@ -178,6 +381,9 @@ public final class ProjogSourceReader {
       Term parsedTermConsequent = clauseModel.getConsequent();
       UserDefinedPredicateFactory userDefinedPredicate = createOrReturnUserDefinedPredicate(parsedTermConsequent);
       userDefinedPredicate.addLast(clauseModel);
+      if (!clauseModel.isFact()) {
+         rules.add(userDefinedPredicate.getPredicateKey());
+      }
    }
 
    private UserDefinedPredicateFactory createOrReturnUserDefinedPredicate(Term t) {
@@ -198,4 +404,28 @@ public final class ProjogSourceReader {
          userDefinedPredicate.compile();
       }
    }
+
+   /**
+    * Adds the parsed predicates to the KnowledgeBase and compiles them.
+    * <p>
+    * Predicates that only consist of facts do not depend on other predicates, so can be compiled in parallel.
+    * Predicates that contain rules are compiled on the current thread once the facts have been compiled.
+    */
+   private void addUserDefinedPredicatesToKnowledgeBase(ExecutorService executor) throws Exception {
+      for (UserDefinedPredicateFactory userDefinedPredicate : userDefinedPredicates.values()) {
+         kb.getPredicates().addUserDefinedPredicate(userDefinedPredicate);
+      }
+      List<Future<?>> futures = new ArrayList<>();
+      for (UserDefinedPredicateFactory userDefinedPredicate : userDefinedPredicates.values()) {
+         if (!rules.contains(userDefinedPredicate.getPredicateKey())) {
+            futures.add(executor.submit(userDefinedPredicate::compile));
+         }
+      }
+      for (Future<?> future : futures) {
+         future.get();
+      }
+      for (UserDefinedPredicateFactory userDefinedPredicate : userDefinedPredicates.values()) {
+         userDefinedPredicate.compile();
+      }
+   }
 }
@@ -26,7 +26,7 @@ import java.util.List;
 import java.util.Map;
 
 import org.projog.core.parser.Operands.Operand;
-import org.projog.core.term.Atom;
+import org.projog.core.term.AtomTable;
 import org.projog.core.term.DecimalFraction;
 import org.projog.core.term.EmptyList;
 import org.projog.core.term.IntegerNumber;
@@ -131,6 +131,8 @@ public class SentenceParser {
 
    private final TokenParser parser;
    private final Operands operands;
+   /** Used so that atoms, and the names of structures, that have the same name share a single instance. */
+   private final AtomTable atomTable;
 
    /**
     * A collection of {@code Variable}s this parser currently knows about (key = the variable name).
@@ -152,8 +154,21 @@ public class SentenceParser {
     * @return a new {@code SentenceParser}
     */
    public static SentenceParser getInstance(String prologSyntax, Operands operands) {
+      return getInstance(prologSyntax, operands, new AtomTable());
+   }
+
+   /**
+    * Returns a new {@code SentenceParser} will parse the specified {@code String} using the specified {@code Operands}
+    * and {@code AtomTable}.
+    *
+    * @param prologSyntax the prolog syntax to be parsed
+    * @param operands details of the operands to use during parsing
+    * @param atomTable the source of the atoms created during parsing
+    * @return a new {@code SentenceParser}
+    */
+   public static SentenceParser getInstance(String prologSyntax, Operands operands, AtomTable atomTable) {
       Reader reader = new StringReader(prologSyntax);
-      return getInstance(reader, operands);
+      return getInstance(reader, operands, atomTable);
    }
 
    /**
@@ -165,13 +180,27 @@ public class SentenceParser {
     * @return a new {@code SentenceParser}
     */
    public static SentenceParser getInstance(Reader reader, Operands operands) {
+      return getInstance(reader, operands, new AtomTable());
+   }
+
+   /**
+    * Returns a new {@code SentenceParser} that will parse Prolog syntax read from the specified {@code Reader} using
+    * the specified {@code Operands} and {@code AtomTable}.
+    *
+    * @param reader the source of the prolog syntax to be parsed
+    * @param operands details of the operands to use during parsing
+    * @param atomTable the source of the atoms created during parsing
+    * @return a new {@code SentenceParser}
+    */
+   public static SentenceParser getInstance(Reader reader, Operands operands, AtomTable atomTable) {
       BufferedReader br = new BufferedReader(reader);
-      return new SentenceParser(br, operands);
+      return new SentenceParser(br, operands, atomTable);
    }
 
-   private SentenceParser(Reader reader, Operands operands) {
+   private SentenceParser(Reader reader, Operands operands, AtomTable atomTable) {
       this.parser = new TokenParser(reader, operands);
       this.operands = operands;
+      this.atomTable = atomTable;
    }
 
    /**
@@ -211,6 +240,19 @@ public class SentenceParser {
       return parser.hasNext();
    }
 
+   /**
+    * Reads the next character that has not already been parsed.
+    * <p>
+    * Allows characters and terms to be read from the same underlying stream without characters being lost when they
+    * have been buffered by this object but not yet parsed.
+    *
+    * @return the character read, or -1 if the end of the underlying stream has been reached
+    * @throws ParserException if an I/O error occurs
+    */
+   public int getNextCharacter() {
+      return parser.getNextCharacter();
+   }
+
    private Token parseToken(Token previous, Terminator terminator) {
       throwExceptionIfEndOfStream(previous, terminator);
       Token first = parser.next();
@@ -438,7 +480,7 @@ public class SentenceParser {
             return toTerm(token.getArgument(0));
          case ATOM:
          case SYMBOL:
-            return new Atom(token.getName());
+            return atomTable.getAtom(token.getName());
          case NAMED_BRACKET:
             return toStructureFromNamedBracket(token);
          case OPERAND_AND_ARGUMENTS:
@@ -496,7 +538,7 @@ public class SentenceParser {
       for (int i = 0; i < args.length; i++) {
          args[i] = toTerm(tokens.get(i));
       }
-      return StructureFactory.createStructure(token.getName(), args);
+      return StructureFactory.createStructure(atomTable.getName(token.getName()), args);
    }
 
    private Term toStructureFromOperandAndArguments(Token token) {
@@ -504,7 +546,7 @@ public class SentenceParser {
       for (int i = 0; i < args.length; i++) {
          args[i] = toTerm(token.getArgument(i));
       }
-      return StructureFactory.createStructure(token.getName(), args);
+      return StructureFactory.createStructure(atomTable.getName(token.getName()), args);
    }
 
    private Term toList(Token token) {
@@ -57,6 +57,15 @@ class TokenParser {
       }
    }
 
+   /**
+    * Reads the next character that has not already been parsed.
+    *
+    * @see SentenceParser#getNextCharacter()
+    */
+   int getNextCharacter() {
+      return parser.read();
+   }
+
    Token getLastParsedToken() {
       return lastParsedToken;
    }
@@ -73,4 +73,17 @@ public interface PredicateFactory {
    default PredicateFactory preprocess(Term term) {
       return this;
    }
+
+   /**
+    * Returns the {@code PredicateFactory} to use when {@code term} is the body of a clause, or is part of the body that
+    * a cut in the body applies to.
+    * <p>
+    * Overridden by control constructs, such as conjunction, so that a cut in the body of a clause can be evaluated
+    * without throwing a {@link CutException}. By default returns the result of {@link #preprocess(Term)}.
+    *
+    * @see org.projog.core.term.Trail#cut()
+    */
+   default PredicateFactory preprocessClauseBody(Term term) {
+      return preprocess(term);
+   }
 }
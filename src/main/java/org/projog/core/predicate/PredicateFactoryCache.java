@@ -0,0 +1,113 @@
+/*
+ * Copyright 2026 S. Webber
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projog.core.predicate;
+
+import org.projog.core.term.Term;
+import org.projog.core.term.TermType;
+
+/**
+ * Looks up the {@link PredicateFactory} to use for each term it is given, remembering the most recently used ones.
+ * <p>
+ * Used by built-in predicates, such as {@code call/N} and {@code maplist}, where the goal to evaluate is not known
+ * until the predicate is evaluated. Each site that calls such a predicate has its own cache, so the lookup of the
+ * goal's predicate factory is a comparison of its name and arity with the few goals previously seen at that site,
+ * rather than a lookup in {@link Predicates}. Cached entries are discarded when a predicate is added to the
+ * {@code Predicates}.
+ * <p>
+ * Safe to share between threads. If the cache is updated by multiple threads at the same time then some of the
+ * updates may be lost, which only means the lookup needs to be repeated.
+ */
+public final class PredicateFactoryCache implements PredicateFactory {
+   /** Maximum number of entries. Must be a power of two. */
+   private static final int SIZE = 4;
+
+   private final Predicates predicates;
+   private final Entry[] entries = new Entry[SIZE];
+   private int nextEntry;
+
+   public PredicateFactoryCache(Predicates predicates) {
+      this.predicates = predicates;
+   }
+
+   @Override
+   public Predicate getPredicate(Term term) {
+      return getPredicateFactory(term).getPredicate(term);
+   }
+
+   /** Returns the {@code PredicateFactory} associated with the name and arity of the specified {@code Term}. */
+   public PredicateFactory getPredicateFactory(Term term) {
+      if (isAtomOrStructure(term)) {
+         return getPredicateFactory(term.getName(), term.getNumberOfArguments());
+      } else {
+         // will throw an exception describing why the term is not valid
+         return predicates.getPredicateFactory(term);
+      }
+   }
+
+   /**
+    * Returns the {@code PredicateFactory} for a partially applied goal.
+    * <p>
+    * If {@code partiallyAppliedFunction} is not an atom or structure then returns this object, so any exception is
+    * thrown when an attempt is made to evaluate the goal.
+    *
+    * @param partiallyAppliedFunction the goal the extra arguments will be appended to
+    * @param extraArgs the number of arguments that will be appended to the goal
+    */
+   public PredicateFactory getPredicateFactory(Term partiallyAppliedFunction, int extraArgs) {
+      if (isAtomOrStructure(partiallyAppliedFunction)) {
+         return getPredicateFactory(partiallyAppliedFunction.getName(), partiallyAppliedFunction.getNumberOfArguments() + extraArgs);
+      } else {
+         return this;
+      }
+   }
+
+   private PredicateFactory getPredicateFactory(String name, int numberOfArguments) {
+      int version = predicates.getVersion();
+      for (Entry e : entries) {
+         if (e != null && e.version == version && e.numberOfArguments == numberOfArguments && e.name.equals(name)) {
+            return e.predicateFactory;
+         }
+      }
+
+      PredicateFactory predicateFactory = predicates.getPredicateFactory(new PredicateKey(name, numberOfArguments));
+      entries[nextEntry++ & (SIZE - 1)] = new Entry(name, numberOfArguments, predicateFactory, version);
+      return predicateFactory;
+   }
+
+   private static boolean isAtomOrStructure(Term t) {
+      TermType type = t.getType();
+      return type == TermType.STRUCTURE || type == TermType.ATOM || type == TermType.LIST;
+   }
+
+   @Override
+   public boolean isRetryable() {
+      return true;
+   }
+
+   private static final class Entry {
+      final String name;
+      final int numberOfArguments;
+      final PredicateFactory predicateFactory;
+      final int version;
+
+      Entry(String name, int numberOfArguments, PredicateFactory predicateFactory, int version) {
+         this.name = name;
+         this.numberOfArguments = numberOfArguments;
+         this.predicateFactory = predicateFactory;
+         this.version = version;
+      }
+   }
+}
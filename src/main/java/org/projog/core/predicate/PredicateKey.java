@@ -42,6 +42,7 @@ public final class PredicateKey implements Comparable<PredicateKey> {
 
    private final String name;
    private final int numArgs;
+   private final int hashCode;
 
    /**
     * Returns a {@code PredicateKey} for the specified term.
@@ -87,6 +88,7 @@ public final class PredicateKey implements Comparable<PredicateKey> {
       }
       this.name = name;
       this.numArgs = numArgs;
+      this.hashCode = name.hashCode() + numArgs;
    }
 
    public String getName() {
@@ -118,7 +120,7 @@ public final class PredicateKey implements Comparable<PredicateKey> {
 
    @Override
    public int hashCode() {
-      return name.hashCode() + numArgs;
+      return hashCode;
    }
 
    /**
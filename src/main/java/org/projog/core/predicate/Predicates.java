@@ -16,14 +16,16 @@
 package org.projog.core.predicate;
 
 import java.util.Collections;
-import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeMap;
 import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.projog.core.ProjogException;
+import org.projog.core.kb.Forkable;
 import org.projog.core.kb.KnowledgeBase;
 import org.projog.core.kb.KnowledgeBaseUtils;
 import org.projog.core.predicate.udp.ClauseModel;
@@ -31,11 +33,20 @@ import org.projog.core.predicate.udp.DynamicUserDefinedPredicateFactory;
 import org.projog.core.predicate.udp.UserDefinedPredicateFactory;
 import org.projog.core.term.Term;
 
-/** Acts as a repository of rules and facts. */
+/**
+ * Acts as a repository of rules and facts.
+ * <p>
+ * Looking up a predicate does not require a lock, so queries can be evaluated by multiple threads while other threads
+ * add new predicates. Adding predicates is coordinated by a lock.
+ * <p>
+ * The {@code Predicates} of a fork of a {@code KnowledgeBase} has a parent. Predicates of the parent are copied to the
+ * fork the first time they are used by the fork, so the fork can be altered without affecting the parent. Before the
+ * parent is altered the fork copies all the predicates it has not yet used (see {@link #detach()}).
+ */
 public class Predicates {
    /**
-    * Used to coordinate access to {@link javaPredicateClassNames}, {@link #javaPredicateInstances} and
-    * {@link #userDefinedPredicates}
+    * Used to coordinate updates to {@link #javaPredicateClassNames}, {@link #predicateFactories},
+    * {@link #userDefinedPredicates} and {@link #sortedUserDefinedPredicates}.
     */
    private final Object predicatesLock = new Object();
 
@@ -43,28 +54,103 @@ public class Predicates {
     * The class names of "built-in" Java predicates (i.e. not defined using Prolog syntax) associated with this
     * {@code KnowledgeBase}.
     */
-   private final Map<PredicateKey, String> javaPredicateClassNames = new HashMap<>();
+   private final Map<PredicateKey, String> javaPredicateClassNames = new ConcurrentHashMap<>();
 
    /**
-    * The instances of "built-in" Java predicates (i.e. not defined using Prolog syntax) associated with this
+    * The instances of both "built-in" Java predicates and user-defined predicates associated with this
     * {@code KnowledgeBase}.
+    * <p>
+    * Combines both types of predicate so that the predicate for a {@code PredicateKey} can be found by a single lookup.
+    * Instances of "built-in" Java predicates are only added the first time they are used.
     */
-   private final Map<PredicateKey, PredicateFactory> javaPredicateInstances = new HashMap<>();
+   private final Map<PredicateKey, PredicateFactory> predicateFactories = new ConcurrentHashMap<>();
 
    /**
     * The user-defined predicates (i.e. defined using Prolog syntax) associated with this {@code KnowledgeBase}.
+    */
+   private final Map<PredicateKey, UserDefinedPredicateFactory> userDefinedPredicates = new ConcurrentHashMap<>();
+
+   /**
+    * Sorted copy of {@link #userDefinedPredicates}, or {@code null} if it needs to be recreated.
     * <p>
     * Uses TreeMap to enforce predictable ordering for when iterated (e.g. by <code>listing(X)</code>).
     */
-   private final Map<PredicateKey, UserDefinedPredicateFactory> userDefinedPredicates = new TreeMap<>();
+   private volatile Map<PredicateKey, UserDefinedPredicateFactory> sortedUserDefinedPredicates;
 
-   private final KnowledgeBase kb;
+   /**
+    * Incremented each time a predicate factory is added, so {@link PredicateFactoryCache} instances know when to discard
+    * their entries.
+    */
+   private volatile int version;
+
+   /**
+    * The keys of the "built-in" Java predicates that were added as instances rather than class names.
+    * <p>
+    * As a new instance cannot be created from the class name of these predicates, forks share them with their parent
+    * (unless they implement {@link Forkable}).
+    */
+   private final Set<PredicateKey> javaPredicateInstances = ConcurrentHashMap.newKeySet();
 
-   private final DeferredPredicateFactory deferredPredicateFactory;
+   private final KnowledgeBase kb;
+   /** The {@code Predicates} of the {@code KnowledgeBase} this is a fork of, or {@code null} once detached. */
+   private volatile Predicates parent;
 
    public Predicates(KnowledgeBase kb) {
+      this(kb, null);
+   }
+
+   /**
+    * Creates a {@code Predicates} for a fork of a {@code KnowledgeBase}.
+    *
+    * @param kb the fork
+    * @param parent the {@code Predicates} of the {@code KnowledgeBase} that {@code kb} is a fork of, or {@code null}
+    */
+   public Predicates(KnowledgeBase kb, Predicates parent) {
       this.kb = kb;
-      this.deferredPredicateFactory = new DeferredPredicateFactory();
+      this.parent = parent;
+   }
+
+   /**
+    * Copies the predicates of the ancestors of this object that have not yet been copied, and then stops using the
+    * ancestors.
+    * <p>
+    * Built-in predicates that have not yet been used by either this object or its ancestors are created again from
+    * their class names when first used.
+    *
+    * @see KnowledgeBase#isolateForks()
+    */
+   public void detach() {
+      synchronized (predicatesLock) {
+         if (parent == null) {
+            return;
+         }
+
+         Set<PredicateKey> userDefinedKeys = new HashSet<>();
+         for (Predicates p = parent; p != null; p = p.parent) {
+            userDefinedKeys.addAll(p.userDefinedPredicates.keySet());
+         }
+         for (PredicateKey key : userDefinedKeys) {
+            getUserDefinedPredicate(key);
+         }
+
+         for (Predicates p = parent; p != null; p = p.parent) {
+            for (Map.Entry<PredicateKey, String> e : p.javaPredicateClassNames.entrySet()) {
+               PredicateKey key = e.getKey();
+               if (javaPredicateClassNames.putIfAbsent(key, e.getValue()) == null) {
+                  PredicateFactory predicateFactory = forkPredicateFactory(key);
+                  if (predicateFactory != null) {
+                     predicateFactories.putIfAbsent(key, predicateFactory);
+                  }
+                  if (p.javaPredicateInstances.contains(key)) {
+                     javaPredicateInstances.add(key);
+                  }
+               }
+            }
+         }
+
+         parent = null;
+         version++;
+      }
    }
 
    public Predicate getPredicate(Term t) {
@@ -76,16 +162,50 @@ public class Predicates {
     */
    public Set<PredicateKey> getAllDefinedPredicateKeys() {
       Set<PredicateKey> result = new TreeSet<>();
-      result.addAll(javaPredicateClassNames.keySet());
-      result.addAll(userDefinedPredicates.keySet());
+      for (Predicates p = this; p != null; p = p.parent) {
+         result.addAll(p.javaPredicateClassNames.keySet());
+         result.addAll(p.userDefinedPredicates.keySet());
+      }
       return Collections.unmodifiableSet(result);
    }
 
    /**
     * Returns details of all the user define predicates of this object.
+    * <p>
+    * The returned map is ordered by {@code PredicateKey}. It is a snapshot, so will not reflect predicates that are
+    * added after this method is called.
     */
    public Map<PredicateKey, UserDefinedPredicateFactory> getUserDefinedPredicates() {
-      return Collections.unmodifiableMap(userDefinedPredicates);
+      Map<PredicateKey, UserDefinedPredicateFactory> result = sortedUserDefinedPredicates;
+      if (result == null) {
+         Predicates p = parent;
+         if (p != null) {
+            for (PredicateKey key : p.getUserDefinedPredicates().keySet()) {
+               getUserDefinedPredicate(key);
+            }
+         }
+         synchronized (predicatesLock) {
+            result = sortedUserDefinedPredicates;
+            if (result == null) {
+               result = Collections.unmodifiableMap(new TreeMap<>(userDefinedPredicates));
+               sortedUserDefinedPredicates = result;
+            }
+         }
+      }
+      return result;
+   }
+
+   /**
+    * Returns the class names of the "built-in" Java predicates of this object.
+    * <p>
+    * The returned map is ordered by {@code PredicateKey}. It is a snapshot, so will not reflect predicates that are
+    * added after this method is called.
+    */
+   public Map<PredicateKey, String> getJavaPredicateClassNames() {
+      Predicates p = parent;
+      Map<PredicateKey, String> result = p == null ? new TreeMap<>() : new TreeMap<>(p.getJavaPredicateClassNames());
+      result.putAll(javaPredicateClassNames);
+      return Collections.unmodifiableMap(result);
    }
 
    /**
@@ -97,13 +217,18 @@ public class Predicates {
     * @throws ProjogException if the specified {@code PredicateKey} represents an existing "plugin" predicate
     */
    public UserDefinedPredicateFactory createOrReturnUserDefinedPredicate(PredicateKey key) {
-      UserDefinedPredicateFactory userDefinedPredicate;
-      synchronized (predicatesLock) { // TODO if already in userDefinedPredicates then avoid need to synch
+      UserDefinedPredicateFactory userDefinedPredicate = getUserDefinedPredicate(key);
+      if (userDefinedPredicate != null) {
+         return userDefinedPredicate;
+      }
+
+      kb.isolateForks();
+      synchronized (predicatesLock) {
          if (isExistingJavaPredicate(key)) {
             throw new ProjogException("Cannot replace already defined built-in predicate: " + key);
          }
 
-         userDefinedPredicate = userDefinedPredicates.get(key);
+         userDefinedPredicate = getUserDefinedPredicate(key);
 
          if (userDefinedPredicate == null) {
             // assume dynamic
@@ -124,11 +249,15 @@ public class Predicates {
     */
    public void addUserDefinedPredicate(UserDefinedPredicateFactory userDefinedPredicate) {
       PredicateKey key = userDefinedPredicate.getPredicateKey();
+      kb.isolateForks();
       synchronized (predicatesLock) {
          if (isExistingPredicate(key)) {
             updateExistingPredicate(key, userDefinedPredicate);
          } else {
             userDefinedPredicates.put(key, userDefinedPredicate);
+            predicateFactories.put(key, userDefinedPredicate);
+            sortedUserDefinedPredicates = null;
+            version++;
          }
       }
    }
@@ -138,7 +267,7 @@ public class Predicates {
          throw new ProjogException("Cannot replace already defined built-in predicate: " + key);
       }
 
-      UserDefinedPredicateFactory existingUserDefinedPredicateFactory = userDefinedPredicates.get(key);
+      UserDefinedPredicateFactory existingUserDefinedPredicateFactory = getUserDefinedPredicate(key);
       if (!existingUserDefinedPredicateFactory.isDynamic()) {
          throw new ProjogException(
                      "Cannot append to already defined user defined predicate as it is not dynamic. You can set the predicate to dynamic by adding the following line to start of the file that the predicate is defined in:\n?- dynamic("
@@ -156,6 +285,15 @@ public class Predicates {
       return getPredicateFactory(term).preprocess(term);
    }
 
+   /**
+    * Returns the {@code PredicateFactory} to use to evaluate the specified {@code Term} when it is the body of a clause.
+    *
+    * @see PredicateFactory#preprocessClauseBody(Term)
+    */
+   public PredicateFactory getPreprocessedClauseBody(Term term) {
+      return getPredicateFactory(term).preprocessClauseBody(term);
+   }
+
    /**
     * Returns the {@code PredicateFactory} associated with the specified {@code Term}.
     * <p>
@@ -177,20 +315,62 @@ public class Predicates {
       PredicateFactory predicateFactory = getExistingPredicateFactory(key);
       if (predicateFactory != null) {
          return predicateFactory;
-      } else if (javaPredicateClassNames.containsKey(key)) {
+      } else if (isExistingJavaPredicate(key)) {
          return instantiatePredicateFactory(key);
+      } else if (parent != null && (predicateFactory = getUserDefinedPredicate(key)) != null) {
+         return predicateFactory;
       } else {
          return unknownPredicate(key);
       }
    }
 
-   private PredicateFactory getExistingPredicateFactory(PredicateKey key) {
-      PredicateFactory predicateFactory = javaPredicateInstances.get(key);
-      if (predicateFactory != null) {
-         return predicateFactory;
-      } else {
-         return userDefinedPredicates.get(key);
+   /**
+    * Returns the user-defined predicate for the specified key, or {@code null} if there is none.
+    * <p>
+    * If the user-defined predicate belongs to an ancestor then it is copied to this object.
+    */
+   private UserDefinedPredicateFactory getUserDefinedPredicate(PredicateKey key) {
+      UserDefinedPredicateFactory userDefinedPredicate = userDefinedPredicates.get(key);
+      Predicates p = parent;
+      if (userDefinedPredicate != null || p == null) {
+         return userDefinedPredicate;
+      }
+
+      UserDefinedPredicateFactory inherited = p.findUserDefinedPredicate(key);
+      if (inherited == null) {
+         return null;
       }
+
+      synchronized (predicatesLock) {
+         userDefinedPredicate = userDefinedPredicates.get(key);
+         if (userDefinedPredicate == null && parent != null) {
+            userDefinedPredicate = inherited.fork(kb);
+            userDefinedPredicates.put(key, userDefinedPredicate);
+            predicateFactories.put(key, userDefinedPredicate);
+            sortedUserDefinedPredicates = null;
+            version++;
+         }
+         return userDefinedPredicate;
+      }
+   }
+
+   /**
+    * Returns the user-defined predicate of this object, or its nearest ancestor, for the specified key.
+    * <p>
+    * Unlike {@link #getUserDefinedPredicate(PredicateKey)} this method does not copy predicates from ancestors.
+    */
+   private UserDefinedPredicateFactory findUserDefinedPredicate(PredicateKey key) {
+      for (Predicates p = this; p != null; p = p.parent) {
+         UserDefinedPredicateFactory userDefinedPredicate = p.userDefinedPredicates.get(key);
+         if (userDefinedPredicate != null) {
+            return userDefinedPredicate;
+         }
+      }
+      return null;
+   }
+
+   private PredicateFactory getExistingPredicateFactory(PredicateKey key) {
+      return predicateFactories.get(key);
    }
 
    private PredicateFactory instantiatePredicateFactory(PredicateKey key) {
@@ -199,13 +379,44 @@ public class Predicates {
          if (predicateFactory != null) {
             return predicateFactory;
          } else {
-            predicateFactory = instantiatePredicateFactory(javaPredicateClassNames.get(key));
-            javaPredicateInstances.put(key, predicateFactory);
+            predicateFactory = forkPredicateFactory(key);
+            if (predicateFactory == null) {
+               predicateFactory = instantiatePredicateFactory(getJavaPredicateClassName(key));
+            }
+            predicateFactories.put(key, predicateFactory);
             return predicateFactory;
          }
       }
    }
 
+   /**
+    * Returns a {@code PredicateFactory} based on the instance an ancestor has for the specified key, or {@code null} if
+    * a new instance should be created from the class name.
+    */
+   private PredicateFactory forkPredicateFactory(PredicateKey key) {
+      for (Predicates p = parent; p != null; p = p.parent) {
+         PredicateFactory existing = p.predicateFactories.get(key);
+         if (existing instanceof Forkable) {
+            return (PredicateFactory) ((Forkable<?>) existing).fork(kb);
+         } else if (p.javaPredicateInstances.contains(key)) {
+            return existing;
+         } else if (p.javaPredicateClassNames.containsKey(key)) {
+            return null;
+         }
+      }
+      return null;
+   }
+
+   private String getJavaPredicateClassName(PredicateKey key) {
+      for (Predicates p = this; p != null; p = p.parent) {
+         String className = p.javaPredicateClassNames.get(key);
+         if (className != null) {
+            return className;
+         }
+      }
+      throw new ProjogException("No built-in predicate: " + key);
+   }
+
    private PredicateFactory instantiatePredicateFactory(String className) {
       try {
          return KnowledgeBaseUtils.instantiate(kb, className);
@@ -231,11 +442,13 @@ public class Predicates {
     * @throws ProjogException if there is already a {@link PredicateFactory} associated with the {@code PredicateKey}
     */
    public void addPredicateFactory(PredicateKey key, String predicateFactoryClassName) {
+      kb.isolateForks();
       synchronized (predicatesLock) {
          if (isExistingPredicate(key)) {
             throw new ProjogException("Already defined: " + key);
          } else {
             javaPredicateClassNames.put(key, predicateFactoryClassName);
+            version++;
          }
       }
    }
@@ -253,12 +466,15 @@ public class Predicates {
     * @throws ProjogException if there is already a {@link PredicateFactory} associated with the {@code PredicateKey}
     */
    public void addPredicateFactory(PredicateKey key, PredicateFactory predicateFactory) {
+      kb.isolateForks();
       synchronized (predicatesLock) {
          if (isExistingPredicate(key)) {
             throw new ProjogException("Already defined: " + key);
          } else {
             javaPredicateClassNames.put(key, predicateFactory.getClass().getName());
-            javaPredicateInstances.put(key, predicateFactory);
+            predicateFactories.put(key, predicateFactory);
+            javaPredicateInstances.add(key);
+            version++;
          }
       }
    }
@@ -268,26 +484,34 @@ public class Predicates {
    }
 
    private boolean isExistingJavaPredicate(PredicateKey key) {
-      return javaPredicateClassNames.containsKey(key);
+      for (Predicates p = this; p != null; p = p.parent) {
+         if (p.javaPredicateClassNames.containsKey(key)) {
+            return true;
+         }
+      }
+      return false;
    }
 
    private boolean isExistingUserDefinedPredicate(PredicateKey key) {
-      return userDefinedPredicates.containsKey(key);
+      return findUserDefinedPredicate(key) != null;
    }
 
-   public PredicateFactory placeholder() {
-      return deferredPredicateFactory;
+   /**
+    * Returns a number that changes each time a predicate factory is added.
+    *
+    * @see PredicateFactoryCache
+    */
+   int getVersion() {
+      return version;
    }
 
-   private class DeferredPredicateFactory implements PredicateFactory {
-      @Override
-      public Predicate getPredicate(Term term) {
-         return Predicates.this.getPredicate(term);
-      }
-
-      @Override
-      public boolean isRetryable() {
-         return true;
-      }
+   /**
+    * Returns a {@code PredicateFactory} that looks up the factory to use each time it is given a term.
+    * <p>
+    * Used by built-in predicates when the goal they evaluate is not known when they are preprocessed. Each call returns
+    * a new {@link PredicateFactoryCache}.
+    */
+   public PredicateFactory placeholder() {
+      return new PredicateFactoryCache(this);
    }
 }
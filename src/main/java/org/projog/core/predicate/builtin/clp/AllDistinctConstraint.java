@@ -0,0 +1,356 @@
+/*
+ * Copyright 2026 S. Webber
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projog.core.predicate.builtin.clp;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.projog.clp.ConstraintResult;
+import org.projog.clp.ConstraintStore;
+import org.projog.clp.Expression;
+import org.projog.clp.ExpressionResult;
+
+/**
+ * Constrains expressions to all have different values.
+ * <p>
+ * Uses the matching-based filtering of Regin. A maximum matching of the bipartite graph of expressions and their
+ * possible values is found, and a value is then removed from the domain of an expression if the pair are not part of
+ * any maximum matching. Such a pair is not part of the matching found, is not part of an even alternating cycle (i.e.
+ * the two are not in the same strongly connected component of the directed graph where matched pairs point from
+ * expression to value and unmatched pairs from value to expression) and is not on an even alternating path starting
+ * from a value that is not matched.
+ * <p>
+ * When the graph would contain more than {@link #MAX_EDGES} pairs the constraint only removes values that other
+ * expressions have as their single possible value.
+ */
+final class AllDistinctConstraint extends GlobalConstraint {
+   /** The maximum number of expression-value pairs to apply the matching-based filtering to. */
+   private static final int MAX_EDGES = 10000;
+
+   AllDistinctConstraint(Expression[] expressions) {
+      super(expressions);
+   }
+
+   @Override
+   AllDistinctConstraint create(Expression[] expressions) {
+      return new AllDistinctConstraint(expressions);
+   }
+
+   @Override
+   boolean isSatisfied(long[] values) {
+      long[] sorted = values.clone();
+      Arrays.sort(sorted);
+      for (int i = 1; i < sorted.length; i++) {
+         if (sorted[i - 1] == sorted[i]) {
+            return false;
+         }
+      }
+      return true;
+   }
+
+   @Override
+   public ConstraintResult enforce(ConstraintStore s) {
+      Expression[] expressions = getExpressions();
+      Domain[] domains = new Domain[expressions.length];
+      long edges = 0;
+      for (int i = 0; i < expressions.length; i++) {
+         domains[i] = getDomain(s, expressions[i]);
+         if (domains[i].count() > MAX_EDGES - edges) {
+            return removeFixedValues(s);
+         }
+         edges += domains[i].count();
+      }
+
+      ValueGraph graph = new ValueGraph(domains);
+      if (!graph.findMaximumMatching()) {
+         return ConstraintResult.FAILED;
+      }
+
+      // find the values to remove before removing any, as removing a value can alter the domains
+      boolean[][] consistent = graph.findConsistentEdges();
+      boolean fixed = true;
+      for (int i = 0; i < expressions.length; i++) {
+         int[] adjacent = graph.adjacency[i];
+         int remaining = adjacent.length;
+         for (int j = 0; j < adjacent.length; j++) {
+            if (!consistent[i][j]) {
+               remaining--;
+               if (expressions[i].setNot(s, graph.values[adjacent[j]]) == ExpressionResult.INVALID) {
+                  return ConstraintResult.FAILED;
+               }
+            }
+         }
+         if (remaining != 1) {
+            fixed = false;
+         }
+      }
+      return fixed ? ConstraintResult.MATCHED : ConstraintResult.UNRESOLVED;
+   }
+
+   /** Removes the value of each expression that has a single possible value from the other expressions. */
+   private ConstraintResult removeFixedValues(ConstraintStore s) {
+      Expression[] expressions = getExpressions();
+      boolean fixed = true;
+      for (int i = 0; i < expressions.length; i++) {
+         long value = expressions[i].getMin(s);
+         if (value == expressions[i].getMax(s)) {
+            for (int j = 0; j < expressions.length; j++) {
+               if (i != j && expressions[j].setNot(s, value) == ExpressionResult.INVALID) {
+                  return ConstraintResult.FAILED;
+               }
+            }
+         } else {
+            fixed = false;
+         }
+      }
+      return fixed ? ConstraintResult.MATCHED : ConstraintResult.UNRESOLVED;
+   }
+
+   /**
+    * A bipartite graph of expressions and their possible values.
+    * <p>
+    * When traversed as a directed graph the nodes {@code 0..n-1} represent the expressions and the nodes
+    * {@code n..n+m-1} the values. An expression has an edge to the value it is matched with. A value has an edge to
+    * each expression it is a possible value of, other than the expression it is matched with.
+    */
+   private static final class ValueGraph {
+      final int numExpressions;
+      /** The distinct possible values of all the expressions. */
+      final long[] values;
+      /** The indexes into {@link #values} of the possible values of each expression. */
+      final int[][] adjacency;
+      /** The indexes of the expressions each value is a possible value of. */
+      final int[][] valueAdjacency;
+      final int[] expressionMatch;
+      final int[] valueMatch;
+
+      ValueGraph(Domain[] domains) {
+         numExpressions = domains.length;
+         adjacency = new int[numExpressions][];
+         Map<Long, Integer> valueIndexes = new HashMap<>();
+         long[] allValues = new long[16];
+         int[] counts = new int[16];
+         for (int i = 0; i < numExpressions; i++) {
+            long[] possibleValues = domains[i].getValues();
+            adjacency[i] = new int[possibleValues.length];
+            for (int j = 0; j < possibleValues.length; j++) {
+               Integer index = valueIndexes.get(possibleValues[j]);
+               if (index == null) {
+                  index = valueIndexes.size();
+                  valueIndexes.put(possibleValues[j], index);
+                  if (index == allValues.length) {
+                     allValues = Arrays.copyOf(allValues, index * 2);
+                     counts = Arrays.copyOf(counts, index * 2);
+                  }
+                  allValues[index] = possibleValues[j];
+               }
+               adjacency[i][j] = index;
+               counts[index]++;
+            }
+         }
+
+         int numValues = valueIndexes.size();
+         values = Arrays.copyOf(allValues, numValues);
+         valueAdjacency = new int[numValues][];
+         for (int v = 0; v < numValues; v++) {
+            valueAdjacency[v] = new int[counts[v]];
+            counts[v] = 0;
+         }
+         for (int i = 0; i < numExpressions; i++) {
+            for (int v : adjacency[i]) {
+               valueAdjacency[v][counts[v]++] = i;
+            }
+         }
+
+         expressionMatch = new int[numExpressions];
+         valueMatch = new int[numValues];
+         Arrays.fill(expressionMatch, -1);
+         Arrays.fill(valueMatch, -1);
+      }
+
+      /** Returns {@code true} if a matching was found that includes every expression. */
+      boolean findMaximumMatching() {
+         // match greedily first, and then use augmenting paths for the expressions that could not be matched
+         for (int i = 0; i < numExpressions; i++) {
+            for (int v : adjacency[i]) {
+               if (valueMatch[v] == -1) {
+                  match(i, v);
+                  break;
+               }
+            }
+         }
+         int[] visited = new int[values.length];
+         for (int i = 0; i < numExpressions; i++) {
+            if (expressionMatch[i] == -1 && !augment(i, visited, i + 1)) {
+               return false;
+            }
+         }
+         return true;
+      }
+
+      private boolean augment(int expression, int[] visited, int stamp) {
+         for (int v : adjacency[expression]) {
+            if (visited[v] != stamp) {
+               visited[v] = stamp;
+               if (valueMatch[v] == -1 || augment(valueMatch[v], visited, stamp)) {
+                  match(expression, v);
+                  return true;
+               }
+            }
+         }
+         return false;
+      }
+
+      private void match(int expression, int value) {
+         expressionMatch[expression] = value;
+         valueMatch[value] = expression;
+      }
+
+      /**
+       * Returns whether each pair of expression and value is part of some maximum matching.
+       *
+       * @return an array with an element per expression, with the same length as its element of {@link #adjacency}
+       */
+      boolean[][] findConsistentEdges() {
+         int[] components = findStronglyConnectedComponents();
+         boolean[] reachable = findReachableFromUnmatchedValues();
+         boolean[][] consistent = new boolean[numExpressions][];
+         for (int i = 0; i < numExpressions; i++) {
+            int[] adjacent = adjacency[i];
+            consistent[i] = new boolean[adjacent.length];
+            for (int j = 0; j < adjacent.length; j++) {
+               int v = adjacent[j];
+               int node = numExpressions + v;
+               consistent[i][j] = expressionMatch[i] == v || components[i] == components[node] || reachable[node];
+            }
+         }
+         return consistent;
+      }
+
+      /**
+       * Returns the successor of the specified node, or -1 if it has no more successors.
+       *
+       * @param position the position of the edge to start searching from, updated to the position after the returned
+       * edge
+       */
+      private int nextSuccessor(int node, int[] position, int index) {
+         if (node < numExpressions) {
+            if (position[index] == 0) {
+               position[index] = 1;
+               return numExpressions + expressionMatch[node];
+            }
+            return -1;
+         }
+         int value = node - numExpressions;
+         int[] adjacent = valueAdjacency[value];
+         int p = position[index];
+         while (p < adjacent.length && adjacent[p] == valueMatch[value]) {
+            p++;
+         }
+         if (p < adjacent.length) {
+            position[index] = p + 1;
+            return adjacent[p];
+         }
+         position[index] = p;
+         return -1;
+      }
+
+      /** Uses Tarjan's algorithm, without recursion, to find the strongly connected component of each node. */
+      private int[] findStronglyConnectedComponents() {
+         int numNodes = numExpressions + values.length;
+         int[] indexes = new int[numNodes];
+         int[] lowLinks = new int[numNodes];
+         int[] components = new int[numNodes];
+         boolean[] onStack = new boolean[numNodes];
+         int[] stack = new int[numNodes];
+         int stackSize = 0;
+         int[] callNodes = new int[numNodes];
+         int[] callPositions = new int[numNodes];
+         int callSize = 0;
+         int nextIndex = 1;
+         int nextComponent = 0;
+
+         for (int root = 0; root < numNodes; root++) {
+            if (indexes[root] != 0) {
+               continue;
+            }
+            indexes[root] = lowLinks[root] = nextIndex++;
+            stack[stackSize++] = root;
+            onStack[root] = true;
+            callNodes[callSize] = root;
+            callPositions[callSize++] = 0;
+
+            while (callSize > 0) {
+               int node = callNodes[callSize - 1];
+               int successor = nextSuccessor(node, callPositions, callSize - 1);
+               if (successor == -1) {
+                  if (lowLinks[node] == indexes[node]) {
+                     int member;
+                     do {
+                        member = stack[--stackSize];
+                        onStack[member] = false;
+                        components[member] = nextComponent;
+                     } while (member != node);
+                     nextComponent++;
+                  }
+                  callSize--;
+                  if (callSize > 0) {
+                     int parent = callNodes[callSize - 1];
+                     lowLinks[parent] = Math.min(lowLinks[parent], lowLinks[node]);
+                  }
+               } else if (indexes[successor] == 0) {
+                  indexes[successor] = lowLinks[successor] = nextIndex++;
+                  stack[stackSize++] = successor;
+                  onStack[successor] = true;
+                  callNodes[callSize] = successor;
+                  callPositions[callSize++] = 0;
+               } else if (onStack[successor]) {
+                  lowLinks[node] = Math.min(lowLinks[node], indexes[successor]);
+               }
+            }
+         }
+         return components;
+      }
+
+      /** Returns whether each node can be reached by a path starting from a value that is not matched. */
+      private boolean[] findReachableFromUnmatchedValues() {
+         int numNodes = numExpressions + values.length;
+         boolean[] reachable = new boolean[numNodes];
+         int[] stack = new int[numNodes];
+         int stackSize = 0;
+         for (int v = 0; v < values.length; v++) {
+            if (valueMatch[v] == -1) {
+               reachable[numExpressions + v] = true;
+               stack[stackSize++] = numExpressions + v;
+            }
+         }
+         int[] position = new int[1];
+         while (stackSize > 0) {
+            int node = stack[--stackSize];
+            position[0] = 0;
+            int successor;
+            while ((successor = nextSuccessor(node, position, 0)) != -1) {
+               if (!reachable[successor]) {
+                  reachable[successor] = true;
+                  stack[stackSize++] = successor;
+               }
+            }
+         }
+         return reachable;
+      }
+   }
+}
@@ -24,7 +24,6 @@ import java.util.function.Function;
 
 import org.projog.clp.Constraint;
 import org.projog.clp.FixedValue;
-import org.projog.clp.VariableState;
 import org.projog.clp.VariableStateResult;
 import org.projog.clp.bool.And;
 import org.projog.clp.bool.Equivalent;
@@ -184,12 +183,12 @@ public final class BooleanConstraintPredicate implements PredicateFactory, Const
             ClpVariable c = new ClpVariable();
             restrictValues(c);
             t.unify(c);
-            vars.add(c);
+            vars.add(c.getTerm());
             return c;
          case CLP_VARIABLE:
             ClpVariable e = (ClpVariable) t.getTerm();
             restrictValues(e);
-            vars.add(e);
+            vars.add(e.getTerm());
             return e;
          case INTEGER:
             return new FixedValue(castToNumeric(t).getLong());
@@ -208,9 +207,12 @@ public final class BooleanConstraintPredicate implements PredicateFactory, Const
    }
 
    private void restrictValues(ClpVariable c) {
-      VariableState s = c.getState();
-      if (s.setMin(0) != VariableStateResult.FAILED) {
-         s.setMax(1);
+      Domain current = c.getState();
+      if (current.getMin() < 0 || current.getMax() > 1) {
+         Domain s = c.createChild().getState();
+         if (s.setMin(0) != VariableStateResult.FAILED) {
+            s.setMax(1);
+         }
       }
    }
 
@@ -18,7 +18,7 @@ package org.projog.core.predicate.builtin.clp;
 import static org.projog.core.term.TermUtils.castToNumeric;
 
 import java.util.ArrayList;
-import java.util.Collection;
+import java.util.Collections;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
@@ -33,11 +33,11 @@ import org.projog.clp.Expression;
 import org.projog.clp.ExpressionResult;
 import org.projog.clp.LeafExpression;
 import org.projog.clp.ReadConstraintStore;
-import org.projog.clp.VariableState;
 import org.projog.core.ProjogException;
 import org.projog.core.math.Numeric;
 import org.projog.core.term.Term;
 import org.projog.core.term.TermType;
+import org.projog.core.term.Trail;
 import org.projog.core.term.Variable;
 
 /** A {@code Term} that could represent a number of possible numeric values. */
@@ -46,51 +46,73 @@ final class ClpVariable implements Numeric, LeafExpression {
    private static final int FALSE = 0;
 
    private ClpVariable child;
-   private final VariableState state;
-   private final List<Constraint> rules;
+   private final Domain state;
+   /** The most recently added propagator. Shared with any copies of this variable. */
+   private Propagator propagators;
 
    public ClpVariable() {
-      this.state = new VariableState();
-      this.rules = new ArrayList<>();
+      this(new Domain(), null);
    }
 
-   private ClpVariable(ClpVariable parent) {
-      this.state = parent.state.copy();
-      this.rules = new ArrayList<>(parent.rules);
-   }
-
-   private ClpVariable(VariableState state, Collection<Constraint> rules) {
+   private ClpVariable(Domain state, Propagator propagators) {
       this.state = state;
-      this.rules = new ArrayList<>(rules);
+      this.propagators = propagators;
    }
 
    List<Constraint> getConstraints() {
       if (child != null) {
          throw new IllegalStateException();
       }
-      return new ArrayList<>(rules);
+      List<Constraint> result = new ArrayList<>();
+      for (Propagator p = propagators; p != null; p = p.getNext()) {
+         result.add(p.getConstraint());
+      }
+      Collections.reverse(result);
+      return result;
    }
 
    void addConstraint(Constraint c) {
       if (child != null) {
          throw new IllegalStateException();
       }
-      rules.add(c);
+      propagators = new Propagator(c, propagators);
+   }
+
+   /** Returns the most recently added propagator, or {@code null} if this variable has no constraints. */
+   Propagator getPropagators() {
+      return getTerm().propagators;
    }
 
-   VariableState getState() {
+   Domain getState() {
       return getTerm().state;
    }
 
+   /**
+    * Creates a copy of this variable that can be altered without affecting this variable.
+    * <p>
+    * The copy shares the constraints of this variable, rather than copying them. Calling {@link #backtrack()} on this
+    * variable discards the copy.
+    */
    public ClpVariable createChild() {
       if (child != null) {
          throw new IllegalStateException();
       }
-      ClpVariable copy = new ClpVariable(this);
-      this.child = copy;
+      ClpVariable copy = new ClpVariable(state.copy(), propagators);
+      setChild(copy);
       return copy;
    }
 
+   /**
+    * Restricts this variable to the possible values of the specified state.
+    * <p>
+    * Unlike {@link #unify(Term)}, the constraints of this variable are not enforced. The caller is responsible for
+    * ensuring the state is consistent with them.
+    */
+   void setState(Domain newState) {
+      ClpVariable c = getTerm();
+      c.setChild(new ClpVariable(newState, c.propagators));
+   }
+
    @Override
    public String getName() {
       throw new UnsupportedOperationException();
@@ -151,22 +173,25 @@ final class ClpVariable implements Numeric, LeafExpression {
             throw new IllegalStateException();
          }
 
-         VariableState s = VariableState.and(a.state, other.state);
+         Domain s = Domain.and(a.state, other.state);
          if (s == null) {
             return false;
          }
 
          if (s == a.state) {
-            other.child = a;
+            other.setChild(a);
          } else if (s == other.state) {
-            a.child = other;
+            a.setChild(other);
          } else {
             Set<Constraint> newRules = new LinkedHashSet<>();
-            newRules.addAll(a.rules);
-            newRules.addAll(other.rules);
-            ClpVariable newChild = new ClpVariable(s, newRules);
-            a.child = newChild;
-            other.child = newChild;
+            newRules.addAll(a.getConstraints());
+            newRules.addAll(other.getConstraints());
+            ClpVariable newChild = new ClpVariable(s, null);
+            for (Constraint c : newRules) {
+               newChild.addConstraint(c);
+            }
+            a.setChild(newChild);
+            other.setChild(newChild);
          }
 
          return true;
@@ -181,15 +206,19 @@ final class ClpVariable implements Numeric, LeafExpression {
 
    private boolean unifyLong(Term t) {
       long value = castToNumeric(t).getLong();
-      ClpVariable copy = createChild();
       CoreConstraintStore environment = new CoreConstraintStore();
-      if (copy.setMin(environment, value) == ExpressionResult.INVALID || copy.setMax(environment, value) == ExpressionResult.INVALID) {
+      if (setMin(environment, value) == ExpressionResult.INVALID || setMax(environment, value) == ExpressionResult.INVALID) {
          return false;
       } else {
          return environment.resolve();
       }
    }
 
+   private void setChild(ClpVariable child) {
+      this.child = child;
+      Trail.record(this);
+   }
+
    @Override
    public void backtrack() {
       this.child = null;
@@ -283,7 +312,7 @@ final class ClpVariable implements Numeric, LeafExpression {
 
    @Override
    public long getLong() {
-      VariableState s = getState();
+      Domain s = getState();
       if (s.isSingleValue()) {
          return s.getMax();
       } else {
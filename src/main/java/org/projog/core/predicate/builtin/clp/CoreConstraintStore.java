@@ -15,40 +15,64 @@
  */
 package org.projog.core.predicate.builtin.clp;
 
-import java.util.ArrayList;
+import java.util.ArrayDeque;
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Set;
 import java.util.function.Function;
 
 import org.projog.clp.Constraint;
 import org.projog.clp.ConstraintResult;
-import org.projog.clp.ConstraintStore;
 import org.projog.clp.Expression;
 import org.projog.clp.ExpressionResult;
-import org.projog.clp.VariableState;
 import org.projog.clp.VariableStateResult;
 
-/** An implementation of {@code ConstraintStore} for use in Projog. */
-final class CoreConstraintStore implements ConstraintStore {
-   private final List<Constraint> queue = new ArrayList<>();
+/**
+ * An implementation of {@code ConstraintStore} for use in Projog.
+ * <p>
+ * Constraints waiting to be enforced are kept in an agenda with one queue per priority class (see
+ * {@link Propagator#getPriority()}). When the possible values of a variable change, only the constraints subscribed to
+ * that kind of change are added to the agenda (see {@link Propagator#isWokenBy(DomainEvent)}).
+ * <p>
+ * Changing a variable creates a copy of it, so the change can be undone by backtracking. While {@link #resolve()} is
+ * running, each variable is only copied the first time it is changed and the copy is then changed in place. This is
+ * safe as nothing else can refer to the copy until {@code resolve()} has returned.
+ */
+final class CoreConstraintStore implements DomainStore {
+   @SuppressWarnings({"unchecked", "rawtypes"})
+   private final ArrayDeque<Constraint>[] agenda = new ArrayDeque[Propagator.NUMBER_OF_PRIORITIES];
+   /** The constraints currently in {@link #agenda}. */
+   private final Set<Constraint> queued = new HashSet<>();
    private final Set<Constraint> matched = new HashSet<>();
+   /** The copies created by the current call to {@link #resolve()}. Uses identity as ClpVariable overrides equals. */
+   private final Set<ClpVariable> copies = Collections.newSetFromMap(new IdentityHashMap<>());
+   private boolean resolving;
 
    CoreConstraintStore() {
+      for (int i = 0; i < agenda.length; i++) {
+         agenda[i] = new ArrayDeque<>();
+      }
    }
 
    CoreConstraintStore(Constraint c) {
-      queue.add(c);
+      this();
+      enqueue(c, Propagator.getPriority(c));
    }
 
    CoreConstraintStore(List<Constraint> c) {
-      queue.addAll(c);
+      this();
+      for (Constraint e : c) {
+         enqueue(e, Propagator.getPriority(e));
+      }
    }
 
    boolean resolve() {
-      while (!queue.isEmpty()) {
-         Constraint c = queue.remove(0);
-         if (!matched.contains(c)) {
+      resolving = true;
+      try {
+         Constraint c;
+         while ((c = poll()) != null) {
             ConstraintResult result = c.enforce(this);
             if (result == ConstraintResult.FAILED) {
                return false;
@@ -57,8 +81,28 @@ final class CoreConstraintStore implements ConstraintStore {
                matched.add(c);
             }
          }
+         return true;
+      } finally {
+         resolving = false;
+         copies.clear();
+      }
+   }
+
+   private Constraint poll() {
+      for (ArrayDeque<Constraint> queue : agenda) {
+         Constraint c = queue.poll();
+         if (c != null) {
+            queued.remove(c);
+            return c;
+         }
+      }
+      return null;
+   }
+
+   private void enqueue(Constraint c, int priority) {
+      if (!matched.contains(c) && queued.add(c)) {
+         agenda[priority].add(c);
       }
-      return true;
    }
 
    @Override
@@ -71,44 +115,79 @@ final class CoreConstraintStore implements ConstraintStore {
       throw new UnsupportedOperationException();
    }
 
+   @Override
+   public Domain getDomain(Expression e) {
+      if (e instanceof ClpVariable) {
+         return ((ClpVariable) e).getState();
+      } else {
+         return new Domain(e.getMin(this), e.getMax(this));
+      }
+   }
+
    @Override
    public ExpressionResult setValue(Expression id, long value) {
+      Domain s = ((ClpVariable) id).getState();
+      if (s.isSingleValue() && s.getMin() == value) {
+         return ExpressionResult.VALID;
+      }
       return update(id, v -> v.setValue(value));
    }
 
    @Override
    public ExpressionResult setMin(Expression id, long min) {
+      if (min <= ((ClpVariable) id).getState().getMin()) {
+         return ExpressionResult.VALID;
+      }
       return update(id, v -> v.setMin(min));
    }
 
    @Override
    public ExpressionResult setMax(Expression id, long max) {
+      if (max >= ((ClpVariable) id).getState().getMax()) {
+         return ExpressionResult.VALID;
+      }
       return update(id, v -> v.setMax(max));
    }
 
    @Override
    public ExpressionResult setNot(Expression id, long not) {
+      Domain s = ((ClpVariable) id).getState();
+      if (not < s.getMin() || not > s.getMax()) {
+         return ExpressionResult.VALID;
+      }
       return update(id, v -> v.setNot(not));
    }
 
-   // TODO can this be more efficient? copying ClpVariable every time and backtracking on failure
-   private ExpressionResult update(Expression id, Function<VariableState, VariableStateResult> f) {
+   private ExpressionResult update(Expression id, Function<Domain, VariableStateResult> f) {
       ClpVariable original = ((ClpVariable) id).getTerm();
-      ClpVariable copy = original.createChild();
-      VariableStateResult r = f.apply(copy.getState());
-      if (r == VariableStateResult.UPDATED) {
-         addConstraints(copy);
-      } else if (r == VariableStateResult.FAILED) {
-         original.backtrack();
+      ClpVariable copy;
+      if (copies.contains(original)) {
+         copy = original;
+      } else {
+         copy = original.createChild();
+         if (resolving) {
+            copies.add(copy);
+         }
       }
-      return r == VariableStateResult.FAILED ? ExpressionResult.INVALID : ExpressionResult.VALID;
-   }
 
-   private void addConstraints(ClpVariable copy) {
-      for (Constraint c : copy.getConstraints()) {
-         if (!matched.contains(c) && !queue.contains(c)) {
-            queue.add(c);
+      Domain s = copy.getState();
+      long oldMin = s.getMin();
+      long oldMax = s.getMax();
+      VariableStateResult r = f.apply(s);
+      if (r == VariableStateResult.FAILED) {
+         if (copy != original) {
+            original.backtrack();
+         }
+         return ExpressionResult.INVALID;
+      }
+      if (r == VariableStateResult.UPDATED) {
+         DomainEvent e = DomainEvent.get(oldMin, oldMax, s);
+         for (Propagator p = copy.getPropagators(); p != null; p = p.getNext()) {
+            if (p.isWokenBy(e)) {
+               enqueue(p.getConstraint(), p.getPriority());
+            }
          }
       }
+      return ExpressionResult.VALID;
    }
 }
@@ -0,0 +1,150 @@
+/*
+ * Copyright 2026 S. Webber
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projog.core.predicate.builtin.clp;
+
+import static org.projog.core.term.TermUtils.castToNumeric;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.projog.clp.Constraint;
+import org.projog.clp.Expression;
+import org.projog.core.ProjogException;
+import org.projog.core.kb.KnowledgeBaseServiceLocator;
+import org.projog.core.predicate.AbstractSingleResultPredicate;
+import org.projog.core.term.EmptyList;
+import org.projog.core.term.ListUtils;
+import org.projog.core.term.Term;
+import org.projog.core.term.TermType;
+
+/* TEST
+%?- cumulative([task(S1,3,E1,1,a), task(S2,2,E2,1,b)]), [S1,S2] ins 0..4, S1#=<1
+% E1=3..4
+% E2=5..6
+% S1=0..1
+% S2=3..4
+%?- cumulative([task(S1,3,E1,1,a), task(S2,2,E2,1,b)], [limit(2)]), [S1,S2] ins 0..4, S1#=<1
+% E1=3..4
+% E2=2..6
+% S1=0..1
+% S2=0..4
+%?- cumulative([task(S1,2,E1,2,a), task(S2,2,E2,1,b), task(S3,2,E3,1,c)], [limit(2)]), [S1,S2,S3] ins 0..3, S1#=1
+% E1=3
+% E2=5
+% E3=5
+% S1=1
+% S2=3
+% S3=3
+%?- cumulative([task(S1,2,_,1,a), task(S2,2,_,1,b), task(S3,1,_,1,c)]), [S1,S2,S3] ins 0..4, S1#=<S2, S2#=<S3, label([S1,S2,S3])
+% S1=0
+% S2=2
+% S3=4
+%NO
+
+%FAIL cumulative([task(0,2,_,1,a), task(1,2,_,1,b)])
+%TRUE cumulative([task(0,2,_,1,a), task(2,2,_,1,b)])
+%TRUE cumulative([task(0,2,_,1,a), task(1,2,_,1,b)], [limit(2)])
+%FAIL cumulative([task(0,2,_,3,a)], [limit(2)])
+%?- cumulative([task(1,2,E,1,a)])
+% E=3
+%TRUE cumulative([])
+
+%?- cumulative([x])
+%ERROR Expected task(Start,Duration,End,Resource,Id) but got: x
+%?- cumulative([], [x])
+%ERROR Unexpected option: x
+*/
+/**
+ * <code>cumulative(Tasks)</code> / <code>cumulative(Tasks,Options)</code> - enforce that the total resource usage of
+ * the tasks running at any time does not exceed a limit.
+ * <p>
+ * Each element of <code>Tasks</code> is of the form <code>task(Start,Duration,End,Resource,Id)</code>, where
+ * <code>End</code> is <code>Start+Duration</code>. <code>Options</code> can contain <code>limit(L)</code> to specify
+ * the limit, which defaults to <code>1</code>.
+ * </p>
+ */
+public final class Cumulative extends AbstractSingleResultPredicate {
+   private ExpressionFactories expressions;
+
+   @Override
+   protected void init() {
+      expressions = KnowledgeBaseServiceLocator.getServiceLocator(getKnowledgeBase()).getInstance(ExpressionFactories.class);
+   }
+
+   @Override
+   public boolean evaluate(Term tasks) {
+      return evaluate(tasks, EmptyList.EMPTY_LIST);
+   }
+
+   @Override
+   public boolean evaluate(Term tasks, Term options) {
+      long limit = getLimit(options);
+      List<Term> taskTerms = ListUtils.toJavaUtilList(tasks);
+      if (taskTerms == null) {
+         throw new ProjogException("Expected list but got: " + tasks.getType() + " with value: " + tasks);
+      }
+
+      Set<ClpVariable> vars = new HashSet<>();
+      List<Constraint> constraints = new ArrayList<>();
+      Expression[] args = new Expression[taskTerms.size() * 4];
+      for (int i = 0; i < taskTerms.size(); i++) {
+         Term task = taskTerms.get(i);
+         if (task.getType() != TermType.STRUCTURE || !"task".equals(task.getName()) || task.getNumberOfArguments() != 5) {
+            throw new ProjogException("Expected task(Start,Duration,End,Resource,Id) but got: " + task);
+         }
+         Set<ClpVariable> taskVars = new HashSet<>();
+         Expression start = expressions.toExpression(task.getArgument(0), taskVars);
+         Expression duration = expressions.toExpression(task.getArgument(1), taskVars);
+         Expression end = expressions.toExpression(task.getArgument(2), taskVars);
+         args[i * 4] = start;
+         args[i * 4 + 1] = duration;
+         args[i * 4 + 2] = end;
+         args[i * 4 + 3] = expressions.toExpression(task.getArgument(3), vars);
+         // start + duration - end = 0
+         LinearConstraint rule = new LinearConstraint(new long[] {1, 1, -1}, new Expression[] {start, duration, end}, 0, LinearConstraint.Relation.EQUAL);
+         for (ClpVariable c : taskVars) {
+            c.addConstraint(rule);
+         }
+         constraints.add(rule);
+         vars.addAll(taskVars);
+      }
+
+      CumulativeConstraint rule = new CumulativeConstraint(args, limit);
+      for (ClpVariable c : vars) {
+         c.addConstraint(rule);
+      }
+      constraints.add(rule);
+      return new CoreConstraintStore(constraints).resolve();
+   }
+
+   private static long getLimit(Term options) {
+      List<Term> optionTerms = ListUtils.toJavaUtilList(options);
+      if (optionTerms == null) {
+         throw new ProjogException("Expected list but got: " + options.getType() + " with value: " + options);
+      }
+      long limit = 1;
+      for (Term option : optionTerms) {
+         if (option.getType() == TermType.STRUCTURE && "limit".equals(option.getName()) && option.getNumberOfArguments() == 1) {
+            limit = castToNumeric(option.getArgument(0)).getLong();
+         } else {
+            throw new ProjogException("Unexpected option: " + option);
+         }
+      }
+      return limit;
+   }
+}
@@ -0,0 +1,230 @@
+/*
+ * Copyright 2026 S. Webber
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projog.core.predicate.builtin.clp;
+
+import static org.projog.clp.math.MathUtils.safeAdd;
+import static org.projog.clp.math.MathUtils.safeSubtract;
+
+import java.util.Arrays;
+
+import org.projog.clp.ConstraintResult;
+import org.projog.clp.ConstraintStore;
+import org.projog.clp.Expression;
+import org.projog.clp.ExpressionResult;
+
+/**
+ * Constrains tasks so that the total resource usage of the tasks running at any time does not exceed a limit.
+ * <p>
+ * Each task has a start time, a duration, an end time and a resource usage. A task runs from its start time up to, but
+ * not including, its start time plus its duration. Enforcing that the end time is the start time plus the duration is
+ * the responsibility of a separate constraint.
+ * <p>
+ * Enforced using time-tabling. A task whose latest start is before its earliest end must be running between those two
+ * times, and the resource usage of all such "compulsory parts" form a profile. The earliest start of each task is then
+ * delayed until the task fits within the profile, and the latest start brought forward likewise.
+ */
+final class CumulativeConstraint extends GlobalConstraint {
+   private static final int START = 0;
+   private static final int DURATION = 1;
+   private static final int END = 2;
+   private static final int RESOURCE = 3;
+   private static final int EXPRESSIONS_PER_TASK = 4;
+
+   private final long limit;
+
+   /**
+    * @param expressions the start, duration, end and resource usage of each task
+    * @param limit the maximum total resource usage at any time
+    */
+   CumulativeConstraint(Expression[] expressions, long limit) {
+      super(expressions);
+      if (expressions.length % EXPRESSIONS_PER_TASK != 0) {
+         throw new IllegalArgumentException("Expected " + EXPRESSIONS_PER_TASK + " expressions per task but got: " + expressions.length);
+      }
+      this.limit = limit;
+   }
+
+   @Override
+   CumulativeConstraint create(Expression[] expressions) {
+      return new CumulativeConstraint(expressions, limit);
+   }
+
+   @Override
+   DomainEvent getEvent() {
+      return DomainEvent.BOUNDS;
+   }
+
+   @Override
+   boolean isSatisfied(long[] values) {
+      int numTasks = values.length / EXPRESSIONS_PER_TASK;
+      for (int t = 0; t < numTasks; t++) {
+         int i = t * EXPRESSIONS_PER_TASK;
+         if (values[i + DURATION] < 0 || values[i + RESOURCE] < 0 || values[i + RESOURCE] > limit) {
+            return false;
+         }
+      }
+      // the total resource usage can only increase at the start of a task
+      for (int t = 0; t < numTasks; t++) {
+         long time = values[t * EXPRESSIONS_PER_TASK + START];
+         long total = 0;
+         for (int other = 0; other < numTasks; other++) {
+            int i = other * EXPRESSIONS_PER_TASK;
+            if (values[i + START] <= time && time < safeAdd(values[i + START], values[i + DURATION])) {
+               total = safeAdd(total, values[i + RESOURCE]);
+            }
+         }
+         if (total > limit) {
+            return false;
+         }
+      }
+      return true;
+   }
+
+   @Override
+   public ConstraintResult enforce(ConstraintStore s) {
+      Expression[] expressions = getExpressions();
+      int numTasks = expressions.length / EXPRESSIONS_PER_TASK;
+      long[] earliestStarts = new long[numTasks];
+      long[] latestStarts = new long[numTasks];
+      long[] durations = new long[numTasks];
+      long[] resources = new long[numTasks];
+      for (int t = 0; t < numTasks; t++) {
+         int i = t * EXPRESSIONS_PER_TASK;
+         if (expressions[i + DURATION].setMin(s, 0) == ExpressionResult.INVALID
+             || expressions[i + RESOURCE].setMin(s, 0) == ExpressionResult.INVALID
+             || expressions[i + RESOURCE].setMax(s, limit) == ExpressionResult.INVALID) {
+            return ConstraintResult.FAILED;
+         }
+         earliestStarts[t] = expressions[i + START].getMin(s);
+         latestStarts[t] = expressions[i + START].getMax(s);
+         durations[t] = expressions[i + DURATION].getMin(s);
+         resources[t] = expressions[i + RESOURCE].getMin(s);
+      }
+
+      Profile profile = new Profile(earliestStarts, latestStarts, durations, resources);
+      if (profile.getMaxHeight() > limit) {
+         return ConstraintResult.FAILED;
+      }
+
+      for (int t = 0; t < numTasks; t++) {
+         if (durations[t] == 0 || resources[t] == 0 || !isBounded(earliestStarts[t], latestStarts[t], durations[t])) {
+            continue;
+         }
+         Expression start = expressions[t * EXPRESSIONS_PER_TASK + START];
+         if (start.setMin(s, profile.getEarliestStart(t, limit)) == ExpressionResult.INVALID
+             || start.setMax(s, profile.getLatestStart(t, limit)) == ExpressionResult.INVALID) {
+            return ConstraintResult.FAILED;
+         }
+      }
+
+      return isFixed(s) ? reify(s) : ConstraintResult.UNRESOLVED;
+   }
+
+   /** Returns {@code true} if the start and end times of a task can be calculated without overflowing. */
+   private static boolean isBounded(long earliestStart, long latestStart, long duration) {
+      return earliestStart != Long.MIN_VALUE && latestStart != Long.MAX_VALUE && safeAdd(latestStart, duration) != Long.MAX_VALUE;
+   }
+
+   /** The total resource usage of the compulsory parts of the tasks over time. */
+   private static final class Profile {
+      private final long[] earliestStarts;
+      private final long[] latestStarts;
+      private final long[] durations;
+      private final long[] resources;
+      /** The times at which the height of the profile can change, in ascending order. */
+      private final long[] times;
+      /** The height of the profile from each time up to, but not including, the next time. */
+      private final long[] heights;
+
+      Profile(long[] earliestStarts, long[] latestStarts, long[] durations, long[] resources) {
+         this.earliestStarts = earliestStarts;
+         this.latestStarts = latestStarts;
+         this.durations = durations;
+         this.resources = resources;
+
+         int numTasks = earliestStarts.length;
+         long[] allTimes = new long[numTasks * 2];
+         int numTimes = 0;
+         for (int t = 0; t < numTasks; t++) {
+            if (hasCompulsoryPart(t)) {
+               allTimes[numTimes++] = latestStarts[t];
+               allTimes[numTimes++] = earliestStarts[t] + durations[t];
+            }
+         }
+         Arrays.sort(allTimes, 0, numTimes);
+         int distinct = 0;
+         for (int i = 0; i < numTimes; i++) {
+            if (distinct == 0 || allTimes[i] != allTimes[distinct - 1]) {
+               allTimes[distinct++] = allTimes[i];
+            }
+         }
+         times = Arrays.copyOf(allTimes, distinct);
+         heights = new long[distinct];
+         for (int t = 0; t < numTasks; t++) {
+            if (hasCompulsoryPart(t)) {
+               int from = Arrays.binarySearch(times, latestStarts[t]);
+               int to = Arrays.binarySearch(times, earliestStarts[t] + durations[t]);
+               for (int i = from; i < to; i++) {
+                  heights[i] += resources[t];
+               }
+            }
+         }
+      }
+
+      private boolean hasCompulsoryPart(int t) {
+         return resources[t] > 0 && isBounded(earliestStarts[t], latestStarts[t], durations[t]) && latestStarts[t] < earliestStarts[t] + durations[t];
+      }
+
+      long getMaxHeight() {
+         long max = 0;
+         for (long h : heights) {
+            max = Math.max(max, h);
+         }
+         return max;
+      }
+
+      /** Returns the height of the profile from {@code times[i]}, excluding the compulsory part of the specified task. */
+      private long getHeightExcluding(int i, int t) {
+         long height = heights[i];
+         if (hasCompulsoryPart(t) && times[i] >= latestStarts[t] && times[i] < earliestStarts[t] + durations[t]) {
+            height -= resources[t];
+         }
+         return height;
+      }
+
+      /** Returns the earliest time the specified task can start without exceeding the limit. */
+      long getEarliestStart(int t, long limit) {
+         long start = earliestStarts[t];
+         for (int i = 0; i < times.length - 1; i++) {
+            if (times[i] < start + durations[t] && times[i + 1] > start && getHeightExcluding(i, t) + resources[t] > limit) {
+               start = times[i + 1];
+            }
+         }
+         return start;
+      }
+
+      /** Returns the latest time the specified task can start without exceeding the limit. */
+      long getLatestStart(int t, long limit) {
+         long start = latestStarts[t];
+         for (int i = times.length - 2; i >= 0; i--) {
+            if (times[i] < start + durations[t] && times[i + 1] > start && getHeightExcluding(i, t) + resources[t] > limit) {
+               start = safeSubtract(times[i], durations[t]);
+            }
+         }
+         return start;
+      }
+   }
+}
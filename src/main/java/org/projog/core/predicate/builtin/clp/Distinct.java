@@ -19,7 +19,10 @@ import static org.projog.core.term.TermUtils.assertType;
 import static org.projog.core.term.TermUtils.castToNumeric;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 import org.projog.clp.Constraint;
 import org.projog.clp.Expression;
@@ -66,15 +69,82 @@ import org.projog.core.term.TermType;
 %ERROR Expected LIST but got: ATOM with value: x
 %?- all_different([x])
 %ERROR Unexpected term of type: ATOM with value: x
+
+% all_distinct/1 considers all of the variables together, so can remove values that all_different/1 cannot.
+%FAIL all_distinct([X,Y,Z]), [X,Y,Z] ins 1..2
+%?- all_distinct([X,Y,Z]), X in 1..2, Y in 1..2, Z in 1..3
+% X=1..2
+% Y=1..2
+% Z=3
+%?- all_different([X,Y,Z]), X in 1..2, Y in 1..2, Z in 1..3
+% X=1..2
+% Y=1..2
+% Z=1..3
+%?- all_distinct([X,Y,Z]), [X,Y,Z] ins 1..3, Y#=2
+% X={1, 3}
+% Y=2
+% Z={1, 3}
+%?- all_distinct([X,Y,Z]), [X,Y,Z] ins 1..3, label([X,Y,Z])
+% X=1
+% Y=2
+% Z=3
+% X=1
+% Y=3
+% Z=2
+% X=2
+% Y=1
+% Z=3
+% X=2
+% Y=3
+% Z=1
+% X=3
+% Y=1
+% Z=2
+% X=3
+% Y=2
+% Z=1
+%NO
+
+%TRUE all_distinct([])
+%TRUE all_distinct([6,7,8])
+%FAIL all_distinct([6,7,6])
+%FAIL all_distinct([X,X]), X in 1..3
+%?- all_distinct(x)
+%ERROR Expected LIST but got: ATOM with value: x
 */
 /**
- * <code>all_different([X,Y,Z])</code> - enforce that none of the given CLP variables share the same value.
+ * <code>all_different([X,Y,Z])</code> / <code>all_distinct([X,Y,Z])</code> - enforce that none of the given CLP
+ * variables share the same value.
+ * <p>
+ * <code>all_different</code> is enforced by a separate constraint between each pair of variables, so a value is only
+ * removed from a variable when another variable has that as its single possible value. <code>all_distinct</code> is
+ * enforced by a single constraint that considers all the variables together, so also removes values that can not be
+ * part of any solution - e.g. if two variables can only be <code>1</code> or <code>2</code> then neither value is
+ * available to a third variable.
  */
 public final class Distinct extends AbstractSingleResultPredicate {
+   public static Distinct allDifferent() {
+      return new Distinct(false);
+   }
+
+   public static Distinct allDistinct() {
+      return new Distinct(true);
+   }
+
+   private final boolean global;
+
+   private Distinct(boolean global) {
+      this.global = global;
+   }
+
    @Override
    public boolean evaluate(Term arg) {
       List<Expression> expressions = getOrCreateVariables(arg);
-      List<Constraint> constraints = createConstraints(expressions);
+      if (global && containsDuplicateVariable(expressions)) {
+         // a variable can not have a different value to itself
+         return false;
+      }
+      List<Constraint> constraints = global ? createGlobalConstraint(expressions) : createConstraints(expressions);
       return new CoreConstraintStore(constraints).resolve();
    }
 
@@ -103,6 +173,26 @@ public final class Distinct extends AbstractSingleResultPredicate {
       return expressions;
    }
 
+   private static boolean containsDuplicateVariable(List<Expression> expressions) {
+      Set<ClpVariable> variables = new HashSet<>();
+      for (Expression e : expressions) {
+         if (e instanceof ClpVariable && !variables.add(((ClpVariable) e).getTerm())) {
+            return true;
+         }
+      }
+      return false;
+   }
+
+   private List<Constraint> createGlobalConstraint(List<Expression> expressions) {
+      AllDistinctConstraint constraint = new AllDistinctConstraint(expressions.toArray(new Expression[expressions.size()]));
+      for (Expression e : expressions) {
+         if (e instanceof ClpVariable) {
+            ((ClpVariable) e).addConstraint(constraint);
+         }
+      }
+      return Collections.singletonList(constraint);
+   }
+
    private List<Constraint> createConstraints(List<Expression> expressions) {
       List<Constraint> constraints = new ArrayList<>();
 
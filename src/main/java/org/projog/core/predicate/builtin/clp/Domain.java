@@ -0,0 +1,546 @@
+/*
+ * Copyright 2026 S. Webber
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projog.core.predicate.builtin.clp;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+import org.projog.clp.VariableStateResult;
+
+/**
+ * The possible values of a CLP variable.
+ * <p>
+ * A domain without any gaps between its minimum and maximum values is represented by just those two values. Once a
+ * value between them has been removed the representation depends on the number of values between the minimum and
+ * maximum. If there are no more than {@link #MAX_BITSET_RANGE} then a bitset is used, else a sorted list of disjoint
+ * intervals is used. An interval list is replaced by a bitset when its minimum and maximum are narrowed enough, and
+ * either is replaced by just the minimum and maximum when no gaps remain.
+ * <p>
+ * Whatever the representation, the minimum and maximum values and the number of possible values are recorded - so
+ * {@link #getMin()}, {@link #getMax()} and {@link #count()} take constant time.
+ * <p>
+ * Instances are mutable. Use {@link #copy()} before changing a domain that may be referred to elsewhere. Once a change
+ * has failed the domain is "corrupt" and must not be used again.
+ */
+final class Domain {
+   /** The maximum number of values between the minimum and maximum of a domain represented by a bitset. */
+   static final int MAX_BITSET_RANGE = 4096;
+
+   private long min;
+   private long max;
+   /** The number of possible values, or {@code Long.MAX_VALUE} if there are more than that. */
+   private long size;
+   /** The value represented by the first bit of {@link #bits}. */
+   private long offset;
+   /** The possible values, relative to {@link #offset}, or {@code null} if not represented as a bitset. */
+   private BitSet bits;
+   /**
+    * The possible values as pairs of minimum and maximum values, in ascending order, or {@code null} if not represented
+    * as an interval list.
+    */
+   private long[] intervals;
+   /** The number of pairs in {@link #intervals}. */
+   private int intervalCount;
+   private boolean corrupt;
+
+   /** Creates a domain containing every {@code long} value. */
+   Domain() {
+      this(Long.MIN_VALUE, Long.MAX_VALUE);
+   }
+
+   /** Creates a domain containing every value from {@code min} to {@code max} inclusive. */
+   Domain(long min, long max) {
+      if (min > max) {
+         throw new IllegalArgumentException(min + " > " + max);
+      }
+      this.min = min;
+      this.max = max;
+      this.size = rangeSize(min, max);
+   }
+
+   /**
+    * Creates a domain containing the values of the specified ranges.
+    *
+    * @param ranges pairs of minimum and maximum values, in ascending order and not overlapping
+    */
+   Domain(long[] ranges) {
+      if (ranges.length == 0 || ranges.length % 2 != 0) {
+         throw new IllegalArgumentException(Arrays.toString(ranges));
+      }
+      long[] merged = new long[ranges.length];
+      int count = 0;
+      for (int i = 0; i < ranges.length; i += 2) {
+         long lo = ranges[i];
+         long hi = ranges[i + 1];
+         if (lo > hi || (count > 0 && lo <= merged[count * 2 - 1])) {
+            throw new IllegalArgumentException(Arrays.toString(ranges));
+         } else if (count > 0 && lo == merged[count * 2 - 1] + 1) {
+            merged[count * 2 - 1] = hi;
+         } else {
+            merged[count * 2] = lo;
+            merged[count * 2 + 1] = hi;
+            count++;
+         }
+      }
+      this.min = merged[0];
+      this.max = merged[count * 2 - 1];
+      if (count == 1) {
+         this.size = rangeSize(min, max);
+      } else {
+         this.intervals = merged;
+         this.intervalCount = count;
+         normaliseIntervals();
+      }
+   }
+
+   private Domain(Domain original) {
+      this.min = original.min;
+      this.max = original.max;
+      this.size = original.size;
+      this.offset = original.offset;
+      this.bits = original.bits == null ? null : (BitSet) original.bits.clone();
+      if (original.intervals != null) {
+         this.intervals = Arrays.copyOf(original.intervals, original.intervalCount * 2);
+      }
+      this.intervalCount = original.intervalCount;
+      this.corrupt = original.corrupt;
+   }
+
+   /**
+    * Returns a domain containing the values that are in both of the specified domains.
+    *
+    * @return {@code null} if there are no values in both domains, else {@code a} or {@code b} if it contains the same
+    * values as the result, else a new domain
+    */
+   static Domain and(Domain a, Domain b) {
+      a.validate();
+      b.validate();
+      if (a == b) {
+         return a;
+      }
+
+      long lo = Math.max(a.min, b.min);
+      long hi = Math.min(a.max, b.max);
+      if (lo > hi) {
+         return null;
+      }
+      if (!a.hasGaps() && !b.hasGaps()) {
+         if (a.min == lo && a.max == hi) {
+            return a;
+         } else if (b.min == lo && b.max == hi) {
+            return b;
+         } else {
+            return new Domain(lo, hi);
+         }
+      }
+
+      // find the runs of consecutive values that are in both domains
+      long[] ranges = new long[8];
+      int length = 0;
+      long v = lo;
+      while (true) {
+         long x = a.nextValue(v);
+         if (x > hi) {
+            break;
+         }
+         long y = b.nextValue(x);
+         if (y > hi) {
+            break;
+         }
+         if (x == y) {
+            long end = Math.min(hi, Math.min(a.runEnd(x), b.runEnd(x)));
+            if (length == ranges.length) {
+               ranges = Arrays.copyOf(ranges, length * 2);
+            }
+            ranges[length++] = x;
+            ranges[length++] = end;
+            if (end == hi) {
+               break;
+            }
+            v = end + 1;
+         } else {
+            v = y;
+         }
+      }
+
+      if (length == 0) {
+         return null;
+      } else if (a.hasRanges(ranges, length)) {
+         return a;
+      } else if (b.hasRanges(ranges, length)) {
+         return b;
+      } else {
+         return new Domain(Arrays.copyOf(ranges, length));
+      }
+   }
+
+   /** Returns {@code true} if this domain contains exactly the values of the specified ranges. */
+   private boolean hasRanges(long[] ranges, int length) {
+      if (min != ranges[0] || max != ranges[length - 1]) {
+         return false;
+      }
+      long v = min;
+      for (int i = 0; i < length; i += 2) {
+         if (v != ranges[i] || runEnd(v) != ranges[i + 1]) {
+            return false;
+         }
+         if (i + 2 < length) {
+            v = nextValue(ranges[i + 1] + 1);
+         }
+      }
+      return true;
+   }
+
+   long getMin() {
+      validate();
+      return min;
+   }
+
+   long getMax() {
+      validate();
+      return max;
+   }
+
+   /** Returns the number of possible values, or {@code Long.MAX_VALUE} if there are more than that. */
+   long count() {
+      validate();
+      return size;
+   }
+
+   boolean isSingleValue() {
+      validate();
+      return min == max;
+   }
+
+   boolean isCorrupt() {
+      return corrupt;
+   }
+
+   /** Returns {@code true} if the specified value is one of the possible values of this domain. */
+   boolean contains(long value) {
+      validate();
+      if (value < min || value > max) {
+         return false;
+      } else if (bits != null) {
+         return bits.get(toIndex(value));
+      } else if (intervals != null) {
+         return intervals[findInterval(value) * 2] <= value;
+      } else {
+         return true;
+      }
+   }
+
+   /**
+    * Returns the smallest possible value that is greater than or equal to the specified value.
+    * <p>
+    * Can be used to iterate through the possible values, starting with the minimum and ending with the maximum.
+    *
+    * @param value a value that is not greater than the maximum
+    */
+   long nextValue(long value) {
+      if (value <= min) {
+         return min;
+      } else if (bits != null) {
+         return offset + bits.nextSetBit(toIndex(value));
+      } else if (intervals != null) {
+         return Math.max(value, intervals[findInterval(value) * 2]);
+      } else {
+         return value;
+      }
+   }
+
+   /**
+    * Returns every possible value, in ascending order.
+    *
+    * @throws IllegalStateException if there are too many possible values to fit in an array
+    */
+   long[] getValues() {
+      validate();
+      if (size > Integer.MAX_VALUE - 8) {
+         throw new IllegalStateException("Too many possible values: " + size);
+      }
+      long[] values = new long[(int) size];
+      long v = min;
+      for (int i = 0;; i++) {
+         values[i] = v;
+         if (i + 1 == values.length) {
+            return values;
+         }
+         v = nextValue(v + 1);
+      }
+   }
+
+   /** Returns the largest value such that it, and every value from the specified possible value to it, is possible. */
+   private long runEnd(long value) {
+      if (bits != null) {
+         return Math.min(max, offset + bits.nextClearBit(toIndex(value)) - 1);
+      } else if (intervals != null) {
+         return intervals[findInterval(value) * 2 + 1];
+      } else {
+         return max;
+      }
+   }
+
+   VariableStateResult setValue(long value) {
+      validate();
+      if (!contains(value)) {
+         return fail();
+      } else if (min == max) {
+         return VariableStateResult.NO_CHANGE;
+      } else {
+         min = value;
+         max = value;
+         removeGaps();
+         return VariableStateResult.UPDATED;
+      }
+   }
+
+   VariableStateResult setMin(long newMin) {
+      validate();
+      if (newMin <= min) {
+         return VariableStateResult.NO_CHANGE;
+      } else if (newMin > max) {
+         return fail();
+      }
+
+      if (bits != null) {
+         int index = bits.nextSetBit(toIndex(newMin));
+         bits.clear(0, index);
+         min = offset + index;
+         size = bits.cardinality();
+         if (size == rangeSize(min, max)) {
+            removeGaps();
+         }
+      } else if (intervals != null) {
+         int index = findInterval(newMin);
+         System.arraycopy(intervals, index * 2, intervals, 0, (intervalCount - index) * 2);
+         intervalCount -= index;
+         intervals[0] = Math.max(intervals[0], newMin);
+         min = intervals[0];
+         normaliseIntervals();
+      } else {
+         min = newMin;
+         size = rangeSize(min, max);
+      }
+      return VariableStateResult.UPDATED;
+   }
+
+   VariableStateResult setMax(long newMax) {
+      validate();
+      if (newMax >= max) {
+         return VariableStateResult.NO_CHANGE;
+      } else if (newMax < min) {
+         return fail();
+      }
+
+      if (bits != null) {
+         int index = bits.previousSetBit(toIndex(newMax));
+         bits.clear(index + 1, toIndex(max) + 1);
+         max = offset + index;
+         size = bits.cardinality();
+         if (size == rangeSize(min, max)) {
+            removeGaps();
+         }
+      } else if (intervals != null) {
+         int index = findInterval(newMax);
+         if (intervals[index * 2] > newMax) {
+            index--;
+         }
+         intervalCount = index + 1;
+         intervals[index * 2 + 1] = Math.min(intervals[index * 2 + 1], newMax);
+         max = intervals[index * 2 + 1];
+         normaliseIntervals();
+      } else {
+         max = newMax;
+         size = rangeSize(min, max);
+      }
+      return VariableStateResult.UPDATED;
+   }
+
+   VariableStateResult setNot(long not) {
+      validate();
+      if (not < min || not > max) {
+         return VariableStateResult.NO_CHANGE;
+      } else if (min == max) {
+         return fail();
+      } else if (not == min) {
+         return setMin(not + 1);
+      } else if (not == max) {
+         return setMax(not - 1);
+      }
+
+      if (bits != null) {
+         int index = toIndex(not);
+         if (!bits.get(index)) {
+            return VariableStateResult.NO_CHANGE;
+         }
+         bits.clear(index);
+         size--;
+      } else if (intervals != null) {
+         int index = findInterval(not);
+         long lo = intervals[index * 2];
+         long hi = intervals[index * 2 + 1];
+         if (lo > not) {
+            return VariableStateResult.NO_CHANGE;
+         } else if (lo == hi) {
+            System.arraycopy(intervals, index * 2 + 2, intervals, index * 2, (intervalCount - index - 1) * 2);
+            intervalCount--;
+         } else if (lo == not) {
+            intervals[index * 2] = not + 1;
+         } else if (hi == not) {
+            intervals[index * 2 + 1] = not - 1;
+         } else {
+            if (intervalCount * 2 == intervals.length) {
+               intervals = Arrays.copyOf(intervals, intervals.length * 2);
+            }
+            System.arraycopy(intervals, index * 2, intervals, index * 2 + 2, (intervalCount - index) * 2);
+            intervalCount++;
+            intervals[index * 2 + 1] = not - 1;
+            intervals[index * 2 + 2] = not + 1;
+         }
+         if (size != Long.MAX_VALUE) {
+            size--;
+         } else {
+            size = sumIntervals();
+         }
+      } else if (rangeSize(min, max) <= MAX_BITSET_RANGE) {
+         int range = (int) rangeSize(min, max);
+         offset = min;
+         bits = new BitSet(range);
+         bits.set(0, range);
+         bits.clear(toIndex(not));
+         size = range - 1;
+      } else {
+         intervals = new long[] {min, not - 1, not + 1, max};
+         intervalCount = 2;
+         size = sumIntervals();
+      }
+      return VariableStateResult.UPDATED;
+   }
+
+   Domain copy() {
+      return new Domain(this);
+   }
+
+   /** Returns the index of the first interval whose maximum is greater than or equal to the specified value. */
+   private int findInterval(long value) {
+      int low = 0;
+      int high = intervalCount - 1;
+      while (low < high) {
+         int mid = (low + high) >>> 1;
+         if (intervals[mid * 2 + 1] < value) {
+            low = mid + 1;
+         } else {
+            high = mid;
+         }
+      }
+      return low;
+   }
+
+   /** Recalculates {@link #size} and chooses the representation to use after {@link #intervals} has been altered. */
+   private void normaliseIntervals() {
+      if (intervalCount == 1) {
+         removeGaps();
+      } else if (rangeSize(min, max) <= MAX_BITSET_RANGE) {
+         offset = min;
+         bits = new BitSet((int) rangeSize(min, max));
+         for (int i = 0; i < intervalCount * 2; i += 2) {
+            bits.set(toIndex(intervals[i]), toIndex(intervals[i + 1]) + 1);
+         }
+         size = bits.cardinality();
+         intervals = null;
+         intervalCount = 0;
+      } else {
+         size = sumIntervals();
+      }
+   }
+
+   private long sumIntervals() {
+      long total = 0;
+      for (int i = 0; i < intervalCount * 2; i += 2) {
+         total += rangeSize(intervals[i], intervals[i + 1]);
+         if (total < 0) {
+            return Long.MAX_VALUE;
+         }
+      }
+      return total;
+   }
+
+   private void removeGaps() {
+      bits = null;
+      intervals = null;
+      intervalCount = 0;
+      size = rangeSize(min, max);
+   }
+
+   private boolean hasGaps() {
+      return bits != null || intervals != null;
+   }
+
+   private int toIndex(long value) {
+      return (int) (value - offset);
+   }
+
+   /** Returns the number of values from {@code min} to {@code max} inclusive, or {@code Long.MAX_VALUE} if more. */
+   private static long rangeSize(long min, long max) {
+      long difference = max - min;
+      // a negative difference means the subtraction overflowed
+      return difference < 0 || difference == Long.MAX_VALUE ? Long.MAX_VALUE : difference + 1;
+   }
+
+   private VariableStateResult fail() {
+      corrupt = true;
+      return VariableStateResult.FAILED;
+   }
+
+   private void validate() {
+      if (corrupt) {
+         throw new IllegalStateException();
+      }
+   }
+
+   @Override
+   public String toString() {
+      if (corrupt) {
+         return "corrupt";
+      } else if (min == max) {
+         return Long.toString(min);
+      } else if (bits != null) {
+         StringBuilder sb = new StringBuilder("{");
+         for (int i = bits.nextSetBit(0); i != -1; i = bits.nextSetBit(i + 1)) {
+            if (sb.length() > 1) {
+               sb.append(", ");
+            }
+            sb.append(offset + i);
+         }
+         return sb.append('}').toString();
+      } else if (intervals != null) {
+         StringBuilder sb = new StringBuilder("{");
+         for (int i = 0; i < intervalCount * 2; i += 2) {
+            if (i > 0) {
+               sb.append(", ");
+            }
+            sb.append(intervals[i]);
+            if (intervals[i] != intervals[i + 1]) {
+               sb.append("..").append(intervals[i + 1]);
+            }
+         }
+         return sb.append('}').toString();
+      } else {
+         return min + ".." + max;
+      }
+   }
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright 2026 S. Webber
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projog.core.predicate.builtin.clp;
+
+/**
+ * A change to the possible values of a CLP variable.
+ * <p>
+ * Ordered from the most to the least specific. Each event implies the events after it - e.g. a variable that has been
+ * fixed to a single value will also have had its bounds changed.
+ *
+ * @see Propagator#isWokenBy(DomainEvent)
+ */
+enum DomainEvent {
+   /** The variable now has a single possible value. */
+   VALUE,
+   /** The minimum or maximum possible value of the variable has changed. */
+   BOUNDS,
+   /** A value between the minimum and maximum possible values of the variable has been removed. */
+   DOMAIN;
+
+   /**
+    * Returns the event that describes a change to the possible values of a variable.
+    *
+    * @param oldMin the minimum possible value before the change
+    * @param oldMax the maximum possible value before the change
+    * @param domain the possible values after the change
+    */
+   static DomainEvent get(long oldMin, long oldMax, Domain domain) {
+      long min = domain.getMin();
+      long max = domain.getMax();
+      if (min == max) {
+         return VALUE;
+      } else if (min != oldMin || max != oldMax) {
+         return BOUNDS;
+      } else {
+         return DOMAIN;
+      }
+   }
+}
@@ -0,0 +1,34 @@
+/*
+ * Copyright 2026 S. Webber
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projog.core.predicate.builtin.clp;
+
+import org.projog.clp.ConstraintStore;
+import org.projog.clp.Expression;
+
+/**
+ * A {@code ConstraintStore} that provides every possible value of a variable, rather than just the minimum and maximum.
+ * <p>
+ * Used by the global constraints (see {@link GlobalConstraint}) to remove values from between the minimum and maximum.
+ */
+interface DomainStore extends ConstraintStore {
+   /**
+    * Returns the possible values of the specified expression.
+    * <p>
+    * The returned domain must not be altered by the caller, and may be altered by later changes made to the store. For
+    * an expression that is not a variable the returned domain contains every value between its minimum and maximum.
+    */
+   Domain getDomain(Expression e);
+}
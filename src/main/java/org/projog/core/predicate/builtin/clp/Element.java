@@ -0,0 +1,93 @@
+/*
+ * Copyright 2026 S. Webber
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projog.core.predicate.builtin.clp;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.projog.clp.Expression;
+import org.projog.core.ProjogException;
+import org.projog.core.kb.KnowledgeBaseServiceLocator;
+import org.projog.core.predicate.AbstractSingleResultPredicate;
+import org.projog.core.term.Term;
+
+/* TEST
+%?- element(I, [3,5,7], X)
+% I=1..3
+% X={3, 5, 7}
+%?- element(I, [3,5,7], X), X#>4
+% I=2..3
+% X={5, 7}
+%?- element(I, [3,5,7], X), X#\=5
+% I={1, 3}
+% X={3, 7}
+%?- element(2, [3,5,7], X)
+% X=5
+%?- element(I, [3,5,7], 7)
+% I=3
+%?- element(I, [A,B], X), A in 1..3, B in 5..7, X in 2..4
+% A=2..3
+% B=5..7
+% I=1
+% X=2..3
+%?- element(I, [3,5,7], X), label([I])
+% I=1
+% X=3
+% I=2
+% X=5
+% I=3
+% X=7
+%NO
+
+%FAIL element(4, [3,5,7], X)
+%FAIL element(I, [3,5,7], 4)
+%?- element(I, [], X)
+%ERROR Expected at least one element
+*/
+/**
+ * <code>element(I,List,X)</code> - enforce that <code>X</code> is the <code>I</code>th element of <code>List</code>.
+ * <p>
+ * <code>I</code> is 1-based. The elements of <code>List</code> can be CLP variables, so the constraint can be used to
+ * look up a value by an index whose value is not yet known.
+ * </p>
+ */
+public final class Element extends AbstractSingleResultPredicate {
+   private ExpressionFactories expressions;
+
+   @Override
+   protected void init() {
+      expressions = KnowledgeBaseServiceLocator.getServiceLocator(getKnowledgeBase()).getInstance(ExpressionFactories.class);
+   }
+
+   @Override
+   public boolean evaluate(Term index, Term list, Term value) {
+      Set<ClpVariable> vars = new HashSet<>();
+      Expression[] elements = expressions.toExpressions(list, vars);
+      if (elements.length == 0) {
+         throw new ProjogException("Expected at least one element");
+      }
+      Expression[] args = new Expression[elements.length + 2];
+      args[0] = expressions.toExpression(index, vars);
+      args[1] = expressions.toExpression(value, vars);
+      System.arraycopy(elements, 0, args, 2, elements.length);
+
+      ElementConstraint rule = new ElementConstraint(args);
+      for (ClpVariable c : vars) {
+         c.addConstraint(rule);
+      }
+      return new CoreConstraintStore(rule).resolve();
+   }
+}
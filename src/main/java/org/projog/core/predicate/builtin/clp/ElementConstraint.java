@@ -0,0 +1,146 @@
+/*
+ * Copyright 2026 S. Webber
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projog.core.predicate.builtin.clp;
+
+import java.util.Arrays;
+
+import org.projog.clp.ConstraintResult;
+import org.projog.clp.ConstraintStore;
+import org.projog.clp.Expression;
+import org.projog.clp.ExpressionResult;
+
+/**
+ * Constrains a value to be the element of a list at a position given by an index, where the first element has the
+ * index 1.
+ * <p>
+ * An index is removed if the possible values of its element have no value in common with the possible values of the
+ * value. The value is restricted to the minimum and maximum of the elements at the remaining indexes - or, when those
+ * elements all have a single possible value, to just those values. Once only one index remains, the element at that
+ * index and the value are constrained to have the same minimum and maximum.
+ */
+final class ElementConstraint extends GlobalConstraint {
+   /** The maximum number of possible values of the value to consider removing individually. */
+   private static final int MAX_VALUES = 10000;
+
+   /**
+    * @param expressions the index, followed by the value, followed by the elements of the list
+    */
+   ElementConstraint(Expression[] expressions) {
+      super(expressions);
+      if (expressions.length < 3) {
+         throw new IllegalArgumentException("Expected at least one element but got: " + (expressions.length - 2));
+      }
+   }
+
+   @Override
+   ElementConstraint create(Expression[] expressions) {
+      return new ElementConstraint(expressions);
+   }
+
+   @Override
+   boolean isSatisfied(long[] values) {
+      long index = values[0];
+      return index > 0 && index <= values.length - 2 && values[(int) index + 1] == values[1];
+   }
+
+   @Override
+   public ConstraintResult enforce(ConstraintStore s) {
+      Expression[] expressions = getExpressions();
+      Expression index = expressions[0];
+      Expression value = expressions[1];
+      int numElements = expressions.length - 2;
+      if (index.setMin(s, 1) == ExpressionResult.INVALID || index.setMax(s, numElements) == ExpressionResult.INVALID) {
+         return ConstraintResult.FAILED;
+      }
+
+      // find the indexes to remove before removing any, as removing a value can alter the domains
+      long[] indexes = getDomain(s, index).getValues();
+      Domain values = getDomain(s, value);
+      boolean[] compatible = new boolean[indexes.length];
+      int numCompatible = 0;
+      long[] supported = new long[indexes.length];
+      boolean allFixed = true;
+      long min = Long.MAX_VALUE;
+      long max = Long.MIN_VALUE;
+      for (int i = 0; i < indexes.length; i++) {
+         Domain element = getDomain(s, expressions[(int) indexes[i] + 1]);
+         if (Domain.and(element, values) != null) {
+            compatible[i] = true;
+            min = Math.min(min, Math.max(element.getMin(), values.getMin()));
+            max = Math.max(max, Math.min(element.getMax(), values.getMax()));
+            if (element.isSingleValue()) {
+               supported[numCompatible] = element.getMin();
+            } else {
+               allFixed = false;
+            }
+            numCompatible++;
+         }
+      }
+      if (numCompatible == 0) {
+         return ConstraintResult.FAILED;
+      }
+
+      long lastCompatible = 0;
+      for (int i = 0; i < indexes.length; i++) {
+         if (compatible[i]) {
+            lastCompatible = indexes[i];
+         } else if (index.setNot(s, indexes[i]) == ExpressionResult.INVALID) {
+            return ConstraintResult.FAILED;
+         }
+      }
+      if (value.setMin(s, min) == ExpressionResult.INVALID || value.setMax(s, max) == ExpressionResult.INVALID) {
+         return ConstraintResult.FAILED;
+      }
+      if (allFixed && !removeUnsupportedValues(s, value, Arrays.copyOf(supported, numCompatible))) {
+         return ConstraintResult.FAILED;
+      }
+
+      if (numCompatible == 1) {
+         Expression element = expressions[(int) lastCompatible + 1];
+         // the value and the element at the index must be the same
+         if (element.setMin(s, value.getMin(s)) == ExpressionResult.INVALID
+             || element.setMax(s, value.getMax(s)) == ExpressionResult.INVALID
+             || value.setMin(s, element.getMin(s)) == ExpressionResult.INVALID
+             || value.setMax(s, element.getMax(s)) == ExpressionResult.INVALID) {
+            return ConstraintResult.FAILED;
+         }
+         long v = value.getMin(s);
+         if (v == value.getMax(s) && v == element.getMin(s) && v == element.getMax(s)) {
+            return ConstraintResult.MATCHED;
+         }
+      }
+      return ConstraintResult.UNRESOLVED;
+   }
+
+   /**
+    * Removes the possible values of the specified expression that are not in the specified array.
+    *
+    * @return {@code false} if no possible values remain
+    */
+   private static boolean removeUnsupportedValues(ConstraintStore s, Expression value, long[] supported) {
+      Domain values = getDomain(s, value);
+      if (values.count() > MAX_VALUES) {
+         return true;
+      }
+      Arrays.sort(supported);
+      for (long v : values.getValues()) {
+         if (Arrays.binarySearch(supported, v) < 0 && value.setNot(s, v) == ExpressionResult.INVALID) {
+            return false;
+         }
+      }
+      return true;
+   }
+}
@@ -17,16 +17,21 @@ package org.projog.core.predicate.builtin.clp;
 
 import static org.projog.core.term.TermUtils.castToNumeric;
 
-import java.util.HashMap;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.projog.clp.Expression;
 import org.projog.clp.FixedValue;
 import org.projog.core.ProjogException;
+import org.projog.core.kb.Forkable;
 import org.projog.core.kb.KnowledgeBase;
 import org.projog.core.kb.KnowledgeBaseUtils;
 import org.projog.core.predicate.PredicateKey;
+import org.projog.core.term.ListUtils;
 import org.projog.core.term.Term;
 
 /**
@@ -39,11 +44,11 @@ import org.projog.core.term.Term;
  * Each {@link org.projog.core.kb.KnowledgeBase} has at most one unique {@code ClpExpressions} instance.
  * </p>
  */
-public final class ExpressionFactories {
+public final class ExpressionFactories implements Forkable<ExpressionFactories> {
    private final KnowledgeBase kb;
    private final Object lock = new Object();
-   private final Map<PredicateKey, String> factoryClassNames = new HashMap<>();
-   private final Map<PredicateKey, ExpressionFactory> factoryInstances = new HashMap<>();
+   private final Map<PredicateKey, String> factoryClassNames = new ConcurrentHashMap<>();
+   private final Map<PredicateKey, ExpressionFactory> factoryInstances = new ConcurrentHashMap<>();
 
    public ExpressionFactories(KnowledgeBase kb) {
       this.kb = kb;
@@ -57,6 +62,7 @@ public final class ExpressionFactories {
     * @throws ProjogException if there is already a {@code ExpressionFactory} associated with the {@code PredicateKey}
     */
    public void addExpressionFactory(PredicateKey key, String operatorClassName) {
+      kb.isolateForks();
       synchronized (lock) {
          if (factoryClassNames.containsKey(key)) {
             throw new ProjogException("Already defined CLP expression: " + key);
@@ -66,6 +72,29 @@ public final class ExpressionFactories {
       }
    }
 
+   /**
+    * Returns the class names of the {@link ExpressionFactory} instances associated with this {@code KnowledgeBase}.
+    * <p>
+    * The returned map is ordered by {@code PredicateKey}.
+    */
+   public Map<PredicateKey, String> getExpressionFactoryClassNames() {
+      synchronized (lock) {
+         return Collections.unmodifiableMap(new TreeMap<>(factoryClassNames));
+      }
+   }
+
+   /**
+    * Returns a new {@code ExpressionFactories} that contains the same class names as this instance.
+    */
+   @Override
+   public ExpressionFactories fork(KnowledgeBase fork) {
+      ExpressionFactories copy = new ExpressionFactories(fork);
+      synchronized (lock) {
+         copy.factoryClassNames.putAll(factoryClassNames);
+      }
+      return copy;
+   }
+
    public Expression toExpression(Term t, Set<ClpVariable> vars) {
       switch (t.getType()) {
          case VARIABLE:
@@ -93,6 +122,23 @@ public final class ExpressionFactories {
       }
    }
 
+   /**
+    * Returns the expressions represented by the elements of the specified list.
+    *
+    * @throws ProjogException if {@code list} is not a list
+    */
+   public Expression[] toExpressions(Term list, Set<ClpVariable> vars) {
+      List<Term> terms = ListUtils.toJavaUtilList(list);
+      if (terms == null) {
+         throw new ProjogException("Expected list but got: " + list.getType() + " with value: " + list);
+      }
+      Expression[] result = new Expression[terms.size()];
+      for (int i = 0; i < result.length; i++) {
+         result[i] = toExpression(terms.get(i), vars);
+      }
+      return result;
+   }
+
    private ExpressionFactory getExpressionFactory(PredicateKey key) {
       ExpressionFactory e = factoryInstances.get(key);
       if (e != null) {
@@ -0,0 +1,191 @@
+/*
+ * Copyright 2026 S. Webber
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projog.core.predicate.builtin.clp;
+
+import static org.projog.core.term.TermUtils.castToNumeric;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.projog.clp.Constraint;
+import org.projog.clp.Expression;
+import org.projog.clp.FixedValue;
+import org.projog.core.ProjogException;
+import org.projog.core.kb.KnowledgeBaseServiceLocator;
+import org.projog.core.predicate.AbstractSingleResultPredicate;
+import org.projog.core.term.ListUtils;
+import org.projog.core.term.Term;
+import org.projog.core.term.TermType;
+
+/* TEST
+%?- global_cardinality([X,Y,Z], [1-2,2-1])
+% X=1..2
+% Y=1..2
+% Z=1..2
+%?- global_cardinality([X,Y,Z], [1-2,2-1]), X#=2
+% X=2
+% Y=1
+% Z=1
+%?- global_cardinality([X,Y,Z], [1-A,2-B,3-C]), X#=1, Y#=1
+% A=2..3
+% B=0..1
+% C=0..1
+% X=1
+% Y=1
+% Z=1..3
+%FAIL global_cardinality([X,Y,Z], [1-A,2-B]), A#>1, B#>1
+%?- global_cardinality([X,Y,Z], [1-A,2-B]), label([X,Y,Z])
+% A=3
+% B=0
+% X=1
+% Y=1
+% Z=1
+% A=2
+% B=1
+% X=1
+% Y=1
+% Z=2
+% A=2
+% B=1
+% X=1
+% Y=2
+% Z=1
+% A=1
+% B=2
+% X=1
+% Y=2
+% Z=2
+% A=2
+% B=1
+% X=2
+% Y=1
+% Z=1
+% A=1
+% B=2
+% X=2
+% Y=1
+% Z=2
+% A=1
+% B=2
+% X=2
+% Y=2
+% Z=1
+% A=0
+% B=3
+% X=2
+% Y=2
+% Z=2
+%NO
+
+%TRUE global_cardinality([1,2,1], [1-2,2-1])
+%FAIL global_cardinality([1,2,2], [1-2,2-1])
+%FAIL global_cardinality([1,2,3], [1-1,2-1])
+%?- global_cardinality([X], [1-1,1-0])
+%ERROR Duplicate key: 1
+%?- global_cardinality([X], [x])
+%ERROR Expected Key-Count pair but got: x
+%?- global_cardinality([1+1], [2-1])
+%ERROR Unexpected term of type: STRUCTURE with value: +(1, 1)
+*/
+/**
+ * <code>global_cardinality(Vars,Pairs)</code> - enforce the number of CLP variables that have each value.
+ * <p>
+ * <code>Pairs</code> is a list of <code>Key-Count</code> pairs. Each variable must have one of the keys as its value,
+ * and the number of variables with each key as their value is <code>Count</code>.
+ * </p>
+ */
+public final class GlobalCardinality extends AbstractSingleResultPredicate {
+   private ExpressionFactories expressions;
+
+   @Override
+   protected void init() {
+      expressions = KnowledgeBaseServiceLocator.getServiceLocator(getKnowledgeBase()).getInstance(ExpressionFactories.class);
+   }
+
+   @Override
+   public boolean evaluate(Term vars, Term pairs) {
+      Set<ClpVariable> clpVariables = new HashSet<>();
+      Expression[] values = expressions.toExpressions(vars, clpVariables);
+      for (Term t : ListUtils.toJavaUtilList(vars)) {
+         // only variables and integers can be restricted to the keys
+         if (!t.getType().isVariable() && t.getType() != TermType.CLP_VARIABLE && t.getType() != TermType.INTEGER) {
+            throw new ProjogException("Unexpected term of type: " + t.getType() + " with value: " + t);
+         }
+      }
+      List<Term> pairTerms = ListUtils.toJavaUtilList(pairs);
+      if (pairTerms == null) {
+         throw new ProjogException("Expected list but got: " + pairs.getType() + " with value: " + pairs);
+      }
+
+      long[] keys = new long[pairTerms.size()];
+      Expression[] args = Arrays.copyOf(values, values.length + keys.length);
+      for (int i = 0; i < keys.length; i++) {
+         Term pair = pairTerms.get(i);
+         if (pair.getType() != TermType.STRUCTURE || !"-".equals(pair.getName()) || pair.getNumberOfArguments() != 2) {
+            throw new ProjogException("Expected Key-Count pair but got: " + pair);
+         }
+         keys[i] = castToNumeric(pair.getArgument(0)).getLong();
+         args[values.length + i] = expressions.toExpression(pair.getArgument(1), clpVariables);
+      }
+
+      if (keys.length == 0) {
+         return values.length == 0;
+      }
+      Domain allowed = toDomain(keys);
+      GlobalCardinalityConstraint rule = new GlobalCardinalityConstraint(keys, args);
+      for (ClpVariable c : clpVariables) {
+         c.addConstraint(rule);
+      }
+
+      // restrict the variables to the keys, which means their other constraints also need to be enforced
+      Set<Constraint> constraints = new LinkedHashSet<>();
+      constraints.add(rule);
+      for (Expression e : values) {
+         if (e instanceof ClpVariable) {
+            ClpVariable c = (ClpVariable) e;
+            Domain current = c.getState();
+            Domain restricted = Domain.and(current, allowed);
+            if (restricted == null) {
+               return false;
+            } else if (restricted != current) {
+               c.setState(restricted);
+               constraints.addAll(c.getTerm().getConstraints());
+            }
+         } else if (!allowed.contains(((FixedValue) e).getMin(null))) {
+            return false;
+         }
+      }
+      return new CoreConstraintStore(new ArrayList<>(constraints)).resolve();
+   }
+
+   private static Domain toDomain(long[] keys) {
+      long[] sorted = keys.clone();
+      Arrays.sort(sorted);
+      long[] ranges = new long[sorted.length * 2];
+      for (int i = 0; i < sorted.length; i++) {
+         if (i > 0 && sorted[i] == sorted[i - 1]) {
+            throw new ProjogException("Duplicate key: " + sorted[i]);
+         }
+         ranges[i * 2] = sorted[i];
+         ranges[i * 2 + 1] = sorted[i];
+      }
+      return new Domain(ranges);
+   }
+}
@@ -0,0 +1,159 @@
+/*
+ * Copyright 2026 S. Webber
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projog.core.predicate.builtin.clp;
+
+import org.projog.clp.ConstraintResult;
+import org.projog.clp.ConstraintStore;
+import org.projog.clp.Expression;
+import org.projog.clp.ExpressionResult;
+
+/**
+ * Constrains the number of expressions that have each of a collection of values.
+ * <p>
+ * The number of expressions that have a value is at least the number that have it as their single possible value, and
+ * at most the number that have it as a possible value. The counts must also add up to the number of expressions. Once
+ * a count has reached its maximum the value is removed from the other expressions, and once a count can only be
+ * reached by every expression that has the value as a possible value then those expressions are set to the value.
+ * <p>
+ * Every expression must have one of the values. This is not enforced by the constraint, so the possible values of each
+ * expression need to be restricted to the values before the constraint is enforced.
+ */
+final class GlobalCardinalityConstraint extends GlobalConstraint {
+   private final long[] keys;
+
+   /**
+    * @param keys the values to count
+    * @param expressions the expressions whose values are counted, followed by the count of each value in {@code keys}
+    */
+   GlobalCardinalityConstraint(long[] keys, Expression[] expressions) {
+      super(expressions);
+      if (expressions.length < keys.length) {
+         throw new IllegalArgumentException(keys.length + " values but only " + expressions.length + " expressions");
+      }
+      this.keys = keys;
+   }
+
+   @Override
+   GlobalCardinalityConstraint create(Expression[] expressions) {
+      return new GlobalCardinalityConstraint(keys, expressions);
+   }
+
+   @Override
+   boolean isSatisfied(long[] values) {
+      int numExpressions = values.length - keys.length;
+      long[] counts = new long[keys.length];
+      for (int i = 0; i < numExpressions; i++) {
+         int j = indexOf(values[i]);
+         if (j == -1) {
+            return false;
+         }
+         counts[j]++;
+      }
+      for (int j = 0; j < keys.length; j++) {
+         if (counts[j] != values[numExpressions + j]) {
+            return false;
+         }
+      }
+      return true;
+   }
+
+   private int indexOf(long value) {
+      for (int j = 0; j < keys.length; j++) {
+         if (keys[j] == value) {
+            return j;
+         }
+      }
+      return -1;
+   }
+
+   @Override
+   public ConstraintResult enforce(ConstraintStore s) {
+      Expression[] expressions = getExpressions();
+      int numExpressions = expressions.length - keys.length;
+
+      // record the possible values before altering any, as altering a value can alter the domains
+      boolean[][] possible = new boolean[numExpressions][keys.length];
+      boolean[] fixed = new boolean[numExpressions];
+      int[] fixedCounts = new int[keys.length];
+      int[] possibleCounts = new int[keys.length];
+      for (int i = 0; i < numExpressions; i++) {
+         Domain d = getDomain(s, expressions[i]);
+         fixed[i] = d.isSingleValue();
+         for (int j = 0; j < keys.length; j++) {
+            if (d.contains(keys[j])) {
+               possible[i][j] = true;
+               possibleCounts[j]++;
+               if (fixed[i]) {
+                  fixedCounts[j]++;
+               }
+            }
+         }
+      }
+
+      // restrict each count by the number of expressions that do, and could, have its value
+      for (int j = 0; j < keys.length; j++) {
+         Expression count = expressions[numExpressions + j];
+         if (count.setMin(s, fixedCounts[j]) == ExpressionResult.INVALID || count.setMax(s, possibleCounts[j]) == ExpressionResult.INVALID) {
+            return ConstraintResult.FAILED;
+         }
+      }
+
+      // restrict each count so the counts add up to the number of expressions
+      long sumOfMins = 0;
+      long sumOfMaxs = 0;
+      for (int j = 0; j < keys.length; j++) {
+         Expression count = expressions[numExpressions + j];
+         sumOfMins += count.getMin(s);
+         sumOfMaxs += count.getMax(s);
+      }
+      if (sumOfMins > numExpressions || sumOfMaxs < numExpressions) {
+         return ConstraintResult.FAILED;
+      }
+      for (int j = 0; j < keys.length; j++) {
+         Expression count = expressions[numExpressions + j];
+         long min = count.getMin(s);
+         long max = count.getMax(s);
+         if (count.setMin(s, numExpressions - (sumOfMaxs - max)) == ExpressionResult.INVALID
+             || count.setMax(s, numExpressions - (sumOfMins - min)) == ExpressionResult.INVALID) {
+            return ConstraintResult.FAILED;
+         }
+      }
+
+      for (int j = 0; j < keys.length; j++) {
+         if (fixedCounts[j] == possibleCounts[j]) {
+            continue;
+         }
+         Expression count = expressions[numExpressions + j];
+         if (count.getMax(s) == fixedCounts[j]) {
+            // no more expressions can have the value
+            for (int i = 0; i < numExpressions; i++) {
+               if (possible[i][j] && !fixed[i] && expressions[i].setNot(s, keys[j]) == ExpressionResult.INVALID) {
+                  return ConstraintResult.FAILED;
+               }
+            }
+         } else if (count.getMin(s) == possibleCounts[j]) {
+            // every expression that could have the value must have it
+            for (int i = 0; i < numExpressions; i++) {
+               if (possible[i][j] && !fixed[i] && (expressions[i].setMin(s, keys[j]) == ExpressionResult.INVALID || expressions[i].setMax(s, keys[j]) == ExpressionResult.INVALID)) {
+                  return ConstraintResult.FAILED;
+               }
+            }
+         }
+      }
+
+      return isFixed(s) ? reify(s) : ConstraintResult.UNRESOLVED;
+   }
+}
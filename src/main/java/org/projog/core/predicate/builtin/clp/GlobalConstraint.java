@@ -0,0 +1,139 @@
+/*
+ * Copyright 2026 S. Webber
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projog.core.predicate.builtin.clp;
+
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import org.projog.clp.Constraint;
+import org.projog.clp.ConstraintResult;
+import org.projog.clp.ConstraintStore;
+import org.projog.clp.Expression;
+import org.projog.clp.LeafExpression;
+import org.projog.clp.ReadConstraintStore;
+
+/**
+ * A constraint over a collection of expressions that is enforced using a dedicated filtering algorithm.
+ * <p>
+ * Considering all the expressions of a global constraint at once can remove more values than enforcing an equivalent
+ * collection of smaller constraints. Where the store supports it (see {@link DomainStore}) every possible value of an
+ * expression is considered, rather than just its minimum and maximum.
+ * <p>
+ * Unless overridden by a subclass, a global constraint can only be reified once all of its expressions have a single
+ * possible value.
+ */
+abstract class GlobalConstraint implements Constraint {
+   private final Expression[] expressions;
+
+   /** @param expressions every expression constrained by this constraint, in the order expected by the subclass */
+   GlobalConstraint(Expression[] expressions) {
+      this.expressions = expressions;
+   }
+
+   /** Returns a new instance of the same constraint, over the specified expressions. */
+   abstract GlobalConstraint create(Expression[] expressions);
+
+   /**
+    * Returns {@code true} if the constraint is satisfied by the specified values.
+    *
+    * @param values the values of the expressions, in the same order as {@link #getExpressions()}
+    */
+   abstract boolean isSatisfied(long[] values);
+
+   /** Returns the expressions constrained by this constraint. The returned array must not be altered. */
+   final Expression[] getExpressions() {
+      return expressions;
+   }
+
+   /**
+    * Returns the priority class of this constraint.
+    *
+    * @see Propagator#getPriority(Constraint)
+    */
+   int getPriority() {
+      return Propagator.NUMBER_OF_PRIORITIES - 1;
+   }
+
+   /** Returns the kind of change to an expression that requires this constraint to be enforced again. */
+   DomainEvent getEvent() {
+      return DomainEvent.DOMAIN;
+   }
+
+   @Override
+   public ConstraintResult prevent(ConstraintStore s) {
+      ConstraintResult r = reify(s);
+      if (r == ConstraintResult.MATCHED) {
+         return ConstraintResult.FAILED;
+      } else if (r == ConstraintResult.FAILED) {
+         return ConstraintResult.MATCHED;
+      } else {
+         return r;
+      }
+   }
+
+   @Override
+   public ConstraintResult reify(ReadConstraintStore s) {
+      long[] values = new long[expressions.length];
+      for (int i = 0; i < expressions.length; i++) {
+         long min = expressions[i].getMin(s);
+         if (min != expressions[i].getMax(s)) {
+            return ConstraintResult.UNRESOLVED;
+         }
+         values[i] = min;
+      }
+      return isSatisfied(values) ? ConstraintResult.MATCHED : ConstraintResult.FAILED;
+   }
+
+   @Override
+   public void walk(Consumer<Expression> consumer) {
+      for (Expression e : expressions) {
+         e.walk(consumer);
+      }
+   }
+
+   @Override
+   public Constraint replace(Function<LeafExpression, LeafExpression> function) {
+      Expression[] replacements = new Expression[expressions.length];
+      for (int i = 0; i < expressions.length; i++) {
+         replacements[i] = expressions[i].replace(function);
+      }
+      return create(replacements);
+   }
+
+   /** Returns {@code true} if every expression of this constraint has a single possible value. */
+   final boolean isFixed(ReadConstraintStore s) {
+      for (Expression e : expressions) {
+         if (e.getMin(s) != e.getMax(s)) {
+            return false;
+         }
+      }
+      return true;
+   }
+
+   /**
+    * Returns the possible values of the specified expression.
+    * <p>
+    * If the store is not a {@link DomainStore} then the returned domain contains every value between the minimum and
+    * maximum of the expression. The returned domain must not be altered.
+    */
+   static Domain getDomain(ConstraintStore s, Expression e) {
+      if (s instanceof DomainStore) {
+         return ((DomainStore) s).getDomain(e);
+      } else {
+         return new Domain(e.getMin(s), e.getMax(s));
+      }
+   }
+}
@@ -21,10 +21,6 @@ import static org.projog.core.term.TermUtils.castToNumeric;
 import java.util.ArrayList;
 import java.util.List;
 
-import org.projog.clp.FixedValue;
-import org.projog.clp.VariableState;
-import org.projog.clp.VariableStateResult;
-import org.projog.clp.compare.NotEqualTo;
 import org.projog.core.ProjogException;
 import org.projog.core.predicate.AbstractSingleResultPredicate;
 import org.projog.core.term.EmptyList;
@@ -128,6 +124,23 @@ import org.projog.core.term.TermType;
 %?- X in 7
 % X=7
 
+% a large range can have values removed without listing all the possible values
+%?- X in 1..3\/1000000..2000000
+% X={1..3, 1000000..2000000}
+%?- X in 1..3\/1000000..2000000, X #> 2, X #\= 1500000
+% X={3, 1000000..1499999, 1500001..2000000}
+%?- X in 1..3\/1000000..2000000, X #\= 2, X #< 1000001
+% X={1, 3, 1000000}
+%?- X in 1..10\/4000..5000, X #< 4002
+% X={1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 4000, 4001}
+%?- X in 1..3\/1000000..2000000, X #> 3
+% X=1000000..2000000
+%FAIL X in 1..3\/1000000..2000000, X #> 3, X #< 1000000
+
+% restricting the possible values of a variable is undone on backtracking
+%?- X in 1..5, (X in 1..2, fail ; true)
+% X=1..5
+
 %?- a in 7..8
 %ERROR Unexpected term of type: ATOM with value: a
 %?- X in a
@@ -214,13 +227,18 @@ public final class In extends AbstractSingleResultPredicate {
    }
 
    private boolean set(Term t, List<long[]> possibleValues) {
-      long min = possibleValues.get(possibleValues.size() - 1)[0];
-      long max = possibleValues.get(0)[1];
+      long[] ranges = new long[possibleValues.size() * 2];
+      for (int i = 0; i < possibleValues.size(); i++) {
+         long[] range = possibleValues.get(possibleValues.size() - 1 - i);
+         ranges[i * 2] = range[0];
+         ranges[i * 2 + 1] = range[1];
+      }
+      Domain allowed = new Domain(ranges);
 
       ClpVariable c;
       TermType type = t.getType();
       if (type == TermType.INTEGER) {
-         return isWithinRange(castToNumeric(t).getLong(), possibleValues);
+         return allowed.contains(castToNumeric(t).getLong());
       } else if (type.isVariable()) {
          c = new ClpVariable();
          t.unify(c);
@@ -230,28 +248,15 @@ public final class In extends AbstractSingleResultPredicate {
          throw new ProjogException("Unexpected term of type: " + type + " with value: " + t);
       }
 
-      VariableState v = c.getState();
-      if (v.setMin(min) == VariableStateResult.FAILED || v.setMax(max) == VariableStateResult.FAILED) {
+      Domain current = c.getState();
+      Domain restricted = Domain.and(current, allowed);
+      if (restricted == null) {
          return false;
+      } else if (restricted == current) {
+         return true;
       }
+      c.setState(restricted);
 
-      for (int i = possibleValues.size() - 1; i > 0; i--) {
-         for (long i2 = possibleValues.get(i)[1] + 1; i2 < possibleValues.get(i - 1)[0]; i2++) {
-            c.addConstraint(new NotEqualTo(c, new FixedValue(i2)));
-         }
-      }
-
-      return new CoreConstraintStore(c.getConstraints()).resolve();
-   }
-
-   private boolean isWithinRange(long value, List<long[]> result) {
-      for (long[] element : result) {
-         long min = element[0];
-         long max = element[1];
-         if (value >= min && value <= max) {
-            return true;
-         }
-      }
-      return false;
+      return new CoreConstraintStore(c.getTerm().getConstraints()).resolve();
    }
 }
@@ -0,0 +1,37 @@
+/*
+ * Copyright 2026 S. Webber
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projog.core.predicate.builtin.clp;
+
+import org.projog.clp.Expression;
+
+/**
+ * Finds, one at a time, the values of CLP variables that satisfy all of their constraints.
+ *
+ * @see LabelingSearch
+ * @see ParallelLabeling
+ */
+interface Labeling {
+   /**
+    * Finds the next solution.
+    *
+    * @return {@code true} if a solution was found, in which case the domains of the variables can be retrieved using
+    * {@link #getDomain(Expression)}, or {@code false} if there are no more solutions
+    */
+   boolean next();
+
+   /** Returns the possible values of the specified variable in the most recently found solution. */
+   Domain getDomain(Expression e);
+}
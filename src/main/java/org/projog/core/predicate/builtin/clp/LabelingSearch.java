@@ -0,0 +1,754 @@
+/*
+ * Copyright 2026 S. Webber
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projog.core.predicate.builtin.clp;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import org.projog.clp.Constraint;
+import org.projog.clp.ConstraintResult;
+import org.projog.clp.ConstraintStore;
+import org.projog.clp.Expression;
+import org.projog.clp.ExpressionResult;
+import org.projog.clp.LeafExpression;
+import org.projog.clp.ReadConstraintStore;
+import org.projog.clp.VariableStateResult;
+
+/**
+ * Searches for values of CLP variables that satisfy all of their constraints.
+ * <p>
+ * The search is depth-first. Each step picks a variable and splits its domain in two - e.g. into the smallest value of
+ * the variable and the rest of its values. After every split the constraints of the variable are propagated until no
+ * more domains change. This means a branch is abandoned as soon as any variable has no possible values left, rather
+ * than after every variable has been assigned a value.
+ * <p>
+ * The domains of variables are updated in place. Before a domain is first changed after a choice point, its previous
+ * value is recorded on a trail. Backtracking then only needs to restore the domains that have changed.
+ * <p>
+ * Not thread safe. To search using multiple threads, {@link #split(int)} the search into parts.
+ *
+ * @see Resolve
+ * @see ParallelLabeling
+ */
+final class LabelingSearch implements DomainStore, Labeling {
+   /** Which variable to split the domain of next. */
+   enum VariableSelection {
+      /** The first variable, in the order they were specified, that does not yet have a single value. */
+      LEFTMOST,
+      /** The leftmost variable with the smallest domain. */
+      FF,
+      /** Of the variables with the smallest domain, the leftmost one with the most constraints not yet satisfied. */
+      FFC,
+      /** The leftmost variable with the smallest lower bound. */
+      MIN,
+      /** The leftmost variable with the largest upper bound. */
+      MAX
+   }
+
+   /** Which part of a split domain to try first. */
+   enum ValueOrder {
+      UP, DOWN
+   }
+
+   /** How to split the domain of a variable. */
+   enum Branching {
+      /** Into a single value and the remaining values. */
+      STEP,
+      /** Try each value in turn. Finds solutions in the same order as {@code STEP}. */
+      ENUM,
+      /** Into values less than or equal to the middle of the domain and values greater than it. */
+      BISECT
+   }
+
+   private final Domain[] domains;
+   private final Constraint[] constraints;
+   /** The priority class of each constraint, and the changes it needs to be enforced again after. */
+   private final Propagator[] propagators;
+   private final int[][] constraintsByVariable;
+   private final int[] labeled;
+   private final VariableSelection variableSelection;
+   private final ValueOrder valueOrder;
+   private final Branching branching;
+
+   /** Constraints that are satisfied by any values of the current domains, so do not need to be enforced again. */
+   private final boolean[] entailed;
+   /**
+    * Constraints waiting to be enforced, as a circular buffer per priority class. Each constraint is in the queue of its
+    * priority class at most once.
+    */
+   private final int[][] queues;
+   private final int[] queueStarts;
+   private final int[] queueSizes;
+   private final boolean[] queued;
+
+   /** The number of choice points when each domain was last recorded on the trail. */
+   private final int[] stamps;
+   /**
+    * Each element records a change to be undone on backtracking - either the previous domain and stamp of a variable,
+    * or (when {@code trailDomains} is {@code null}) that a constraint became entailed.
+    */
+   private int[] trailIds = new int[16];
+   private Domain[] trailDomains = new Domain[16];
+   private int[] trailStamps = new int[16];
+   private int trailSize;
+
+   private final List<ChoicePoint> choicePoints = new ArrayList<>();
+   private boolean started;
+   private BooleanSupplier cancelled = () -> false;
+
+   private LabelingSearch(Builder builder) {
+      this.domains = builder.domains.toArray(new Domain[builder.domains.size()]);
+      this.constraints = builder.constraints.toArray(new Constraint[builder.constraints.size()]);
+      this.labeled = builder.labeled.stream().mapToInt(Integer::intValue).toArray();
+      this.variableSelection = builder.variableSelection;
+      this.valueOrder = builder.valueOrder;
+      this.branching = builder.branching;
+      this.propagators = new Propagator[constraints.length];
+      for (int i = 0; i < constraints.length; i++) {
+         propagators[i] = new Propagator(constraints[i], null);
+      }
+      this.constraintsByVariable = getConstraintsByVariable(domains.length, constraints);
+      this.entailed = new boolean[constraints.length];
+      this.queues = new int[Propagator.NUMBER_OF_PRIORITIES][constraints.length];
+      this.queueStarts = new int[queues.length];
+      this.queueSizes = new int[queues.length];
+      this.queued = new boolean[constraints.length];
+      this.stamps = new int[domains.length];
+   }
+
+   /**
+    * Creates a search of part of the search space of {@code original}.
+    * <p>
+    * The new search shares the constraints of {@code original}, which are not altered by searching, so the two searches
+    * can be used by different threads.
+    *
+    * @param domains the possible values of the variables in the part of the search space (which are modified by the
+    * search)
+    */
+   private LabelingSearch(LabelingSearch original, Domain[] domains) {
+      this.domains = domains;
+      this.constraints = original.constraints;
+      this.labeled = original.labeled;
+      this.variableSelection = original.variableSelection;
+      this.valueOrder = original.valueOrder;
+      this.branching = original.branching;
+      this.propagators = original.propagators;
+      this.constraintsByVariable = original.constraintsByVariable;
+      this.entailed = new boolean[constraints.length];
+      this.queues = new int[Propagator.NUMBER_OF_PRIORITIES][constraints.length];
+      this.queueStarts = new int[queues.length];
+      this.queueSizes = new int[queues.length];
+      this.queued = new boolean[constraints.length];
+      this.stamps = new int[domains.length];
+   }
+
+   /**
+    * Specifies a condition to check before each split of a domain.
+    * <p>
+    * Once the condition is {@code true} then {@link #next()} returns {@code false}, as if there were no more solutions,
+    * and this search should no longer be used. The condition can also throw an exception to stop the search.
+    *
+    * @param cancelled returns {@code true} if the search should be stopped
+    */
+   void setCancelled(BooleanSupplier cancelled) {
+      this.cancelled = cancelled;
+   }
+
+   /** Returns the indexes of the constraints of each variable. */
+   private static int[][] getConstraintsByVariable(int numVariables, Constraint[] constraints) {
+      int[] counts = new int[numVariables];
+      List<int[]> constraintVariables = new ArrayList<>();
+      for (Constraint c : constraints) {
+         int[] ids = getVariableIds(c);
+         constraintVariables.add(ids);
+         for (int id : ids) {
+            counts[id]++;
+         }
+      }
+      int[][] constraintsByVariable = new int[numVariables][];
+      for (int i = 0; i < numVariables; i++) {
+         constraintsByVariable[i] = new int[counts[i]];
+         counts[i] = 0;
+      }
+      for (int c = 0; c < constraints.length; c++) {
+         for (int id : constraintVariables.get(c)) {
+            constraintsByVariable[id][counts[id]++] = c;
+         }
+      }
+      return constraintsByVariable;
+   }
+
+   private static int[] getVariableIds(Constraint c) {
+      List<Integer> ids = new ArrayList<>();
+      c.walk(e -> {
+         if (e instanceof SearchVariable && !ids.contains(((SearchVariable) e).id)) {
+            ids.add(((SearchVariable) e).id);
+         }
+      });
+      return ids.stream().mapToInt(Integer::intValue).toArray();
+   }
+
+   /**
+    * Finds the next solution.
+    * <p>
+    * The first call propagates all constraints and then searches for the first solution. Subsequent calls backtrack
+    * from the previous solution.
+    *
+    * @return {@code true} if a solution was found, in which case the domains of the variables can be retrieved using
+    * {@link #getDomain(Expression)}, or {@code false} if there are no more solutions
+    * @throws IllegalStateException if a variable that needs to be labeled does not have both a lower and an upper bound
+    */
+   @Override
+   public boolean next() {
+      if (!started) {
+         started = true;
+         for (int i = 0; i < constraints.length; i++) {
+            enqueue(i);
+         }
+         if (!propagate()) {
+            return false;
+         }
+      } else if (!backtrack()) {
+         return false;
+      }
+
+      while (true) {
+         if (cancelled.getAsBoolean()) {
+            return false;
+         }
+
+         int variable = selectVariable();
+         if (variable == -1) {
+            return true;
+         }
+
+         ChoicePoint cp = new ChoicePoint(variable, trailSize);
+         choicePoints.add(cp);
+         if (!cp.left() && !backtrack()) {
+            return false;
+         }
+      }
+   }
+
+   /**
+    * Divides the search space into parts that can be searched independently, e.g. by different threads.
+    * <p>
+    * Splits domains in the same way as {@link #next()}, to the smallest depth at which there are at least
+    * {@code minimumParts} parts - or at which no part can be split any further. Parts that are found to contain no
+    * solutions are omitted. Searching every part, in the order returned, finds the same solutions in the same order as
+    * calling {@code next()} on this search. This search can not be used after being split.
+    *
+    * @param minimumParts the number of parts to try to split the search space into
+    * @return the parts of the search space
+    * @throws IllegalStateException if this search has already been started
+    */
+   List<LabelingSearch> split(int minimumParts) {
+      if (started) {
+         throw new IllegalStateException("Cannot split a search that has already been started");
+      }
+      started = true;
+      List<LabelingSearch> parts = new ArrayList<>();
+      for (int i = 0; i < constraints.length; i++) {
+         enqueue(i);
+      }
+      if (!propagate()) {
+         return parts;
+      }
+
+      for (int depth = 0;; depth++) {
+         parts.clear();
+         if (!split(depth, parts) || parts.size() >= minimumParts) {
+            return parts;
+         }
+      }
+   }
+
+   /**
+    * Adds the parts of the search space below the current choice point, at the specified depth, to {@code parts}.
+    *
+    * @return {@code true} if any of the added parts can be split further
+    */
+   private boolean split(int depth, List<LabelingSearch> parts) {
+      int variable = selectVariable();
+      if (variable == -1 || choicePoints.size() == depth) {
+         parts.add(new LabelingSearch(this, copyDomains()));
+         return variable != -1;
+      }
+
+      ChoicePoint cp = new ChoicePoint(variable, trailSize);
+      choicePoints.add(cp);
+      boolean splittable = cp.left() && split(depth, parts);
+      undo(cp.trailMark);
+      cp.triedRight = true;
+      splittable = (cp.right() && split(depth, parts)) || splittable;
+      undo(cp.trailMark);
+      choicePoints.remove(choicePoints.size() - 1);
+      return splittable;
+   }
+
+   /**
+    * Undoes the most recent choice point that still has an alternative, and tries that alternative.
+    *
+    * @return {@code false} if there are no choice points left with an alternative that does not immediately fail
+    */
+   private boolean backtrack() {
+      while (!choicePoints.isEmpty()) {
+         ChoicePoint cp = choicePoints.remove(choicePoints.size() - 1);
+         undo(cp.trailMark);
+         if (!cp.triedRight) {
+            cp.triedRight = true;
+            choicePoints.add(cp);
+            if (cp.right()) {
+               return true;
+            }
+         }
+      }
+      return false;
+   }
+
+   private int selectVariable() {
+      int selected = -1;
+      long selectedCount = 0;
+      for (int id : labeled) {
+         Domain d = domains[id];
+         if (d.isSingleValue()) {
+            continue;
+         }
+         if (d.getMin() == Long.MIN_VALUE || d.getMax() == Long.MAX_VALUE) {
+            throw new IllegalStateException("Variables not sufficiently bound. Too many possibilities.");
+         }
+         if (variableSelection == VariableSelection.LEFTMOST) {
+            return id;
+         }
+         if (selected == -1) {
+            selected = id;
+            selectedCount = d.count();
+         } else if (isBetter(id, d, selected, selectedCount)) {
+            selected = id;
+            selectedCount = d.count();
+         }
+      }
+      return selected;
+   }
+
+   /** Returns {@code true} if {@code candidate} should be selected in preference to {@code selected}. */
+   private boolean isBetter(int candidate, Domain d, int selected, long selectedCount) {
+      switch (variableSelection) {
+         case FF:
+            return d.count() < selectedCount;
+         case FFC:
+            long count = d.count();
+            return count < selectedCount || (count == selectedCount && countActiveConstraints(candidate) > countActiveConstraints(selected));
+         case MIN:
+            return d.getMin() < domains[selected].getMin();
+         case MAX:
+            return d.getMax() > domains[selected].getMax();
+         default:
+            throw new IllegalStateException(variableSelection.toString());
+      }
+   }
+
+   private int countActiveConstraints(int variable) {
+      int count = 0;
+      for (int c : constraintsByVariable[variable]) {
+         if (!entailed[c]) {
+            count++;
+         }
+      }
+      return count;
+   }
+
+   private boolean propagate() {
+      int c;
+      while ((c = poll()) != -1) {
+         if (!entailed[c]) {
+            ConstraintResult result = constraints[c].enforce(this);
+            if (result == ConstraintResult.FAILED) {
+               clearQueue();
+               return false;
+            } else if (result == ConstraintResult.MATCHED) {
+               setEntailed(c);
+            }
+         }
+      }
+      return true;
+   }
+
+   /** Removes and returns the next constraint to enforce, or returns -1 if there are none. */
+   private int poll() {
+      for (int p = 0; p < queues.length; p++) {
+         if (queueSizes[p] > 0) {
+            int[] queue = queues[p];
+            int c = queue[queueStarts[p]];
+            queueStarts[p] = (queueStarts[p] + 1) % queue.length;
+            queueSizes[p]--;
+            queued[c] = false;
+            return c;
+         }
+      }
+      return -1;
+   }
+
+   private void enqueue(int c) {
+      if (!queued[c] && !entailed[c]) {
+         queued[c] = true;
+         int p = propagators[c].getPriority();
+         int[] queue = queues[p];
+         queue[(queueStarts[p] + queueSizes[p]) % queue.length] = c;
+         queueSizes[p]++;
+      }
+   }
+
+   private void clearQueue() {
+      while (poll() != -1) {
+      }
+   }
+
+   private void setEntailed(int c) {
+      entailed[c] = true;
+      if (!choicePoints.isEmpty()) {
+         push(c, null, 0);
+      }
+   }
+
+   /** Returns the domain of the specified variable, first recording it on the trail if not yet done at this level. */
+   private Domain getDomainForUpdate(int id) {
+      int level = choicePoints.size();
+      Domain d = domains[id];
+      if (stamps[id] != level) {
+         push(id, d, stamps[id]);
+         d = d.copy();
+         domains[id] = d;
+         stamps[id] = level;
+      }
+      return d;
+   }
+
+   private void push(int id, Domain domain, int stamp) {
+      if (trailSize == trailIds.length) {
+         int newLength = trailSize * 2;
+         trailIds = Arrays.copyOf(trailIds, newLength);
+         trailDomains = Arrays.copyOf(trailDomains, newLength);
+         trailStamps = Arrays.copyOf(trailStamps, newLength);
+      }
+      trailIds[trailSize] = id;
+      trailDomains[trailSize] = domain;
+      trailStamps[trailSize] = stamp;
+      trailSize++;
+   }
+
+   private void undo(int mark) {
+      while (trailSize > mark) {
+         trailSize--;
+         int id = trailIds[trailSize];
+         Domain domain = trailDomains[trailSize];
+         if (domain == null) {
+            entailed[id] = false;
+         } else {
+            domains[id] = domain;
+            stamps[id] = trailStamps[trailSize];
+            trailDomains[trailSize] = null;
+         }
+      }
+   }
+
+   @Override
+   public long getMin(Expression id) {
+      return domains[((SearchVariable) id).id].getMin();
+   }
+
+   @Override
+   public long getMax(Expression id) {
+      return domains[((SearchVariable) id).id].getMax();
+   }
+
+   @Override
+   public Domain getDomain(Expression e) {
+      if (e instanceof SearchVariable) {
+         return domains[((SearchVariable) e).id];
+      } else {
+         return new Domain(e.getMin(this), e.getMax(this));
+      }
+   }
+
+   /** Returns a copy of the current domain of each variable, in the order the variables were created. */
+   Domain[] copyDomains() {
+      Domain[] copy = new Domain[domains.length];
+      for (int i = 0; i < copy.length; i++) {
+         copy[i] = domains[i].copy();
+      }
+      return copy;
+   }
+
+   /** Returns the position of the domain of the specified variable in the array returned by {@link #copyDomains()}. */
+   static int getIndex(Expression variable) {
+      return ((SearchVariable) variable).id;
+   }
+
+   @Override
+   public ExpressionResult setValue(Expression id, long value) {
+      int i = ((SearchVariable) id).id;
+      Domain d = domains[i];
+      if (d.isSingleValue() && d.getMin() == value) {
+         return ExpressionResult.VALID;
+      }
+      return update(i, d.getMin(), d.getMax(), getDomainForUpdate(i).setValue(value));
+   }
+
+   @Override
+   public ExpressionResult setMin(Expression id, long min) {
+      int i = ((SearchVariable) id).id;
+      Domain d = domains[i];
+      if (min <= d.getMin()) {
+         return ExpressionResult.VALID;
+      }
+      return update(i, d.getMin(), d.getMax(), getDomainForUpdate(i).setMin(min));
+   }
+
+   @Override
+   public ExpressionResult setMax(Expression id, long max) {
+      int i = ((SearchVariable) id).id;
+      Domain d = domains[i];
+      if (max >= d.getMax()) {
+         return ExpressionResult.VALID;
+      }
+      return update(i, d.getMin(), d.getMax(), getDomainForUpdate(i).setMax(max));
+   }
+
+   @Override
+   public ExpressionResult setNot(Expression id, long not) {
+      int i = ((SearchVariable) id).id;
+      Domain d = domains[i];
+      if (not < d.getMin() || not > d.getMax()) {
+         return ExpressionResult.VALID;
+      }
+      return update(i, d.getMin(), d.getMax(), getDomainForUpdate(i).setNot(not));
+   }
+
+   /**
+    * @param id the variable that was changed
+    * @param oldMin the minimum possible value of the variable before the change
+    * @param oldMax the maximum possible value of the variable before the change
+    * @param r the result of the change
+    */
+   private ExpressionResult update(int id, long oldMin, long oldMax, VariableStateResult r) {
+      if (r == VariableStateResult.FAILED) {
+         return ExpressionResult.INVALID;
+      }
+      if (r == VariableStateResult.UPDATED) {
+         DomainEvent e = DomainEvent.get(oldMin, oldMax, domains[id]);
+         for (int c : constraintsByVariable[id]) {
+            if (propagators[c].isWokenBy(e)) {
+               enqueue(c);
+            }
+         }
+      }
+      return ExpressionResult.VALID;
+   }
+
+   /** A split of the domain of a variable. */
+   private final class ChoicePoint {
+      final int variable;
+      final int trailMark;
+      final long value;
+      boolean triedRight;
+
+      ChoicePoint(int variable, int trailMark) {
+         this.variable = variable;
+         this.trailMark = trailMark;
+         Domain d = domains[variable];
+         if (branching == Branching.BISECT) {
+            this.value = d.getMin() + (d.getMax() - d.getMin()) / 2;
+         } else {
+            this.value = valueOrder == ValueOrder.UP ? d.getMin() : d.getMax();
+         }
+      }
+
+      /** Restricts the domain of the variable to the first part of the split. */
+      boolean left() {
+         return apply(true);
+      }
+
+      /** Restricts the domain of the variable to the second part of the split. */
+      boolean right() {
+         return apply(false);
+      }
+
+      private boolean apply(boolean left) {
+         SearchVariable v = new SearchVariable(variable);
+         ExpressionResult r;
+         if (branching == Branching.BISECT) {
+            // for UP the left part is the lower half, for DOWN it is the upper half
+            if (left == (valueOrder == ValueOrder.UP)) {
+               r = setMax(v, value);
+            } else {
+               r = setMin(v, value + 1);
+            }
+         } else if (left) {
+            r = setValue(v, value);
+         } else {
+            r = setNot(v, value);
+         }
+         if (r == ExpressionResult.INVALID) {
+            clearQueue();
+            return false;
+         }
+         return propagate();
+      }
+   }
+
+   static final class Builder {
+      private final List<Domain> domains = new ArrayList<>();
+      private final List<Constraint> constraints = new ArrayList<>();
+      private final List<Integer> labeled = new ArrayList<>();
+      private VariableSelection variableSelection = VariableSelection.LEFTMOST;
+      private ValueOrder valueOrder = ValueOrder.UP;
+      private Branching branching = Branching.STEP;
+
+      /**
+       * Creates a variable to use in the constraints of the search.
+       *
+       * @param domain the possible values of the variable (which is not modified by the search)
+       */
+      LeafExpression createVariable(Domain domain) {
+         SearchVariable v = new SearchVariable(domains.size());
+         domains.add(domain.copy());
+         return v;
+      }
+
+      /** Specifies that a value must be found for the specified variable. */
+      Builder label(LeafExpression variable) {
+         labeled.add(((SearchVariable) variable).id);
+         return this;
+      }
+
+      Builder addConstraint(Constraint c) {
+         constraints.add(c);
+         return this;
+      }
+
+      Builder setVariableSelection(VariableSelection variableSelection) {
+         this.variableSelection = variableSelection;
+         return this;
+      }
+
+      Builder setValueOrder(ValueOrder valueOrder) {
+         this.valueOrder = valueOrder;
+         return this;
+      }
+
+      Builder setBranching(Branching branching) {
+         this.branching = branching;
+         return this;
+      }
+
+      LabelingSearch build() {
+         return new LabelingSearch(this);
+      }
+   }
+
+   /** A variable of the search, identified by its index into the array of domains. */
+   private static final class SearchVariable implements LeafExpression {
+      private static final int TRUE = 1;
+      private static final int FALSE = 0;
+
+      final int id;
+
+      SearchVariable(int id) {
+         this.id = id;
+      }
+
+      @Override
+      public long getMin(ReadConstraintStore s) {
+         return s.getMin(this);
+      }
+
+      @Override
+      public long getMax(ReadConstraintStore s) {
+         return s.getMax(this);
+      }
+
+      @Override
+      public ExpressionResult setNot(ConstraintStore s, long not) {
+         return s.setNot(this, not);
+      }
+
+      @Override
+      public ExpressionResult setMin(ConstraintStore s, long min) {
+         return s.setMin(this, min);
+      }
+
+      @Override
+      public ExpressionResult setMax(ConstraintStore s, long max) {
+         return s.setMax(this, max);
+      }
+
+      @Override
+      public ConstraintResult enforce(ConstraintStore s) {
+         return s.setValue(this, TRUE) == ExpressionResult.INVALID ? ConstraintResult.FAILED : ConstraintResult.MATCHED;
+      }
+
+      @Override
+      public ConstraintResult prevent(ConstraintStore s) {
+         return s.setValue(this, FALSE) == ExpressionResult.INVALID ? ConstraintResult.FAILED : ConstraintResult.MATCHED;
+      }
+
+      @Override
+      public ConstraintResult reify(ReadConstraintStore s) {
+         long min = s.getMin(this);
+         long max = s.getMax(this);
+         if (min != max) {
+            return ConstraintResult.UNRESOLVED;
+         } else if (min == TRUE) {
+            return ConstraintResult.MATCHED;
+         } else if (min == FALSE) {
+            return ConstraintResult.FAILED;
+         } else {
+            throw new IllegalStateException("Expected 0 or 1 but got " + min);
+         }
+      }
+
+      @Override
+      public void walk(Consumer<Expression> r) {
+         r.accept(this);
+      }
+
+      @Override
+      public LeafExpression replace(Function<LeafExpression, LeafExpression> function) {
+         LeafExpression r = function.apply(this);
+         return r == null ? this : r;
+      }
+
+      @Override
+      public boolean equals(Object o) {
+         return o instanceof SearchVariable && ((SearchVariable) o).id == id;
+      }
+
+      @Override
+      public int hashCode() {
+         return id;
+      }
+
+      @Override
+      public String toString() {
+         return "_" + id;
+      }
+   }
+}
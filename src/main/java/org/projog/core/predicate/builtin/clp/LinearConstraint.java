@@ -0,0 +1,254 @@
+/*
+ * Copyright 2026 S. Webber
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projog.core.predicate.builtin.clp;
+
+import static org.projog.clp.math.MathUtils.safeAdd;
+import static org.projog.clp.math.MathUtils.safeMinus;
+import static org.projog.clp.math.MathUtils.safeMultiply;
+import static org.projog.clp.math.MathUtils.safeSubtract;
+
+import org.projog.clp.ConstraintResult;
+import org.projog.clp.ConstraintStore;
+import org.projog.clp.Expression;
+import org.projog.clp.ExpressionResult;
+import org.projog.clp.ReadConstraintStore;
+
+/**
+ * Constrains a weighted sum of expressions, {@code a1*x1 + a2*x2 + ... + an*xn + k}, to be equal to, not equal to or
+ * less than or equal to zero.
+ * <p>
+ * Enforced using bounds reasoning. For "less than or equal to", the sum of the minimums of all the other terms gives an
+ * upper bound for each term. "Equal to" is enforced as both "less than or equal to" and "greater than or equal to". "Not
+ * equal to" can only remove a value once all but one of the expressions have a single possible value.
+ */
+final class LinearConstraint extends GlobalConstraint {
+   enum Relation {
+      EQUAL, NOT_EQUAL, LESS_THAN_OR_EQUAL
+   }
+
+   private final long[] coefficients;
+   private final long constant;
+   private final Relation relation;
+
+   /**
+    * @param coefficients the weight of each expression
+    * @param expressions the expressions to sum
+    * @param constant the value to add to the sum
+    * @param relation how the sum compares to zero
+    */
+   LinearConstraint(long[] coefficients, Expression[] expressions, long constant, Relation relation) {
+      super(expressions);
+      if (coefficients.length != expressions.length) {
+         throw new IllegalArgumentException(coefficients.length + " coefficients but " + expressions.length + " expressions");
+      }
+      this.coefficients = coefficients;
+      this.constant = constant;
+      this.relation = relation;
+   }
+
+   @Override
+   LinearConstraint create(Expression[] expressions) {
+      return new LinearConstraint(coefficients, expressions, constant, relation);
+   }
+
+   @Override
+   int getPriority() {
+      return 1;
+   }
+
+   @Override
+   DomainEvent getEvent() {
+      return relation == Relation.NOT_EQUAL ? DomainEvent.VALUE : DomainEvent.BOUNDS;
+   }
+
+   @Override
+   boolean isSatisfied(long[] values) {
+      long sum = constant;
+      for (int i = 0; i < values.length; i++) {
+         sum = safeAdd(sum, safeMultiply(coefficients[i], values[i]));
+      }
+      return compare(sum, sum) == ConstraintResult.MATCHED;
+   }
+
+   @Override
+   public ConstraintResult enforce(ConstraintStore s) {
+      switch (relation) {
+         case EQUAL:
+            if (!enforceAtMostZero(s, 1) || !enforceAtMostZero(s, -1)) {
+               return ConstraintResult.FAILED;
+            }
+            break;
+         case LESS_THAN_OR_EQUAL:
+            if (!enforceAtMostZero(s, 1)) {
+               return ConstraintResult.FAILED;
+            }
+            break;
+         case NOT_EQUAL:
+            if (!enforceNotZero(s)) {
+               return ConstraintResult.FAILED;
+            }
+            break;
+         default:
+            throw new IllegalStateException(relation.toString());
+      }
+      return reify(s);
+   }
+
+   @Override
+   public ConstraintResult prevent(ConstraintStore s) {
+      return negate().enforce(s);
+   }
+
+   /** Returns a constraint that is satisfied when this constraint is not. */
+   private LinearConstraint negate() {
+      switch (relation) {
+         case EQUAL:
+            return new LinearConstraint(coefficients, getExpressions(), constant, Relation.NOT_EQUAL);
+         case NOT_EQUAL:
+            return new LinearConstraint(coefficients, getExpressions(), constant, Relation.EQUAL);
+         case LESS_THAN_OR_EQUAL:
+            // not (sum <= 0) is the same as -sum + 1 <= 0
+            long[] negated = new long[coefficients.length];
+            for (int i = 0; i < coefficients.length; i++) {
+               negated[i] = safeMinus(coefficients[i]);
+            }
+            return new LinearConstraint(negated, getExpressions(), safeAdd(safeMinus(constant), 1), Relation.LESS_THAN_OR_EQUAL);
+         default:
+            throw new IllegalStateException(relation.toString());
+      }
+   }
+
+   @Override
+   public ConstraintResult reify(ReadConstraintStore s) {
+      Expression[] expressions = getExpressions();
+      long min = constant;
+      long max = constant;
+      for (int i = 0; i < expressions.length; i++) {
+         long a = safeMultiply(coefficients[i], expressions[i].getMin(s));
+         long b = safeMultiply(coefficients[i], expressions[i].getMax(s));
+         min = safeAdd(min, Math.min(a, b));
+         max = safeAdd(max, Math.max(a, b));
+      }
+      return compare(min, max);
+   }
+
+   /** Returns whether a sum with the specified minimum and maximum satisfies the relation. */
+   private ConstraintResult compare(long min, long max) {
+      switch (relation) {
+         case EQUAL:
+            if (min == 0 && max == 0) {
+               return ConstraintResult.MATCHED;
+            }
+            return min > 0 || max < 0 ? ConstraintResult.FAILED : ConstraintResult.UNRESOLVED;
+         case NOT_EQUAL:
+            if (min == 0 && max == 0) {
+               return ConstraintResult.FAILED;
+            }
+            return min > 0 || max < 0 ? ConstraintResult.MATCHED : ConstraintResult.UNRESOLVED;
+         case LESS_THAN_OR_EQUAL:
+            if (max <= 0) {
+               return ConstraintResult.MATCHED;
+            }
+            return min > 0 ? ConstraintResult.FAILED : ConstraintResult.UNRESOLVED;
+         default:
+            throw new IllegalStateException(relation.toString());
+      }
+   }
+
+   /**
+    * Narrows the bounds of each expression so that {@code sign * (a1*x1 + ... + an*xn + k) <= 0} can be satisfied.
+    * <p>
+    * A term whose minimum is unbounded (because an expression has no lower or upper bound, or the multiplication
+    * overflows) prevents the bounds of the other terms from being narrowed.
+    *
+    * @return {@code false} if the constraint cannot be satisfied
+    */
+   private boolean enforceAtMostZero(ConstraintStore s, int sign) {
+      Expression[] expressions = getExpressions();
+      long[] termMins = new long[expressions.length];
+      long sum = safeMultiply(sign, constant);
+      int unbounded = 0;
+      for (int i = 0; i < expressions.length; i++) {
+         long a = safeMultiply(sign, coefficients[i]);
+         long bound = a >= 0 ? expressions[i].getMin(s) : expressions[i].getMax(s);
+         long termMin = safeMultiply(a, bound);
+         if (a != 0 && (bound == Long.MIN_VALUE || bound == Long.MAX_VALUE || termMin == Long.MIN_VALUE || termMin == Long.MAX_VALUE)) {
+            termMins[i] = Long.MIN_VALUE;
+            unbounded++;
+         } else {
+            termMins[i] = termMin;
+            sum = safeAdd(sum, termMin);
+         }
+      }
+      if (sum == Long.MIN_VALUE || sum == Long.MAX_VALUE || unbounded > 1) {
+         // too large to reason about
+         return true;
+      } else if (unbounded == 0 && sum > 0) {
+         return false;
+      }
+
+      for (int i = 0; i < expressions.length; i++) {
+         long a = safeMultiply(sign, coefficients[i]);
+         if (a == 0 || (unbounded == 1 && termMins[i] != Long.MIN_VALUE)) {
+            continue;
+         }
+         // a*x <= -(the minimum of the sum of the other terms)
+         long limit = termMins[i] == Long.MIN_VALUE ? -sum : safeSubtract(termMins[i], sum);
+         ExpressionResult r;
+         if (a > 0) {
+            r = expressions[i].setMax(s, Math.floorDiv(limit, a));
+         } else {
+            r = expressions[i].setMin(s, safeMinus(Math.floorDiv(limit, safeMinus(a))));
+         }
+         if (r == ExpressionResult.INVALID) {
+            return false;
+         }
+      }
+      return true;
+   }
+
+   /**
+    * If all but one of the expressions have a single possible value then removes the value that would make the sum
+    * zero from the remaining expression.
+    *
+    * @return {@code false} if the constraint cannot be satisfied
+    */
+   private boolean enforceNotZero(ConstraintStore s) {
+      Expression[] expressions = getExpressions();
+      long sum = constant;
+      int remaining = -1;
+      for (int i = 0; i < expressions.length; i++) {
+         long min = expressions[i].getMin(s);
+         if (coefficients[i] == 0) {
+            continue;
+         } else if (min == expressions[i].getMax(s)) {
+            sum = safeAdd(sum, safeMultiply(coefficients[i], min));
+         } else if (remaining == -1) {
+            remaining = i;
+         } else {
+            return true;
+         }
+      }
+      if (remaining == -1 || sum == Long.MIN_VALUE || sum == Long.MAX_VALUE) {
+         return true;
+      }
+      long a = coefficients[remaining];
+      if (sum % a == 0) {
+         return expressions[remaining].setNot(s, -sum / a) != ExpressionResult.INVALID;
+      }
+      return true;
+   }
+}
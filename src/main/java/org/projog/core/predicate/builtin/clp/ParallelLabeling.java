@@ -0,0 +1,288 @@
+/*
+ * Copyright 2026 S. Webber
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projog.core.predicate.builtin.clp;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+
+import org.projog.clp.Expression;
+import org.projog.core.term.Trail;
+
+/**
+ * Finds the solutions of a {@link LabelingSearch} using the threads of a {@code ForkJoinPool}.
+ * <p>
+ * The first call to {@link #next()} splits the search space into several parts for each thread of the pool, and each
+ * part is then searched by a separate task. Having more parts than threads means a thread that finishes its part early
+ * can take another rather than being idle. Solutions are returned as soon as they are found - either in the same order
+ * as the single-threaded search would return them, or in the order they are found.
+ * <p>
+ * At most {@link #MAX_QUEUED_SOLUTIONS} solutions are kept in each queue until they are retrieved, so a part searched
+ * ahead of the caller waits until the caller catches up. Waiting, both by a part and by {@code next()}, is done using
+ * {@link ForkJoinPool#managedBlock(ForkJoinPool.ManagedBlocker)} so the pool can compensate for blocked threads.
+ * <p>
+ * The parts stop searching once the search is cancelled. That happens when all solutions have been retrieved or an
+ * error occurs, when evaluation backtracks to before the search was started (e.g. because of a cut), when the query
+ * is interrupted or when this object is no longer referenced. A part checks for cancellation before each split of a
+ * domain, so it stops promptly even when searching a part of the search space that contains no solutions. When the
+ * query is interrupted, {@code next()} stops waiting for the next solution and throws an exception.
+ * <p>
+ * Not thread safe - {@code next()} is only intended to be called by one thread at a time.
+ */
+final class ParallelLabeling implements Labeling {
+   /** The number of parts to split the search space into for each thread of the pool. */
+   private static final int PARTS_PER_THREAD = 4;
+   /** The maximum number of solutions to keep in a queue before the parts that add to it have to wait. */
+   static final int MAX_QUEUED_SOLUTIONS = 64;
+   /** How often a part waiting to add to a full queue, or a call to {@code next()}, checks for cancellation. */
+   private static final long CANCELLED_CHECK_MILLIS = 50;
+   /** Added to a queue of solutions when the part that adds to it has been fully searched. */
+   private static final Object END = new Object();
+
+   private final LabelingSearch search;
+   private final ForkJoinPool pool;
+   private final boolean ordered;
+   /** The solutions found by every part, if solutions are to be returned in the order they are found. */
+   private final BlockingQueue<Object> unorderedSolutions = new ArrayBlockingQueue<>(MAX_QUEUED_SOLUTIONS);
+   private Cancellation cancellation;
+   private List<Part> parts;
+   private int finishedParts;
+   private Domain[] solution;
+
+   /**
+    * @param search the search to find the solutions of, which must not yet have been started
+    * @param pool the pool to search with
+    * @param ordered {@code true} if solutions should be returned in the same order as {@code search} would find them,
+    * or {@code false} if they should be returned in the order they are found
+    */
+   ParallelLabeling(LabelingSearch search, ForkJoinPool pool, boolean ordered) {
+      this.search = search;
+      this.pool = pool;
+      this.ordered = ordered;
+   }
+
+   @Override
+   public boolean next() {
+      if (parts == null) {
+         start();
+      }
+
+      while (finishedParts < parts.size()) {
+         Object o = take(ordered ? parts.get(finishedParts).solutions : unorderedSolutions, cancellation);
+         if (o == null) {
+            // cancelled while waiting
+            finishedParts = parts.size();
+            cancellation.checkInterrupted();
+         } else if (o == END) {
+            finishedParts++;
+         } else if (o instanceof RuntimeException) {
+            finishedParts = parts.size();
+            cancellation.cancel();
+            throw (RuntimeException) o;
+         } else {
+            solution = (Domain[]) o;
+            return true;
+         }
+      }
+
+      cancellation.cancel();
+      solution = null;
+      return false;
+   }
+
+   private void start() {
+      Trail trail = Trail.getCurrent();
+      cancellation = new Cancellation(new WeakReference<>(this), trail);
+      // so the parts are cancelled if evaluation backtracks to before the search started - once that has happened the
+      // predicate that started the search will not be evaluated again, as a new search is started if it is retried
+      Trail.recordUndo(cancellation::cancel);
+
+      parts = new ArrayList<>();
+      for (LabelingSearch part : search.split(pool.getParallelism() * PARTS_PER_THREAD)) {
+         part.setCancelled(cancellation::isCancelled);
+         parts.add(new Part(part, ordered ? new ArrayBlockingQueue<>(MAX_QUEUED_SOLUTIONS) : unorderedSolutions, cancellation));
+      }
+      for (Part part : parts) {
+         pool.execute(part);
+      }
+   }
+
+   /** Returns the next object added to the queue, or {@code null} if the search is cancelled first. */
+   private static Object take(BlockingQueue<Object> queue, Cancellation cancellation) {
+      Take take = new Take(queue, cancellation);
+      try {
+         ForkJoinPool.managedBlock(take);
+      } catch (InterruptedException e) {
+         Thread.currentThread().interrupt();
+         throw new IllegalStateException("Interrupted while waiting for the next solution", e);
+      }
+      return take.item;
+   }
+
+   // only used by tests
+   boolean isStopped() {
+      for (Part part : parts) {
+         if (!part.isDone()) {
+            return false;
+         }
+      }
+      return true;
+   }
+
+   @Override
+   public Domain getDomain(Expression e) {
+      if (solution == null) {
+         throw new IllegalStateException("No solution");
+      }
+      return solution[LabelingSearch.getIndex(e)];
+   }
+
+   /** Searches part of the search space, adding each solution found to a queue. */
+   private static final class Part extends RecursiveAction {
+      private static final long serialVersionUID = 1L;
+
+      private final LabelingSearch search;
+      private final BlockingQueue<Object> solutions;
+      private final Cancellation cancellation;
+
+      Part(LabelingSearch search, BlockingQueue<Object> solutions, Cancellation cancellation) {
+         this.search = search;
+         this.solutions = solutions;
+         this.cancellation = cancellation;
+      }
+
+      @Override
+      protected void compute() {
+         Object last = END;
+         try {
+            // stops when cancelled, as the search checks for cancellation
+            while (search.next()) {
+               if (!put(search.copyDomains())) {
+                  break;
+               }
+            }
+         } catch (RuntimeException e) {
+            last = e;
+         }
+         if (!put(last)) {
+            // cancelled - still add it if there is room, although next() does not rely on it as it also stops waiting
+            solutions.offer(last);
+         }
+      }
+
+      /**
+       * Adds the specified object to the queue of solutions, waiting while the queue is full.
+       *
+       * @return {@code true} if the object was added, or {@code false} if the search was cancelled first
+       */
+      private boolean put(Object o) {
+         Put put = new Put(solutions, o, cancellation);
+         try {
+            ForkJoinPool.managedBlock(put);
+         } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            cancellation.cancel();
+         }
+         return put.added;
+      }
+   }
+
+   /** Waits for the next object to be added to a queue, or until the search is cancelled. */
+   private static final class Take implements ForkJoinPool.ManagedBlocker {
+      private final BlockingQueue<Object> queue;
+      private final Cancellation cancellation;
+      private Object item;
+
+      Take(BlockingQueue<Object> queue, Cancellation cancellation) {
+         this.queue = queue;
+         this.cancellation = cancellation;
+      }
+
+      @Override
+      public boolean block() throws InterruptedException {
+         while (item == null && !cancellation.isCancelled()) {
+            item = queue.poll(CANCELLED_CHECK_MILLIS, TimeUnit.MILLISECONDS);
+         }
+         return true;
+      }
+
+      @Override
+      public boolean isReleasable() {
+         return item != null || (item = queue.poll()) != null || cancellation.isCancelled();
+      }
+   }
+
+   /** Waits until there is room to add an object to a queue, or until the search is cancelled. */
+   private static final class Put implements ForkJoinPool.ManagedBlocker {
+      private final BlockingQueue<Object> queue;
+      private final Object item;
+      private final Cancellation cancellation;
+      private boolean added;
+
+      Put(BlockingQueue<Object> queue, Object item, Cancellation cancellation) {
+         this.queue = queue;
+         this.item = item;
+         this.cancellation = cancellation;
+      }
+
+      @Override
+      public boolean block() throws InterruptedException {
+         while (!added && !cancellation.isCancelled()) {
+            added = queue.offer(item, CANCELLED_CHECK_MILLIS, TimeUnit.MILLISECONDS);
+         }
+         return true;
+      }
+
+      @Override
+      public boolean isReleasable() {
+         return added || cancellation.isCancelled() || (added = queue.offer(item));
+      }
+   }
+
+   /** Shared by the parts of a search so they know when to stop. */
+   private static final class Cancellation {
+      /** Weak, so the search stops once the solutions are no longer wanted. */
+      private final WeakReference<ParallelLabeling> owner;
+      /** The trail of the query the search belongs to, or {@code null} if it does not belong to a query. */
+      private final Trail trail;
+      private volatile boolean cancelled;
+
+      Cancellation(WeakReference<ParallelLabeling> owner, Trail trail) {
+         this.owner = owner;
+         this.trail = trail;
+      }
+
+      void cancel() {
+         cancelled = true;
+      }
+
+      boolean isCancelled() {
+         return cancelled || owner.get() == null || (trail != null && trail.isInterrupted());
+      }
+
+      /** Throws an exception if the query the search belongs to has been interrupted. */
+      void checkInterrupted() {
+         if (trail != null) {
+            trail.checkInterrupted();
+         }
+      }
+   }
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright 2026 S. Webber
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projog.core.predicate.builtin.clp;
+
+import org.projog.clp.Constraint;
+import org.projog.clp.LeafExpression;
+import org.projog.clp.compare.EqualTo;
+import org.projog.clp.compare.LessThan;
+import org.projog.clp.compare.LessThanOrEqualTo;
+import org.projog.clp.compare.NotEqualTo;
+
+/**
+ * Subscribes a constraint to changes of a CLP variable.
+ * <p>
+ * Each variable has a linked list of propagators, one for each of its constraints. The list is never altered, so a
+ * variable can share the list of the variable it is a copy of.
+ */
+final class Propagator {
+   /** The number of priority classes. Propagators with a lower priority value are enforced first. */
+   static final int NUMBER_OF_PRIORITIES = 3;
+
+   private final Constraint constraint;
+   private final DomainEvent event;
+   private final int priority;
+   private final Propagator next;
+
+   /**
+    * @param constraint the constraint to enforce when the variable changes
+    * @param next the propagator of the constraint that was previously added to the variable, or {@code null}
+    */
+   Propagator(Constraint constraint, Propagator next) {
+      this.constraint = constraint;
+      this.next = next;
+      this.priority = getPriority(constraint);
+      if (constraint instanceof GlobalConstraint) {
+         this.event = ((GlobalConstraint) constraint).getEvent();
+      } else if (priority == 0 && constraint instanceof NotEqualTo) {
+         // a NotEqualTo of two variables can only remove a value once one of the variables has a single possible value
+         this.event = DomainEvent.VALUE;
+      } else {
+         this.event = DomainEvent.BOUNDS;
+      }
+   }
+
+   /**
+    * Returns the priority class of the specified constraint.
+    * <p>
+    * A comparison of variables and fixed values is cheap to enforce and is likely to narrow domains, so is enforced
+    * before constraints that contain arithmetic or logical expressions. A {@link GlobalConstraint} specifies its own
+    * priority.
+    */
+   static int getPriority(Constraint constraint) {
+      if (constraint instanceof GlobalConstraint) {
+         return ((GlobalConstraint) constraint).getPriority();
+      } else if (constraint instanceof EqualTo || constraint instanceof NotEqualTo || constraint instanceof LessThan || constraint instanceof LessThanOrEqualTo) {
+         boolean[] onlyLeaves = {true};
+         constraint.walk(e -> {
+            if (!(e instanceof LeafExpression)) {
+               onlyLeaves[0] = false;
+            }
+         });
+         if (onlyLeaves[0]) {
+            return 0;
+         }
+      }
+      return 1;
+   }
+
+   Constraint getConstraint() {
+      return constraint;
+   }
+
+   int getPriority() {
+      return priority;
+   }
+
+   /** Returns {@code true} if the constraint needs to be enforced again after the specified change. */
+   boolean isWokenBy(DomainEvent e) {
+      return e.compareTo(event) <= 0;
+   }
+
+   /** Returns the propagator that was added to the variable before this one, or {@code null} if this was the first. */
+   Propagator getNext() {
+      return next;
+   }
+}
@@ -18,26 +18,27 @@ package org.projog.core.predicate.builtin.clp;
 import static org.projog.core.term.TermUtils.assertType;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
 
-import org.projog.clp.BruteForceSearch;
-import org.projog.clp.ClpConstraintStore;
 import org.projog.clp.Constraint;
-import org.projog.clp.Variable;
+import org.projog.clp.LeafExpression;
 import org.projog.core.ProjogException;
-import org.projog.core.kb.KnowledgeBase;
 import org.projog.core.predicate.Predicate;
 import org.projog.core.predicate.PredicateFactory;
+import org.projog.core.predicate.builtin.clp.LabelingSearch.Branching;
+import org.projog.core.predicate.builtin.clp.LabelingSearch.ValueOrder;
+import org.projog.core.predicate.builtin.clp.LabelingSearch.VariableSelection;
 import org.projog.core.predicate.udp.PredicateUtils;
 import org.projog.core.term.EmptyList;
-import org.projog.core.term.IntegerNumberCache;
 import org.projog.core.term.Term;
 import org.projog.core.term.TermType;
+import org.projog.core.term.Trail;
 
 /* TEST
 %?- X in 7..9, label([X])
@@ -59,30 +60,30 @@ import org.projog.core.term.TermType;
 % X=7
 % Y=4
 % Z=11
-% X=8
-% Y=4
-% Z=12
-% X=9
-% Y=4
-% Z=13
 % X=7
 % Y=5
 % Z=12
 % X=8
+% Y=4
+% Z=12
+% X=8
 % Y=5
 % Z=13
 % X=9
+% Y=4
+% Z=13
+% X=9
 % Y=5
 % Z=14
 %NO
 
 %?- Z#=X+Y, X in 7..9, Y in 4..5, label([X,Y]), Z=12
-% X = 8
-% Y = 4
-% Z = 12
 % X = 7
 % Y = 5
 % Z = 12
+% X = 8
+% Y = 4
+% Z = 12
 %NO
 
 %?- Vars=[X,Y,Z], all_different(Vars), Vars ins 1..2
@@ -111,49 +112,189 @@ import org.projog.core.term.TermType;
 % X=8
 % X=9
 %NO
+
+%?- X in 1..3, Y in 1..2, labeling([ff], [X,Y])
+% X=1
+% Y=1
+% X=2
+% Y=1
+% X=3
+% Y=1
+% X=1
+% Y=2
+% X=2
+% Y=2
+% X=3
+% Y=2
+%NO
+
+%?- X in 1..3, Y in 1..3, X#<Y, labeling([ffc], [X,Y])
+% X=1
+% Y=2
+% X=1
+% Y=3
+% X=2
+% Y=3
+%NO
+
+%?- X in 3..4, Y in 1..2, labeling([min], [X,Y])
+% X=3
+% Y=1
+% X=4
+% Y=1
+% X=3
+% Y=2
+% X=4
+% Y=2
+%NO
+
+%?- X in 1..3, Y in 5..6, labeling([max], [X,Y])
+% X=1
+% Y=5
+% X=2
+% Y=5
+% X=3
+% Y=5
+% X=1
+% Y=6
+% X=2
+% Y=6
+% X=3
+% Y=6
+%NO
+
+%?- X in 1..3, Y in 1..2, labeling([down], [X,Y])
+% X=3
+% Y=2
+% X=3
+% Y=1
+% X=2
+% Y=2
+% X=2
+% Y=1
+% X=1
+% Y=2
+% X=1
+% Y=1
+%NO
+
+%?- X in 1..4, labeling([bisect], [X])
+% X=1
+% X=2
+% X=3
+% X=4
+%NO
+
+%?- X in 1..4, labeling([bisect,down], [X])
+% X=4
+% X=3
+% X=2
+% X=1
+%NO
+
+%?- X in 1..3, labeling([enum,up,leftmost], [X])
+% X=1
+% X=2
+% X=3
+%NO
+
+%?- X in 1..3, Y in 1..2, labeling([parallel], [X,Y])
+% X=1
+% Y=1
+% X=1
+% Y=2
+% X=2
+% Y=1
+% X=2
+% Y=2
+% X=3
+% Y=1
+% X=3
+% Y=2
+%NO
+
+%?- X in 1..3, Y in 1..3, X#<Y, labeling([ff,down,parallel(ordered)], [X,Y])
+% X=2
+% Y=3
+% X=1
+% Y=3
+% X=1
+% Y=2
+%NO
+
+%?- X in 1..3, Y in 1..2, setof(X-Y, labeling([parallel(unordered)], [X,Y]), Solutions)
+% Solutions=[1 - 1,1 - 2,2 - 1,2 - 2,3 - 1,3 - 2]
+% X=1..3
+% Y=1..2
+
+%FAIL X in 1..3, Y in 1..3, X#>Y, Y#>X, labeling([parallel], [X,Y])
+
+%?- X in 1..3, labeling([foo], [X])
+%ERROR Invalid labeling option: foo
+%?- X in 1..3, labeling([up,down], [X])
+%ERROR Conflicting labeling options: up and down
+%?- X in 1..3, labeling([parallel(x)], [X])
+%ERROR Invalid labeling option: parallel(x)
+%?- X in 1..3, labeling([parallel,parallel(unordered)], [X])
+%ERROR Conflicting labeling options: parallel and parallel(unordered)
 */
 /**
- * <code>label([X])</code> - assigns concrete values to the given CLP variables.
+ * <code>label([X])</code> / <code>labeling(Options, [X])</code> - assigns concrete values to the given CLP variables.
+ * <p>
+ * Values are also assigned to any other CLP variables that are connected to the given variables via constraints.
+ * <p>
+ * Searches for values by repeatedly splitting the domain of a variable and propagating the constraints of the variable
+ * after each split, so parts of the search space that contain no solutions are pruned as early as possible. Options
+ * can be used to control the order the search is performed in:
+ * <ul>
+ * <li>Which variable to label next: <code>leftmost</code> (default), <code>ff</code> (smallest domain),
+ * <code>ffc</code> (smallest domain and then most constraints), <code>min</code> (smallest lower bound) or
+ * <code>max</code> (largest upper bound).</li>
+ * <li>Which values to try first: <code>up</code> (default) or <code>down</code>.</li>
+ * <li>How to split a domain: <code>step</code> (default) or <code>enum</code> (a single value and the rest of the
+ * domain) or <code>bisect</code> (the lower half and the upper half of the domain).</li>
+ * <li>Whether to search using multiple threads: <code>parallel</code> or <code>parallel(ordered)</code> (return
+ * solutions in the same order as a single-threaded search) or <code>parallel(unordered)</code> (return solutions in the
+ * order they are found). The search space is split into parts that are searched by the threads of the common
+ * <code>ForkJoinPool</code>. A single-threaded search is used by default.</li>
+ * </ul>
  */
 public final class Resolve implements PredicateFactory {
-   private final KnowledgeBase kb;
-
-   public Resolve(KnowledgeBase kb) {
-      this.kb = kb;
-   }
-
    @Override
    public Predicate getPredicate(Term input) {
+      LabelingSearch.Builder builder = new LabelingSearch.Builder();
       Term arg;
+      Term parallel = null;
       if (input.getNumberOfArguments() == 1) {
          arg = input.firstArgument();
       } else {
-         kb.getProjogListeners().notifyWarn("Ignoring " + kb.getTermFormatter().formatTerm(input.firstArgument()));
+         parallel = setOptions(builder, input.firstArgument());
          arg = input.secondArgument();
       }
 
-      ClpConstraintStore.Builder builder = new ClpConstraintStore.Builder();
-
-      // find all variables in input argument, and all variables connected to them via constraints
-      Set<ClpVariable> variablesList = getAllVariables(arg);
-      if (variablesList.isEmpty()) {
+      Set<ClpVariable> labeled = getVariablesFromInputArgument(arg);
+      if (labeled.isEmpty()) {
          return PredicateUtils.TRUE; // if no variables found then return now, as nothing to resolve
       }
 
-      // map each ClpVariable to a projog-clp Variable
-      // doing this as BruteForceSearch uses projog-clp's Variable rather than projog's ClpVariable
-      Map<ClpVariable, Variable> variablesSet = new HashMap<>();
+      // find all variables connected to the variables to label via constraints
+      Set<ClpVariable> variablesList = getAllVariables(labeled);
+
+      // map each ClpVariable to a variable of the search
+      // doing this so the search can update domains without changing the ClpVariable until a solution is found
+      // label all variables - the given variables first, followed by the variables connected to them
+      Map<ClpVariable, LeafExpression> variablesSet = new LinkedHashMap<>();
       for (ClpVariable v : variablesList) {
-         variablesSet.computeIfAbsent(v, notUsed -> builder.createVariable());
+         LeafExpression e = builder.createVariable(v.getState());
+         variablesSet.put(v, e);
+         builder.label(e);
       }
 
-      // for all constraints replace each ClpVariable with its corresponding Variable
-      for (Constraint c :
-
-      getConstraints(variablesList)) {
+      // for all constraints replace each ClpVariable with its corresponding search variable
+      for (Constraint c : getConstraints(variablesList)) {
          Constraint replacement = c.replace(e -> {
             if (e instanceof ClpVariable) {
-               Variable v = variablesSet.get(((ClpVariable) e).getTerm());
+               LeafExpression v = variablesSet.get(((ClpVariable) e).getTerm());
                if (v == null) {
                   throw new IllegalStateException("Have no record of " + e + " in " + variablesSet);
                }
@@ -165,13 +306,94 @@ public final class Resolve implements PredicateFactory {
          builder.addConstraint(replacement);
       }
 
-      BruteForceSearch bruteForceSearch = createBruteForceSearch(builder, variablesSet);
-      return new ClpResolvePredicate(bruteForceSearch, variablesSet);
+      LabelingSearch search = builder.build();
+      if (parallel == null) {
+         Trail trail = Trail.getCurrent();
+         if (trail != null) {
+            // so a search that finds no solutions for a long time can still be stopped
+            search.setCancelled(() -> {
+               trail.checkInterrupted();
+               return false;
+            });
+         }
+         return new ClpResolvePredicate(search, variablesSet);
+      } else {
+         boolean ordered = parallel.getType() == TermType.ATOM || "ordered".equals(parallel.firstArgument().getTerm().getName());
+         return new ClpResolvePredicate(new ParallelLabeling(search, ForkJoinPool.commonPool(), ordered), variablesSet);
+      }
+   }
+
+   /**
+    * Applies the specified labeling options to the specified builder.
+    *
+    * @return the {@code parallel} option, or {@code null} if the search should not use multiple threads
+    */
+   private Term setOptions(LabelingSearch.Builder builder, Term options) {
+      Term variableSelection = null;
+      Term valueOrder = null;
+      Term branching = null;
+      Term parallel = null;
+
+      while (options != EmptyList.EMPTY_LIST) {
+         assertType(options, TermType.LIST);
+
+         Term option = options.firstArgument().getTerm();
+         String name = option.getType() == TermType.ATOM || isParallelOption(option) ? option.getName() : "";
+         switch (name) {
+            case "leftmost":
+            case "ff":
+            case "ffc":
+            case "min":
+            case "max":
+               assertNotConflicting(variableSelection, option);
+               variableSelection = option;
+               builder.setVariableSelection(VariableSelection.valueOf(name.toUpperCase()));
+               break;
+            case "up":
+            case "down":
+               assertNotConflicting(valueOrder, option);
+               valueOrder = option;
+               builder.setValueOrder(ValueOrder.valueOf(name.toUpperCase()));
+               break;
+            case "step":
+            case "enum":
+            case "bisect":
+               assertNotConflicting(branching, option);
+               branching = option;
+               builder.setBranching(Branching.valueOf(name.toUpperCase()));
+               break;
+            case "parallel":
+               assertNotConflicting(parallel, option);
+               parallel = option;
+               break;
+            default:
+               throw new ProjogException("Invalid labeling option: " + option);
+         }
+
+         options = options.secondArgument();
+      }
+
+      return parallel;
+   }
+
+   /** Returns {@code true} if the specified term is {@code parallel(ordered)} or {@code parallel(unordered)}. */
+   private static boolean isParallelOption(Term option) {
+      if (option.getType() != TermType.STRUCTURE || !"parallel".equals(option.getName()) || option.getNumberOfArguments() != 1) {
+         return false;
+      }
+      Term order = option.firstArgument().getTerm();
+      return order.getType() == TermType.ATOM && ("ordered".equals(order.getName()) || "unordered".equals(order.getName()));
+   }
+
+   private static void assertNotConflicting(Term previous, Term option) {
+      if (previous != null && !previous.equals(option)) {
+         throw new ProjogException("Conflicting labeling options: " + previous + " and " + option);
+      }
    }
 
-   /** find all variables in input argument, and all variables connected to them via constraints */
-   private Set<ClpVariable> getAllVariables(Term arg) {
-      Set<ClpVariable> variables = getVariablesFromInputArgument(arg);
+   /** find all variables connected to the given variables via constraints */
+   private Set<ClpVariable> getAllVariables(Set<ClpVariable> labeled) {
+      Set<ClpVariable> variables = new LinkedHashSet<>(labeled);
 
       List<Constraint> queue = new ArrayList<>(getConstraints(variables));
       Set<Constraint> processed = new HashSet<>();
@@ -231,48 +453,30 @@ public final class Resolve implements PredicateFactory {
       return constraints;
    }
 
-   private BruteForceSearch createBruteForceSearch(ClpConstraintStore.Builder builder, Map<ClpVariable, Variable> variables) {
-      ClpConstraintStore environment = builder.build();
-
-      // for each variable set its minimum and maximum values
-      for (Map.Entry<ClpVariable, Variable> entry : variables.entrySet()) {
-         entry.getValue().setMax(environment, entry.getKey().getMax(environment));
-         entry.getValue().setMin(environment, entry.getKey().getMin(environment));
-      }
-
-      return new BruteForceSearch(environment);
-   }
-
    @Override
    public boolean isRetryable() {
       return true;
    }
 
    private static final class ClpResolvePredicate implements Predicate {
-      private final BruteForceSearch bruteForceSearch;
-      private final Map<ClpVariable, Variable> variables;
+      private final Labeling search;
+      private final Map<ClpVariable, LeafExpression> variables;
 
-      private ClpResolvePredicate(BruteForceSearch bruteForceSearch, Map<ClpVariable, Variable> variables) {
-         this.bruteForceSearch = bruteForceSearch;
+      private ClpResolvePredicate(Labeling search, Map<ClpVariable, LeafExpression> variables) {
+         this.search = search;
          this.variables = variables;
       }
 
       @Override
       public boolean evaluate() {
-         ClpConstraintStore result = next();
-
-         if (result != null) {
-            // need to backtrack *all* variables before assigning to any, else constraints may fail
+         if (next()) {
+            // need to backtrack *all* variables before assigning to any, as the previous solution may still be applied
             for (ClpVariable v : variables.keySet()) {
                v.backtrack();
             }
 
-            for (Map.Entry<ClpVariable, Variable> entry : variables.entrySet()) {
-               long i = result.getValue(entry.getValue());
-               // TODO don't do unify as forces resolve - add setvalue method instead
-               if (!entry.getKey().unify(IntegerNumberCache.valueOf(i))) {
-                  throw new RuntimeException(entry.getKey() + " " + entry.getKey().getType() + " " + i);
-               }
+            for (Map.Entry<ClpVariable, LeafExpression> entry : variables.entrySet()) {
+               entry.getKey().setState(search.getDomain(entry.getValue()).copy());
             }
 
             return true;
@@ -281,9 +485,11 @@ public final class Resolve implements PredicateFactory {
          }
       }
 
-      private ClpConstraintStore next() {
+      private boolean next() {
          try {
-            return bruteForceSearch.next();
+            return search.next();
+         } catch (ProjogException e) {
+            throw e;
          } catch (RuntimeException e) {
             throw new ProjogException(e.toString(), e);
          }
@@ -0,0 +1,197 @@
+/*
+ * Copyright 2026 S. Webber
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projog.core.predicate.builtin.clp;
+
+import static org.projog.core.term.TermUtils.castToNumeric;
+import static org.projog.core.term.TermUtils.getAtomName;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.projog.clp.Expression;
+import org.projog.core.ProjogException;
+import org.projog.core.kb.KnowledgeBaseServiceLocator;
+import org.projog.core.predicate.AbstractSingleResultPredicate;
+import org.projog.core.term.ListUtils;
+import org.projog.core.term.Term;
+import org.projog.core.term.TermType;
+
+/* TEST
+%?- [X,Y,Z] ins 0..10, sum([X,Y,Z], #=, 25)
+% X=5..10
+% Y=5..10
+% Z=5..10
+%?- [X,Y] ins 0..10, sum([X,Y], #>=, 18)
+% X=8..10
+% Y=8..10
+%?- [X,Y] ins 0..10, sum([X,Y], #>, 18)
+% X=9..10
+% Y=9..10
+%?- [X,Y] ins 0..10, sum([X,Y], #=<, 3)
+% X=0..3
+% Y=0..3
+%?- [X,Y] ins 0..10, sum([X,Y], #<, 3)
+% X=0..2
+% Y=0..2
+%?- X in 0..5, sum([X,3], #\=, 5)
+% X={0, 1, 3, 4, 5}
+%?- [X,Y] ins 0..5, sum([X,Y], #=, Z)
+% X=0..5
+% Y=0..5
+% Z=0..10
+%?- sum([X,Y], #=, 10), X in 0..3
+% X=0..3
+% Y=7..10
+
+%?- [X,Y] ins 0..3, scalar_product([2,3], [X,Y], #=, 12)
+% X=3
+% Y=2
+%?- [X,Y] ins 0..10, scalar_product([2,3], [X,Y], #=, 12), label([X,Y])
+% X=0
+% Y=4
+% X=3
+% Y=2
+% X=6
+% Y=0
+%NO
+%?- [X,Y] ins 0..10, scalar_product([3,-2], [X,Y], #>=, 25)
+% X=9..10
+% Y=0..2
+
+%TRUE sum([], #=, 0)
+%FAIL sum([], #=, 1)
+%TRUE sum([1,2,3], #=, 6)
+%FAIL sum([1,2,3], #\=, 6)
+%TRUE scalar_product([1,2,3], [3,2,1], #>, 9)
+%FAIL scalar_product([1,2,3], [3,2,1], #>, 10)
+%FAIL [X,Y] ins 0..3, sum([X,Y], #>, 6)
+
+%?- sum(x, #=, 1)
+%ERROR Expected list but got: ATOM with value: x
+%?- sum([X], x, 1)
+%ERROR Unexpected operator: x
+%?- scalar_product([1], [X,Y], #=, 1)
+%ERROR Expected 1 expressions but got: 2
+*/
+/**
+ * <code>sum(Vars,Op,Expr)</code> / <code>scalar_product(Cs,Vars,Op,Expr)</code> - constrain the (weighted) sum of CLP
+ * variables.
+ * <p>
+ * <code>Op</code> is one of <code>#=</code>, <code>#\=</code>, <code>#&lt;</code>, <code>#&gt;</code>,
+ * <code>#=&lt;</code> and <code>#&gt;=</code>. The sum is enforced by a single constraint, rather than as a nested
+ * arithmetic expression, so the bounds of each variable are restricted using the bounds of all the other variables.
+ * </p>
+ */
+public final class ScalarProduct extends AbstractSingleResultPredicate {
+   private ExpressionFactories expressions;
+
+   @Override
+   protected void init() {
+      expressions = KnowledgeBaseServiceLocator.getServiceLocator(getKnowledgeBase()).getInstance(ExpressionFactories.class);
+   }
+
+   @Override
+   public boolean evaluate(Term vars, Term operator, Term value) {
+      Set<ClpVariable> clpVariables = new HashSet<>();
+      Expression[] sum = expressions.toExpressions(vars, clpVariables);
+      long[] coefficients = new long[sum.length];
+      for (int i = 0; i < coefficients.length; i++) {
+         coefficients[i] = 1;
+      }
+      return post(coefficients, sum, operator, value, clpVariables);
+   }
+
+   @Override
+   public boolean evaluate(Term coefficients, Term vars, Term operator, Term value) {
+      Set<ClpVariable> clpVariables = new HashSet<>();
+      Expression[] sum = expressions.toExpressions(vars, clpVariables);
+      List<Term> weights = ListUtils.toJavaUtilList(coefficients);
+      if (weights == null) {
+         throw new ProjogException("Expected list but got: " + coefficients.getType() + " with value: " + coefficients);
+      }
+      if (weights.size() != sum.length) {
+         throw new ProjogException("Expected " + weights.size() + " expressions but got: " + sum.length);
+      }
+      long[] longs = new long[sum.length];
+      for (int i = 0; i < longs.length; i++) {
+         longs[i] = castToNumeric(weights.get(i)).getLong();
+      }
+      return post(longs, sum, operator, value, clpVariables);
+   }
+
+   private boolean post(long[] coefficients, Expression[] sum, Term operator, Term value, Set<ClpVariable> clpVariables) {
+      // move the value to the left-hand side so the sum is compared to zero
+      long constant = 0;
+      if (value.getType() == TermType.INTEGER) {
+         constant = -castToNumeric(value).getLong();
+      } else {
+         Expression right = expressions.toExpression(value, clpVariables);
+         long[] withRight = new long[coefficients.length + 1];
+         System.arraycopy(coefficients, 0, withRight, 0, coefficients.length);
+         withRight[coefficients.length] = -1;
+         coefficients = withRight;
+         Expression[] sumWithRight = new Expression[sum.length + 1];
+         System.arraycopy(sum, 0, sumWithRight, 0, sum.length);
+         sumWithRight[sum.length] = right;
+         sum = sumWithRight;
+      }
+
+      LinearConstraint.Relation relation;
+      switch (getAtomName(operator)) {
+         case "#=":
+            relation = LinearConstraint.Relation.EQUAL;
+            break;
+         case "#\\=":
+            relation = LinearConstraint.Relation.NOT_EQUAL;
+            break;
+         case "#=<":
+            relation = LinearConstraint.Relation.LESS_THAN_OR_EQUAL;
+            break;
+         case "#<":
+            // x < 0 is the same as x + 1 =< 0
+            relation = LinearConstraint.Relation.LESS_THAN_OR_EQUAL;
+            constant += 1;
+            break;
+         case "#>=":
+            // x >= 0 is the same as -x =< 0
+            relation = LinearConstraint.Relation.LESS_THAN_OR_EQUAL;
+            negate(coefficients);
+            constant = -constant;
+            break;
+         case "#>":
+            // x > 0 is the same as -x + 1 =< 0
+            relation = LinearConstraint.Relation.LESS_THAN_OR_EQUAL;
+            negate(coefficients);
+            constant = -constant + 1;
+            break;
+         default:
+            throw new ProjogException("Unexpected operator: " + operator);
+      }
+
+      LinearConstraint rule = new LinearConstraint(coefficients, sum, constant, relation);
+      for (ClpVariable c : clpVariables) {
+         c.addConstraint(rule);
+      }
+      return new CoreConstraintStore(rule).resolve();
+   }
+
+   private static void negate(long[] coefficients) {
+      for (int i = 0; i < coefficients.length; i++) {
+         coefficients[i] = -coefficients[i];
+      }
+   }
+}
@@ -19,6 +19,7 @@ import org.projog.core.kb.KnowledgeBase;
 import org.projog.core.kb.KnowledgeBaseConsumer;
 import org.projog.core.predicate.Predicate;
 import org.projog.core.predicate.PredicateFactory;
+import org.projog.core.predicate.builtin.list.PartialApplicationUtils;
 import org.projog.core.term.StructureFactory;
 import org.projog.core.term.Term;
 
@@ -123,12 +124,33 @@ test(V1,V2,V3,V4,V5,V6,V7,V8,V9) :-
  */
 public final class Call implements PredicateFactory, KnowledgeBaseConsumer {
    private KnowledgeBase knowledgeBase;
+   private PredicateFactory pf;
+
+   public Call() {
+   }
+
+   private Call(KnowledgeBase knowledgeBase, PredicateFactory pf) {
+      this.knowledgeBase = knowledgeBase;
+      this.pf = pf;
+   }
+
+   @Override
+   public PredicateFactory preprocess(Term term) {
+      Term goal = term.firstArgument();
+      if (PartialApplicationUtils.isAtomOrStructure(goal)) {
+         PredicateFactory preprocessed = PartialApplicationUtils.getPreprocessedPartiallyAppliedPredicateFactory(knowledgeBase.getPredicates(), goal, term.getNumberOfArguments() - 1);
+         return new Call(knowledgeBase, preprocessed);
+      } else {
+         // use a separate cache for each call site
+         return new Call(knowledgeBase, knowledgeBase.getPredicates().placeholder());
+      }
+   }
 
    @Override
    public Predicate getPredicate(Term term) {
       Term goal = term.firstArgument();
       if (term.getNumberOfArguments() == 1) {
-         return knowledgeBase.getPredicates().getPredicate(goal);
+         return pf.getPredicate(goal);
       } else {
          Term[] callArgs = new Term[goal.getNumberOfArguments() + term.getNumberOfArguments() - 1];
          for (int i = 0; i < goal.getNumberOfArguments(); i++) {
@@ -138,17 +160,18 @@ public final class Call implements PredicateFactory, KnowledgeBaseConsumer {
             callArgs[goal.getNumberOfArguments() + i - 1] = term.getArgument(i);
          }
          Term target = StructureFactory.createStructure(goal.getName(), callArgs);
-         return knowledgeBase.getPredicates().getPredicate(target);
+         return pf.getPredicate(target);
       }
    }
 
    @Override
    public boolean isRetryable() {
-      return true;
+      return pf.isRetryable();
    }
 
    @Override
    public void setKnowledgeBase(KnowledgeBase knowledgeBase) {
       this.knowledgeBase = knowledgeBase;
+      this.pf = knowledgeBase.getPredicates().placeholder();
    }
 }
@@ -20,6 +20,7 @@ import org.projog.core.predicate.Predicate;
 import org.projog.core.predicate.PredicateFactory;
 import org.projog.core.predicate.udp.PredicateUtils;
 import org.projog.core.term.Term;
+import org.projog.core.term.Trail;
 
 /* TEST
 %TRUE true, true
@@ -126,17 +127,34 @@ public final class Conjunction implements PredicateFactory {
 
    @Override
    public PredicateFactory preprocess(Term term) {
+      return preprocess(term, false);
+   }
+
+   @Override
+   public PredicateFactory preprocessClauseBody(Term term) {
+      return preprocess(term, true);
+   }
+
+   private PredicateFactory preprocess(Term term, boolean clauseBody) {
       Term firstArg = term.firstArgument();
       Term secondArg = term.secondArgument();
       if (firstArg.getType().isVariable() || secondArg.getType().isVariable()) {
          return this;
       }
 
-      PredicateFactory firstPredicateFactory = kb.getPredicates().getPreprocessedPredicateFactory(firstArg);
-      PredicateFactory secondPredicateFactory = kb.getPredicates().getPreprocessedPredicateFactory(secondArg);
+      PredicateFactory firstPredicateFactory = preprocessArgument(firstArg, clauseBody);
+      PredicateFactory secondPredicateFactory = preprocessArgument(secondArg, clauseBody);
       return new Conjunction(kb, firstPredicateFactory, secondPredicateFactory);
    }
 
+   private PredicateFactory preprocessArgument(Term arg, boolean clauseBody) {
+      if (clauseBody) {
+         return kb.getPredicates().getPreprocessedClauseBody(arg);
+      } else {
+         return kb.getPredicates().getPreprocessedPredicateFactory(arg);
+      }
+   }
+
    @Override
    public Predicate getPredicate(Term term) {
       Predicate firstPredicate = firstPredicateFactory.getPredicate(term.firstArgument());
@@ -171,8 +189,10 @@ public final class Conjunction implements PredicateFactory {
       private final Predicate firstPredicate;
       private final PredicateFactory secondPredicateFactory;
       private final Term originalSecondArgument;
+      private final Trail trail = Trail.getCurrent();
       private Predicate secondPredicate;
       private Term copySecondArgument;
+      private int choicePoint;
 
       private ConjunctionPredicate(Predicate firstPredicate, PredicateFactory secondPredicateFactory, Term secondArgument) {
          this.firstPredicate = firstPredicate;
@@ -185,21 +205,48 @@ public final class Conjunction implements PredicateFactory {
          do {
             if (secondPredicate == null) {
                copySecondArgument = originalSecondArgument.getTerm();
+               if (trail != null) {
+                  choicePoint = trail.mark();
+               }
                secondPredicate = secondPredicateFactory.getPredicate(copySecondArgument);
                if (secondPredicate.evaluate()) {
+                  releaseIfDeterministic();
                   return true;
                }
             } else if (secondPredicate.couldReevaluationSucceed() && secondPredicate.evaluate()) {
+               releaseIfDeterministic();
                return true;
             }
 
             secondPredicate = null;
-            copySecondArgument.backtrack();
+            backtrack();
+            if (trail != null && trail.isCutPending()) {
+               // the second goal backtracked to a cut, so do not retry the first goal
+               return false;
+            }
          } while (firstPredicate.couldReevaluationSucceed() && firstPredicate.evaluate());
 
          return false;
       }
 
+      /** Undoes the bindings made by the second goal. */
+      private void backtrack() {
+         if (trail == null) {
+            copySecondArgument.backtrack();
+         } else {
+            if (!trail.undo(choicePoint)) {
+               copySecondArgument.backtrack();
+            }
+            trail.release(choicePoint);
+         }
+      }
+
+      private void releaseIfDeterministic() {
+         if (trail != null && !couldReevaluationSucceed()) {
+            trail.release(choicePoint);
+         }
+      }
+
       @Override
       public boolean couldReevaluationSucceed() {
          return firstPredicate.couldReevaluationSucceed()
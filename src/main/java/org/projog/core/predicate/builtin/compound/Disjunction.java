@@ -21,6 +21,7 @@ import org.projog.core.predicate.PredicateFactory;
 import org.projog.core.predicate.Predicates;
 import org.projog.core.predicate.builtin.list.PartialApplicationUtils;
 import org.projog.core.term.Term;
+import org.projog.core.term.Trail;
 
 /* TEST
 %?- true; true
@@ -180,6 +181,15 @@ public final class Disjunction implements PredicateFactory {
 
    @Override
    public PredicateFactory preprocess(Term term) {
+      return preprocess(term, false);
+   }
+
+   @Override
+   public PredicateFactory preprocessClauseBody(Term term) {
+      return preprocess(term, true);
+   }
+
+   private PredicateFactory preprocess(Term term, boolean clauseBody) {
       Term arg1 = term.firstArgument();
       Term arg2 = term.secondArgument();
       if (PartialApplicationUtils.isAtomOrStructure(arg1) && PartialApplicationUtils.isAtomOrStructure(arg2)) {
@@ -190,12 +200,12 @@ public final class Disjunction implements PredicateFactory {
                return this;
             }
             PredicateFactory condition = predicates.getPreprocessedPredicateFactory(conditionTerm);
-            PredicateFactory thenPf = predicates.getPreprocessedPredicateFactory(thenTerm);
-            PredicateFactory elsePf = predicates.getPreprocessedPredicateFactory(arg2);
+            PredicateFactory thenPf = preprocessArgument(thenTerm, clauseBody);
+            PredicateFactory elsePf = preprocessArgument(arg2, clauseBody);
             return new OptimisedIfThenElse(condition, thenPf, elsePf);
          } else {
-            PredicateFactory pf1 = predicates.getPreprocessedPredicateFactory(arg1);
-            PredicateFactory pf2 = predicates.getPreprocessedPredicateFactory(arg2);
+            PredicateFactory pf1 = preprocessArgument(arg1, clauseBody);
+            PredicateFactory pf2 = preprocessArgument(arg2, clauseBody);
             return new OptimisedDisjunction(pf1, pf2);
          }
       } else {
@@ -203,6 +213,14 @@ public final class Disjunction implements PredicateFactory {
       }
    }
 
+   private PredicateFactory preprocessArgument(Term arg, boolean clauseBody) {
+      if (clauseBody) {
+         return predicates.getPreprocessedClauseBody(arg);
+      } else {
+         return predicates.getPreprocessedPredicateFactory(arg);
+      }
+   }
+
    @Override
    public Predicate getPredicate(Term term) {
       Term firstArgument = term.firstArgument();
@@ -293,6 +311,7 @@ public final class Disjunction implements PredicateFactory {
       private final PredicateFactory pf2;
       private final Term inputArg1;
       private final Term inputArg2;
+      private final Trail trail = Trail.getCurrent();
       private Predicate firstPredicate;
       private Predicate secondPredicate;
 
@@ -315,6 +334,10 @@ public final class Disjunction implements PredicateFactory {
          }
 
          if (secondPredicate == null) {
+            if (trail != null && trail.isCutPending()) {
+               // the first goal backtracked to a cut, so do not try the second goal
+               return false;
+            }
             inputArg1.backtrack();
             secondPredicate = pf2.getPredicate(inputArg2);
             return secondPredicate.evaluate();
@@ -96,7 +96,8 @@ public final class FindAll implements PredicateFactory {
       if (PartialApplicationUtils.isAtomOrStructure(goal)) {
          return new FindAll(kb, kb.getPredicates().getPreprocessedPredicateFactory(goal));
       } else {
-         return this;
+         // use a separate cache for each call site
+         return new FindAll(kb, kb.getPredicates().placeholder());
       }
    }
 
@@ -109,6 +109,17 @@ public final class IfThen implements PredicateFactory {
       }
    }
 
+   @Override
+   public PredicateFactory preprocessClauseBody(Term term) {
+      Term condition = term.firstArgument();
+      Term action = term.secondArgument();
+      if (PartialApplicationUtils.isAtomOrStructure(condition) || PartialApplicationUtils.isAtomOrStructure(action)) {
+         return new IfThen(kb, kb.getPredicates().getPreprocessedPredicateFactory(condition), kb.getPredicates().getPreprocessedClauseBody(action));
+      } else {
+         return this;
+      }
+   }
+
    @Override
    public Predicate getPredicate(Term term) {
       Predicate conditionPredicate = conditionPredicateFactory.getPredicate(term.firstArgument());
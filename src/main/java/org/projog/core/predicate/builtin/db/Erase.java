@@ -59,6 +59,7 @@ public final class Erase extends AbstractSingleResultPredicate {
    @Override
    protected boolean evaluate(Term arg) {
       Numeric reference = TermUtils.castToNumeric(arg);
+      getKnowledgeBase().isolateForks();
       database.erase(reference.getLong());
       return true;
    }
@@ -101,6 +101,7 @@ public final class InsertRecord extends AbstractSingleResultPredicate {
          return false;
       }
       PredicateKey k = PredicateKey.createForTerm(key);
+      getKnowledgeBase().isolateForks();
       Term result = database.add(k, value, insertLast);
       return reference.unify(result);
    }
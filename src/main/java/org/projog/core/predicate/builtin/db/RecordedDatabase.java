@@ -15,15 +15,19 @@
  */
 package org.projog.core.predicate.builtin.db;
 
-import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.SortedMap;
 import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.atomic.AtomicLong;
 
+import org.projog.core.kb.Forkable;
+import org.projog.core.kb.KnowledgeBase;
 import org.projog.core.predicate.PredicateKey;
 import org.projog.core.term.IntegerNumber;
 import org.projog.core.term.IntegerNumberCache;
@@ -33,12 +37,18 @@ import org.projog.core.term.Term;
  * Provides a mechanism to associate a term with a key.
  * <p>
  * Multiple terms can be associated with the same key.
+ * <p>
+ * A fork of a {@code KnowledgeBase} starts with a copy of the database of the original {@code KnowledgeBase}, so terms
+ * added or erased using the fork do not affect the original.
+ * <p>
+ * Terms can be iterated over by multiple threads while other threads add or erase terms. Adding and erasing terms is
+ * coordinated by a lock.
  */
-public class RecordedDatabase {
+public class RecordedDatabase implements Forkable<RecordedDatabase> {
    private final AtomicLong referenceCtr = new AtomicLong();
    private final SortedMap<Long, Link> references = new TreeMap<>();
-   private final List<PredicateKey> keys = new ArrayList<>();
-   private final SortedMap<PredicateKey, Chain> chains = new TreeMap<>();
+   private final List<PredicateKey> keys = new CopyOnWriteArrayList<>();
+   private final Map<PredicateKey, Chain> chains = new ConcurrentHashMap<>();
 
    /**
     * Associates a value with a key.
@@ -75,6 +85,28 @@ public class RecordedDatabase {
       return removeReference(reference);
    }
 
+   /**
+    * Returns a copy of this database.
+    * <p>
+    * The terms of the copy have the same references as the terms of this database.
+    */
+   @Override
+   public RecordedDatabase fork(KnowledgeBase fork) {
+      RecordedDatabase copy = new RecordedDatabase();
+      synchronized (chains) {
+         synchronized (references) {
+            for (PredicateKey key : keys) {
+               Chain chain = copy.createChain(key);
+               for (Link link = chains.get(key).first; link != null; link = link.next) {
+                  copy.addReference(link.reference, new Link(chain, link.reference, link.value), true);
+               }
+            }
+            copy.referenceCtr.set(referenceCtr.get());
+         }
+      }
+      return copy;
+   }
+
    private Chain getOrCreateChain(PredicateKey key) {
       Chain chain = chains.get(key);
       if (chain == null) {
@@ -228,7 +260,7 @@ public class RecordedDatabase {
 
    private static class Chain {
       final PredicateKey key;
-      Link first;
+      volatile Link first;
       Link last;
 
       Chain(PredicateKey key) {
@@ -241,8 +273,8 @@ public class RecordedDatabase {
       final IntegerNumber reference;
       final Term value;
       Link previous;
-      Link next;
-      boolean deleted;
+      volatile Link next;
+      volatile boolean deleted;
 
       Link(Chain chain, IntegerNumber reference, Term value) {
          this.chain = chain;
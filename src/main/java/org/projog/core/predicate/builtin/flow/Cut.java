@@ -19,6 +19,7 @@ import org.projog.core.predicate.CutException;
 import org.projog.core.predicate.Predicate;
 import org.projog.core.predicate.PredicateFactory;
 import org.projog.core.term.Term;
+import org.projog.core.term.Trail;
 
 /* TEST
 %TRUE_NO repeat, !
@@ -41,6 +42,23 @@ a(X, Y) :- Y = 2.
 
 %?- a(z, Y)
 % Y=2
+
+b(X) :- (X = 1 ; X = 2), !.
+b(3).
+
+%?- b(X)
+% X=1
+
+c(X, Y) :- (X > 0 -> Y = positive, ! ; Y = other).
+c(_, fallback).
+
+%?- c(1, Y)
+% Y=positive
+%NO
+
+%?- c(0, Y)
+% Y=other
+% Y=fallback
 */
 /**
  * <code>!</code> - the "cut".
@@ -64,6 +82,61 @@ public final class Cut implements PredicateFactory {
       return true;
    }
 
+   @Override
+   public PredicateFactory preprocessClauseBody(Term term) {
+      return ClauseCut.INSTANCE;
+   }
+
+   /**
+    * A cut that is in the body of a clause and is not nested inside another goal (e.g. {@code \+} or {@code call/1}).
+    * <p>
+    * Backtracking to the cut is indicated by calling {@link Trail#cut()} rather than by throwing a
+    * {@link CutException}.
+    */
+   private static final class ClauseCut implements PredicateFactory {
+      private static final ClauseCut INSTANCE = new ClauseCut();
+
+      @Override
+      public Predicate getPredicate(Term term) {
+         Trail trail = Trail.getCurrent();
+         return trail == null ? new CutPredicate() : new ClauseCutPredicate(trail);
+      }
+
+      @Override
+      public boolean isRetryable() {
+         return true;
+      }
+
+      @Override
+      public boolean isAlwaysCutOnBacktrack() {
+         return true;
+      }
+   }
+
+   private final static class ClauseCutPredicate implements Predicate {
+      private final Trail trail;
+      private boolean retried = false;
+
+      ClauseCutPredicate(Trail trail) {
+         this.trail = trail;
+      }
+
+      @Override
+      public boolean evaluate() {
+         if (retried) {
+            trail.cut();
+            return false;
+         }
+         retried = true;
+         return true;
+      }
+
+      @Override
+      public boolean couldReevaluationSucceed() {
+         return true;
+      }
+   }
+
    private final static class CutPredicate implements Predicate {
       private boolean retried = false;
 
@@ -85,7 +85,7 @@ public final class GetChar extends AbstractSingleResultPredicate {
    @Override
    protected boolean evaluate(Term argument) {
       try {
-         int c = getFileHandles().getCurrentInputStream().read();
+         int c = getFileHandles().getCurrentInputParser(getOperands()).getNextCharacter();
          Atom next = toAtom(c);
          return argument.unify(next);
       } catch (Exception e) {
@@ -87,7 +87,7 @@ public final class GetCode extends AbstractSingleResultPredicate {
    @Override
    protected boolean evaluate(Term argument) {
       try {
-         int c = getFileHandles().getCurrentInputStream().read();
+         int c = getFileHandles().getCurrentInputParser(getOperands()).getNextCharacter();
          IntegerNumber next = IntegerNumberCache.valueOf(c);
          return argument.unify(next);
       } catch (Exception e) {
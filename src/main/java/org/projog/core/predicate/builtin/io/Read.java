@@ -15,8 +15,6 @@
  */
 package org.projog.core.predicate.builtin.io;
 
-import java.io.InputStreamReader;
-
 import org.projog.core.parser.SentenceParser;
 import org.projog.core.predicate.AbstractSingleResultPredicate;
 import org.projog.core.term.Term;
@@ -36,8 +34,7 @@ import org.projog.core.term.Term;
 public final class Read extends AbstractSingleResultPredicate {
    @Override
    protected boolean evaluate(Term argument) {
-      InputStreamReader isr = new InputStreamReader(getFileHandles().getCurrentInputStream());
-      SentenceParser sp = SentenceParser.getInstance(isr, getOperands());
+      SentenceParser sp = getFileHandles().getCurrentInputParser(getOperands());
       Term t = sp.parseSentence();
       return argument.unify(t);
    }
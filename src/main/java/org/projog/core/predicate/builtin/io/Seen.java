@@ -28,14 +28,17 @@ import org.projog.core.term.Term;
 /**
  * <code>seen</code> - closes the current input stream.
  * <p>
- * The new input stream becomes <code>user_input</code>.
+ * The new input stream becomes <code>user_input</code>. If the current input stream is already <code>user_input</code>
+ * then it is not closed.
  */
 public final class Seen extends AbstractSingleResultPredicate {
    @Override
    protected boolean evaluate() {
       FileHandles fileHandles = getFileHandles();
       Term handle = fileHandles.getCurrentInputHandle();
-      close(fileHandles, handle);
+      if (!USER_INPUT_HANDLE.equals(handle)) {
+         close(fileHandles, handle);
+      }
       fileHandles.setInput(USER_INPUT_HANDLE);
       return true;
    }
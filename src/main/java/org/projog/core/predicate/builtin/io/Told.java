@@ -28,14 +28,17 @@ import org.projog.core.term.Term;
 /**
  * <code>told</code> - closes the current output stream.
  * <p>
- * The new input stream becomes <code>user_output</code>.
+ * The new input stream becomes <code>user_output</code>. If the current output stream is already
+ * <code>user_output</code> then it is not closed.
  */
 public final class Told extends AbstractSingleResultPredicate {
    @Override
    protected boolean evaluate() {
       FileHandles fileHandles = getFileHandles();
       Term handle = fileHandles.getCurrentOutputHandle();
-      close(fileHandles, handle);
+      if (!USER_OUTPUT_HANDLE.equals(handle)) {
+         close(fileHandles, handle);
+      }
       fileHandles.setOutput(USER_OUTPUT_HANDLE);
       return true;
    }
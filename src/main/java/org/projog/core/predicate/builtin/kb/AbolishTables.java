@@ -0,0 +1,108 @@
+/*
+ * Copyright 2026 S. Webber
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projog.core.predicate.builtin.kb;
+
+import org.projog.core.predicate.AbstractSingleResultPredicate;
+import org.projog.core.predicate.PredicateKey;
+import org.projog.core.predicate.udp.TabledUserDefinedPredicateFactory;
+import org.projog.core.predicate.udp.UserDefinedPredicateFactory;
+import org.projog.core.term.Term;
+
+/* TEST
+:- table(square/2).
+
+square(X, Y) :- write(calculating(X)), nl, Y is X * X.
+
+:- table(cube/2).
+
+cube(X, Y) :- write(calculating(X)), nl, Y is X * X * X.
+
+%?- square(3, X)
+%OUTPUT
+%calculating(3)
+%
+%OUTPUT
+% X=9
+%?- cube(3, X)
+%OUTPUT
+%calculating(3)
+%
+%OUTPUT
+% X=27
+
+% Answers are reused until the tables are abolished.
+%?- square(3, X)
+% X=9
+%TRUE abolish_table_pred(square/2)
+%?- square(3, X)
+%OUTPUT
+%calculating(3)
+%
+%OUTPUT
+% X=9
+%?- cube(3, X)
+% X=27
+
+%TRUE abolish_all_tables
+%?- square(3, X)
+%OUTPUT
+%calculating(3)
+%
+%OUTPUT
+% X=9
+%?- cube(3, X)
+%OUTPUT
+%calculating(3)
+%
+%OUTPUT
+% X=27
+
+% Succeeds even if the predicate is not tabled.
+%TRUE abolish_table_pred(not_tabled/1)
+*/
+/**
+ * <code>abolish_all_tables</code> / <code>abolish_table_pred(X)</code> - discards the answers of tabled predicates.
+ * <p>
+ * <code>abolish_all_tables</code> discards the answer tables of every tabled predicate in the knowledge base.
+ * <code>abolish_table_pred(X)</code> discards the answer tables of the predicate specified by <code>X</code>, which
+ * must be of the form <code>Name/Arity</code>. Subsequent calls to the predicates will reevaluate their clauses.
+ * </p>
+ */
+public final class AbolishTables extends AbstractSingleResultPredicate {
+   @Override
+   protected boolean evaluate() {
+      for (UserDefinedPredicateFactory udp : getPredicates().getUserDefinedPredicates().values()) {
+         abolishTables(udp);
+      }
+      return true;
+   }
+
+   @Override
+   protected boolean evaluate(Term arg) {
+      PredicateKey key = PredicateKey.createFromNameAndArity(arg);
+      UserDefinedPredicateFactory udp = getPredicates().getUserDefinedPredicates().get(key);
+      if (udp != null) {
+         abolishTables(udp);
+      }
+      return true;
+   }
+
+   private static void abolishTables(UserDefinedPredicateFactory udp) {
+      if (udp instanceof TabledUserDefinedPredicateFactory) {
+         ((TabledUserDefinedPredicateFactory) udp).abolishTables();
+      }
+   }
+}
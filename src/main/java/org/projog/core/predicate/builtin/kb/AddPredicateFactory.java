@@ -17,6 +17,7 @@ package org.projog.core.predicate.builtin.kb;
 
 import static org.projog.core.term.TermUtils.getAtomName;
 
+import org.projog.core.kb.Forkable;
 import org.projog.core.kb.KnowledgeBase;
 import org.projog.core.predicate.AbstractSingleResultPredicate;
 import org.projog.core.predicate.PredicateKey;
@@ -43,7 +44,7 @@ import org.projog.core.term.Term;
  * functionality not possible to define in pure Prolog syntax.
  * </p>
  */
-public final class AddPredicateFactory extends AbstractSingleResultPredicate {
+public final class AddPredicateFactory extends AbstractSingleResultPredicate implements Forkable<AddPredicateFactory> {
    public AddPredicateFactory(KnowledgeBase kb) {
       setKnowledgeBase(kb);
    }
@@ -55,4 +56,9 @@ public final class AddPredicateFactory extends AbstractSingleResultPredicate {
       getPredicates().addPredicateFactory(key, className);
       return true;
    }
+
+   @Override
+   public AddPredicateFactory fork(KnowledgeBase fork) {
+      return new AddPredicateFactory(fork);
+   }
 }
@@ -15,21 +15,38 @@
  */
 package org.projog.core.predicate.builtin.kb;
 
+import static org.projog.core.term.TermUtils.castToNumeric;
 import static org.projog.core.term.TermUtils.getAtomName;
 
+import java.io.File;
+import java.util.List;
+
+import org.projog.core.ProjogException;
 import org.projog.core.parser.ProjogSourceReader;
 import org.projog.core.predicate.AbstractSingleResultPredicate;
+import org.projog.core.term.ListUtils;
 import org.projog.core.term.Term;
+import org.projog.core.term.TermType;
 
 /* TEST
 %LINK prolog-io
 */
 /**
- * <code>consult(X)</code> - reads clauses and goals from a file.
+ * <code>consult(X)</code> / <code>consult(X, Options)</code> - reads clauses and goals from a file.
  * <p>
  * <code>consult(X)</code> reads clauses and goals from a file. <code>X</code> must be instantiated to the name of a
  * text file containing Prolog clauses and goals which will be added to the knowledge base.
  * </p>
+ * <p>
+ * <code>consult(X, Options)</code> reads clauses and goals from a file using the specified list of options. Supported
+ * options are:
+ * <ul>
+ * <li><code>bulk(true)</code> - use multiple threads to parse the file. Intended for loading large files of facts.
+ * <code>bulk(false)</code>, the default, parses the file using the current thread.</li>
+ * <li><code>threads(N)</code> - the positive number of threads to use when <code>bulk(true)</code> is specified.
+ * Defaults to the number of available processors.</li>
+ * </ul>
+ * </p>
  */
 public final class Consult extends AbstractSingleResultPredicate {
    @Override
@@ -37,4 +54,56 @@ public final class Consult extends AbstractSingleResultPredicate {
       ProjogSourceReader.parseResource(getKnowledgeBase(), getAtomName(arg));
       return true;
    }
+
+   @Override
+   protected boolean evaluate(Term arg, Term options) {
+      boolean bulk = false;
+      int numberOfThreads = Runtime.getRuntime().availableProcessors();
+      List<Term> optionsList = ListUtils.toJavaUtilList(options);
+      if (optionsList == null) {
+         throw new ProjogException("Expected list of consult options but got: " + options);
+      }
+      for (Term option : optionsList) {
+         if ("bulk".equals(option.getName()) && option.getNumberOfArguments() == 1) {
+            bulk = toBoolean(option);
+         } else if ("threads".equals(option.getName()) && option.getNumberOfArguments() == 1) {
+            numberOfThreads = toNumberOfThreads(option);
+         } else {
+            throw new ProjogException("Unknown consult option: " + option);
+         }
+      }
+
+      String resourceName = getAtomName(arg);
+      if (bulk) {
+         ProjogSourceReader.parseFileInParallel(getKnowledgeBase(), new File(resourceName), numberOfThreads);
+      } else {
+         ProjogSourceReader.parseResource(getKnowledgeBase(), resourceName);
+      }
+      return true;
+   }
+
+   /** Returns the value of a {@code bulk} option, which must be {@code true} or {@code false}. */
+   private static boolean toBoolean(Term option) {
+      Term value = option.firstArgument().getTerm();
+      if (value.getType() == TermType.ATOM) {
+         if ("true".equals(value.getName())) {
+            return true;
+         } else if ("false".equals(value.getName())) {
+            return false;
+         }
+      }
+      throw new ProjogException("Invalid consult option: " + option);
+   }
+
+   /** Returns the value of a {@code threads} option, which must be a positive integer. */
+   private static int toNumberOfThreads(Term option) {
+      Term value = option.firstArgument().getTerm();
+      if (value.getType() == TermType.INTEGER) {
+         long numberOfThreads = castToNumeric(value).getLong();
+         if (numberOfThreads > 0 && numberOfThreads <= Integer.MAX_VALUE) {
+            return (int) numberOfThreads;
+         }
+      }
+      throw new ProjogException("Invalid consult option: " + option);
+   }
 }
@@ -15,9 +15,13 @@
  */
 package org.projog.core.predicate.builtin.kb;
 
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.TreeMap;
 
+import org.projog.core.kb.Forkable;
+import org.projog.core.kb.KnowledgeBase;
 import org.projog.core.math.Numeric;
 import org.projog.core.predicate.AbstractSingleResultPredicate;
 import org.projog.core.predicate.PredicateKey;
@@ -54,12 +58,13 @@ import org.projog.core.term.Term;
  * with the key then it will default to 0. The third argument is the new value to associate with the key. The third
  * argument must be a numeric value.
  */
-public final class Flag extends AbstractSingleResultPredicate {
+public final class Flag extends AbstractSingleResultPredicate implements Forkable<Flag> {
    private final Map<PredicateKey, Numeric> flags = new HashMap<>();
 
    @Override
    protected boolean evaluate(Term key, Term oldValue, Term newValue) {
       PredicateKey pk = PredicateKey.createForTerm(key);
+      getKnowledgeBase().isolateForks();
       synchronized (flags) {
          Numeric n = getOrCreate(pk);
 
@@ -72,6 +77,40 @@ public final class Flag extends AbstractSingleResultPredicate {
       }
    }
 
+   /**
+    * Returns a copy of the values currently associated with keys.
+    * <p>
+    * The returned map is ordered by {@code PredicateKey}.
+    */
+   public Map<PredicateKey, Numeric> getFlags() {
+      synchronized (flags) {
+         return Collections.unmodifiableMap(new TreeMap<>(flags));
+      }
+   }
+
+   /**
+    * Associates the specified value with the specified key, replacing any value already associated with the key.
+    */
+   public void setFlag(PredicateKey key, Numeric value) {
+      getKnowledgeBase().isolateForks();
+      synchronized (flags) {
+         flags.put(key, value);
+      }
+   }
+
+   /**
+    * Returns a new {@code Flag} that starts with the same values as this instance.
+    */
+   @Override
+   public Flag fork(KnowledgeBase fork) {
+      Flag copy = new Flag();
+      copy.setKnowledgeBase(fork);
+      synchronized (flags) {
+         copy.flags.putAll(flags);
+      }
+      return copy;
+   }
+
    private Numeric getOrCreate(PredicateKey pk) {
       Numeric n = flags.get(pk);
       if (n == null) {
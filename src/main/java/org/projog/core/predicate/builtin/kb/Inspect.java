@@ -157,7 +157,7 @@ public final class Inspect implements PredicateFactory {
       PredicateFactory predicateFactory = predicates.getPredicateFactory(clauseHead);
       if (predicateFactory instanceof UserDefinedPredicateFactory) {
          UserDefinedPredicateFactory userDefinedPredicate = (UserDefinedPredicateFactory) predicateFactory;
-         return new InspectPredicate(clauseHead, clauseBody, userDefinedPredicate.getImplications());
+         return new InspectPredicate(clauseHead, clauseBody, userDefinedPredicate.getImplications(clauseHead));
       } else if (predicateFactory instanceof UnknownPredicate) {
          return PredicateUtils.FALSE;
       } else {
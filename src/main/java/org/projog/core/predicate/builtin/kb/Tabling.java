@@ -270,6 +270,28 @@ test_variables(p(a,b,c), X, Y, Z) :- write(2), nl.
 % B=UNINSTANTIATED VARIABLE
 % C=UNINSTANTIATED VARIABLE
 % D=UNINSTANTIATED VARIABLE
+
+% Answer tables are discarded when the dynamic predicates they use are changed.
+:- dynamic(parent/2).
+:- table(ancestor/2).
+
+ancestor(X, Y) :- parent(X, Y).
+ancestor(X, Y) :- parent(X, Z), ancestor(Z, Y).
+
+parent(a, b).
+parent(b, c).
+
+%?- ancestor(a, X)
+% X=b
+% X=c
+%TRUE assertz(parent(c, d))
+%?- ancestor(a, X)
+% X=b
+% X=c
+% X=d
+%TRUE retract(parent(b, c))
+%?- ancestor(a, X)
+% X=b
  */
 /**
  * <code>table/1</code> - defines a user defined predicate as using tabled execution.
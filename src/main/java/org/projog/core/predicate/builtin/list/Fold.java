@@ -24,6 +24,7 @@ import org.projog.core.ProjogException;
 import org.projog.core.kb.KnowledgeBase;
 import org.projog.core.predicate.Predicate;
 import org.projog.core.predicate.PredicateFactory;
+import org.projog.core.predicate.PredicateFactoryCache;
 import org.projog.core.term.ListUtils;
 import org.projog.core.term.Term;
 import org.projog.core.term.Variable;
@@ -196,13 +197,23 @@ public final class Fold implements PredicateFactory {
          PredicateFactory pf = PartialApplicationUtils.getPreprocessedPartiallyAppliedPredicateFactory(kb.getPredicates(), action, FIRST_ARG_ARITY);
          return new Fold(kb, pf);
       } else {
-         return this;
+         // use a separate cache for each call site
+         return new Fold(kb, kb.getPredicates().placeholder());
       }
    }
 
    @Override
    public Predicate getPredicate(Term term) {
-      return getFoldPredicate(pf, term.firstArgument(), term.secondArgument(), term.thirdArgument(), term.fourthArgument());
+      return getFoldPredicate(getPredicateFactory(term), term.firstArgument(), term.secondArgument(), term.thirdArgument(), term.fourthArgument());
+   }
+
+   /** Returns the predicate factory for the goal, looking it up if the goal was not known when preprocessed. */
+   private PredicateFactory getPredicateFactory(Term term) {
+      if (pf instanceof PredicateFactoryCache) {
+         return ((PredicateFactoryCache) pf).getPredicateFactory(term.firstArgument(), FIRST_ARG_ARITY);
+      } else {
+         return pf;
+      }
    }
 
    @Override
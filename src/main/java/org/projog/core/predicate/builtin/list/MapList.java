@@ -25,6 +25,7 @@ import java.util.List;
 import org.projog.core.kb.KnowledgeBase;
 import org.projog.core.predicate.Predicate;
 import org.projog.core.predicate.PredicateFactory;
+import org.projog.core.predicate.PredicateFactoryCache;
 import org.projog.core.predicate.udp.PredicateUtils;
 import org.projog.core.term.ListFactory;
 import org.projog.core.term.Term;
@@ -102,7 +103,7 @@ p(c,3,4).
 %TRUE maplist(p(a), [1,2,3], [1,2,3])
 %FAIL maplist(p(a), [1,2,3], [1,2,4])
 %FAIL maplist(p(b), [1,2,3], [1,2,3])
-%TRUE_NO maplist(p(b), [1,2,3], [1,2,4])
+%TRUE maplist(p(b), [1,2,3], [1,2,4])
 %?- maplist(p(c), [1,2,3], [1,2,4])
 %YES
 %YES
@@ -112,7 +113,6 @@ p(c,3,4).
 %YES
 %YES
 %YES
-%NO
 %FAIL maplist(p(z), [1,2,3], [1,2,3])
 %TRUE maplist(p(z), [], [])
 %?- maplist(p(c,1), [1,1])
@@ -358,13 +358,23 @@ public final class MapList implements PredicateFactory {
          PredicateFactory pf = PartialApplicationUtils.getPreprocessedPartiallyAppliedPredicateFactory(kb.getPredicates(), action, term.getNumberOfArguments() - 1);
          return new MapList(kb, pf);
       } else {
-         return this;
+         // use a separate cache for each call site
+         return new MapList(kb, kb.getPredicates().placeholder());
       }
    }
 
    @Override
    public Predicate getPredicate(Term term) {
-      return getMapListPredicate(pf, term);
+      return getMapListPredicate(getPredicateFactory(term), term);
+   }
+
+   /** Returns the predicate factory for the goal, looking it up if the goal was not known when preprocessed. */
+   private PredicateFactory getPredicateFactory(Term term) {
+      if (pf instanceof PredicateFactoryCache) {
+         return ((PredicateFactoryCache) pf).getPredicateFactory(term.firstArgument(), term.getNumberOfArguments() - 1);
+      } else {
+         return pf;
+      }
    }
 
    @Override
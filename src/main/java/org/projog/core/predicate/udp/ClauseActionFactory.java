@@ -57,7 +57,7 @@ final class ClauseActionFactory {
       Term consequent = model.getConsequent();
       if (consequent.getNumberOfArguments() == 0) {
          // have zero arg rule
-         return isFact ? new AlwaysMatchedFact(model) : new ZeroArgConsequentRule(model, kb.getPredicates().getPreprocessedPredicateFactory(antecedent));
+         return isFact ? new AlwaysMatchedFact(model) : new ZeroArgConsequentRule(model, kb.getPredicates().getPreprocessedClauseBody(antecedent));
       }
 
       // if all non-shared variables then always true
@@ -81,7 +81,7 @@ final class ClauseActionFactory {
          }
       }
 
-      PredicateFactory preprocessedPredicateFactory = kb.getPredicates().getPreprocessedPredicateFactory(antecedent);
+      PredicateFactory preprocessedPredicateFactory = kb.getPredicates().getPreprocessedClauseBody(antecedent);
       if (!hasSharedVariables && !hasConcreteTerms) {
          return isFact ? new AlwaysMatchedFact(model) : new MutableRule(model, preprocessedPredicateFactory);
       } else if (hasConcreteTerms && !hasVariables) {
@@ -91,6 +91,61 @@ final class ClauseActionFactory {
       }
    }
 
+   /**
+    * Returns a {@link ClauseAction} that creates the {@code ClauseAction} for the specified {@link ClauseModel} the first
+    * time it is evaluated.
+    * <p>
+    * Used when copying the clauses of a dynamic predicate to a fork of a {@code KnowledgeBase}, as the predicates called
+    * by the clause (which may include the predicate being copied) cannot be looked up until the copy is complete.
+    */
+   static ClauseAction createLazyClauseAction(KnowledgeBase kb, ClauseModel model) {
+      return new LazyClauseAction(model, kb);
+   }
+
+   /**
+    * Clause whose actual {@code ClauseAction} is not created until it is first needed.
+    */
+   static final class LazyClauseAction implements ClauseAction {
+      private final ClauseModel model;
+      private final KnowledgeBase kb;
+      private volatile ClauseAction action;
+
+      private LazyClauseAction(ClauseModel model, KnowledgeBase kb) {
+         this.model = model;
+         this.kb = kb;
+      }
+
+      private ClauseAction getAction() {
+         ClauseAction result = action;
+         if (result == null) {
+            // no need to synchronize - if more than one thread creates the action then they will be equivalent
+            result = createClauseAction(kb, model);
+            action = result;
+         }
+         return result;
+      }
+
+      @Override
+      public Predicate getPredicate(Term input) {
+         return getAction().getPredicate(input);
+      }
+
+      @Override
+      public ClauseModel getModel() {
+         return model;
+      }
+
+      @Override
+      public boolean isRetryable() {
+         return getAction().isRetryable();
+      }
+
+      @Override
+      public boolean isAlwaysCutOnBacktrack() {
+         return getAction().isAlwaysCutOnBacktrack();
+      }
+   }
+
    /**
     * Clause where the antecedent is a variable.
     * <p>
@@ -178,16 +233,18 @@ final class ClauseActionFactory {
     */
    static final class ZeroArgConsequentRule implements ClauseAction {
       private final ClauseModel model;
+      private final ClauseTemplate template;
       private final PredicateFactory pf;
 
       private ZeroArgConsequentRule(ClauseModel model, PredicateFactory pf) {
          this.model = model;
+         this.template = new ClauseTemplate(model);
          this.pf = pf;
       }
 
       @Override
       public Predicate getPredicate(Term input) {
-         return pf.getPredicate(model.getAntecedent().copy());
+         return pf.getPredicate(template.createAntecedent(template.createFrame()));
       }
 
       @Override
@@ -250,10 +307,12 @@ final class ClauseActionFactory {
     */
    static final class ImmutableConsequentRule implements ClauseAction {
       private final ClauseModel model;
+      private final ClauseTemplate template;
       private final PredicateFactory pf;
 
       private ImmutableConsequentRule(ClauseModel model, PredicateFactory pf) {
          this.model = model;
+         this.template = new ClauseTemplate(model);
          this.pf = pf;
       }
 
@@ -263,7 +322,7 @@ final class ClauseActionFactory {
             return PredicateUtils.FALSE;
          }
 
-         return pf.getPredicate(model.getAntecedent().copy());
+         return pf.getPredicate(template.createAntecedent(template.createFrame()));
       }
 
       @Override
@@ -289,23 +348,21 @@ final class ClauseActionFactory {
     */
    static final class MutableFact implements ClauseAction {
       private final ClauseModel model;
+      private final ClauseTemplate template;
 
       private MutableFact(ClauseModel model) {
          this.model = model;
+         this.template = new ClauseTemplate(model);
       }
 
       @Override
       public Predicate getPredicate(Term input) {
          // TODO would be a performance improvement if no clause variable is created unless is a shared variable
-         Term consequent = model.getConsequent();
-         Map<Variable, Term> sharedVariables = new HashMap<>();
-         for (int i = 0; i < input.getNumberOfArguments(); i++) {
-            if (!input.getArgument(i).unify(consequent.getArgument(i).copy(sharedVariables))) {
-               return PredicateUtils.FALSE;
-            }
+         if (template.unifyConsequent(input, template.createFrame())) {
+            return PredicateUtils.TRUE;
+         } else {
+            return PredicateUtils.FALSE;
          }
-
-         return PredicateUtils.TRUE;
       }
 
       @Override
@@ -331,28 +388,27 @@ final class ClauseActionFactory {
     */
    static final class MutableRule implements ClauseAction {
       private final ClauseModel model;
+      private final ClauseTemplate template;
       private final PredicateFactory pf;
 
       private MutableRule(ClauseModel model, PredicateFactory pf) {
          this.model = model;
+         this.template = new ClauseTemplate(model);
          this.pf = pf;
       }
 
       @Override
       public Predicate getPredicate(Term input) {
-         Term consequent = model.getConsequent();
-         Map<Variable, Term> sharedVariables = new HashMap<>();
-         for (int i = 0; i < input.getNumberOfArguments(); i++) {
-            if (!input.getArgument(i).unify(consequent.getArgument(i).copy(sharedVariables))) {
-               return PredicateUtils.FALSE;
-            }
+         Term[] frame = template.createFrame();
+         if (!template.unifyConsequent(input, frame)) {
+            return PredicateUtils.FALSE;
          }
 
          Term antecedent = model.getAntecedent();
          if (antecedent.isImmutable()) {
             return pf.getPredicate(antecedent);
          } else {
-            return pf.getPredicate(antecedent.copy(sharedVariables));
+            return pf.getPredicate(template.createAntecedent(frame));
          }
       }
 
@@ -0,0 +1,268 @@
+/*
+ * Copyright 2026 S. Webber
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projog.core.predicate.udp;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import org.projog.core.term.ListFactory;
+import org.projog.core.term.StructureFactory;
+import org.projog.core.term.Term;
+import org.projog.core.term.TermType;
+import org.projog.core.term.Variable;
+
+/**
+ * A precompiled form of a clause that can be instantiated without using {@link Term#copy(Map)}.
+ * <p>
+ * Each distinct variable of the clause is numbered. Each attempt to use the clause creates a new frame - an array with
+ * an element for each of the variables - which is populated as the variables are encountered. The arguments of the
+ * head of the clause are unified with the arguments of the query without first creating a copy of the head, so an
+ * attempt that fails on an argument does not create any terms for the other arguments or the body.
+ * <p>
+ * The bindings made are the same as if the head was copied and then unified with the query - i.e. a variable of the
+ * query is bound to the new variable that represents the corresponding variable of the clause.
+ */
+final class ClauseTemplate {
+   private final Node[] consequentArgs;
+   private final Node antecedent;
+   private final int numberOfVariables;
+
+   ClauseTemplate(ClauseModel model) {
+      Map<Variable, Slot> slots = new IdentityHashMap<>();
+      Term consequent = model.getConsequent();
+      this.consequentArgs = new Node[consequent.getNumberOfArguments()];
+      for (int i = 0; i < consequentArgs.length; i++) {
+         consequentArgs[i] = compile(consequent.getArgument(i), slots);
+      }
+      this.antecedent = compile(model.getAntecedent(), slots);
+      this.numberOfVariables = slots.size();
+   }
+
+   /** Returns a new frame to store the variables created by a single attempt to use the clause. */
+   Term[] createFrame() {
+      return new Term[numberOfVariables];
+   }
+
+   /**
+    * Attempts to unify the arguments of {@code query} with the arguments of the head of the clause.
+    *
+    * @return {@code true} if the head of the clause was unified with the query
+    */
+   boolean unifyConsequent(Term query, Term[] frame) {
+      for (int i = 0; i < query.getNumberOfArguments(); i++) {
+         if (!consequentArgs[i].unify(query.getArgument(i), frame)) {
+            return false;
+         }
+      }
+      return true;
+   }
+
+   /** Returns a new instance of the body of the clause that uses the variables in {@code frame}. */
+   Term createAntecedent(Term[] frame) {
+      return antecedent.create(frame);
+   }
+
+   private static Node compile(Term term, Map<Variable, Slot> slots) {
+      term = term.getTerm();
+      if (term.isImmutable()) {
+         return new Constant(term);
+      }
+
+      switch (term.getType()) {
+         case VARIABLE:
+            Variable variable = (Variable) term;
+            Slot slot = slots.get(variable);
+            if (slot == null) {
+               slot = new Slot(slots.size(), variable);
+               slots.put(variable, slot);
+            }
+            return slot;
+         case STRUCTURE:
+            Node[] args = new Node[term.getNumberOfArguments()];
+            for (int i = 0; i < args.length; i++) {
+               args[i] = compile(term.getArgument(i), slots);
+            }
+            return new Structure(term.getName(), args);
+         case LIST:
+            // use iteration rather than recursion so long lists do not cause a stack overflow
+            ArrayList<Node> heads = new ArrayList<>();
+            while (term.getType() == TermType.LIST) {
+               heads.add(compile(term.firstArgument(), slots));
+               term = term.secondArgument().getTerm();
+            }
+            return new List(heads.toArray(new Node[heads.size()]), compile(term, slots));
+         default:
+            return new Copy(term);
+      }
+   }
+
+   private interface Node {
+      boolean unify(Term input, Term[] frame);
+
+      Term create(Term[] frame);
+   }
+
+   private static final class Constant implements Node {
+      private final Term term;
+
+      Constant(Term term) {
+         this.term = term;
+      }
+
+      @Override
+      public boolean unify(Term input, Term[] frame) {
+         return input.unify(term);
+      }
+
+      @Override
+      public Term create(Term[] frame) {
+         return term;
+      }
+   }
+
+   private static final class Slot implements Node {
+      private final int index;
+      private final Variable variable;
+
+      Slot(int index, Variable variable) {
+         this.index = index;
+         this.variable = variable;
+      }
+
+      @Override
+      public boolean unify(Term input, Term[] frame) {
+         return input.unify(create(frame));
+      }
+
+      @Override
+      public Term create(Term[] frame) {
+         Term t = frame[index];
+         if (t == null) {
+            t = variable.copyUninstantiated();
+            frame[index] = t;
+            return t;
+         } else {
+            return t.getTerm();
+         }
+      }
+   }
+
+   private static final class Structure implements Node {
+      private final String name;
+      private final Node[] args;
+
+      Structure(String name, Node[] args) {
+         this.name = name;
+         this.args = args;
+      }
+
+      @Override
+      public boolean unify(Term input, Term[] frame) {
+         TermType type = input.getType();
+         if (type == TermType.STRUCTURE) {
+            if (input.getNumberOfArguments() != args.length || !name.equals(input.getName())) {
+               return false;
+            }
+            for (int i = 0; i < args.length; i++) {
+               if (!args[i].unify(input.getArgument(i), frame)) {
+                  return false;
+               }
+            }
+            return true;
+         } else if (type.isVariable()) {
+            return input.unify(create(frame));
+         } else {
+            return false;
+         }
+      }
+
+      @Override
+      public Term create(Term[] frame) {
+         Term[] newArgs = new Term[args.length];
+         for (int i = 0; i < args.length; i++) {
+            newArgs[i] = args[i].create(frame);
+         }
+         return StructureFactory.createStructure(name, newArgs);
+      }
+   }
+
+   private static final class List implements Node {
+      private final Node[] heads;
+      private final Node tail;
+
+      List(Node[] heads, Node tail) {
+         this.heads = heads;
+         this.tail = tail;
+      }
+
+      @Override
+      public boolean unify(Term input, Term[] frame) {
+         for (int i = 0; i < heads.length; i++) {
+            TermType type = input.getType();
+            if (type == TermType.LIST) {
+               if (!heads[i].unify(input.firstArgument(), frame)) {
+                  return false;
+               }
+               input = input.secondArgument();
+            } else if (type.isVariable()) {
+               return input.unify(create(frame, i));
+            } else {
+               return false;
+            }
+         }
+         return tail.unify(input, frame);
+      }
+
+      @Override
+      public Term create(Term[] frame) {
+         return create(frame, 0);
+      }
+
+      /** Returns a new list containing the elements of this list starting at index {@code from}. */
+      private Term create(Term[] frame, int from) {
+         Term[] newHeads = new Term[heads.length - from];
+         for (int i = 0; i < newHeads.length; i++) {
+            newHeads[i] = heads[from + i].create(frame);
+         }
+         return ListFactory.createList(newHeads, tail.create(frame));
+      }
+   }
+
+   /**
+    * A mutable term that is not a variable, structure or list (e.g. a CLP variable).
+    * <p>
+    * Such terms do not contain variables of the clause, so are copied independently of the rest of the clause.
+    */
+   private static final class Copy implements Node {
+      private final Term term;
+
+      Copy(Term term) {
+         this.term = term;
+      }
+
+      @Override
+      public boolean unify(Term input, Term[] frame) {
+         return input.unify(create(frame));
+      }
+
+      @Override
+      public Term create(Term[] frame) {
+         return term.copy(new HashMap<>());
+      }
+   }
+}
@@ -29,52 +29,163 @@ import org.projog.core.term.Term;
  * <p>
  * A "dynamic" user defined predicate is one that can have clauses added and removed <i>after</i> it has been first
  * defined. This is normally done using the {@code asserta/1}, {@code assertz/1} and {@code retract/1} predicates.
+ * <p>
+ * The clauses are indexed by the value of their arguments. An index of the first argument is always maintained. An
+ * index of another argument is created the first time a query has an immutable term in that position and the existing
+ * indexes do not reduce the number of candidate clauses to {@link #MAX_CLAUSES_TO_SCAN} or less. Once created, indexes
+ * are kept up-to-date as clauses are added and removed. Clauses do not need to have unique values for an argument for
+ * it to be indexed.
+ * <p>
+ * Keeps a record of the answer tables of tabled predicates that have used its clauses, so they can be discarded when
+ * its clauses are changed.
  *
  * @see org.projog.core.predicate.udp.InterpretedUserDefinedPredicate
  */
 public final class DynamicUserDefinedPredicateFactory implements UserDefinedPredicateFactory {
-   // use array rather than two instances so that references not lost between
-   // copies when heads or tails alter
-   private static final int FIRST = 0;
-   private static final int LAST = 1;
+   /**
+    * The number of candidate clauses that is considered acceptable to try without creating a new index.
+    */
+   private static final int MAX_CLAUSES_TO_SCAN = 8;
 
    private final Object LOCK = new Object();
    private final KnowledgeBase kb;
    private final SpyPoints.SpyPoint spyPoint;
-   private final ClauseActionMetaData[] ends = new ClauseActionMetaData[2];
-   private ConcurrentHashMap<Term, ClauseActionMetaData> index;
-   private boolean hasPrimaryKey;
+   private final TabledUserDefinedPredicateFactory.Dependents dependents = new TabledUserDefinedPredicateFactory.Dependents();
+   private final int numArgs;
+   /**
+    * The first clause of this predicate.
+    * <p>
+    * Volatile, and the {@code next} references of clauses are volatile, so threads that iterate over the clauses
+    * without holding {@code LOCK} see clauses that have been completely constructed.
+    */
+   private volatile ClauseActionMetaData head;
+   /** The last clause of this predicate. Only accessed while holding {@code LOCK}. */
+   private ClauseActionMetaData tail;
+   /** One element per argument. An element will be {@code null} if an index has not been created for that argument. */
+   private volatile ArgumentIndex[] indexes;
+   private int clauseCount;
+   private long firstPosition;
+   private long lastPosition;
 
    public DynamicUserDefinedPredicateFactory(KnowledgeBase kb, PredicateKey predicateKey) {
       this.kb = kb;
-      if (predicateKey.getNumArgs() == 0) {
-         this.hasPrimaryKey = false;
-         this.index = null;
-      } else {
-         this.hasPrimaryKey = true;
-         index = new ConcurrentHashMap<>();
+      this.numArgs = predicateKey.getNumArgs();
+      this.indexes = new ArgumentIndex[numArgs];
+      if (numArgs > 0) {
+         indexes[0] = new ArgumentIndex(0);
       }
       this.spyPoint = kb.getSpyPoints().getSpyPoint(predicateKey);
    }
 
    @Override
    public Predicate getPredicate(Term term) {
-      if (hasPrimaryKey) {
-         Term firstArg = term.firstArgument();
-         if (firstArg.isImmutable()) {
-            ClauseActionMetaData match = index.get(firstArg);
-            if (match == null) {
-               return PredicateUtils.createFailurePredicate(spyPoint, term);
-            } else {
-               return PredicateUtils.createSingleClausePredicate(match.clause, spyPoint, term);
-            }
+      dependents.addCurrentTable();
+      IndexMatches matches = getIndexMatches(term);
+      if (matches == null) {
+         ClauseActionIterator itr = new ClauseActionIterator(head);
+         return new InterpretedUserDefinedPredicate(itr, spyPoint, term);
+      }
+
+      int size = matches.size();
+      if (size == 0) {
+         return PredicateUtils.createFailurePredicate(spyPoint, term);
+      }
+
+      IndexMatchesIterator itr = matches.iterator();
+      if (size == 1) {
+         if (itr.hasNext()) {
+            return PredicateUtils.createSingleClausePredicate(itr.next(), spyPoint, term);
+         } else {
+            // clause removed since size was determined
+            return PredicateUtils.createFailurePredicate(spyPoint, term);
          }
       }
 
-      ClauseActionIterator itr = new ClauseActionIterator(ends[FIRST]);
       return new InterpretedUserDefinedPredicate(itr, spyPoint, term);
    }
 
+   /**
+    * Returns the clauses that could match the specified query, or {@code null} if the spy point is enabled.
+    * <p>
+    * Uses the same indexes as {@link #getPredicate(Term)}. Used by {@link StacklessPredicateFactory}.
+    */
+   Iterator<ClauseAction> getClauseActions(Term term) {
+      if (spyPoint.isEnabled()) {
+         return null;
+      }
+      dependents.addCurrentTable();
+      IndexMatches matches = getIndexMatches(term);
+      return matches == null ? new ClauseActionIterator(head) : matches.iterator();
+   }
+
+   /**
+    * Returns the clauses that could match the specified query, or {@code null} if no index can be used.
+    */
+   private IndexMatches getIndexMatches(Term term) {
+      IndexMatches best = selectIndexMatches(term);
+      if ((best == null || best.size() > MAX_CLAUSES_TO_SCAN) && clauseCount > MAX_CLAUSES_TO_SCAN && isMissingIndex(term) && createMissingIndexes(term)) {
+         best = selectIndexMatches(term);
+      }
+      return best;
+   }
+
+   private IndexMatches selectIndexMatches(Term term) {
+      ArgumentIndex[] current = indexes;
+      IndexMatches best = null;
+      for (int i = 0; i < numArgs; i++) {
+         ArgumentIndex index = current[i];
+         if (index != null) {
+            Term arg = term.getArgument(i).getBound();
+            if (arg.isImmutable()) {
+               IndexMatches matches = index.getMatches(arg);
+               if (best == null || matches.size() < best.size()) {
+                  best = matches;
+               }
+            }
+         }
+      }
+      return best;
+   }
+
+   private boolean isMissingIndex(Term term) {
+      ArgumentIndex[] current = indexes;
+      for (int i = 0; i < numArgs; i++) {
+         if (current[i] == null && term.getArgument(i).getBound().isImmutable()) {
+            return true;
+         }
+      }
+      return false;
+   }
+
+   /**
+    * Creates an index for each immutable argument of the specified query that does not already have one.
+    *
+    * @return {@code true} if at least one new index was created
+    */
+   private boolean createMissingIndexes(Term term) {
+      synchronized (LOCK) {
+         ArgumentIndex[] updated = null;
+         for (int i = 0; i < numArgs; i++) {
+            if (indexes[i] == null && term.getArgument(i).getBound().isImmutable()) {
+               if (updated == null) {
+                  updated = indexes.clone();
+               }
+               ArgumentIndex index = new ArgumentIndex(i);
+               for (ClauseActionMetaData c = head; c != null; c = c.next) {
+                  index.addLast(c);
+               }
+               updated[i] = index;
+            }
+         }
+         if (updated == null) {
+            return false;
+         } else {
+            indexes = updated;
+            return true;
+         }
+      }
+   }
+
    @Override
    public PredicateKey getPredicateKey() {
       return spyPoint.getPredicateKey();
@@ -111,59 +222,109 @@ public final class DynamicUserDefinedPredicateFactory implements UserDefinedPred
       return new ImplicationsIterator();
    }
 
+   /**
+    * Returns an iterator over the clauses of this user defined predicate that could unify with the specified term.
+    * <p>
+    * Uses the argument indexes to avoid returning clauses that cannot unify with {@code clauseHead}. As clauses that
+    * cannot unify may still be returned, callers still need to attempt unification. The iterator returned has the
+    * same characteristics as the one returned by {@link #getImplications()}. Used by {@code retract/1} and
+    * {@code clause/2} so that removing or inspecting a clause by key does not require checking every clause.
+    */
+   @Override
+   public Iterator<ClauseModel> getImplications(Term clauseHead) {
+      dependents.addCurrentTable();
+      IndexMatches matches = getIndexMatches(clauseHead);
+      if (matches == null) {
+         return new ImplicationsIterator();
+      } else {
+         return new IndexedImplicationsIterator(matches.iterator());
+      }
+   }
+
    @Override
    public void addFirst(ClauseModel clauseModel) {
+      kb.isolateForks();
       synchronized (LOCK) {
-         ClauseActionMetaData newClause = createClauseActionMetaData(clauseModel);
-         addToIndex(clauseModel, newClause);
+         ClauseActionMetaData newClause = createClauseActionMetaData(clauseModel, --firstPosition);
+         for (ArgumentIndex index : indexes) {
+            if (index != null) {
+               index.addFirst(newClause);
+            }
+         }
+         clauseCount++;
 
          // if first used in a implication antecedent before being used as a consequent,
          // it will originally been created with first and last both null
-         ClauseActionMetaData first = ends[FIRST];
+         ClauseActionMetaData first = head;
          if (first == null) {
-            ends[FIRST] = newClause;
-            ends[LAST] = newClause;
-            return;
+            head = newClause;
+            tail = newClause;
+         } else {
+            newClause.next = first;
+            first.previous = newClause;
+            head = newClause;
+         }
+      }
+      dependents.invalidate();
+   }
+
+   /**
+    * Returns a new instance with the same clauses and indexes as this predicate.
+    * <p>
+    * Facts are shared with the new instance. Rules are recreated, the first time they are used, so they call the
+    * predicates of the fork.
+    */
+   @Override
+   public UserDefinedPredicateFactory fork(KnowledgeBase fork) {
+      DynamicUserDefinedPredicateFactory copy = new DynamicUserDefinedPredicateFactory(fork, getPredicateKey());
+      synchronized (LOCK) {
+         for (int i = 1; i < numArgs; i++) {
+            if (indexes[i] != null) {
+               copy.indexes[i] = new ArgumentIndex(i);
+            }
+         }
+         for (ClauseActionMetaData c = head; c != null; c = c.next) {
+            ClauseModel model = c.clause.getModel();
+            copy.addLast(model.isFact() ? c.clause : ClauseActionFactory.createLazyClauseAction(fork, model));
          }
-         newClause.next = first;
-         first.previous = newClause;
-         ends[FIRST] = newClause;
       }
+      return copy;
    }
 
    @Override
    public void addLast(ClauseModel clauseModel) {
+      kb.isolateForks();
+      addLast(ClauseActionFactory.createClauseAction(kb, clauseModel));
+   }
+
+   private void addLast(ClauseAction clause) {
       synchronized (LOCK) {
-         ClauseActionMetaData newClause = createClauseActionMetaData(clauseModel);
-         addToIndex(clauseModel, newClause);
+         ClauseActionMetaData newClause = new ClauseActionMetaData(clause, ++lastPosition, numArgs);
+         for (ArgumentIndex index : indexes) {
+            if (index != null) {
+               index.addLast(newClause);
+            }
+         }
+         clauseCount++;
 
          // if first used in a implication antecedent before being used as a consequent,
          // it will originally been created with first and last both null
-         ClauseActionMetaData last = ends[LAST];
+         ClauseActionMetaData last = tail;
          if (last == null) {
-            ends[FIRST] = newClause;
-            ends[LAST] = newClause;
-            return;
-         }
-         last.next = newClause;
-         newClause.previous = last;
-         ends[LAST] = newClause;
-      }
-   }
-
-   private void addToIndex(ClauseModel clauseModel, ClauseActionMetaData metaData) {
-      if (hasPrimaryKey) {
-         Term firstArg = clauseModel.getConsequent().firstArgument();
-         if (!firstArg.isImmutable() || index.put(firstArg, metaData) != null) {
-            hasPrimaryKey = false;
-            index.clear();
+            head = newClause;
+            tail = newClause;
+         } else {
+            last.next = newClause;
+            newClause.previous = last;
+            tail = newClause;
          }
       }
+      dependents.invalidate();
    }
 
    @Override
    public ClauseModel getClauseModel(int index) {
-      ClauseActionMetaData next = ends[FIRST];
+      ClauseActionMetaData next = head;
       for (int i = 0; i < index; i++) {
          if (next == null) {
             return null;
@@ -176,8 +337,8 @@ public final class DynamicUserDefinedPredicateFactory implements UserDefinedPred
       return next.clause.getModel().copy();
    }
 
-   private ClauseActionMetaData createClauseActionMetaData(ClauseModel clauseModel) {
-      return new ClauseActionMetaData(kb, clauseModel);
+   private ClauseActionMetaData createClauseActionMetaData(ClauseModel clauseModel, long position) {
+      return new ClauseActionMetaData(ClauseActionFactory.createClauseAction(kb, clauseModel), position, numArgs);
    }
 
    private static class ClauseActionIterator implements Iterator<ClauseAction> {
@@ -221,50 +382,274 @@ public final class DynamicUserDefinedPredicateFactory implements UserDefinedPred
       }
 
       private ClauseActionMetaData getNext() {
-         return previous == null ? ends[FIRST] : previous.next;
+         return previous == null ? head : previous.next;
       }
 
       @Override
-      public void remove() { // TODO find way to use index when retracting
-         synchronized (LOCK) {
-            if (hasPrimaryKey) {
-               Term firstArg = previous.clause.getModel().getConsequent().firstArgument();
-               if (index.remove(firstArg) == null) {
-                  throw new IllegalStateException();
-               }
-            }
-            if (previous.previous != null) {
-               previous.previous.next = previous.next;
-            } else {
-               ClauseActionMetaData newHead = previous.next;
-               if (newHead != null) {
-                  newHead.previous = null;
-               }
-               ends[FIRST] = newHead;
+      public void remove() {
+         removeClause(previous);
+      }
+   }
+
+   /**
+    * Iterates over the clauses identified by an index lookup.
+    * <p>
+    * Has the same characteristics as {@link ImplicationsIterator}.
+    */
+   private class IndexedImplicationsIterator implements Iterator<ClauseModel> {
+      private final IndexMatchesIterator matches;
+      private ClauseActionMetaData previous;
+
+      IndexedImplicationsIterator(IndexMatchesIterator matches) {
+         this.matches = matches;
+      }
+
+      @Override
+      public boolean hasNext() {
+         return matches.hasNext();
+      }
+
+      /**
+       * Returns a <i>new copy</i> to avoid the original being altered.
+       */
+      @Override
+      public ClauseModel next() {
+         previous = matches.nextClause();
+         return previous.clause.getModel().copy();
+      }
+
+      @Override
+      public void remove() {
+         removeClause(previous);
+      }
+   }
+
+   /**
+    * Removes the clause from the linked list of clauses and from every index.
+    * <p>
+    * The {@code next} reference of the removed clause is left intact so that any iterators positioned on it can
+    * continue.
+    */
+   private void removeClause(ClauseActionMetaData clause) {
+      kb.isolateForks();
+      synchronized (LOCK) {
+         if (clause.removed) {
+            return;
+         }
+         clause.removed = true;
+         for (ArgumentIndex index : indexes) {
+            if (index != null) {
+               index.remove(clause);
             }
-            if (previous.next != null) {
-               previous.next.previous = previous.previous;
-            } else {
-               ClauseActionMetaData newTail = previous.previous;
-               if (newTail != null) {
-                  newTail.next = null;
-               }
-               ends[LAST] = newTail;
+         }
+         clauseCount--;
+         if (clause.previous != null) {
+            clause.previous.next = clause.next;
+         } else {
+            ClauseActionMetaData newHead = clause.next;
+            if (newHead != null) {
+               newHead.previous = null;
             }
-            if (ends[FIRST] == null && ends[LAST] == null) {
-               hasPrimaryKey = index != null;
+            head = newHead;
+         }
+         if (clause.next != null) {
+            clause.next.previous = clause.previous;
+         } else {
+            ClauseActionMetaData newTail = clause.previous;
+            if (newTail != null) {
+               newTail.next = null;
             }
+            tail = newTail;
          }
       }
+      dependents.invalidate();
    }
 
    private static class ClauseActionMetaData {
       final ClauseAction clause;
+      /** Used to determine the relative order of clauses. Lower values come before higher values. */
+      final long position;
+      /** One element per argument. An element will be {@code null} if that argument is not indexed. */
+      final IndexEntry[] indexEntries;
+      boolean removed;
       ClauseActionMetaData previous;
-      ClauseActionMetaData next;
+      volatile ClauseActionMetaData next;
+
+      ClauseActionMetaData(ClauseAction clause, long position, int numArgs) {
+         this.clause = clause;
+         this.position = position;
+         this.indexEntries = numArgs == 0 ? null : new IndexEntry[numArgs];
+      }
+
+      Term getArgument(int argIdx) {
+         return clause.getModel().getConsequent().getArgument(argIdx);
+      }
+   }
+
+   /**
+    * Index of the clauses of this predicate by the value of one of their arguments.
+    * <p>
+    * Clauses that have an immutable term as the argument are grouped by that term. Clauses that have a mutable term
+    * (e.g. a variable) as the argument can match any query so are kept in a separate group that is consulted for every
+    * lookup.
+    */
+   private static final class ArgumentIndex {
+      final int argIdx;
+      final ConcurrentHashMap<Term, Bucket> buckets = new ConcurrentHashMap<>();
+      final Bucket mutables = new Bucket(null);
+
+      ArgumentIndex(int argIdx) {
+         this.argIdx = argIdx;
+      }
+
+      IndexMatches getMatches(Term key) {
+         return new IndexMatches(buckets.get(key), mutables);
+      }
+
+      void addFirst(ClauseActionMetaData clause) {
+         getOrCreateBucket(clause).addFirst(createEntry(clause));
+      }
+
+      void addLast(ClauseActionMetaData clause) {
+         getOrCreateBucket(clause).addLast(createEntry(clause));
+      }
+
+      private IndexEntry createEntry(ClauseActionMetaData clause) {
+         IndexEntry entry = new IndexEntry(clause);
+         clause.indexEntries[argIdx] = entry;
+         return entry;
+      }
+
+      private Bucket getOrCreateBucket(ClauseActionMetaData clause) {
+         Term arg = clause.getArgument(argIdx);
+         if (arg.isImmutable()) {
+            return buckets.computeIfAbsent(arg, Bucket::new);
+         } else {
+            return mutables;
+         }
+      }
+
+      void remove(ClauseActionMetaData clause) {
+         IndexEntry entry = clause.indexEntries[argIdx];
+         Bucket bucket = entry.bucket;
+         bucket.remove(entry);
+         if (bucket.size == 0 && bucket.key != null) {
+            buckets.remove(bucket.key);
+         }
+      }
+   }
+
+   /** Doubly linked list of the clauses that share the same value for an indexed argument. */
+   private static final class Bucket {
+      final Term key;
+      volatile IndexEntry first;
+      IndexEntry last;
+      volatile int size;
+
+      Bucket(Term key) {
+         this.key = key;
+      }
+
+      void addFirst(IndexEntry entry) {
+         entry.bucket = this;
+         entry.next = first;
+         if (first == null) {
+            last = entry;
+         } else {
+            first.previous = entry;
+         }
+         first = entry;
+         size++;
+      }
 
-      ClauseActionMetaData(KnowledgeBase kb, ClauseModel clauseModel) {
-         this.clause = ClauseActionFactory.createClauseAction(kb, clauseModel);
+      void addLast(IndexEntry entry) {
+         entry.bucket = this;
+         entry.previous = last;
+         if (last == null) {
+            first = entry;
+         } else {
+            last.next = entry;
+         }
+         last = entry;
+         size++;
+      }
+
+      /** Unlinks the entry while leaving its own {@code next} reference intact, so existing iterators can continue. */
+      void remove(IndexEntry entry) {
+         if (entry.previous == null) {
+            first = entry.next;
+         } else {
+            entry.previous.next = entry.next;
+         }
+         if (entry.next == null) {
+            last = entry.previous;
+         } else {
+            entry.next.previous = entry.previous;
+         }
+         size--;
+      }
+   }
+
+   private static final class IndexEntry {
+      final ClauseActionMetaData clause;
+      Bucket bucket;
+      IndexEntry previous;
+      volatile IndexEntry next;
+
+      IndexEntry(ClauseActionMetaData clause) {
+         this.clause = clause;
+      }
+   }
+
+   /** The clauses that have a particular value for an indexed argument, plus those that can match any value. */
+   private static final class IndexMatches {
+      final Bucket matches;
+      final Bucket mutables;
+
+      IndexMatches(Bucket matches, Bucket mutables) {
+         this.matches = matches;
+         this.mutables = mutables;
+      }
+
+      int size() {
+         return (matches == null ? 0 : matches.size) + mutables.size;
+      }
+
+      IndexMatchesIterator iterator() {
+         return new IndexMatchesIterator(matches == null ? null : matches.first, mutables.first);
+      }
+   }
+
+   /** Merges two lists of index entries so the clauses they represent are returned in the order they were defined. */
+   private static final class IndexMatchesIterator implements Iterator<ClauseAction> {
+      private IndexEntry matches;
+      private IndexEntry mutables;
+
+      IndexMatchesIterator(IndexEntry matches, IndexEntry mutables) {
+         this.matches = matches;
+         this.mutables = mutables;
+      }
+
+      @Override
+      public boolean hasNext() {
+         return matches != null || mutables != null;
+      }
+
+      @Override
+      public ClauseAction next() {
+         return nextClause().clause;
+      }
+
+      ClauseActionMetaData nextClause() {
+         IndexEntry next;
+         if (mutables == null || (matches != null && matches.clause.position < mutables.clause.position)) {
+            next = matches;
+            matches = matches.next;
+         } else {
+            next = mutables;
+            mutables = mutables.next;
+         }
+         return next.clause;
       }
    }
 }
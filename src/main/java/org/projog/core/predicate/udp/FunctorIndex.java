@@ -0,0 +1,128 @@
+/*
+ * Copyright 2026 S. Webber
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projog.core.predicate.udp;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.projog.core.predicate.PredicateKey;
+import org.projog.core.term.Term;
+import org.projog.core.term.TermType;
+
+/**
+ * Indexes clauses by the principal functor of one of their arguments.
+ * <p>
+ * Unlike {@link Index}, which can only be used for arguments that are immutable in every clause, this index can be
+ * used for arguments that are compound terms containing variables - e.g. the first argument of
+ * {@code eval(add(X,Y),Z)}. Clauses are grouped by the name and arity of the argument if it is a structure or list, or
+ * by the argument itself if it is atomic. Clauses where the argument is a variable are included in every group, as
+ * they can unify with any value.
+ */
+final class FunctorIndex {
+   private final int argIdx;
+   private final Map<Object, ClauseAction[]> result;
+   /** The clauses that can match a key that does not exist in {@link #result}. */
+   private final ClauseAction[] variableMatches;
+
+   /**
+    * Returns a new index of the specified clauses by the principal functor of the argument at the specified position.
+    *
+    * @return the new index, or {@code null} if indexing by the argument would not reduce the number of clauses that
+    * need to be considered for any query
+    */
+   static FunctorIndex create(ClauseAction[] clauses, int argIdx) {
+      List<ClauseAction> variableMatches = new ArrayList<>();
+      Map<Object, List<ClauseAction>> map = new LinkedHashMap<>();
+      for (ClauseAction clause : clauses) {
+         Object key = createKey(clause.getModel().getConsequent().getArgument(argIdx));
+         if (key == null) {
+            // clauses with a variable argument need to be included in every group
+            variableMatches.add(clause);
+            for (List<ClauseAction> list : map.values()) {
+               list.add(clause);
+            }
+         } else {
+            List<ClauseAction> list = map.get(key);
+            if (list == null) {
+               list = new ArrayList<>(variableMatches);
+               map.put(key, list);
+            }
+            list.add(clause);
+         }
+      }
+
+      if (map.isEmpty() || (map.size() == 1 && variableMatches.isEmpty())) {
+         return null;
+      }
+
+      Map<Object, ClauseAction[]> result = new LinkedHashMap<>(map.size());
+      for (Map.Entry<Object, List<ClauseAction>> e : map.entrySet()) {
+         result.put(e.getKey(), toArray(e.getValue()));
+      }
+      return new FunctorIndex(argIdx, result, toArray(variableMatches));
+   }
+
+   /**
+    * Returns the key used to index the specified argument.
+    *
+    * @return the name and arity of the term if it is a structure or list, the term itself if it is atomic or
+    * {@code null} if it is a variable
+    */
+   static Object createKey(Term arg) {
+      TermType type = arg.getType();
+      if (type.isStructure()) {
+         return new PredicateKey(arg.getName(), arg.getNumberOfArguments());
+      } else if (type.isVariable() || type == TermType.CLP_VARIABLE) {
+         return null;
+      } else {
+         return arg.getTerm();
+      }
+   }
+
+   private static ClauseAction[] toArray(List<ClauseAction> list) {
+      return list.toArray(new ClauseAction[list.size()]);
+   }
+
+   private FunctorIndex(int argIdx, Map<Object, ClauseAction[]> result, ClauseAction[] variableMatches) {
+      this.argIdx = argIdx;
+      this.result = result;
+      this.variableMatches = variableMatches;
+   }
+
+   int getArgumentIndex() {
+      return argIdx;
+   }
+
+   /**
+    * Returns the clauses that could unify with the specified term.
+    *
+    * @return the clauses that could match, or {@code null} if the indexed argument of the term is a variable
+    */
+   ClauseAction[] getMatches(Term term) {
+      Object key = createKey(term.getArgument(argIdx));
+      if (key == null) {
+         return null;
+      } else {
+         return result.getOrDefault(key, variableMatches);
+      }
+   }
+
+   int getKeyCount() {
+      return result.size();
+   }
+}
@@ -22,6 +22,7 @@ import org.projog.core.event.SpyPoints;
 import org.projog.core.predicate.CutException;
 import org.projog.core.predicate.Predicate;
 import org.projog.core.term.Term;
+import org.projog.core.term.Trail;
 
 /**
  * Represents a user defined predicate.
@@ -33,7 +34,9 @@ public final class InterpretedUserDefinedPredicate implements Predicate {
    private final SpyPoints.SpyPoint spyPoint;
    private final Term query;
    private final boolean debugEnabled;
+   private final Trail trail;
 
+   private int choicePoint;
    private ClauseAction currentClause;
    private Predicate currentPredicate;
    private boolean retryCurrentClauseAction;
@@ -43,6 +46,7 @@ public final class InterpretedUserDefinedPredicate implements Predicate {
       this.spyPoint = spyPoint;
       this.query = query;
       this.debugEnabled = spyPoint.isEnabled();
+      this.trail = Trail.getCurrent();
    }
 
    /**
@@ -64,6 +68,9 @@ public final class InterpretedUserDefinedPredicate implements Predicate {
     * successfully re-evaluated then {@code true} is returned. If the body of the clause is not successfully
     * re-evaluated then the arguments in the query are backtracked and the method continues to iterate through the
     * clauses starting with the next clause in the sequence.
+    * <p>
+    * If bindings are being recorded on a {@link Trail} then backtracking only unbinds the variables that were bound
+    * since the first clause was tried, rather than traversing the whole of the query.
     */
    @Override
    public boolean evaluate() {
@@ -77,11 +84,15 @@ public final class InterpretedUserDefinedPredicate implements Predicate {
                if (debugEnabled) {
                   spyPoint.logExit(this, query, currentClause.getModel());
                }
+               releaseIfDeterministic();
                return true;
             }
             // attempt at retrying has failed so discard it
             retryCurrentClauseAction = false;
-            query.backtrack();
+            backtrack();
+            if (isCut()) {
+               return failOnCut();
+            }
          } else if (currentClause == null) {
             if (debugEnabled) {
                spyPoint.logCall(this, query);
@@ -90,42 +101,82 @@ public final class InterpretedUserDefinedPredicate implements Predicate {
             if (debugEnabled) {
                spyPoint.logRedo(this, query);
             }
-            query.backtrack();
+            backtrack();
          }
          // cycle though all rules until none left
          while (clauseActions.hasNext()) {
             currentClause = clauseActions.next();
+            if (choicePoint == 0 && trail != null && clauseActions.hasNext()) {
+               // only need a choice point if there is more than one clause to try
+               choicePoint = trail.mark();
+            }
             currentPredicate = currentClause.getPredicate(query);
             if (currentPredicate != null && currentPredicate.evaluate()) {
                retryCurrentClauseAction = currentPredicate.couldReevaluationSucceed();
                if (debugEnabled) {
                   spyPoint.logExit(this, query, currentClause.getModel());
                }
+               releaseIfDeterministic();
                return true;
             } else {
                retryCurrentClauseAction = false;
-               query.backtrack();
+               backtrack();
+               if (isCut()) {
+                  return failOnCut();
+               }
             }
          }
          if (debugEnabled) {
             spyPoint.logFail(this, query);
          }
+         release();
          return false;
       } catch (CutException e) {
-         if (debugEnabled) {
-            spyPoint.logFail(this, query);
-         }
-         return false;
+         return failOnCut();
       } catch (ProjogException pe) {
+         release();
          pe.addClause(currentClause.getModel());
          throw pe;
       } catch (Throwable t) {
+         release();
          ProjogException pe = new ProjogException("Exception processing: " + spyPoint.getPredicateKey(), t);
          pe.addClause(currentClause.getModel());
          throw pe;
       }
    }
 
+   /** Returns {@code true} if the body of the current clause backtracked to a cut. */
+   private boolean isCut() {
+      return trail != null && trail.clearCut();
+   }
+
+   /** Fails without trying any more clauses, as evaluation has backtracked to a cut in the body of a clause. */
+   private boolean failOnCut() {
+      if (debugEnabled) {
+         spyPoint.logFail(this, query);
+      }
+      release();
+      return false;
+   }
+
+   private void backtrack() {
+      if (trail == null || !trail.undo(choicePoint)) {
+         query.backtrack();
+      }
+   }
+
+   private void releaseIfDeterministic() {
+      if (trail != null && !couldReevaluationSucceed()) {
+         trail.release(choicePoint);
+      }
+   }
+
+   private void release() {
+      if (trail != null) {
+         trail.release(choicePoint);
+      }
+   }
+
    @Override
    public boolean couldReevaluationSucceed() {
       if (currentClause != null && currentClause.isAlwaysCutOnBacktrack()) {
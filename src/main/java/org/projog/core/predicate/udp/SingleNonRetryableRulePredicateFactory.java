@@ -21,6 +21,7 @@ import org.projog.core.predicate.CutException;
 import org.projog.core.predicate.Predicate;
 import org.projog.core.predicate.PredicateFactory;
 import org.projog.core.term.Term;
+import org.projog.core.term.Trail;
 
 final class SingleNonRetryableRulePredicateFactory implements PredicateFactory {
    private final ClauseAction clause;
@@ -41,7 +42,7 @@ final class SingleNonRetryableRulePredicateFactory implements PredicateFactory {
          if (spyPoint.isEnabled()) {
             spyPoint.logCall(SingleNonRetryableRulePredicateFactory.class, query);
 
-            final boolean result = clause.getPredicate(query).evaluate();
+            final boolean result = evaluate(clause, query);
 
             if (result) {
                spyPoint.logExit(SingleNonRetryableRulePredicateFactory.class, query, clause.getModel());
@@ -51,7 +52,7 @@ final class SingleNonRetryableRulePredicateFactory implements PredicateFactory {
 
             return PredicateUtils.toPredicate(result);
          } else {
-            return PredicateUtils.toPredicate(clause.getPredicate(query).evaluate());
+            return PredicateUtils.toPredicate(evaluate(clause, query));
          }
       } catch (CutException e) {
          if (spyPoint.isEnabled()) {
@@ -68,6 +69,19 @@ final class SingleNonRetryableRulePredicateFactory implements PredicateFactory {
       }
    }
 
+   private static boolean evaluate(ClauseAction clause, Term query) {
+      if (clause.getPredicate(query).evaluate()) {
+         return true;
+      }
+
+      // as there are no other clauses to try, a cut in the body of the clause does not need any further action
+      Trail trail = Trail.getCurrent();
+      if (trail != null) {
+         trail.clearCut();
+      }
+      return false;
+   }
+
    @Override
    public boolean isRetryable() {
       return false;
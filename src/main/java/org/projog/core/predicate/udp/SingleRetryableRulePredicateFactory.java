@@ -21,6 +21,7 @@ import org.projog.core.predicate.CutException;
 import org.projog.core.predicate.Predicate;
 import org.projog.core.predicate.PredicateFactory;
 import org.projog.core.term.Term;
+import org.projog.core.term.Trail;
 
 final class SingleRetryableRulePredicateFactory implements PredicateFactory {
    private final ClauseAction clause;
@@ -46,6 +47,7 @@ final class SingleRetryableRulePredicateFactory implements PredicateFactory {
       private final ClauseAction clause;
       private final SpyPoints.SpyPoint spyPoint;
       private final boolean isSpyPointEnabled;
+      private final Trail trail = Trail.getCurrent();
       private Predicate p;
 
       public RetryableRulePredicate(ClauseAction clause, SpyPoints.SpyPoint spyPoint, Term query) {
@@ -73,6 +75,10 @@ final class SingleRetryableRulePredicateFactory implements PredicateFactory {
                }
                return true;
             } else {
+               if (trail != null) {
+                  // as there are no other clauses to try, a cut in the body of the clause does not need any further action
+                  trail.clearCut();
+               }
                if (isSpyPointEnabled) {
                   spyPoint.logFail(this, query);
                }
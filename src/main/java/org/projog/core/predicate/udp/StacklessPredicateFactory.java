@@ -0,0 +1,444 @@
+/*
+ * Copyright 2026 S. Webber
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projog.core.predicate.udp;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+import org.projog.core.ProjogException;
+import org.projog.core.kb.KnowledgeBase;
+import org.projog.core.predicate.CutException;
+import org.projog.core.predicate.Predicate;
+import org.projog.core.predicate.PredicateFactory;
+import org.projog.core.predicate.Predicates;
+import org.projog.core.predicate.builtin.bool.Fail;
+import org.projog.core.predicate.builtin.bool.True;
+import org.projog.core.predicate.builtin.compound.Call;
+import org.projog.core.predicate.builtin.compound.Conjunction;
+import org.projog.core.predicate.builtin.compound.Disjunction;
+import org.projog.core.predicate.builtin.compound.IfThen;
+import org.projog.core.predicate.builtin.compound.Not;
+import org.projog.core.predicate.builtin.compound.Once;
+import org.projog.core.predicate.builtin.flow.Cut;
+import org.projog.core.term.Atom;
+import org.projog.core.term.StructureFactory;
+import org.projog.core.term.Term;
+import org.projog.core.term.Trail;
+import org.projog.core.term.Variable;
+
+/**
+ * Evaluates queries without using the Java call stack to keep track of goals.
+ * <p>
+ * The {@code Predicate} returned by {@link #getPredicate(Term)} keeps track of the goals still to be evaluated, and of
+ * the points it can backtrack to, using its own data structures rather than by making nested calls to
+ * {@link Predicate#evaluate()}. This means the depth of recursion of user defined predicates is limited by the size of
+ * the heap rather than the size of the thread's stack.
+ * <p>
+ * The following are evaluated directly: conjunctions, disjunctions, if-then-else, {@code \+}, {@code once/1},
+ * {@code call/N}, cuts, {@code true}, {@code fail} and the clauses of static and dynamic user defined predicates. All
+ * other goals (e.g. built-in predicates, tabled predicates and user defined predicates that have a spy point enabled)
+ * are evaluated using the {@link Predicate} returned by their {@link PredicateFactory}. Any goals they evaluate will
+ * use the Java call stack as usual.
+ *
+ * @see org.projog.core.kb.ProjogProperties#isStacklessExecution()
+ */
+public final class StacklessPredicateFactory implements PredicateFactory {
+   private static final Term FAIL = new Atom("fail");
+
+   private final Predicates predicates;
+
+   public StacklessPredicateFactory(KnowledgeBase kb) {
+      this.predicates = kb.getPredicates();
+   }
+
+   @Override
+   public Predicate getPredicate(Term term) {
+      return new StacklessPredicate(predicates, term);
+   }
+
+   @Override
+   public boolean isRetryable() {
+      return true;
+   }
+
+   /** A goal still to be evaluated, and the goals to evaluate after it. */
+   private static final class Frame {
+      /** Indicates the frame represents a cut, rather than a goal. */
+      private static final Term CUT = null;
+
+      private final Term goal;
+      /** The number of choice points that existed when the predicate whose clause this goal belongs to was called. */
+      private final int cutBarrier;
+      private final ClauseModel clause;
+      private final Frame next;
+
+      Frame(Term goal, int cutBarrier, ClauseModel clause, Frame next) {
+         this.goal = goal;
+         this.cutBarrier = cutBarrier;
+         this.clause = clause;
+         this.next = next;
+      }
+   }
+
+   /** A point that can be backtracked to. */
+   private abstract static class ChoicePoint {
+      /** The goals to evaluate after this choice point succeeds. */
+      final Frame continuation;
+      int trailMark;
+
+      ChoicePoint(Frame continuation) {
+         this.continuation = continuation;
+      }
+   }
+
+   /** The remaining clauses of a user defined predicate. */
+   private static final class ClauseChoicePoint extends ChoicePoint {
+      final Term goal;
+      final Iterator<ClauseAction> clauses;
+      final int cutBarrier;
+
+      ClauseChoicePoint(Term goal, Iterator<ClauseAction> clauses, int cutBarrier, Frame continuation) {
+         super(continuation);
+         this.goal = goal;
+         this.clauses = clauses;
+         this.cutBarrier = cutBarrier;
+      }
+   }
+
+   /** A goal, evaluated using its {@code Predicate}, that could be re-evaluated. */
+   private static final class PredicateChoicePoint extends ChoicePoint {
+      final Predicate predicate;
+      final Frame frame;
+
+      PredicateChoicePoint(Predicate predicate, Frame frame) {
+         super(frame.next);
+         this.predicate = predicate;
+         this.frame = frame;
+      }
+   }
+
+   /** The goals to evaluate if the current branch fails, e.g. the second argument of a disjunction. */
+   private static final class AlternativeChoicePoint extends ChoicePoint {
+      AlternativeChoicePoint(Frame alternative) {
+         super(alternative);
+      }
+   }
+
+   private static final class StacklessPredicate implements Predicate {
+      private final Predicates predicates;
+      private final Trail trail = new Trail(Trail.getCurrent());
+      private final ArrayList<ChoicePoint> choicePoints = new ArrayList<>();
+      private Frame goals;
+      private boolean evaluated;
+
+      StacklessPredicate(Predicates predicates, Term goal) {
+         this.predicates = predicates;
+         this.goals = new Frame(goal, 0, null, null);
+      }
+
+      @Override
+      public boolean evaluate() {
+         Trail previous = Trail.setCurrent(trail);
+         try {
+            if (evaluated && !backtrack()) {
+               return false;
+            }
+            evaluated = true;
+            return run();
+         } finally {
+            Trail.setCurrent(previous);
+         }
+      }
+
+      @Override
+      public boolean couldReevaluationSucceed() {
+         return !evaluated || !choicePoints.isEmpty();
+      }
+
+      /** Evaluates goals until there are none left (returns {@code true}) or there is nothing to backtrack to. */
+      private boolean run() {
+         while (goals != null) {
+            // a goal such as "loop :- loop." is evaluated without binding a variable or creating a choice point
+            trail.checkInterrupted();
+            Frame frame = goals;
+            goals = frame.next;
+            if (!call(frame) && !backtrack()) {
+               return false;
+            }
+         }
+         return true;
+      }
+
+      /**
+       * Evaluates the goal of the specified frame.
+       *
+       * @return {@code false} if the goal failed
+       */
+      private boolean call(Frame frame) {
+         if (frame.goal == Frame.CUT) {
+            cut(frame.cutBarrier);
+            return true;
+         }
+
+         Term goal = frame.goal.getTerm();
+         PredicateFactory pf = predicates.getPredicateFactory(goal);
+         if (pf instanceof Conjunction) {
+            goals = new Frame(goal.firstArgument(), frame.cutBarrier, frame.clause, new Frame(goal.secondArgument(), frame.cutBarrier, frame.clause, goals));
+         } else if (pf instanceof Disjunction) {
+            disjunction(frame, goal);
+         } else if (pf instanceof IfThen) {
+            ifThen(frame, goal.firstArgument(), new Frame(goal.secondArgument(), frame.cutBarrier, frame.clause, goals), choicePoints.size());
+         } else if (pf instanceof Not) {
+            // \+ X is equivalent to (X -> fail ; true)
+            ifThenElse(frame, goal.firstArgument(), new Frame(FAIL, frame.cutBarrier, frame.clause, goals), goals);
+         } else if (pf instanceof Once) {
+            // once(X) is equivalent to (X -> true)
+            ifThen(frame, goal.firstArgument(), goals, choicePoints.size());
+         } else if (pf instanceof Call) {
+            goals = new Frame(getCallTarget(goal), choicePoints.size(), frame.clause, goals);
+         } else if (pf instanceof Cut) {
+            cut(frame.cutBarrier);
+         } else if (pf instanceof True) {
+            // nothing to do
+         } else if (pf instanceof Fail) {
+            return false;
+         } else if (pf instanceof StaticUserDefinedPredicateFactory) {
+            ClauseAction[] clauses = ((StaticUserDefinedPredicateFactory) pf).getClauseActions(goal);
+            if (clauses == null) {
+               return callPredicate(frame, pf, goal);
+            }
+            return callClauses(frame, goal, new ClauseActionIterator(clauses));
+         } else if (pf instanceof DynamicUserDefinedPredicateFactory) {
+            Iterator<ClauseAction> clauses = ((DynamicUserDefinedPredicateFactory) pf).getClauseActions(goal);
+            if (clauses == null) {
+               return callPredicate(frame, pf, goal);
+            }
+            return callClauses(frame, goal, clauses);
+         } else {
+            return callPredicate(frame, pf, goal);
+         }
+         return true;
+      }
+
+      private void disjunction(Frame frame, Term goal) {
+         Term first = goal.firstArgument().getTerm();
+         Term second = goal.secondArgument();
+         if (!first.getType().isVariable() && predicates.getPredicateFactory(first) instanceof IfThen) {
+            Frame thenFrame = new Frame(first.secondArgument(), frame.cutBarrier, frame.clause, goals);
+            Frame elseFrame = new Frame(second, frame.cutBarrier, frame.clause, goals);
+            ifThenElse(frame, first.firstArgument(), thenFrame, elseFrame);
+         } else {
+            pushChoicePoint(new AlternativeChoicePoint(new Frame(second, frame.cutBarrier, frame.clause, goals)));
+            goals = new Frame(first, frame.cutBarrier, frame.clause, goals);
+         }
+      }
+
+      /**
+       * Evaluates {@code condition} then, using only its first solution, continues with {@code thenFrame}. If
+       * {@code condition} fails then continues with {@code elseFrame}.
+       */
+      private void ifThenElse(Frame frame, Term condition, Frame thenFrame, Frame elseFrame) {
+         int height = choicePoints.size();
+         pushChoicePoint(new AlternativeChoicePoint(elseFrame));
+         ifThen(frame, condition, thenFrame, height);
+      }
+
+      /**
+       * Evaluates {@code condition} then, using only its first solution, continues with {@code thenFrame}.
+       *
+       * @param height the number of choice points to cut back to after {@code condition} succeeds
+       */
+      private void ifThen(Frame frame, Term condition, Frame thenFrame, int height) {
+         Frame cutFrame = new Frame(Frame.CUT, height, frame.clause, thenFrame);
+         goals = new Frame(condition, choicePoints.size(), frame.clause, cutFrame);
+      }
+
+      private boolean callClauses(Frame frame, Term goal, Iterator<ClauseAction> clauses) {
+         if (!clauses.hasNext()) {
+            return false;
+         }
+
+         int cutBarrier = choicePoints.size();
+         ClauseAction first = clauses.next();
+         if (clauses.hasNext()) {
+            pushChoicePoint(new ClauseChoicePoint(goal, clauses, cutBarrier, goals));
+         }
+         return unifyClause(goal, first, cutBarrier, goals);
+      }
+
+      /**
+       * Unifies {@code goal} with the head of {@code clause} and, if successful, adds the body of the clause to the goals
+       * to evaluate.
+       */
+      private boolean unifyClause(Term goal, ClauseAction clause, int cutBarrier, Frame continuation) {
+         ClauseModel model = clause.getModel();
+         if (clause instanceof ClauseActionFactory.AlwaysMatchedFact) {
+            goals = continuation;
+            return true;
+         }
+
+         Term consequent = model.getConsequent();
+         Map<Variable, Term> sharedVariables = new HashMap<>();
+         for (int i = 0; i < goal.getNumberOfArguments(); i++) {
+            Term arg = consequent.getArgument(i);
+            if (!goal.getArgument(i).unify(arg.isImmutable() ? arg : arg.copy(sharedVariables))) {
+               return false;
+            }
+         }
+
+         if (model.isFact()) {
+            goals = continuation;
+         } else {
+            Term antecedent = model.getAntecedent();
+            goals = new Frame(antecedent.isImmutable() ? antecedent : antecedent.copy(sharedVariables), cutBarrier, model, continuation);
+         }
+         return true;
+      }
+
+      private boolean callPredicate(Frame frame, PredicateFactory pf, Term goal) {
+         try {
+            Predicate predicate = pf.getPredicate(goal);
+            if (!predicate.evaluate()) {
+               return false;
+            }
+            if (predicate.couldReevaluationSucceed()) {
+               pushChoicePoint(new PredicateChoicePoint(predicate, frame));
+            }
+            return true;
+         } catch (CutException e) {
+            // a cut was backtracked over inside the predicate
+            cut(frame.cutBarrier);
+            return false;
+         } catch (ProjogException e) {
+            if (frame.clause != null) {
+               e.addClause(frame.clause);
+            }
+            throw e;
+         }
+      }
+
+      private Term getCallTarget(Term goal) {
+         Term target = goal.firstArgument().getTerm();
+         int numExtraArgs = goal.getNumberOfArguments() - 1;
+         if (numExtraArgs == 0) {
+            return target;
+         }
+
+         Term[] args = new Term[target.getNumberOfArguments() + numExtraArgs];
+         for (int i = 0; i < target.getNumberOfArguments(); i++) {
+            args[i] = target.getArgument(i);
+         }
+         for (int i = 0; i < numExtraArgs; i++) {
+            args[target.getNumberOfArguments() + i] = goal.getArgument(i + 1);
+         }
+         return StructureFactory.createStructure(target.getName(), args);
+      }
+
+      private void pushChoicePoint(ChoicePoint choicePoint) {
+         choicePoint.trailMark = trail.mark();
+         choicePoints.add(choicePoint);
+      }
+
+      private void popChoicePoint() {
+         ChoicePoint choicePoint = choicePoints.remove(choicePoints.size() - 1);
+         trail.release(choicePoint.trailMark);
+      }
+
+      /** Removes all choice points created since there were {@code height} choice points. */
+      private void cut(int height) {
+         while (choicePoints.size() > height) {
+            popChoicePoint();
+         }
+      }
+
+      /**
+       * Resumes evaluation from the most recent choice point that has an alternative.
+       *
+       * @return {@code false} if there are no more choice points
+       */
+      private boolean backtrack() {
+         while (!choicePoints.isEmpty()) {
+            ChoicePoint choicePoint = choicePoints.get(choicePoints.size() - 1);
+            trail.undo(choicePoint.trailMark);
+            if (retry(choicePoint)) {
+               return true;
+            }
+         }
+         return false;
+      }
+
+      private boolean retry(ChoicePoint choicePoint) {
+         if (choicePoint instanceof ClauseChoicePoint) {
+            ClauseChoicePoint c = (ClauseChoicePoint) choicePoint;
+            ClauseAction clause = c.clauses.next();
+            if (!c.clauses.hasNext()) {
+               popChoicePoint();
+            }
+            return unifyClause(c.goal, clause, c.cutBarrier, c.continuation);
+         } else if (choicePoint instanceof PredicateChoicePoint) {
+            PredicateChoicePoint p = (PredicateChoicePoint) choicePoint;
+            boolean success;
+            try {
+               success = p.predicate.evaluate();
+            } catch (CutException e) {
+               cut(p.frame.cutBarrier);
+               return false;
+            } catch (ProjogException e) {
+               if (p.frame.clause != null) {
+                  e.addClause(p.frame.clause);
+               }
+               throw e;
+            }
+            if (!success || !p.predicate.couldReevaluationSucceed()) {
+               popChoicePoint();
+            } else {
+               // the predicate undoes its own bindings when it is re-evaluated, so only undo bindings made after it
+               trail.release(p.trailMark);
+               p.trailMark = trail.mark();
+            }
+            if (success) {
+               goals = p.continuation;
+            }
+            return success;
+         } else {
+            popChoicePoint();
+            goals = choicePoint.continuation;
+            return true;
+         }
+      }
+   }
+
+   private static final class ClauseActionIterator implements Iterator<ClauseAction> {
+      private final ClauseAction[] clauses;
+      private int pos;
+
+      ClauseActionIterator(ClauseAction[] clauses) {
+         this.clauses = clauses;
+      }
+
+      @Override
+      public boolean hasNext() {
+         return pos < clauses.length;
+      }
+
+      @Override
+      public ClauseAction next() {
+         return clauses[pos++];
+      }
+   }
+}
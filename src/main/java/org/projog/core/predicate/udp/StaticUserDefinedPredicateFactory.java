@@ -40,6 +40,7 @@ public class StaticUserDefinedPredicateFactory implements UserDefinedPredicateFa
    private final SpyPoints.SpyPoint spyPoint;
    private final List<ClauseModel> implications;
    private PredicateFactory compiledPredicateFactory;
+   private ClauseAction[] compiledClauseActions;
    private int setCompiledPredicateFactoryInvocationCtr;
 
    public StaticUserDefinedPredicateFactory(KnowledgeBase kb, PredicateKey predicateKey) {
@@ -71,6 +72,7 @@ public class StaticUserDefinedPredicateFactory implements UserDefinedPredicateFa
    @Override
    public void addLast(ClauseModel clauseModel) {
       if (compiledPredicateFactory == null) {
+         kb.isolateForks();
          implications.add(clauseModel);
       } else {
          throw new ProjogException("Cannot add clause to already defined user defined predicate as it is not dynamic: " + predicateKey + " clause: " + clauseModel.getOriginal());
@@ -94,9 +96,38 @@ public class StaticUserDefinedPredicateFactory implements UserDefinedPredicateFa
       // TODO always create Clauses here - can we move creation until InterpretedUserDefinedPredicatePredicateFactory
       Clauses clauses = Clauses.createFromModels(kb, implications);
       List<ClauseModel> clauseModels = getCopyOfImplications(); // TODO do we need to copy here?
+      compiledClauseActions = clauses.getClauseActions();
       compiledPredicateFactory = createInterpretedPredicateFactoryFromClauseActions(clauses, clauseModels);
    }
 
+   /**
+    * Returns {@code this} if this predicate has been compiled and all its clauses are facts, else returns a new instance
+    * with the same clauses.
+    * <p>
+    * Facts do not depend on other predicates so can be shared with the fork, once no more clauses can be added. Rules are compiled again by the new
+    * instance, the first time it is used, so they call the predicates of the fork.
+    */
+   @Override
+   public UserDefinedPredicateFactory fork(KnowledgeBase fork) {
+      synchronized (lock) {
+         if (compiledPredicateFactory != null && isFactsOnly()) {
+            return this;
+         }
+         StaticUserDefinedPredicateFactory copy = new StaticUserDefinedPredicateFactory(fork, predicateKey);
+         copy.implications.addAll(implications);
+         return copy;
+      }
+   }
+
+   private boolean isFactsOnly() {
+      for (ClauseModel clauseModel : implications) {
+         if (!clauseModel.isFact()) {
+            return false;
+         }
+      }
+      return true;
+   }
+
    private List<ClauseModel> getCopyOfImplications() {
       List<ClauseModel> copyImplications = new ArrayList<>(implications.size());
       for (ClauseModel clauseModel : implications) {
@@ -135,7 +166,12 @@ public class StaticUserDefinedPredicateFactory implements UserDefinedPredicateFa
       } else if (clauses.getClauseActions().length == 0) {
          return new NeverSucceedsPredicateFactory(spyPoint);
       } else if (clauses.getImmutableColumns().length == 0) {
-         return new NotIndexablePredicateFactory(clauses);
+         FunctorIndex[] functorIndexes = createFunctorIndexes(clauses.getClauseActions());
+         if (functorIndexes.length == 0) {
+            return new NotIndexablePredicateFactory(clauses);
+         } else {
+            return new FunctorIndexPredicateFactory(clauses, functorIndexes);
+         }
       } else if (clauses.getImmutableColumns().length == 1) {
          Index index = new Indexes(clauses).getOrCreateIndex(1);
          ClauseAction[] actions = clauses.getClauseActions();
@@ -149,6 +185,23 @@ public class StaticUserDefinedPredicateFactory implements UserDefinedPredicateFa
       }
    }
 
+   /**
+    * Returns indexes of the principal functors of the arguments of the specified clauses.
+    * <p>
+    * Arguments that would not help reduce the number of clauses to evaluate are not indexed.
+    */
+   private static FunctorIndex[] createFunctorIndexes(ClauseAction[] actions) {
+      int numArgs = actions[0].getModel().getConsequent().getNumberOfArguments();
+      List<FunctorIndex> result = new ArrayList<>(numArgs);
+      for (int i = 0; i < numArgs; i++) {
+         FunctorIndex index = FunctorIndex.create(actions, i);
+         if (index != null) {
+            result.add(index);
+         }
+      }
+      return result.toArray(new FunctorIndex[result.size()]);
+   }
+
    private PredicateFactory createSingleClausePredicateFactory(ClauseAction clause) {
       if (clause.isRetryable() && !clause.isAlwaysCutOnBacktrack()) {
          return new SingleRetryableRulePredicateFactory(clause, spyPoint);
@@ -213,6 +266,26 @@ public class StaticUserDefinedPredicateFactory implements UserDefinedPredicateFa
       return compiledPredicateFactory;
    }
 
+   /**
+    * Returns the clauses that could match the specified query, or {@code null} if the spy point is enabled.
+    * <p>
+    * Uses the same indexes as {@link #getPredicate(Term)}. Used by {@link StacklessPredicateFactory}.
+    */
+   ClauseAction[] getClauseActions(Term term) {
+      if (term.getNumberOfArguments() != predicateKey.getNumArgs()) {
+         throw new ProjogException("User defined predicate: " + predicateKey + " is being called with the wrong number of arguments: " + term.getNumberOfArguments() + " " + term);
+      }
+      if (spyPoint.isEnabled()) {
+         return null;
+      }
+      compile();
+      if (compiledPredicateFactory instanceof ClauseSelector) {
+         return ((ClauseSelector) compiledPredicateFactory).getClauseActions(term);
+      } else {
+         return compiledClauseActions;
+      }
+   }
+
    /**
     * Returns an iterator over the clauses of this user defined predicate.
     * <p>
@@ -264,7 +337,12 @@ public class StaticUserDefinedPredicateFactory implements UserDefinedPredicateFa
       return this;
    }
 
-   private final class LinkedHashMapPredicateFactory implements PredicateFactory {
+   /** Implemented by the predicate factories that use indexes to select which clauses to evaluate. */
+   private interface ClauseSelector {
+      ClauseAction[] getClauseActions(Term term);
+   }
+
+   private final class LinkedHashMapPredicateFactory implements PredicateFactory, ClauseSelector {
       private final int argIdx;
       private final ClauseAction[] actions;
       private final LinkedHashMap<Term, ClauseAction> map;
@@ -280,6 +358,16 @@ public class StaticUserDefinedPredicateFactory implements UserDefinedPredicateFa
          this.retryable = isClausesRetryable(actions);
       }
 
+      @Override
+      public ClauseAction[] getClauseActions(Term term) {
+         if (term.getArgument(argIdx).isImmutable()) {
+            ClauseAction action = map.get(term.getArgument(argIdx));
+            return action == null ? new ClauseAction[0] : new ClauseAction[] {action};
+         } else {
+            return actions;
+         }
+      }
+
       @Override
       public Predicate getPredicate(Term term) {
          if (term.getArgument(argIdx).isImmutable()) {
@@ -320,7 +408,7 @@ public class StaticUserDefinedPredicateFactory implements UserDefinedPredicateFa
       }
    }
 
-   private final class SingleIndexPredicateFactory implements PredicateFactory {
+   private final class SingleIndexPredicateFactory implements PredicateFactory, ClauseSelector {
       private final int argIdx;
       private final Index index;
       private final ClauseAction[] actions;
@@ -335,14 +423,16 @@ public class StaticUserDefinedPredicateFactory implements UserDefinedPredicateFa
 
       @Override
       public Predicate getPredicate(Term term) {
-         ClauseAction[] data;
+         return createPredicate(term, getClauseActions(term));
+      }
+
+      @Override
+      public ClauseAction[] getClauseActions(Term term) {
          if (term.getArgument(argIdx).isImmutable()) {
-            data = index.getMatches(term);
+            return index.getMatches(term);
          } else {
-            data = actions;
+            return actions;
          }
-
-         return createPredicate(term, data);
       }
 
       @Override
@@ -369,7 +459,7 @@ public class StaticUserDefinedPredicateFactory implements UserDefinedPredicateFa
       }
    }
 
-   private final class IndexablePredicateFactory implements PredicateFactory {
+   private final class IndexablePredicateFactory implements PredicateFactory, ClauseSelector {
       private final Indexes index;
       private final boolean retryable;
 
@@ -383,6 +473,11 @@ public class StaticUserDefinedPredicateFactory implements UserDefinedPredicateFa
          return createPredicate(term, index.index(term));
       }
 
+      @Override
+      public ClauseAction[] getClauseActions(Term term) {
+         return index.index(term);
+      }
+
       @Override
       public boolean isRetryable() {
          return retryable;
@@ -401,6 +496,53 @@ public class StaticUserDefinedPredicateFactory implements UserDefinedPredicateFa
       }
    }
 
+   /**
+    * Selects clauses using the principal functor of the first indexed argument that is not a variable in the query.
+    */
+   private final class FunctorIndexPredicateFactory implements PredicateFactory, ClauseSelector {
+      private final FunctorIndex[] indexes;
+      private final ClauseAction[] actions;
+      private final boolean retryable;
+
+      private FunctorIndexPredicateFactory(Clauses clauses, FunctorIndex[] indexes) {
+         this.indexes = indexes;
+         this.actions = clauses.getClauseActions();
+         this.retryable = isClausesRetryable(actions);
+      }
+
+      @Override
+      public Predicate getPredicate(Term term) {
+         return createPredicate(term, getClauseActions(term));
+      }
+
+      @Override
+      public ClauseAction[] getClauseActions(Term term) {
+         for (FunctorIndex index : indexes) {
+            ClauseAction[] matches = index.getMatches(term);
+            if (matches != null) {
+               return matches;
+            }
+         }
+         return actions;
+      }
+
+      @Override
+      public boolean isRetryable() {
+         return retryable;
+      }
+
+      @Override
+      public PredicateFactory preprocess(Term arg) {
+         List<ClauseAction> result = optimisePredicateFactory(kb, getClauseActions(arg), arg);
+         if (result.size() < actions.length) {
+            final Clauses clauses = Clauses.createFromActions(kb, result, arg);
+            return createInterpretedPredicateFactoryFromClauses(clauses);
+         } else {
+            return this;
+         }
+      }
+   }
+
    private final class NotIndexablePredicateFactory implements PredicateFactory {
       private final ClauseAction[] data;
       private final boolean retryable;
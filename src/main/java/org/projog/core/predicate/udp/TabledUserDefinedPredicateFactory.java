@@ -16,11 +16,16 @@
 package org.projog.core.predicate.udp;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.projog.core.ProjogException;
 import org.projog.core.kb.KnowledgeBase;
@@ -29,20 +34,55 @@ import org.projog.core.predicate.Predicate;
 import org.projog.core.predicate.PredicateKey;
 import org.projog.core.term.Term;
 import org.projog.core.term.TermType;
+import org.projog.core.term.Trail;
 import org.projog.core.term.Variable;
 
+/**
+ * A user defined predicate that uses tabled execution.
+ * <p>
+ * The answers to each distinct call (where calls that only differ by the names of their variables are considered the
+ * same) are stored in an answer table, so subsequent calls can reuse them rather than reevaluating the clauses. A table
+ * is populated by the first thread to make the call. That thread evaluates all of the clauses before returning the first
+ * answer, as a recursive call to the same predicate relies on the answers found so far. Other threads that make the same
+ * call while the table is still being populated are given the answers as they are found, rather than having to wait for
+ * all of them to be found.
+ * <p>
+ * A thread that is populating a table never waits for a table that another thread is populating, as that thread could
+ * itself be waiting for the table being populated by the first thread (e.g. when two threads call mutually recursive
+ * predicates). Instead it evaluates the call itself, using a table that is only visible to that thread.
+ * <p>
+ * The number of answers stored for a predicate is limited by {@link org.projog.core.kb.ProjogProperties#getMaxTabledAnswers()}.
+ * When the limit is exceeded the least recently used tables are discarded. A table with more answers than the limit is
+ * discarded as soon as it is complete, although calls that are already using it can still retrieve all of its answers.
+ * <p>
+ * While a table is being populated a record is kept of the dynamic predicates and other tabled predicates it uses. When
+ * the clauses of a dynamic predicate are changed only the tables that used it, and the tables that used those tables,
+ * are discarded. Their answers will be recalculated the next time the call is made.
+ */
 public final class TabledUserDefinedPredicateFactory implements UserDefinedPredicateFactory {
+   /** How often a thread waiting for the next answer of a table checks whether its query has been interrupted. */
+   private static final long INTERRUPTED_CHECK_MILLIS = 50;
+   /**
+    * The tables populated by the current thread in place of tables that other threads were still populating, keyed by the
+    * table they replace. Discarded once the thread is no longer populating any table.
+    */
+   private static final ThreadLocal<Map<AnswerTable, AnswerTable>> PRIVATE_TABLES = ThreadLocal.withInitial(HashMap::new);
+
    private final PredicateKey predicateKey;
    private final KnowledgeBase kb;
    private final List<ClauseModel> implications;
-   private final Map<Term, Processor> processing = new HashMap<>();
-   private final Map<Term, Term[]> cache = new HashMap<>();
-   private Clauses clauses;
+   private final AnswerTables tables;
+   private volatile Clauses clauses;
 
    public TabledUserDefinedPredicateFactory(KnowledgeBase kb, PredicateKey predicateKey) {
+      this(kb, predicateKey, kb.getProjogProperties().getMaxTabledAnswers());
+   }
+
+   TabledUserDefinedPredicateFactory(KnowledgeBase kb, PredicateKey predicateKey, int maxAnswers) {
       this.predicateKey = predicateKey;
       this.kb = kb;
       this.implications = new ArrayList<>();
+      this.tables = new AnswerTables(maxAnswers);
    }
 
    @Override
@@ -53,12 +93,27 @@ public final class TabledUserDefinedPredicateFactory implements UserDefinedPredi
    @Override
    public void addLast(ClauseModel clauseModel) {
       if (clauses == null) {
+         kb.isolateForks();
          implications.add(clauseModel);
       } else {
          throw new ProjogException("Cannot add clause to already defined user defined predicate as it is not dynamic: " + predicateKey + " clause: " + clauseModel.getOriginal());
       }
    }
 
+   /**
+    * Returns a new instance with the same clauses as this predicate.
+    * <p>
+    * The answer tables of this predicate are not copied, as they may depend on dynamic predicates of the fork.
+    */
+   @Override
+   public UserDefinedPredicateFactory fork(KnowledgeBase fork) {
+      TabledUserDefinedPredicateFactory copy = new TabledUserDefinedPredicateFactory(fork, predicateKey, tables.maxAnswers);
+      synchronized (implications) {
+         copy.implications.addAll(implications);
+      }
+      return copy;
+   }
+
    @Override
    public boolean isRetryable() {
       return true;
@@ -91,20 +146,53 @@ public final class TabledUserDefinedPredicateFactory implements UserDefinedPredi
    public Predicate getPredicate(Term term) {
       compile();
 
-      Term[] cachedResult = generateAllSolutions(term);
+      Term queryKey = createKey(term);
+      AnswerTable table = tables.getOrCreate(queryKey, term, clauses);
+      table.dependents.addCurrentTable();
 
-      if (cachedResult.length == 0) {
-         return PredicateUtils.FALSE;
+      if (!table.isProducer() && !table.isComplete() && Dependents.isProducing()) {
+         // waiting for the other thread could deadlock, as it may be waiting for a table this thread is populating
+         table = PRIVATE_TABLES.get().computeIfAbsent(table, t -> t.copy(Thread.currentThread()));
+         table.dependents.addCurrentTable();
       }
 
-      return new TabledUserDefinedPredicate(term, cachedResult);
+      if (table.isProducer()) {
+         boolean isNewTable = !table.isStarted();
+         Dependents.startProducing(table);
+         try {
+            table.process();
+         } finally {
+            Dependents.stopProducing();
+            if (!Dependents.isProducing()) {
+               PRIVATE_TABLES.remove();
+            }
+         }
+         if (isNewTable) {
+            tables.completed(queryKey, table);
+         }
+         if (table.exception != null) {
+            throw toRuntimeException(table.exception);
+         }
+         // only use the answers found so far, as any further answers will be found by the call that created the table
+         int numberOfAnswers = table.size();
+         return numberOfAnswers == 0 ? PredicateUtils.FALSE : new TabledUserDefinedPredicate(term, table, numberOfAnswers);
+      } else if (table.isComplete()) {
+         if (table.exception != null) {
+            throw toRuntimeException(table.exception);
+         }
+         int numberOfAnswers = table.size();
+         return numberOfAnswers == 0 ? PredicateUtils.FALSE : new TabledUserDefinedPredicate(term, table, numberOfAnswers);
+      } else {
+         kb.getProjogListeners().notifyInfo("Using answers of other thread that is tabling: " + predicateKey);
+         return new TabledUserDefinedPredicate(term, table, Integer.MAX_VALUE);
+      }
    }
 
    @Override
    public void compile() {
       // make sure we only call clauses once per instance
       if (clauses == null) {
-         synchronized (cache) {
+         synchronized (implications) {
             if (clauses == null) {
                clauses = Clauses.createFromModels(kb, implications);
             }
@@ -112,91 +200,240 @@ public final class TabledUserDefinedPredicateFactory implements UserDefinedPredi
       }
    }
 
-   private Term[] generateAllSolutions(Term term) {
-      Term queryKey = createKey(term);
+   /**
+    * Discards the answer tables of this predicate.
+    * <p>
+    * Subsequent calls to this predicate will reevaluate its clauses. Tables that are still being populated are not
+    * discarded.
+    */
+   public void abolishTables() {
+      tables.clear();
+   }
 
-      Term[] cachedResult = cache.get(queryKey);
-      if (cachedResult != null) {
-         return cachedResult;
+   /** Returns the number of answer tables currently stored for this predicate. */
+   int getNumberOfTables() {
+      return tables.size();
+   }
+
+   private static RuntimeException toRuntimeException(Throwable t) {
+      if (t instanceof RuntimeException) {
+         return (RuntimeException) t;
+      } else {
+         return new RuntimeException(t);
       }
+   }
+
+   private static Term createKey(Term term) {
+      return term.copy(new VariableReplacementMap());
+   }
 
-      Processor processor;
-      final boolean newProcessor;
-      synchronized (processing) {
-         // if already have a processed result for this query then return it now rather than processing a new version
-         Term[] previouslyCachedResult = cache.get(queryKey);
-         if (previouslyCachedResult != null) {
-            return previouslyCachedResult;
+   /**
+    * The answer tables that used a predicate, or another answer table, while they were being populated.
+    * <p>
+    * Used to discard answer tables when the clauses they used have changed. Tables are only weakly referenced so tables
+    * that have been discarded for another reason (e.g. because the limit of answers was exceeded) can be garbage
+    * collected.
+    */
+   static final class Dependents {
+      /** The tables being populated by the current thread, with the most recently started last. */
+      private static final ThreadLocal<List<AnswerTable>> PRODUCING = new ThreadLocal<List<AnswerTable>>() {
+         @Override
+         protected List<AnswerTable> initialValue() {
+            return new ArrayList<>();
          }
+      };
+      /** The number of tables, across all threads, that are currently being populated. */
+      private static final AtomicInteger NUMBER_PRODUCING = new AtomicInteger();
+
+      private final Set<AnswerTable> tables = Collections.newSetFromMap(new WeakHashMap<AnswerTable, Boolean>());
 
-         // see if this query is already being processed
-         processor = processing.get(queryKey);
-         newProcessor = processor == null;
+      private static void startProducing(AnswerTable table) {
+         NUMBER_PRODUCING.incrementAndGet();
+         PRODUCING.get().add(table);
+      }
+
+      private static void stopProducing() {
+         List<AnswerTable> producing = PRODUCING.get();
+         producing.remove(producing.size() - 1);
+         NUMBER_PRODUCING.decrementAndGet();
+      }
 
-         // if this query is not already being processed then create a Processor for it
-         if (newProcessor) {
-            processor = new Processor(term, clauses, Thread.currentThread());
-            processing.put(queryKey, processor);
+      /** Returns {@code true} if the current thread is populating a table. */
+      private static boolean isProducing() {
+         return NUMBER_PRODUCING.get() != 0 && !PRODUCING.get().isEmpty();
+      }
+
+      /**
+       * Records that the table currently being populated by this thread, if any, depends on the owner of this object.
+       */
+      void addCurrentTable() {
+         if (NUMBER_PRODUCING.get() == 0) {
+            return;
+         }
+
+         List<AnswerTable> producing = PRODUCING.get();
+         if (!producing.isEmpty()) {
+            AnswerTable current = producing.get(producing.size() - 1);
+            synchronized (tables) {
+               tables.add(current);
+            }
          }
       }
 
-      // if query is being processed by another thread then wait for it to finish and then reuse the cached result
-      if (Thread.currentThread() != processor.originalThread) {
-         kb.getProjogListeners().notifyInfo("Waiting for other thread to complete tabling of: " + predicateKey);
-         synchronized (processor) {
-            try {
-               processor.wait();
-            } catch (InterruptedException e) {
+      /**
+       * Discards all of the tables that depend on the owner of this object.
+       */
+      void invalidate() {
+         List<AnswerTable> invalidated;
+         synchronized (tables) {
+            if (tables.isEmpty()) {
+               return;
             }
-            return cache.get(queryKey);
+            invalidated = new ArrayList<>(tables);
+            tables.clear();
+         }
+         for (AnswerTable table : invalidated) {
+            table.invalidate();
          }
       }
+   }
 
-      processor.process();
-      if (processor.exception != null) {
-         if (processor.exception instanceof RuntimeException) {
-            throw (RuntimeException) processor.exception;
-         } else {
-            throw new RuntimeException(processor.exception);
+   /**
+    * The answer tables of a tabled predicate, indexed by the call they are the answers to.
+    * <p>
+    * Ordered by when they were last accessed so the least recently used tables can be discarded when the total number
+    * of answers exceeds the limit.
+    */
+   private static final class AnswerTables {
+      private final Map<Term, AnswerTable> tables = new LinkedHashMap<>(16, 0.75f, true);
+      private final int maxAnswers;
+      /** The total number of answers in completed tables. */
+      private int numberOfAnswers;
+
+      AnswerTables(int maxAnswers) {
+         this.maxAnswers = maxAnswers;
+      }
+
+      synchronized AnswerTable getOrCreate(Term queryKey, Term term, Clauses clauses) {
+         AnswerTable table = tables.get(queryKey);
+         if (table == null) {
+            table = new AnswerTable(this, queryKey, term, clauses.getClauseActions(), Thread.currentThread());
+            tables.put(queryKey, table);
          }
+         return table;
       }
-      Term[] result = processor.result.toArray(new Term[processor.result.size()]);
 
-      // if the Processor was created as part of this method call then store the result in the cache so it can be reused
-      if (newProcessor) {
-         synchronized (processing) {
-            cache.put(queryKey, result);
-            processing.remove(queryKey);
+      synchronized void completed(Term queryKey, AnswerTable table) {
+         table.complete();
+         if (tables.get(queryKey) != table) {
+            // table has been discarded while it was being populated
+            return;
+         }
+         if (table.isInvalid()) {
+            // something the table depends on has changed while it was being populated
+            tables.remove(queryKey);
+            return;
          }
-         // notify any threads that are waiting for the result
-         synchronized (processor) {
-            processor.notifyAll();
+
+         if (table.size() > maxAnswers) {
+            // keeping the table would mean discarding every other table, and still exceeding the limit
+            tables.remove(queryKey);
+            return;
+         }
+
+         numberOfAnswers += table.size();
+         Iterator<AnswerTable> itr = tables.values().iterator();
+         while (numberOfAnswers > maxAnswers && itr.hasNext()) {
+            AnswerTable next = itr.next();
+            if (next != table && next.isComplete()) {
+               numberOfAnswers -= next.size();
+               itr.remove();
+            }
          }
       }
 
-      return result;
-   }
+      /**
+       * Discards the specified table, unless it is still being populated.
+       * <p>
+       * If the table is still being populated then it will be discarded once it is complete.
+       */
+      synchronized void remove(Term queryKey, AnswerTable table) {
+         if (table.isComplete() && tables.get(queryKey) == table) {
+            numberOfAnswers -= table.size();
+            tables.remove(queryKey);
+         }
+      }
 
-   private static Term createKey(Term term) {
-      return term.copy(new VariableReplacementMap());
+      synchronized void clear() {
+         Iterator<AnswerTable> itr = tables.values().iterator();
+         while (itr.hasNext()) {
+            AnswerTable next = itr.next();
+            if (next.isComplete()) {
+               numberOfAnswers -= next.size();
+               itr.remove();
+            }
+         }
+      }
+
+      synchronized int size() {
+         return tables.size();
+      }
    }
 
-   private static class Processor {
+   /**
+    * The answers to a single call to a tabled predicate.
+    * <p>
+    * Populated by the thread that created it. Answers can be read by other threads while it is still being populated.
+    */
+   private static final class AnswerTable {
+      private final AnswerTables owner;
+      private final Term queryKey;
+      private final Dependents dependents = new Dependents();
       private final Term originalTerm;
       private final ClauseAction[] clauses;
-      private final Thread originalThread;
-      private final List<Term> result = new ArrayList<>();
+      private final Thread producer;
+      private final List<Term> answers = new ArrayList<>();
       private final Set<Term> alreadyFound = new HashSet<>();
+      private boolean started;
+      private boolean complete;
+      private boolean invalid;
       private int clauseIdx;
       private Throwable exception;
 
-      Processor(Term originalTerm, Clauses clauses, Thread curentThread) {
-         this.originalTerm = originalTerm;
-         this.clauses = clauses.getClauseActions();
-         this.originalThread = curentThread;
+      AnswerTable(AnswerTables owner, Term queryKey, Term originalTerm, ClauseAction[] clauses, Thread producer) {
+         this.owner = owner;
+         this.queryKey = queryKey;
+         this.originalTerm = originalTerm.copy();
+         this.clauses = clauses;
+         this.producer = producer;
+      }
+
+      /**
+       * Returns a new table, that has no answers, for the same call as this table.
+       *
+       * @param producer the thread that will populate the new table
+       */
+      AnswerTable copy(Thread producer) {
+         return new AnswerTable(owner, queryKey, originalTerm, clauses, producer);
       }
 
+      boolean isProducer() {
+         return Thread.currentThread() == producer;
+      }
+
+      boolean isStarted() {
+         return started;
+      }
+
+      /**
+       * Evaluates the clauses that have not yet been evaluated.
+       * <p>
+       * Only called by the producer thread. Can be called recursively, in which case the recursive call continues from
+       * the next clause that has not yet been started.
+       */
       void process() {
+         started = true;
+         Trail trail = Trail.getCurrent();
          try {
             while (clauseIdx < clauses.length) {
                ClauseAction clause = clauses[clauseIdx++];
@@ -206,10 +443,14 @@ public final class TabledUserDefinedPredicateFactory implements UserDefinedPredi
                while (keepGoing && p.evaluate()) {
                   Term copy = copiedTerm.copy();
                   if (alreadyFound.add(createKey(copy))) {
-                     result.add(copy);
+                     add(copy);
                   }
                   keepGoing = p.couldReevaluationSucceed();
                }
+               if (trail != null && trail.clearCut()) {
+                  // the body of the clause backtracked to a cut, so do not try any more clauses
+                  clauseIdx = clauses.length;
+               }
             }
          } catch (CutException e) {
             clauseIdx = clauses.length;
@@ -218,22 +459,105 @@ public final class TabledUserDefinedPredicateFactory implements UserDefinedPredi
             exception = e;
          }
       }
+
+      private synchronized void add(Term answer) {
+         answers.add(answer);
+         notifyAll();
+      }
+
+      synchronized void complete() {
+         complete = true;
+         alreadyFound.clear();
+         notifyAll();
+      }
+
+      /**
+       * Discards this table, and any tables that depend on it, as something it depends on has changed.
+       */
+      void invalidate() {
+         synchronized (this) {
+            if (invalid) {
+               return;
+            }
+            invalid = true;
+         }
+         owner.remove(queryKey, this);
+         dependents.invalidate();
+      }
+
+      synchronized boolean isInvalid() {
+         return invalid;
+      }
+
+      synchronized boolean isComplete() {
+         return complete;
+      }
+
+      synchronized int size() {
+         return answers.size();
+      }
+
+      /**
+       * Returns {@code true} if there is, or could later be, an answer at the specified index.
+       */
+      synchronized boolean hasAnswer(int idx) {
+         return idx < answers.size() || !complete || exception != null;
+      }
+
+      /**
+       * Returns the answer at the specified index, waiting for it to be found if the table is still being populated.
+       *
+       * @return the answer at the specified index, or {@code null} if the table is complete and has no answer at that
+       * index
+       */
+      synchronized Term getAnswer(int idx) {
+         Trail trail = Trail.getCurrent();
+         while (idx >= answers.size() && !complete) {
+            if (trail != null) {
+               trail.checkInterrupted();
+            }
+            try {
+               wait(INTERRUPTED_CHECK_MILLIS);
+            } catch (InterruptedException e) {
+               Thread.currentThread().interrupt();
+               throw new ProjogException("Interrupted while waiting for answers of tabled predicate", e);
+            }
+         }
+         if (idx < answers.size()) {
+            return answers.get(idx);
+         }
+         if (exception != null) {
+            throw toRuntimeException(exception);
+         }
+         return null;
+      }
    }
 
    private static class TabledUserDefinedPredicate implements Predicate {
       private final Term input;
-      private final Term[] results;
+      private final AnswerTable table;
+      private final int limit;
       private int resultIdx;
 
-      TabledUserDefinedPredicate(Term input, Term[] results) {
+      TabledUserDefinedPredicate(Term input, AnswerTable table, int limit) {
          this.input = input;
-         this.results = results;
+         this.table = table;
+         this.limit = limit;
       }
 
       @Override
       public boolean evaluate() {
          input.backtrack();
-         if (!input.unify(results[resultIdx++].copy())) {
+         if (resultIdx == limit) {
+            return false;
+         }
+         Term answer = table.getAnswer(resultIdx);
+         if (answer == null) {
+            resultIdx = limit;
+            return false;
+         }
+         resultIdx++;
+         if (!input.unify(answer.copy())) {
             throw new IllegalStateException(); // should never get here
          }
          return true;
@@ -241,7 +565,7 @@ public final class TabledUserDefinedPredicateFactory implements UserDefinedPredi
 
       @Override
       public boolean couldReevaluationSucceed() {
-         return resultIdx < results.length;
+         return resultIdx < limit && table.hasAnswer(resultIdx);
       }
    }
 
@@ -17,8 +17,10 @@ package org.projog.core.predicate.udp;
 
 import java.util.Iterator;
 
+import org.projog.core.kb.KnowledgeBase;
 import org.projog.core.predicate.PredicateFactory;
 import org.projog.core.predicate.PredicateKey;
+import org.projog.core.term.Term;
 
 /**
  * Maintains a record of the clauses that define a user defined predicate.
@@ -56,6 +58,21 @@ public interface UserDefinedPredicateFactory extends PredicateFactory {
     */
    Iterator<ClauseModel> getImplications();
 
+   /**
+    * Returns an iterator over the clauses in the predicate, in proper sequence, that could unify with the specified
+    * term.
+    * <p>
+    * Implementations can use this to avoid returning clauses that it can quickly determine will not unify with
+    * {@code clauseHead} - but clauses that cannot unify may still be included. The default implementation returns all
+    * the clauses.
+    *
+    * @param clauseHead the term the consequent of the clauses will be unified with
+    * @return an iterator over the clauses in the predicate that could unify with {@code clauseHead}
+    */
+   default Iterator<ClauseModel> getImplications(Term clauseHead) {
+      return getImplications();
+   }
+
    /**
     * Returns {@code true} is this predicate is dynamic.
     * <p>
@@ -74,4 +91,16 @@ public interface UserDefinedPredicateFactory extends PredicateFactory {
    public ClauseModel getClauseModel(int index);
 
    public void compile();
+
+   /**
+    * Returns a version of this predicate for use by a fork of the {@code KnowledgeBase} this predicate belongs to.
+    * <p>
+    * Clauses added to or removed from the returned predicate must not affect this predicate. Implementations can return
+    * {@code this} if the predicate cannot be altered and does not depend on any other predicates.
+    *
+    * @param fork the fork of the {@code KnowledgeBase} the returned predicate will belong to
+    * @return a version of this predicate that belongs to {@code fork}
+    * @see org.projog.core.kb.KnowledgeBase#fork()
+    */
+   UserDefinedPredicateFactory fork(KnowledgeBase fork);
 }
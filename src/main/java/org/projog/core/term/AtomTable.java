@@ -0,0 +1,96 @@
+/*
+ * Copyright 2026 S. Webber
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projog.core.term;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * A table of {@link Atom} instances, so that atoms with the same name can share a single instance.
+ * <p>
+ * Each {@link org.projog.core.kb.KnowledgeBase} has its own table. It is used when parsing Prolog syntax, so a fact base
+ * that refers to the same atom many times only contains one {@code Atom} (and one {@code String}) for it. The names of
+ * structures are taken from the same table, so a structure and an atom with the same name also share the
+ * {@code String}.
+ * <p>
+ * As atoms that refer to the same instance are equal by reference, comparing them does not need to compare the
+ * characters of their names.
+ * <p>
+ * Entries are never removed from the table, so it should not be used for atoms created by a running program (e.g. by
+ * {@code atom_concat/3}) which could create an unbounded number of distinct names. To parse a query, which could
+ * contain any names, use a table created by {@link #AtomTable(AtomTable)}.
+ */
+public final class AtomTable {
+   private final AtomTable shared;
+   private final ConcurrentMap<String, Atom> atoms = new ConcurrentHashMap<>();
+
+   public AtomTable() {
+      this(null);
+   }
+
+   /**
+    * Creates a table that uses the atoms of the specified table, but does not add to it.
+    * <p>
+    * Atoms with names that are in {@code shared} share its instances. Other atoms are only added to the new table, so
+    * are discarded along with it.
+    *
+    * @param shared the table to take existing atoms from, or {@code null}
+    */
+   public AtomTable(AtomTable shared) {
+      this.shared = shared;
+   }
+
+   /**
+    * Returns the {@code Atom} with the specified name.
+    * <p>
+    * The same instance is returned for every call with the same name.
+    */
+   public Atom getAtom(String name) {
+      Atom atom = shared == null ? null : shared.atoms.get(name);
+      if (atom == null) {
+         atom = atoms.get(name);
+      }
+      if (atom == null) {
+         Atom newAtom = new Atom(name);
+         atom = atoms.putIfAbsent(name, newAtom);
+         if (atom == null) {
+            atom = newAtom;
+         }
+      }
+      return atom;
+   }
+
+   /**
+    * Returns the canonical instance of the specified name.
+    * <p>
+    * Used for the names of structures, so that they share the same {@code String} as the atom with the same name.
+    */
+   public String getName(String name) {
+      return getAtom(name).getName();
+   }
+
+   /** Returns a copy of the names of the atoms in this table. */
+   public Set<String> getNames() {
+      return new HashSet<>(atoms.keySet());
+   }
+
+   /** Returns the number of atoms in this table. */
+   public int size() {
+      return atoms.size();
+   }
+}
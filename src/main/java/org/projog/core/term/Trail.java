@@ -0,0 +1,385 @@
+/*
+ * Copyright 2026 S. Webber
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projog.core.term;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+
+import org.projog.core.ProjogException;
+
+/**
+ * Records the variables that have been bound so they can be unbound when backtracking.
+ * <p>
+ * As well as {@link Variable}, any other mutable term (e.g. a CLP variable that has had its domain narrowed) should call
+ * {@link #record(Term)} whenever its state is changed in a way that is reverted by its {@link Term#backtrack()}. Other
+ * state that needs reverting on backtracking can be recorded using {@link #recordUndo(Runnable)}.
+ * <p>
+ * A choice point calls {@link #mark()} before it tries an alternative, and {@link #undo(int)} to unbind every variable
+ * that has been bound since. This means the cost of backtracking is proportional to the number of variables that were
+ * bound, rather than to the size of the terms that contain them (as it is when using {@link Term#backtrack()}).
+ * <p>
+ * Each query has its own {@code Trail}, which it makes the current trail of the thread evaluating it by calling
+ * {@link #setCurrent(Trail)}. When there is no current trail then bindings are not recorded and choice points should
+ * fall back to using {@link Term#backtrack()}.
+ * <p>
+ * Bindings are only recorded while there is at least one mark that has not been released. Once all marks have been
+ * released then the recorded bindings are discarded, so a deterministic computation does not cause the trail to grow.
+ * <p>
+ * The trail also records when evaluation has backtracked to a cut in the body of a clause. See {@link #cut()}.
+ * <p>
+ * A trail can be created with a parent - the trail of the query that the evaluation using it is part of. A child trail
+ * records its own bindings and choice points, but shares the attributes of its parent. See {@link #getAttribute(Object)}.
+ * <p>
+ * Not thread safe. A trail should only be used by one thread at a time. The exception is {@link #interrupt()}, which
+ * can be called by any thread.
+ */
+public final class Trail {
+   private static final ThreadLocal<Holder> HOLDERS = ThreadLocal.withInitial(Holder::new);
+   private static final int INITIAL_CAPACITY = 8;
+   private static final AtomicIntegerFieldUpdater<Trail> ACTIVE = AtomicIntegerFieldUpdater.newUpdater(Trail.class, "active");
+
+   private final Trail parent;
+   /** State associated with the query, keyed by the object it belongs to. Only used by a trail that has no parent. */
+   private Map<Object, Object> attributes;
+   // arrays are not created until first needed, as many queries never create a choice point
+   /** Each element is either a {@link Term} that has been bound or an {@link UndoAction}. */
+   private Object[] bindings;
+   private int numBindings;
+
+   /**
+    * Each mark occupies two elements: its ID followed by the number of bindings when it was created. The ID is negated
+    * when the mark is released.
+    */
+   private int[] marks;
+   private int numMarks;
+   private int lastMarkId;
+   private boolean cutPending;
+   private volatile boolean interrupted;
+   /**
+    * The number of threads whose current trail is this trail or one of its descendants. Only used by a trail that has no
+    * parent.
+    */
+   private volatile int active;
+
+   /** Creates a trail for a query. */
+   public Trail() {
+      this(null);
+   }
+
+   /**
+    * Creates a trail for an evaluation that is part of the query using the specified trail.
+    *
+    * @param parent the trail of the query, or {@code null} if the evaluation is not part of a query
+    */
+   public Trail(Trail parent) {
+      this.parent = parent;
+   }
+
+   /**
+    * Returns the trail used by the current thread, or {@code null} if bindings are not being recorded.
+    */
+   public static Trail getCurrent() {
+      return HOLDERS.get().trail;
+   }
+
+   /**
+    * Sets the trail to be used by the current thread.
+    *
+    * @param trail the trail to use, or {@code null} if bindings should not be recorded
+    * @return the trail that was previously being used by the current thread, so it can be restored
+    */
+   public static Trail setCurrent(Trail trail) {
+      Holder holder = HOLDERS.get();
+      Trail previous = holder.trail;
+      if (previous != trail) {
+         if (previous != null) {
+            ACTIVE.decrementAndGet(previous.getRoot());
+         }
+         if (trail != null) {
+            ACTIVE.incrementAndGet(trail.getRoot());
+         }
+         holder.trail = trail;
+      }
+      return previous;
+   }
+
+   /**
+    * Returns {@code true} if the query this trail belongs to is currently being evaluated.
+    * <p>
+    * Can be called by any thread. A query is being evaluated while this trail, or a trail that has it as an ancestor,
+    * is the current trail of a thread (see {@link #setCurrent(Trail)}).
+    */
+   public boolean isActive() {
+      return getRoot().active > 0;
+   }
+
+   /**
+    * Records that the specified term has been instantiated, so that {@link Term#backtrack()} is called on it when a
+    * choice point created before now is undone.
+    */
+   public static void record(Term term) {
+      Trail trail = HOLDERS.get().trail;
+      if (trail != null) {
+         trail.checkInterrupted();
+         if (trail.numMarks > 0) {
+            trail.push(term);
+         }
+      }
+   }
+
+   /**
+    * Records an action to run when a choice point created before now is undone.
+    * <p>
+    * Allows state that is not held by a term (e.g. a search being performed by other threads) to be reverted when
+    * evaluation backtracks to before it was changed. If there is no current trail, or no choice point that could be
+    * backtracked to, then the action is not recorded, as it would never be run.
+    *
+    * @param action the action to run on backtracking
+    */
+   public static void recordUndo(Runnable action) {
+      Trail trail = HOLDERS.get().trail;
+      if (trail != null) {
+         trail.checkInterrupted();
+         if (trail.numMarks > 0) {
+            trail.push(new UndoAction(action));
+         }
+      }
+   }
+
+   private void push(Object binding) {
+      if (numBindings == bindings.length) {
+         Object[] newBindings = new Object[bindings.length * 2];
+         System.arraycopy(bindings, 0, newBindings, 0, numBindings);
+         bindings = newBindings;
+      }
+      bindings[numBindings++] = binding;
+   }
+
+   /**
+    * Creates a choice point.
+    *
+    * @return an ID to pass to {@link #undo(int)} and {@link #release(int)} (always greater than zero)
+    */
+   public int mark() {
+      checkInterrupted();
+      if (marks == null) {
+         bindings = new Object[INITIAL_CAPACITY];
+         marks = new int[INITIAL_CAPACITY * 2];
+      } else if (numMarks * 2 == marks.length) {
+         int[] newMarks = new int[marks.length * 2];
+         System.arraycopy(marks, 0, newMarks, 0, marks.length);
+         marks = newMarks;
+      }
+      int id = ++lastMarkId;
+      if (id < 1) {
+         // wrapped around
+         id = lastMarkId = 1;
+      }
+      marks[numMarks * 2] = id;
+      marks[numMarks * 2 + 1] = numBindings;
+      numMarks++;
+      return id;
+   }
+
+   /**
+    * Unbinds every variable that has been bound since the specified choice point was created.
+    * <p>
+    * Any choice points created after the specified choice point are discarded, as they can no longer be backtracked
+    * to. The specified choice point remains, so it can be undone again when trying its next alternative.
+    *
+    * @param markId the ID returned by {@link #mark()}
+    * @return {@code false} if the choice point no longer exists (in which case nothing is unbound), else {@code true}
+    */
+   public boolean undo(int markId) {
+      int idx = indexOf(markId);
+      if (idx == -1) {
+         return false;
+      }
+
+      int position = marks[idx * 2 + 1];
+      while (numBindings > position) {
+         Object o = bindings[--numBindings];
+         bindings[numBindings] = null;
+         if (o instanceof UndoAction) {
+            ((UndoAction) o).action.run();
+         } else {
+            ((Term) o).backtrack();
+         }
+      }
+      numMarks = idx + 1;
+      return true;
+   }
+
+   /**
+    * Indicates that the specified choice point will not be backtracked to again.
+    *
+    * @param markId the ID returned by {@link #mark()}
+    */
+   public void release(int markId) {
+      int idx = indexOf(markId);
+      if (idx == -1) {
+         return;
+      }
+
+      marks[idx * 2] = -markId;
+      while (numMarks > 0 && marks[(numMarks - 1) * 2] < 0) {
+         numMarks--;
+      }
+      if (numMarks == 0) {
+         clear();
+      }
+   }
+
+   /**
+    * Records that evaluation has backtracked to a cut in the body of a clause.
+    * <p>
+    * Used instead of throwing a {@code CutException} when the only goals between the cut and the user defined predicate
+    * the clause belongs to are conjunctions, disjunctions and if-then-elses. Each of those goals fails, without trying
+    * any of its alternatives, while a cut is pending. The user defined predicate then fails, without trying any more
+    * of its clauses, and calls {@link #clearCut()}.
+    */
+   public void cut() {
+      cutPending = true;
+   }
+
+   /** Returns {@code true} if {@link #cut()} has been called since the last call to {@link #clearCut()}. */
+   public boolean isCutPending() {
+      return cutPending;
+   }
+
+   /**
+    * Indicates that the cut recorded by {@link #cut()} has been dealt with.
+    *
+    * @return {@code true} if a cut was pending
+    */
+   public boolean clearCut() {
+      boolean result = cutPending;
+      cutPending = false;
+      return result;
+   }
+
+   /**
+    * Requests that evaluation of the query using this trail is stopped.
+    * <p>
+    * Can be called by any thread. The thread evaluating the query throws a {@code ProjogException} the next time it
+    * binds a variable or creates a choice point. As almost every step of an evaluation does one or the other, this
+    * stops even queries that never succeed or fail. Code that can loop without doing either should call
+    * {@link #checkInterrupted()}.
+    * <p>
+    * Interrupting a trail also interrupts the trails it is the parent of.
+    */
+   public void interrupt() {
+      interrupted = true;
+   }
+
+   /** Returns {@code true} if {@link #interrupt()} has been called on this trail or one of its ancestors. */
+   public boolean isInterrupted() {
+      return interrupted || (parent != null && parent.isInterrupted());
+   }
+
+   /**
+    * Stops the evaluation if {@link #interrupt()} has been called.
+    *
+    * @throws ProjogException if {@link #isInterrupted()} returns {@code true}
+    */
+   public void checkInterrupted() {
+      if (isInterrupted()) {
+         throw new ProjogException("Query has been interrupted.");
+      }
+   }
+
+   /**
+    * Returns the value associated with the specified key by the query this trail belongs to.
+    * <p>
+    * Allows state (e.g. the current output stream) to be scoped to a query, rather than to the thread evaluating it.
+    * The attributes of a trail with a parent are those of its parent.
+    *
+    * @param key the object the value belongs to
+    * @return the value, or {@code null} if no value is associated with the key
+    * @see #setAttribute(Object, Object)
+    */
+   public Object getAttribute(Object key) {
+      Trail root = getRoot();
+      return root.attributes == null ? null : root.attributes.get(key);
+   }
+
+   /**
+    * Associates the specified value with the specified key for the duration of the query this trail belongs to.
+    *
+    * @param key the object the value belongs to, compared by identity
+    * @param value the value to associate with the key
+    * @see #getAttribute(Object)
+    */
+   public void setAttribute(Object key, Object value) {
+      Trail root = getRoot();
+      if (root.attributes == null) {
+         root.attributes = new IdentityHashMap<>();
+      }
+      root.attributes.put(key, value);
+   }
+
+   private Trail getRoot() {
+      Trail root = this;
+      while (root.parent != null) {
+         root = root.parent;
+      }
+      return root;
+   }
+
+   private int indexOf(int markId) {
+      for (int i = numMarks - 1; i > -1; i--) {
+         if (marks[i * 2] == markId) {
+            return i;
+         }
+      }
+      return -1;
+   }
+
+   private void clear() {
+      for (int i = 0; i < numBindings; i++) {
+         bindings[i] = null;
+      }
+      numBindings = 0;
+   }
+
+   // only used by tests
+   int getNumberOfBindings() {
+      return numBindings;
+   }
+
+   // only used by tests
+   int getNumberOfMarks() {
+      return numMarks;
+   }
+
+   /** An action recorded by {@link #recordUndo(Runnable)}. */
+   private static final class UndoAction {
+      final Runnable action;
+
+      UndoAction(Runnable action) {
+         this.action = action;
+      }
+   }
+
+   /**
+    * The current trail of a thread. Only accessed by the thread it belongs to. Mutable, so changing the current trail
+    * does not require {@code ThreadLocal.set}.
+    */
+   private static final class Holder {
+      Trail trail;
+   }
+}
@@ -86,7 +86,7 @@ public final class Variable implements Term {
          updatedAttributes.put(attributeKey, attributeValue);
       }
 
-      value = new Variable(id, updatedAttributes);
+      bind(new Variable(id, updatedAttributes));
    }
 
    public void removeAttribute(VariableAttribute attributeKey) {
@@ -95,11 +95,11 @@ public final class Variable implements Term {
       } else if (attributes == null || !attributes.containsKey(attributeKey)) {
          // do nothing
       } else if (attributes.size() == 1) {
-         value = new Variable(id);
+         bind(new Variable(id));
       } else {
          Map<VariableAttribute, Term> updatedAttributes = new HashMap<>(attributes);
          updatedAttributes.remove(attributeKey);
-         value = new Variable(id, updatedAttributes);
+         bind(new Variable(id, updatedAttributes));
       }
    }
 
@@ -164,23 +164,29 @@ public final class Variable implements Term {
       } else if (t.getType().isVariable()) {
          Variable otherVariable = (Variable) t.getTerm();
          if (attributes == null && otherVariable.attributes == null) {
-            value = t;
+            bind(t);
             return true;
          } else if (attributes == null) {
-            value = otherVariable;
+            bind(otherVariable);
             return otherVariable.postUnify();
          } else if (otherVariable.attributes == null) {
-            otherVariable.value = this;
+            otherVariable.bind(this);
             return this.postUnify();
          } else {
             return unifyVariablesWithAttributes(this, otherVariable);
          }
       } else {
-         value = t;
+         bind(t);
          return postUnify();
       }
    }
 
+   /** Instantiates this variable and, if bindings are being recorded, adds it to the trail. */
+   private void bind(Term t) {
+      value = t;
+      Trail.record(this);
+   }
+
    /** Unify two variables that both have attributes. */
    private static boolean unifyVariablesWithAttributes(Variable v1, Variable v2) {
       Map<VariableAttribute, Term> copy = new HashMap<>();
@@ -204,8 +210,8 @@ public final class Variable implements Term {
 
       // create new variable using attributes in map and unify with v1 and v2.
       Variable c = new Variable(v2.getId(), copy);
-      v1.value = c;
-      v2.value = c;
+      v1.bind(c);
+      v2.bind(c);
 
       return c.postUnify();
    }
@@ -264,6 +270,16 @@ public final class Variable implements Term {
       }
    }
 
+   /**
+    * Returns a new uninstantiated variable with the same ID and attributes as this variable.
+    * <p>
+    * Equivalent to the result of calling {@link #copy(Map)} on an uninstantiated variable that is not already
+    * contained in the map.
+    */
+   public Variable copyUninstantiated() {
+      return new Variable(id, attributes);
+   }
+
    @Override
    public Term getBound() {
       return value == null ? this : getValue();
@@ -129,12 +129,15 @@
 ?- pj_add_predicate(retract/1, 'org.projog.core.predicate.builtin.kb.Inspect/retract').
 ?- pj_add_predicate(retractall/1, 'org.projog.core.predicate.builtin.kb.RetractAll').
 ?- pj_add_predicate(consult/1, 'org.projog.core.predicate.builtin.kb.Consult').
+?- pj_add_predicate(consult/2, 'org.projog.core.predicate.builtin.kb.Consult').
 ?- pj_add_predicate('.'/2, 'org.projog.core.predicate.builtin.kb.ConsultList').
 ?- pj_add_predicate(ensure_loaded/1, 'org.projog.core.predicate.builtin.kb.EnsureLoaded').
 ?- pj_add_predicate(flag/3, 'org.projog.core.predicate.builtin.kb.Flag').
 ?- pj_add_predicate(current_predicate/1, 'org.projog.core.predicate.builtin.kb.CurrentPredicate').
 ?- pj_add_predicate('/'('dynamic', 1), 'org.projog.core.predicate.builtin.kb.Dynamic').
 ?- pj_add_predicate(table/1, 'org.projog.core.predicate.builtin.kb.Tabling').
+?- pj_add_predicate(abolish_all_tables/0, 'org.projog.core.predicate.builtin.kb.AbolishTables').
+?- pj_add_predicate(abolish_table_pred/1, 'org.projog.core.predicate.builtin.kb.AbolishTables').
 
 % db (recorded database)
 ?- pj_add_predicate(erase/1, 'org.projog.core.predicate.builtin.db.Erase').
@@ -205,8 +208,14 @@
 ?- pj_add_predicate(ins/2, 'org.projog.core.predicate.builtin.clp.In').
 ?- pj_add_predicate(label/1, 'org.projog.core.predicate.builtin.clp.Resolve').
 ?- pj_add_predicate(labeling/2, 'org.projog.core.predicate.builtin.clp.Resolve').
-?- pj_add_predicate(all_different/1, 'org.projog.core.predicate.builtin.clp.Distinct').
-?- pj_add_predicate(all_distinct/1, 'org.projog.core.predicate.builtin.clp.Distinct').
+?- pj_add_predicate(all_different/1, 'org.projog.core.predicate.builtin.clp.Distinct/allDifferent').
+?- pj_add_predicate(all_distinct/1, 'org.projog.core.predicate.builtin.clp.Distinct/allDistinct').
+?- pj_add_predicate(sum/3, 'org.projog.core.predicate.builtin.clp.ScalarProduct').
+?- pj_add_predicate(scalar_product/4, 'org.projog.core.predicate.builtin.clp.ScalarProduct').
+?- pj_add_predicate(element/3, 'org.projog.core.predicate.builtin.clp.Element').
+?- pj_add_predicate(global_cardinality/2, 'org.projog.core.predicate.builtin.clp.GlobalCardinality').
+?- pj_add_predicate(cumulative/1, 'org.projog.core.predicate.builtin.clp.Cumulative').
+?- pj_add_predicate(cumulative/2, 'org.projog.core.predicate.builtin.clp.Cumulative').
 ?- pj_add_predicate('#<'/2, 'org.projog.core.predicate.builtin.clp.NumericConstraintPredicate/lessThan').
 ?- pj_add_predicate('#>'/2, 'org.projog.core.predicate.builtin.clp.NumericConstraintPredicate/greaterThan').
 ?- pj_add_predicate('#=<'/2, 'org.projog.core.predicate.builtin.clp.NumericConstraintPredicate/lessThanOrEqualTo').
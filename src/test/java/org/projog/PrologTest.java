@@ -20,15 +20,21 @@ import static org.junit.Assert.assertEquals;
 import java.io.File;
 import java.io.FileFilter;
 import java.io.FileNotFoundException;
+import java.io.IOException;
 import java.io.PrintWriter;
+import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
 
 import org.junit.Test;
 import org.projog.api.Projog;
 import org.projog.core.event.ProjogListener;
 import org.projog.core.event.SpyPoints.SpyPointEvent;
 import org.projog.core.event.SpyPoints.SpyPointExitEvent;
+import org.projog.core.kb.ProjogDefaultProperties;
+import org.projog.core.predicate.udp.StacklessPredicateFactory;
 import org.projog.test.ProjogTestExtractor;
 import org.projog.test.ProjogTestExtractorConfig;
 import org.projog.test.ProjogTestRunner;
@@ -42,12 +48,50 @@ public class PrologTest {
    private static final File EXTRACTED_PREDICATES_TESTS_DIR = new File("target/prolog-predicate-tests-extracted-from-java");
    private static final String BUILTIN_OPERATORS_PACKAGE = "org.projog.core.math.builtin";
    private static final File EXTRACTED_OPERATORS_TESTS_DIR = new File("target/prolog-operator-tests-extracted-from-java");
+   private static final File STACKLESS_EXPECTED_ERRORS = new File("src/test/resources/prolog-stackless-expected-errors.txt");
 
    @Test
    public void prologTests() {
       assertSuccess(SOURCE_PROLOG_TESTS_DIR);
    }
 
+   /** Runs the same tests as {@link #prologTests()} using {@link StacklessPredicateFactory}. */
+   @Test
+   public void prologTestsStackless() throws IOException {
+      TestResults results = ProjogTestRunner.runTests(SOURCE_PROLOG_TESTS_DIR, new ProjogTestRunnerConfig() {
+         @Override
+         public Projog createProjog() {
+            return new Projog(new ProjogDefaultProperties() {
+               @Override
+               public boolean isStacklessExecution() {
+                  return true;
+               }
+            });
+         }
+
+         @Override
+         public boolean isParallel() {
+            return true;
+         }
+      });
+      System.out.println(results.getSummary());
+
+      // the only differences allowed are in how soon it is known that a query has no more answers
+      Set<String> expectedErrors = new TreeSet<>();
+      for (String line : Files.readAllLines(STACKLESS_EXPECTED_ERRORS.toPath())) {
+         if (!line.isEmpty() && !line.startsWith("#")) {
+            expectedErrors.add(line);
+         }
+      }
+      Set<String> actualErrors = new TreeSet<>();
+      for (String error : results.getErrorMessages().split("\\R")) {
+         if (!error.isEmpty()) {
+            actualErrors.add(error.replace(File.separatorChar, '/'));
+         }
+      }
+      assertEquals(String.join(System.lineSeparator(), expectedErrors), String.join(System.lineSeparator(), actualErrors));
+   }
+
    @Test
    public void extractedPredicateTests() {
       extract(EXTRACTED_PREDICATES_TESTS_DIR, BUILTIN_PREDICATES_PACKAGE);
@@ -24,6 +24,8 @@ import java.io.StringReader;
 import java.util.List;
 import java.util.Optional;
 import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import org.junit.AfterClass;
 import org.junit.Assert;
@@ -38,18 +40,22 @@ abstract class AbstractQueryTest {
    private final String query;
    private final StatementMethod<Term> findFirstAsTerm = new StatementMethod<>(QueryStatement::findFirstAsTerm, QueryPlan::findFirstAsTerm);
    private final StatementMethod<Optional<Term>> findFirstAsOptionalTerm = new StatementMethod<>(QueryStatement::findFirstAsOptionalTerm, QueryPlan::findFirstAsOptionalTerm);
-   private final StatementMethod<List<Term>> findAllAsTerm = new StatementMethod<>(QueryStatement::findAllAsTerm, QueryPlan::findAllAsTerm);
+   private final StatementMethod<List<Term>> findAllAsTerm = new StatementMethod<>(QueryStatement::findAllAsTerm, QueryPlan::findAllAsTerm,
+               QueryStatement::streamAsTerm);
    private final StatementMethod<String> findFirstAsAtomName = new StatementMethod<>(QueryStatement::findFirstAsAtomName, QueryPlan::findFirstAsAtomName);
    private final StatementMethod<Optional<String>> findFirstAsOptionalAtomName = new StatementMethod<>(QueryStatement::findFirstAsOptionalAtomName,
                QueryPlan::findFirstAsOptionalAtomName);
-   private final StatementMethod<List<String>> findAllAsAtomName = new StatementMethod<>(QueryStatement::findAllAsAtomName, QueryPlan::findAllAsAtomName);
+   private final StatementMethod<List<String>> findAllAsAtomName = new StatementMethod<>(QueryStatement::findAllAsAtomName, QueryPlan::findAllAsAtomName,
+               QueryStatement::streamAsAtomName);
    private final StatementMethod<Double> findFirstAsDouble = new StatementMethod<>(QueryStatement::findFirstAsDouble, QueryPlan::findFirstAsDouble);
    private final StatementMethod<Optional<Double>> findFirstAsOptionalDouble = new StatementMethod<>(QueryStatement::findFirstAsOptionalDouble,
                QueryPlan::findFirstAsOptionalDouble);
-   private final StatementMethod<List<Double>> findAllAsDouble = new StatementMethod<>(QueryStatement::findAllAsDouble, QueryPlan::findAllAsDouble);
+   private final StatementMethod<List<Double>> findAllAsDouble = new StatementMethod<>(QueryStatement::findAllAsDouble, QueryPlan::findAllAsDouble,
+               QueryStatement::streamAsDouble);
    private final StatementMethod<Long> findFirstAsLong = new StatementMethod<>(QueryStatement::findFirstAsLong, QueryPlan::findFirstAsLong);
    private final StatementMethod<Optional<Long>> findFirstAsOptionalLong = new StatementMethod<>(QueryStatement::findFirstAsOptionalLong, QueryPlan::findFirstAsOptionalLong);
-   private final StatementMethod<List<Long>> findAllAsLong = new StatementMethod<>(QueryStatement::findAllAsLong, QueryPlan::findAllAsLong);
+   private final StatementMethod<List<Long>> findAllAsLong = new StatementMethod<>(QueryStatement::findAllAsLong, QueryPlan::findAllAsLong,
+               QueryStatement::streamAsLong);
 
    private static int METHOD_INVOCATIONS_CTR;
 
@@ -160,11 +166,18 @@ abstract class AbstractQueryTest {
    class StatementMethod<T> {
       final Function<QueryStatement, ?> statementMethod;
       final Function<QueryPlan, ?> planMethod;
+      /** Optional. Returns the elements of the list returned by {@link #statementMethod} as a stream. */
+      final Function<QueryStatement, ? extends Stream<?>> streamMethod;
       final int id;
 
       private StatementMethod(Function<QueryStatement, T> statementMethod, Function<QueryPlan, T> planMethod) {
+         this(statementMethod, planMethod, null);
+      }
+
+      private StatementMethod(Function<QueryStatement, T> statementMethod, Function<QueryPlan, T> planMethod, Function<QueryStatement, ? extends Stream<?>> streamMethod) {
          this.statementMethod = statementMethod;
          this.planMethod = planMethod;
+         this.streamMethod = streamMethod;
          this.id = nextMethodId;
          nextMethodId *= 2;
       }
@@ -182,6 +195,10 @@ abstract class AbstractQueryTest {
          QueryPlan p = projog.createPlan(query);
          Assert.assertEquals(expected, planMethod.apply(p));
          Assert.assertEquals(expected, planMethod.apply(p));
+
+         if (streamMethod != null) {
+            Assert.assertEquals(expected, streamMethod.apply(projog.createStatement(query)).collect(Collectors.toList()));
+         }
       }
 
       void assertException(String expectedMessage) {
@@ -200,6 +217,15 @@ abstract class AbstractQueryTest {
          } catch (ProjogException e) {
             Assert.assertEquals(expectedMessage, e.getMessage());
          }
+
+         if (streamMethod != null) {
+            try {
+               streamMethod.apply(projog.createStatement(query)).collect(Collectors.toList());
+               fail();
+            } catch (ProjogException e) {
+               Assert.assertEquals(expectedMessage, e.getMessage());
+            }
+         }
       }
 
       private QueryStatement createStatement() {
@@ -0,0 +1,172 @@
+/*
+ * Copyright 2026 S. Webber
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projog.api;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.PrintStream;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Evaluates queries against the same {@code Projog} from multiple threads at the same time.
+ */
+public class ConcurrentQueryTest {
+   private static final int NUMBER_OF_THREADS = 8;
+   private static final int ITERATIONS = 250;
+   private static final String PROGRAM = "?- dynamic(fact/2).\n"
+                                         + "app([],L,L).\n"
+                                         + "app([H|T],L,[H|R]) :- app(T,L,R).\n"
+                                         + "nrev([],[]).\n"
+                                         + "nrev([H|T],R) :- nrev(T,RT), app(RT,[H],R).\n"
+                                         + "count(T, N) :- findall(X, fact(T, X), L), length(L, N).\n";
+
+   @Rule
+   public final TemporaryFolder folder = new TemporaryFolder();
+
+   @Test
+   public void testConcurrentQueries() throws Exception {
+      Projog projog = new Projog();
+      projog.consultReader(new StringReader(PROGRAM));
+      QueryPlan nrev = projog.createPlan("findall(N, between(1, 30, N), L), nrev(L, R), R = [X|_].");
+
+      List<Long> counts = runConcurrently(id -> {
+         for (int i = 0; i < ITERATIONS; i++) {
+            QueryResult r = nrev.executeQuery();
+            assertTrue(r.next());
+            assertEquals(30, r.getLong("X"));
+            projog.executeOnce("assertz(fact(" + id + ", " + i + ")).");
+            projog.executeOnce("flag(total, X, X+1).");
+            projog.executeOnce("recordz(thread" + id + ", " + i + ").");
+            if (i % 2 == 0) {
+               projog.executeOnce("retract(fact(" + id + ", " + i + ")).");
+            }
+         }
+         return projog.executeQuery("count(" + id + ", X).");
+      });
+
+      for (long count : counts) {
+         assertEquals(ITERATIONS / 2, count);
+      }
+      assertEquals(NUMBER_OF_THREADS * ITERATIONS, findFirstAsLong(projog, "flag(total, X, X)."));
+      assertEquals(NUMBER_OF_THREADS * ITERATIONS / 2, findFirstAsLong(projog, "findall(X, fact(_, X), L), length(L, X)."));
+      assertEquals(ITERATIONS, findFirstAsLong(projog, "findall(X, recorded(thread3, X), L), length(L, X)."));
+   }
+
+   @Test
+   public void testConcurrentConsult() throws Exception {
+      Projog projog = new Projog();
+
+      List<Long> counts = runConcurrently(id -> {
+         StringBuilder sb = new StringBuilder();
+         for (int i = 0; i < ITERATIONS; i++) {
+            sb.append("p").append(id).append('(').append(i).append(").\n");
+         }
+         projog.consultReader(new StringReader(sb.toString()));
+         return projog.executeQuery("findall(X, p" + id + "(X), L), length(L, X).");
+      });
+
+      for (long count : counts) {
+         assertEquals(ITERATIONS, count);
+      }
+   }
+
+   @Test
+   public void testEachThreadHasItsOwnCurrentOutput() throws Exception {
+      Projog projog = new Projog();
+      ByteArrayOutputStream userOutput = new ByteArrayOutputStream();
+      projog.setUserOutput(new PrintStream(userOutput, true));
+
+      runConcurrently(id -> {
+         String fileName = folder.newFile().getPath().replace('\\', '/');
+         projog.executeOnce("open('" + fileName + "', write, S), set_output(S), write(thread" + id + "), write('.'), close(S), set_output(user_output).");
+         projog.executeOnce("write(x).");
+         return projog.executeQuery("open('" + fileName + "', read, S), set_input(S), read(T), close(S), T == thread" + id + ", X = 1.");
+      });
+
+      assertEquals(NUMBER_OF_THREADS, userOutput.size());
+   }
+
+   @Test
+   public void testCurrentOutputIsKeptBetweenQueries() throws Exception {
+      Projog projog = new Projog();
+      ByteArrayOutputStream userOutput = new ByteArrayOutputStream();
+      projog.setUserOutput(new PrintStream(userOutput, true));
+      File file = folder.newFile();
+      String fileName = file.getPath().replace('\\', '/');
+
+      projog.executeOnce("tell('" + fileName + "').");
+      projog.executeOnce("write(x), nl.");
+      projog.executeOnce("told.");
+      projog.executeOnce("told.");
+      projog.executeOnce("write(y).");
+
+      assertEquals("x" + System.lineSeparator(), new String(Files.readAllBytes(file.toPath())));
+      assertEquals("y", userOutput.toString());
+   }
+
+   private static List<Long> runConcurrently(Task task) throws Exception {
+      ExecutorService executor = Executors.newFixedThreadPool(NUMBER_OF_THREADS);
+      try {
+         CountDownLatch start = new CountDownLatch(1);
+         List<Future<Long>> futures = new ArrayList<>();
+         for (int i = 0; i < NUMBER_OF_THREADS; i++) {
+            int id = i;
+            Callable<Long> c = () -> {
+               start.await();
+               QueryResult r = task.run(id);
+               assertTrue(r.next());
+               return r.getLong("X");
+            };
+            futures.add(executor.submit(c));
+         }
+         start.countDown();
+         List<Long> results = new ArrayList<>();
+         for (Future<Long> f : futures) {
+            results.add(f.get(60, TimeUnit.SECONDS));
+         }
+         return results;
+      } finally {
+         executor.shutdownNow();
+      }
+   }
+
+   private static long findFirstAsLong(Projog projog, String query) {
+      QueryResult r = projog.executeQuery(query);
+      assertTrue(r.next());
+      return r.getLong("X");
+   }
+
+   @FunctionalInterface
+   private interface Task {
+      QueryResult run(int id) throws Exception;
+   }
+}
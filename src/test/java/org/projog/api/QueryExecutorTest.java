@@ -0,0 +1,254 @@
+/*
+ * Copyright 2026 S. Webber
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projog.api;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+import org.projog.core.kb.ProjogDefaultProperties;
+
+public class QueryExecutorTest {
+   private static final String PROGRAM = "app([],L,L).\n"
+                                         + "app([H|T],L,[H|R]) :- app(T,L,R).\n"
+                                         + "nrev([],[]).\n"
+                                         + "nrev([H|T],R) :- nrev(T,RT), app(RT,[H],R).\n"
+                                         + "loop(N) :- N1 is N+1, loop(N1).\n";
+
+   private final Projog projog = createProjog();
+
+   private static Projog createProjog() {
+      Projog projog = new Projog();
+      projog.consultReader(new StringReader(PROGRAM));
+      return projog;
+   }
+
+   @Test
+   public void testSubmit() throws Exception {
+      QueryPlan plan = projog.createPlan("findall(N, between(1, Max, N), L), nrev(L, [X|_]).");
+      try (QueryExecutor executor = new QueryExecutor(4)) {
+         List<CompletableFuture<Long>> futures = new ArrayList<>();
+         for (int i = 1; i <= 100; i++) {
+            QueryStatement s = plan.createStatement();
+            s.setLong("Max", i);
+            futures.add(executor.submit(s, statement -> {
+               QueryResult r = statement.executeQuery();
+               assertTrue(r.next());
+               return r.getLong("X");
+            }));
+         }
+         for (int i = 1; i <= 100; i++) {
+            assertEquals(i, futures.get(i - 1).get(10, TimeUnit.SECONDS).longValue());
+         }
+      }
+   }
+
+   @Test
+   public void testMaxConcurrency() throws Exception {
+      AtomicInteger running = new AtomicInteger();
+      AtomicInteger maxRunning = new AtomicInteger();
+      try (QueryExecutor executor = new QueryExecutor(Executors.newCachedThreadPool(), 3)) {
+         List<CompletableFuture<Long>> futures = new ArrayList<>();
+         for (int i = 0; i < 30; i++) {
+            futures.add(executor.submit(projog.createStatement("X = 1."), s -> {
+               maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+               try {
+                  Thread.sleep(5);
+                  return s.findFirstAsLong();
+               } catch (InterruptedException e) {
+                  throw new RuntimeException(e);
+               } finally {
+                  running.decrementAndGet();
+               }
+            }));
+         }
+         for (CompletableFuture<Long> f : futures) {
+            assertEquals(1L, f.get(10, TimeUnit.SECONDS).longValue());
+         }
+      }
+      assertTrue(maxRunning.get() <= 3);
+   }
+
+   @Test
+   public void testTimeout() throws Exception {
+      try (QueryExecutor executor = new QueryExecutor(1)) {
+         CompletableFuture<Void> f = executor.submit(projog.createStatement("loop(0)."), s -> {
+            s.executeOnce();
+            return null;
+         }, 50, TimeUnit.MILLISECONDS);
+         try {
+            f.get(10, TimeUnit.SECONDS);
+            fail();
+         } catch (ExecutionException e) {
+            assertSame(TimeoutException.class, e.getCause().getClass());
+         }
+
+         // only one query is evaluated at a time, so this will only complete if the query that timed out was stopped
+         assertEquals(1L, executor.submit(projog.createStatement("X = 1."), QueryStatement::findFirstAsLong).get(10, TimeUnit.SECONDS).longValue());
+      }
+   }
+
+   @Test
+   public void testTimeoutStackless() throws Exception {
+      Projog stackless = new Projog(new ProjogDefaultProperties() {
+         @Override
+         public boolean isStacklessExecution() {
+            return true;
+         }
+      });
+      // evaluated without binding a variable or creating a choice point
+      stackless.consultReader(new StringReader("loop :- loop."));
+      try (QueryExecutor executor = new QueryExecutor(1)) {
+         CompletableFuture<Void> f = executor.submit(stackless.createStatement("loop."), s -> {
+            s.executeOnce();
+            return null;
+         }, 50, TimeUnit.MILLISECONDS);
+         try {
+            f.get(10, TimeUnit.SECONDS);
+            fail();
+         } catch (ExecutionException e) {
+            assertSame(TimeoutException.class, e.getCause().getClass());
+         }
+
+         // only one query is evaluated at a time, so this will only complete if the query that timed out was stopped
+         assertEquals(1L, executor.submit(stackless.createStatement("X = 1."), QueryStatement::findFirstAsLong).get(10, TimeUnit.SECONDS).longValue());
+      }
+   }
+
+   @Test
+   public void testTimeoutLabeling() throws Exception {
+      // there are no solutions, but it takes a long time to find that out
+      String search = "length(L, 13), L ins 1..12, all_different(L), ";
+      for (String labeling : new String[] {"label(L).", "labeling([parallel], L).", "labeling([parallel(unordered)], L)."}) {
+         try (QueryExecutor executor = new QueryExecutor(1)) {
+            CompletableFuture<Void> f = executor.submit(projog.createStatement(search + labeling), s -> {
+               s.executeOnce();
+               return null;
+            }, 50, TimeUnit.MILLISECONDS);
+            try {
+               f.get(10, TimeUnit.SECONDS);
+               fail();
+            } catch (ExecutionException e) {
+               assertSame(TimeoutException.class, e.getCause().getClass());
+            }
+
+            // only one query is evaluated at a time, so this will only complete if the query that timed out was stopped
+            assertEquals(1L, executor.submit(projog.createStatement("X = 1."), QueryStatement::findFirstAsLong).get(10, TimeUnit.SECONDS).longValue());
+         }
+      }
+   }
+
+   @Test
+   public void testCancel() throws Exception {
+      CountDownLatch started = new CountDownLatch(1);
+      try (QueryExecutor executor = new QueryExecutor(1)) {
+         CompletableFuture<Void> f = executor.submit(projog.createStatement("repeat, fail."), s -> {
+            started.countDown();
+            s.executeOnce();
+            return null;
+         });
+         CompletableFuture<Long> queued = executor.submit(projog.createStatement("X = 1."), QueryStatement::findFirstAsLong);
+         assertTrue(started.await(10, TimeUnit.SECONDS));
+         assertEquals(1, executor.getQueueSize());
+         assertTrue(f.cancel(true));
+         assertTrue(f.isCancelled());
+
+         // only one query is evaluated at a time, so this will only complete if the cancelled query was stopped
+         assertEquals(1L, queued.get(10, TimeUnit.SECONDS).longValue());
+      }
+   }
+
+   @Test
+   public void testCancelBeforeStarted() throws Exception {
+      CountDownLatch release = new CountDownLatch(1);
+      AtomicInteger evaluated = new AtomicInteger();
+      try (QueryExecutor executor = new QueryExecutor(1)) {
+         CompletableFuture<Boolean> blocker = executor.submit(projog.createStatement("true."), s -> {
+            try {
+               return release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+               throw new RuntimeException(e);
+            }
+         });
+         CompletableFuture<Long> f = executor.submit(projog.createStatement("X = 1."), s -> {
+            evaluated.incrementAndGet();
+            return s.findFirstAsLong();
+         });
+         assertTrue(f.cancel(true));
+         release.countDown();
+         assertTrue(blocker.get(10, TimeUnit.SECONDS));
+         assertEquals(1L, executor.submit(projog.createStatement("X = 1."), QueryStatement::findFirstAsLong).get(10, TimeUnit.SECONDS).longValue());
+      }
+      assertEquals(0, evaluated.get());
+   }
+
+   @Test
+   public void testFunctionThrowsException() throws Exception {
+      try (QueryExecutor executor = new QueryExecutor(2)) {
+         CompletableFuture<Void> f = executor.submit(projog.createStatement("fail."), s -> {
+            s.executeOnce();
+            return null;
+         });
+         try {
+            f.get(10, TimeUnit.SECONDS);
+            fail();
+         } catch (ExecutionException e) {
+            assertEquals("Failed to find a solution for: fail", e.getCause().getMessage());
+         }
+      }
+   }
+
+   @Test
+   public void testClose() throws Exception {
+      ExecutorService threads = Executors.newSingleThreadExecutor();
+      try {
+         QueryExecutor executor = new QueryExecutor(threads, 1);
+         CompletableFuture<Long> f = executor.submit(projog.createStatement("X = 1."), QueryStatement::findFirstAsLong);
+         executor.close();
+         assertEquals(1L, f.get(10, TimeUnit.SECONDS).longValue());
+         try {
+            executor.submit(projog.createStatement("X = 1."), QueryStatement::findFirstAsLong);
+            fail();
+         } catch (RejectedExecutionException e) {
+            assertEquals("QueryExecutor has been closed", e.getMessage());
+         }
+         // an executor that was provided, rather than created, by the QueryExecutor is not shut down by it
+         assertEquals("ok", threads.submit(() -> "ok").get(10, TimeUnit.SECONDS));
+      } finally {
+         threads.shutdown();
+      }
+   }
+
+   @Test(expected = IllegalArgumentException.class)
+   public void testInvalidMaxConcurrency() {
+      new QueryExecutor(0);
+   }
+}
@@ -33,6 +33,7 @@ import org.projog.core.predicate.PredicateFactory;
 import org.projog.core.predicate.PredicateKey;
 import org.projog.core.predicate.udp.PredicateUtils;
 import org.projog.core.term.Atom;
+import org.projog.core.term.AtomTable;
 
 public class QueryPlanTest {
    /**
@@ -163,4 +164,20 @@ public class QueryPlanTest {
          assertEquals("More input found after . in X is 1. Y is 2.", e.getCause().getMessage());
       }
    }
+
+   @Test
+   public void testAtomTableNotAltered() {
+      Projog projog = new Projog();
+      projog.consultReader(new StringReader("test(abc)."));
+      AtomTable atomTable = projog.getKnowledgeBase().getAtomTable();
+      int size = atomTable.size();
+
+      QueryPlan plan = projog.createPlan("test(abc), X = unknown_to_knowledge_base.");
+      projog.createStatement("Y = also_unknown_to_knowledge_base.");
+      assertEquals(size, atomTable.size());
+
+      QueryResult r = plan.executeQuery();
+      assertTrue(r.next());
+      assertEquals("unknown_to_knowledge_base", r.getAtomName("X"));
+   }
 }
@@ -22,8 +22,11 @@ import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 import java.io.StringReader;
+import java.util.Arrays;
 import java.util.HashSet;
 import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import org.junit.Test;
 import org.projog.core.ProjogException;
@@ -84,6 +87,27 @@ public class QueryResultTest {
       assertFalse(r.next());
    }
 
+   @Test
+   public void testInterleavedQueries() {
+      Projog p = new Projog();
+      p.consultReader(new StringReader("test(a, 1).test(b, 2).test(c, 3).pair(X, Y) :- test(X, _), test(_, Y)."));
+      QueryResult r1 = p.executeQuery("pair(X, Y).");
+      QueryResult r2 = p.executeQuery("test(X, Y).");
+      String[] atoms = {"a", "b", "c"};
+      for (int i = 0; i < 3; i++) {
+         assertTrue(r2.next());
+         assertEquals(atoms[i], r2.getAtomName("X"));
+         assertEquals(i + 1, r2.getLong("Y"));
+         for (int j = 0; j < 3; j++) {
+            assertTrue(r1.next());
+            assertEquals(atoms[i], r1.getAtomName("X"));
+            assertEquals(j + 1, r1.getLong("Y"));
+         }
+      }
+      assertFalse(r1.next());
+      assertFalse(r2.next());
+   }
+
    @Test
    public void testCutOnFirstAttempt() {
       QueryResult r = new Projog().executeQuery("repeat, !, fail.");
@@ -215,4 +239,62 @@ public class QueryResultTest {
       expected.add("Z");
       assertEquals(expected, r.getVariableIds());
    }
+
+   @Test
+   public void testCancel() {
+      QueryResult r = new Projog().executeQuery("repeat.");
+      assertTrue(r.next());
+      r.cancel();
+      try {
+         r.next();
+         fail();
+      } catch (ProjogException e) {
+         assertEquals("Query has been cancelled.", e.getMessage());
+      }
+   }
+
+   @Test
+   public void testStream() {
+      QueryResult r = new Projog().executeQuery("between(1, 5, X).");
+      assertEquals(Arrays.asList(1L, 2L, 3L, 4L, 5L), r.stream(x -> x.getLong("X")).collect(Collectors.toList()));
+      assertTrue(r.isExhausted());
+   }
+
+   @Test
+   public void testStreamStartsAfterCurrentSolution() {
+      QueryResult r = new Projog().executeQuery("between(1, 5, X).");
+      assertTrue(r.next());
+      assertTrue(r.next());
+      assertEquals(Arrays.asList(3L, 4L, 5L), r.stream(x -> x.getLong("X")).collect(Collectors.toList()));
+   }
+
+   @Test
+   public void testStreamOfExhaustedQuery() {
+      QueryResult r = new Projog().executeQuery("true.");
+      assertTrue(r.next());
+      assertEquals(0, r.stream(x -> x).count());
+   }
+
+   @Test
+   public void testStreamIsLazy() {
+      Projog p = new Projog();
+      // an infinite number of solutions, each of which increments a counter
+      QueryResult r = p.executeQuery("repeat, flag(n, X, X+1).");
+      assertEquals(Arrays.asList(0L, 1L, 2L), r.stream(x -> x.getLong("X")).limit(3).collect(Collectors.toList()));
+      assertEquals(3L, p.createPlan("flag(n, X, X).").findFirstAsLong());
+   }
+
+   @Test
+   public void testCloseStream() {
+      QueryResult r = new Projog().executeQuery("repeat.");
+      try (Stream<QueryResult> s = r.stream(x -> x)) {
+         assertTrue(s.findFirst().isPresent());
+      }
+      try {
+         r.next();
+         fail();
+      } catch (ProjogException e) {
+         assertEquals("Query has been cancelled.", e.getMessage());
+      }
+   }
 }
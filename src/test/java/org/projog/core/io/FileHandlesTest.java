@@ -30,14 +30,24 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.PrintStream;
 import java.nio.file.Files;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import org.projog.core.ProjogException;
 import org.projog.core.io.FileHandles;
+import org.projog.core.parser.Operands;
+import org.projog.core.parser.SentenceParser;
 import org.projog.core.term.Atom;
 import org.projog.core.term.Term;
+import org.projog.core.term.Trail;
 
 public class FileHandlesTest {
+   @Rule
+   public final TemporaryFolder folder = new TemporaryFolder();
+
    @Test
    public void testUserInputHandle() {
       assertEquals("user_input", FileHandles.USER_INPUT_HANDLE.getName());
@@ -150,6 +160,79 @@ public class FileHandlesTest {
       assertSame(ps, fh.getCurrentOutputStream());
    }
 
+   @Test
+   public void testCurrentStreamsAreKeptBetweenQueries() throws Exception {
+      FileHandles fh = new FileHandles();
+      Term outputHandle = fh.openOutput(createFileName("testCurrentStreamsAreKeptBetweenQueries"));
+
+      Trail previous = Trail.setCurrent(new Trail());
+      try {
+         fh.setOutput(outputHandle);
+
+         // e.g. "tell/1" and "told/0" evaluated as separate queries
+         Trail.setCurrent(new Trail());
+         assertSame(outputHandle, fh.getCurrentOutputHandle());
+         fh.setOutput(FileHandles.USER_OUTPUT_HANDLE);
+
+         Trail.setCurrent(null);
+         assertSame(FileHandles.USER_OUTPUT_HANDLE, fh.getCurrentOutputHandle());
+      } finally {
+         Trail.setCurrent(previous);
+      }
+
+      fh.close(outputHandle);
+   }
+
+   @Test
+   public void testConcurrentQueriesHaveTheirOwnCurrentStreams() throws Exception {
+      FileHandles fh = new FileHandles();
+      Term outputHandle = fh.openOutput(createFileName("testConcurrentQueriesOutput"));
+      String inputFileName = createFileName("testConcurrentQueriesInput");
+      Files.createFile(new File(inputFileName).toPath());
+      Term inputHandle = fh.openInput(inputFileName);
+      PrintStream ps = new PrintStream(new ByteArrayOutputStream());
+
+      Trail first = new Trail();
+      Trail previous = Trail.setCurrent(first);
+      ExecutorService executor = Executors.newSingleThreadExecutor();
+      try {
+         fh.setOutput(outputHandle);
+
+         // a query evaluated while the first query is still being evaluated starts with the streams that were current
+         // before the first query started, and can change its current streams without affecting the first query
+         executor.submit(() -> {
+            Trail.setCurrent(new Trail());
+            try {
+               assertSame(FileHandles.USER_OUTPUT_HANDLE, fh.getCurrentOutputHandle());
+               fh.setUserOutput(ps);
+               assertSame(ps, fh.getCurrentOutputStream());
+               fh.setInput(inputHandle);
+               assertSame(inputHandle, fh.getCurrentInputHandle());
+            } finally {
+               Trail.setCurrent(null);
+            }
+            return null;
+         }).get();
+
+         assertSame(outputHandle, fh.getCurrentOutputHandle());
+         assertSame(FileHandles.USER_INPUT_HANDLE, fh.getCurrentInputHandle());
+
+         // an evaluation that is part of the first query shares its current streams
+         Trail.setCurrent(new Trail(first));
+         assertSame(outputHandle, fh.getCurrentOutputHandle());
+
+         // reassigning a standard stream affects every query that has it as its current stream
+         fh.setOutput(FileHandles.USER_OUTPUT_HANDLE);
+         assertSame(ps, fh.getCurrentOutputStream());
+      } finally {
+         Trail.setCurrent(previous);
+         executor.shutdown();
+      }
+
+      fh.close(outputHandle);
+      fh.close(inputHandle);
+   }
+
    @Test
    public void testSetInputFailure() {
       FileHandles fh = new FileHandles();
@@ -184,6 +267,51 @@ public class FileHandlesTest {
       assertEquals(contentsToWrite, contentsRead);
    }
 
+   @Test
+   public void testCurrentInputParser() throws IOException {
+      FileHandles fh = new FileHandles();
+      Operands operands = new Operands();
+      fh.setUserInput(new ByteArrayInputStream("a. b.".getBytes()));
+
+      // the same parser is returned for as long as the stream is open
+      SentenceParser userInputParser = fh.getCurrentInputParser(operands);
+      assertSame(userInputParser, fh.getCurrentInputParser(operands));
+      assertEquals(atom("a"), userInputParser.parseSentence());
+
+      File f = new File(createFileName("testCurrentInputParser"));
+      Files.write(f.toPath(), "x".getBytes());
+      Atom handle = fh.openInput(f.getPath());
+      fh.setInput(handle);
+      SentenceParser fileParser = fh.getCurrentInputParser(operands);
+      assertNotSame(userInputParser, fileParser);
+      assertEquals('x', fileParser.getNextCharacter());
+
+      // characters buffered by the parser of the user input stream are not lost when switching between streams
+      fh.setInput(FileHandles.USER_INPUT_HANDLE);
+      assertSame(userInputParser, fh.getCurrentInputParser(operands));
+      assertEquals(atom("b"), userInputParser.parseSentence());
+
+      // a new parser is used if the stream is closed and reopened
+      fh.close(handle);
+      fh.setInput(fh.openInput(f.getPath()));
+      assertNotSame(fileParser, fh.getCurrentInputParser(operands));
+      assertEquals('x', fh.getCurrentInputParser(operands).getNextCharacter());
+      assertEquals(-1, fh.getCurrentInputParser(operands).getNextCharacter());
+   }
+
+   @Test
+   public void testForkDoesNotShareUserInputParser() {
+      Operands operands = new Operands();
+      FileHandles fh = new FileHandles();
+      fh.setUserInput(new ByteArrayInputStream("a. b.".getBytes()));
+      SentenceParser userInputParser = fh.getCurrentInputParser(operands);
+
+      FileHandles fork = fh.fork();
+      assertSame(fh.getCurrentInputStream(), fork.getCurrentInputStream());
+      assertNotSame(userInputParser, fork.getCurrentInputParser(operands));
+      assertSame(userInputParser, fh.getCurrentInputParser(operands));
+   }
+
    @Test
    public void testIsHandle() throws IOException {
       FileHandles fh = new FileHandles();
@@ -195,7 +323,7 @@ public class FileHandlesTest {
    }
 
    private String createFileName(String name) {
-      return "target/" + getClass().getName() + "_" + name + "_" + System.currentTimeMillis() + ".tmp";
+      return new File(folder.getRoot(), name + ".tmp").getPath();
    }
 
    private void write(FileHandles fh, String filename, String contents) throws IOException {
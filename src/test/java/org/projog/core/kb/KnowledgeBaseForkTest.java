@@ -0,0 +1,275 @@
+/*
+ * Copyright 2026 S. Webber
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projog.core.kb;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.StringReader;
+
+import org.junit.Test;
+import org.projog.api.Projog;
+import org.projog.api.QueryResult;
+import org.projog.core.ProjogException;
+import org.projog.core.predicate.PredicateKey;
+
+public class KnowledgeBaseForkTest {
+   private static final String PROGRAM = "?- dynamic(counter/1).\n"
+                                         + "counter(0).\n"
+                                         + "colour(red).\n"
+                                         + "colour(green).\n"
+                                         + "increment(X) :- retract(counter(Y)), X is Y+1, assertz(counter(X)).\n"
+                                         + "?- dynamic(total/1).\n"
+                                         + "total(X) :- findall(Y, counter(Y), L), sum_list(L, X).\n"
+                                         + "?- table(fib/2).\n"
+                                         + "fib(0, 0).\n"
+                                         + "fib(1, 1).\n"
+                                         + "fib(N, F) :- N > 1, N1 is N-1, N2 is N-2, fib(N1, F1), fib(N2, F2), F is F1+F2.\n"
+                                         + "?- flag(visits, _, 7).\n"
+                                         + "?- recordz(k, a).\n";
+
+   @Test
+   public void testAssertIsIsolated() {
+      Projog original = createProjog();
+      Projog fork = original.fork();
+
+      fork.executeOnce("assertz(counter(5)).");
+      fork.executeOnce("assertz(new_fact(x)).");
+
+      assertEquals("[0,5]", findAll(fork, "counter(X)"));
+      assertEquals("[x]", findAll(fork, "new_fact(X)"));
+      assertEquals("[0]", findAll(original, "counter(X)"));
+      assertEquals("[]", findAll(original, "new_fact(X)"));
+   }
+
+   @Test
+   public void testChangesToOriginalAreIsolated() {
+      Projog original = createProjog();
+      Projog fork = original.fork();
+
+      original.executeOnce("assertz(counter(2)).");
+      original.executeOnce("flag(visits, _, 5).");
+      original.executeOnce("recordz(k, c).");
+      original.consultReader(new StringReader("shape(circle)."));
+
+      assertEquals("[0,2]", findAll(original, "counter(X)"));
+      assertEquals("[0]", findAll(fork, "counter(X)"));
+      assertEquals(5, getLong(original, "flag(visits, X, X)."));
+      assertEquals(7, getLong(fork, "flag(visits, X, X)."));
+      assertEquals("[a,c]", findAll(original, "recorded(k, X)"));
+      assertEquals("[a]", findAll(fork, "recorded(k, X)"));
+      assertEquals("[circle]", findAll(original, "shape(X)"));
+      assertEquals("[]", findAll(fork, "shape(X)"));
+   }
+
+   @Test
+   public void testChangesToOriginalAreIsolatedFromForkOfFork() {
+      Projog original = createProjog();
+      Projog fork = original.fork();
+      Projog forkOfFork = fork.fork();
+
+      original.executeOnce("retract(counter(0)), assertz(counter(9)), flag(visits, _, 5).");
+      fork.executeOnce("assertz(counter(3)).");
+
+      assertEquals("[9]", findAll(original, "counter(X)"));
+      assertEquals("[0,3]", findAll(fork, "counter(X)"));
+      assertEquals("[0]", findAll(forkOfFork, "counter(X)"));
+      assertEquals(1, getLong(forkOfFork, "increment(X)."));
+      assertEquals(7, getLong(forkOfFork, "flag(visits, X, X)."));
+   }
+
+   @Test
+   public void testForkCanBeUsedAfterOriginalIsAltered() {
+      Projog original = createProjog();
+      Projog fork = original.fork();
+      assertEquals(1, getLong(fork, "increment(X)."));
+
+      original.executeOnce("assertz(counter(2)).");
+
+      assertEquals(2, getLong(fork, "increment(X)."));
+      assertEquals(55, getLong(fork, "fib(10, X)."));
+      assertEquals("[red,green]", findAll(fork, "colour(X)"));
+      assertEquals("[2]", findAll(fork, "counter(X)"));
+      assertEquals("[0,2]", findAll(original, "counter(X)"));
+   }
+
+   @Test
+   public void testOperatorsAreIsolated() {
+      Projog original = createProjog();
+      Projog fork = original.fork();
+      Projog sibling = original.fork();
+
+      fork.executeOnce("op(700, xfx, implies).");
+      original.executeOnce("op(200, xfy, unless).");
+
+      assertTrue(fork.getKnowledgeBase().getOperands().infix("implies"));
+      assertFalse(fork.getKnowledgeBase().getOperands().infix("unless"));
+      assertFalse(original.getKnowledgeBase().getOperands().infix("implies"));
+      assertTrue(original.getKnowledgeBase().getOperands().infix("unless"));
+      assertFalse(sibling.getKnowledgeBase().getOperands().infix("implies"));
+      assertFalse(sibling.getKnowledgeBase().getOperands().infix("unless"));
+      QueryResult r = fork.executeQuery("X = (a implies b).");
+      assertTrue(r.next());
+      assertEquals("a implies b", fork.formatTerm(r.getTerm("X")));
+   }
+
+   @Test
+   public void testRulesUseDynamicPredicatesOfFork() {
+      Projog original = createProjog();
+      Projog fork1 = original.fork();
+      Projog fork2 = original.fork();
+
+      assertEquals(1, getLong(fork1, "increment(X)."));
+      assertEquals(2, getLong(fork1, "increment(X)."));
+      assertEquals(1, getLong(fork2, "increment(X)."));
+
+      assertEquals("[2]", findAll(fork1, "counter(X)"));
+      assertEquals("[1]", findAll(fork2, "counter(X)"));
+      assertEquals("[0]", findAll(original, "counter(X)"));
+   }
+
+   @Test
+   public void testDynamicRuleUsesPredicatesOfFork() {
+      Projog original = createProjog();
+      Projog fork = original.fork();
+
+      fork.executeOnce("assertz(counter(4)).");
+
+      assertEquals(4, getLong(fork, "total(X)."));
+      assertEquals(0, getLong(original, "total(X)."));
+   }
+
+   @Test
+   public void testTabledPredicate() {
+      Projog original = createProjog();
+      assertEquals(55, getLong(original, "fib(10, X)."));
+
+      Projog fork = original.fork();
+      assertEquals(832040, getLong(fork, "fib(30, X)."));
+   }
+
+   @Test
+   public void testFlagsAreCopied() {
+      Projog original = createProjog();
+      Projog fork = original.fork();
+
+      assertEquals(7, getLong(fork, "flag(visits, X, X+1)."));
+      assertEquals(8, getLong(fork, "flag(visits, X, X)."));
+      assertEquals(7, getLong(original, "flag(visits, X, X)."));
+   }
+
+   @Test
+   public void testRecordedDatabaseIsCopied() {
+      Projog original = createProjog();
+      Projog fork = original.fork();
+
+      fork.executeOnce("recordz(k, b).");
+      fork.executeOnce("recorded(k, a, R), erase(R).");
+
+      assertEquals("[b]", findAll(fork, "recorded(k, X)"));
+      assertEquals("[a]", findAll(original, "recorded(k, X)"));
+   }
+
+   @Test
+   public void testStaticFactsAreShared() {
+      Projog original = createProjog();
+      Projog fork = original.fork();
+
+      PredicateKey colour = new PredicateKey("colour", 1);
+      PredicateKey increment = new PredicateKey("increment", 1);
+      PredicateKey counter = new PredicateKey("counter", 1);
+      assertSame(getPredicateFactory(original, colour), getPredicateFactory(fork, colour));
+      assertNotSame(getPredicateFactory(original, increment), getPredicateFactory(fork, increment));
+      assertNotSame(getPredicateFactory(original, counter), getPredicateFactory(fork, counter));
+      assertEquals("[red,green]", findAll(fork, "colour(X)"));
+   }
+
+   @Test
+   public void testCannotAddToStaticPredicate() {
+      Projog fork = createProjog().fork();
+      try {
+         fork.executeOnce("assertz(colour(blue)).");
+         fail();
+      } catch (ProjogException e) {
+         assertEquals("Cannot add clause to already defined user defined predicate as it is not dynamic: colour/1 clause: colour(blue)", e.getMessage());
+      }
+   }
+
+   @Test
+   public void testConsultIsIsolated() {
+      Projog original = createProjog();
+      Projog fork = original.fork();
+
+      fork.consultReader(new StringReader("shape(circle). shape(square)."));
+
+      assertEquals("[circle,square]", findAll(fork, "shape(X)"));
+      assertEquals("[]", findAll(original, "shape(X)"));
+      assertTrue(fork.getKnowledgeBase().getPredicates().getUserDefinedPredicates().containsKey(new PredicateKey("shape", 1)));
+      assertFalse(original.getKnowledgeBase().getPredicates().getUserDefinedPredicates().containsKey(new PredicateKey("shape", 1)));
+   }
+
+   @Test
+   public void testForkOfFork() {
+      Projog original = createProjog();
+      Projog fork = original.fork();
+      fork.executeOnce("increment(_).");
+      Projog forkOfFork = fork.fork();
+
+      assertEquals(2, getLong(forkOfFork, "increment(X)."));
+      assertEquals(8, getLong(forkOfFork, "flag(visits, _, 8), flag(visits, X, X)."));
+
+      assertEquals("[2]", findAll(forkOfFork, "counter(X)"));
+      assertEquals("[1]", findAll(fork, "counter(X)"));
+      assertEquals("[0]", findAll(original, "counter(X)"));
+      assertEquals(7, getLong(fork, "flag(visits, X, X)."));
+   }
+
+   @Test
+   public void testGetUserDefinedPredicatesIncludesParent() {
+      Projog original = createProjog();
+      Projog fork = original.fork();
+
+      assertEquals(original.getKnowledgeBase().getPredicates().getUserDefinedPredicates().keySet(),
+                  fork.getKnowledgeBase().getPredicates().getUserDefinedPredicates().keySet());
+      assertEquals(original.getKnowledgeBase().getPredicates().getAllDefinedPredicateKeys(), fork.getKnowledgeBase().getPredicates().getAllDefinedPredicateKeys());
+   }
+
+   private static Projog createProjog() {
+      Projog projog = new Projog();
+      projog.consultReader(new StringReader(PROGRAM));
+      return projog;
+   }
+
+   private static Object getPredicateFactory(Projog projog, PredicateKey key) {
+      return projog.getKnowledgeBase().getPredicates().getPredicateFactory(key);
+   }
+
+   private static long getLong(Projog projog, String query) {
+      QueryResult r = projog.executeQuery(query);
+      assertTrue(r.next());
+      return r.getLong("X");
+   }
+
+   private static String findAll(Projog projog, String goal) {
+      QueryResult r = projog.executeQuery("findall(X, " + goal + ", L).");
+      assertTrue(r.next());
+      return projog.formatTerm(r.getTerm("L"));
+   }
+}
@@ -0,0 +1,187 @@
+/*
+ * Copyright 2026 S. Webber
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projog.core.kb;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.projog.TestUtils.writeToTempFile;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.io.StringReader;
+import java.nio.file.Files;
+
+import org.junit.Test;
+import org.projog.api.Projog;
+import org.projog.api.QueryResult;
+import org.projog.core.ProjogException;
+import org.projog.core.predicate.PredicateKey;
+import org.projog.core.predicate.udp.DynamicUserDefinedPredicateFactory;
+import org.projog.core.predicate.udp.StaticUserDefinedPredicateFactory;
+import org.projog.core.predicate.udp.TabledUserDefinedPredicateFactory;
+
+public class KnowledgeBaseSnapshotTest {
+   private static final String PROGRAM = "?- op(700, xfx, '===>').\n"
+                                         + "?- dynamic(counter/1).\n"
+                                         + "counter(0).\n"
+                                         + "?- table(fib/2).\n"
+                                         + "fib(0, 0).\n"
+                                         + "fib(1, 1).\n"
+                                         + "fib(N, F) :- N > 1, N1 is N-1, N2 is N-2, fib(N1, F1), fib(N2, F2), F is F1+F2.\n"
+                                         + "rule(X ===> Y) :- member(X-Y, [a-1, b-[x,y|_], c-'quoted atom', d-2.5, e-f(Z,Z,_)]).\n"
+                                         + "?- flag(visits, _, 7).\n";
+
+   @Test
+   public void testRoundTrip() {
+      Projog original = new Projog();
+      original.consultReader(new StringReader(PROGRAM));
+      original.executeOnce("findall(X, between(1, 100000, X), L), assertz(long_list(L)).");
+
+      Projog copy = loadSnapshot(original);
+
+      assertSame(StaticUserDefinedPredicateFactory.class, getUserDefinedPredicateClass(copy, "rule", 1));
+      assertSame(DynamicUserDefinedPredicateFactory.class, getUserDefinedPredicateClass(copy, "counter", 1));
+      assertSame(TabledUserDefinedPredicateFactory.class, getUserDefinedPredicateClass(copy, "fib", 2));
+      assertSame(DynamicUserDefinedPredicateFactory.class, getUserDefinedPredicateClass(copy, "long_list", 1));
+
+      assertEquals(findAll(original, "rule(X)"), findAll(copy, "rule(X)"));
+      assertEquals("[a ===> 1,b ===> [x,y|_],c ===> quoted atom,d ===> 2.5,e ===> f(Z, Z, _)]", findAll(copy, "rule(X)"));
+      assertEquals(832040, getLong(copy, "fib(30, X)."));
+      assertEquals(7, getLong(copy, "flag(visits, X, X)."));
+      assertEquals(100000, getLong(copy, "long_list(L), length(L, X)."));
+
+      // dynamic predicates can still be updated
+      copy.executeOnce("retract(counter(0)), assertz(counter(1)).");
+      assertEquals(1, getLong(copy, "counter(X)."));
+      assertEquals(0, getLong(original, "counter(X)."));
+
+      // the operator is defined, so can be used when parsing new queries
+      QueryResult r = copy.executeQuery("X = (a ===> b), X =.. Y.");
+      assertTrue(r.next());
+      assertEquals("[===>,a,b]", copy.formatTerm(r.getTerm("Y")));
+   }
+
+   @Test
+   public void testSameContentsProduceSameFile() throws Exception {
+      Projog projog = new Projog();
+      projog.consultReader(new StringReader(PROGRAM));
+      File f1 = createTempFile();
+      File f2 = createTempFile();
+
+      projog.saveSnapshot(f1);
+      projog.saveSnapshot(f2);
+
+      assertArrayEquals(Files.readAllBytes(f1.toPath()), Files.readAllBytes(f2.toPath()));
+   }
+
+   @Test
+   public void testNotSnapshot() {
+      File f = writeToTempFile(getClass(), "test(a).");
+      try {
+         Projog.loadSnapshot(f);
+         fail();
+      } catch (ProjogException e) {
+         assertEquals("Not a knowledge base snapshot: " + f, e.getMessage());
+      }
+   }
+
+   @Test
+   public void testDifferentFormatVersion() throws Exception {
+      File f = createSnapshot();
+      try (RandomAccessFile raf = new RandomAccessFile(f, "rw")) {
+         raf.seek(4);
+         raf.writeInt(KnowledgeBaseSnapshot.FORMAT_VERSION + 1);
+      }
+      try {
+         Projog.loadSnapshot(f);
+         fail();
+      } catch (ProjogException e) {
+         assertEquals("Cannot read knowledge base snapshot: "
+                      + f
+                      + " as it has format version: "
+                      + (KnowledgeBaseSnapshot.FORMAT_VERSION + 1)
+                      + " but expected: "
+                      + KnowledgeBaseSnapshot.FORMAT_VERSION, e.getMessage());
+      }
+   }
+
+   @Test
+   public void testChecksumMismatch() throws Exception {
+      File f = createSnapshot();
+      try (RandomAccessFile raf = new RandomAccessFile(f, "rw")) {
+         long position = raf.length() / 2;
+         raf.seek(position);
+         int b = raf.read();
+         raf.seek(position);
+         raf.write(b ^ 1);
+      }
+      try {
+         Projog.loadSnapshot(f);
+         fail();
+      } catch (ProjogException e) {
+         assertEquals("Cannot read knowledge base snapshot: " + f + " as its checksum does not match its contents", e.getMessage());
+      }
+   }
+
+   @Test
+   public void testFileNotFound() {
+      File f = new File("does_not_exist");
+      try {
+         Projog.loadSnapshot(f);
+         fail();
+      } catch (ProjogException e) {
+         assertTrue(e.getMessage(), e.getMessage().startsWith("Could not read knowledge base snapshot from file: does_not_exist due to: "));
+      }
+   }
+
+   private Projog loadSnapshot(Projog original) {
+      File f = createTempFile();
+      original.saveSnapshot(f);
+      return Projog.loadSnapshot(f);
+   }
+
+   private File createSnapshot() {
+      File f = createTempFile();
+      new Projog().saveSnapshot(f);
+      return f;
+   }
+
+   private File createTempFile() {
+      return writeToTempFile(getClass(), "");
+   }
+
+   private static Class<?> getUserDefinedPredicateClass(Projog projog, String name, int arity) {
+      return projog.getKnowledgeBase().getPredicates().getUserDefinedPredicates().get(new PredicateKey(name, arity)).getClass();
+   }
+
+   private static long getLong(Projog projog, String query) {
+      QueryResult r = projog.executeQuery(query);
+      assertTrue(r.next());
+      return r.getLong("X");
+   }
+
+   private static String findAll(Projog projog, String goal) {
+      QueryResult r = projog.executeQuery("findall(X, " + goal + ", L).");
+      assertTrue(r.next());
+      String result = projog.formatTerm(r.getTerm("L"));
+      assertFalse(r.next());
+      return result;
+   }
+}
@@ -179,6 +179,49 @@ public class CharacterParserTest {
       }
    }
 
+   @Test
+   public void testRead() {
+      CharacterParser p = createParser("ab\r\ncd\re\nf");
+      assertEquals('a', p.getNext());
+      assertEquals('b', p.read());
+      assertEquals('\r', p.read());
+      assertEquals('\n', p.read());
+      assertEquals('c', p.getNext());
+      assertEquals("cd", p.getLine());
+      assertEquals(2, p.getLineNumber());
+      assertEquals('d', p.getNext());
+      assertEquals('\n', p.getNext());
+      assertEquals('e', p.read());
+      assertEquals('\n', p.read());
+      assertEquals('f', p.read());
+      assertEquals(-1, p.read());
+      assertEquals(-1, p.getNext());
+   }
+
+   @Test
+   public void testReadNoTrailingNewLine() {
+      CharacterParser p = createParser("ab");
+      assertEquals('a', p.getNext());
+      assertEquals('b', p.read());
+      assertEquals(-1, p.read());
+      assertEquals(-1, p.getNext());
+   }
+
+   @Test
+   public void testLongLine() {
+      StringBuilder sb = new StringBuilder();
+      for (int i = 0; i < 20000; i++) {
+         sb.append((char) ('a' + i % 26));
+      }
+      String s = sb.toString();
+      CharacterParser p = createParser(s + "\r\nz");
+      assertEquals('a', p.getNext());
+      assertEquals(s, p.getLine());
+      p.skipLine();
+      assertEquals('z', p.getNext());
+      assertEquals(2, p.getLineNumber());
+   }
+
    private CharacterParser createParser(String s) {
       StringReader sr = new StringReader(s);
       BufferedReader br = new BufferedReader(sr);
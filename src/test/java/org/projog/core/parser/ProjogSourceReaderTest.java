@@ -71,6 +71,91 @@ public class ProjogSourceReaderTest {
       }
    }
 
+   @Test
+   public void testParseFileInParallel() {
+      // large enough to be split into multiple chunks
+      int numberOfFacts = 100000;
+      StringBuilder sb = new StringBuilder();
+      sb.append("?- dynamic(test_dynamic/1).\n");
+      for (int i = 0; i < numberOfFacts; i++) {
+         sb.append("test_fact(").append(i).append(", 'value ").append(i).append("').\n");
+         if (i % 1000 == 0) {
+            sb.append("test_dynamic(").append(i).append(").\n");
+         }
+      }
+      sb.append("test_rule(X, Y) :- test_fact(X, Y), X =.. _.\n");
+      KnowledgeBase kb = createKnowledgeBase();
+      File f = writeToFile(sb.toString());
+
+      ProjogSourceReader.parseFileInParallel(kb, f, 4);
+
+      assertStaticUserDefinedPredicate(kb, new PredicateKey("test_fact", 2));
+      assertStaticUserDefinedPredicate(kb, new PredicateKey("test_rule", 2));
+      assertDynamicUserDefinedPredicate(kb, new PredicateKey("test_dynamic", 1));
+      UserDefinedPredicateFactory facts = getUserDefinedPredicate(kb, new PredicateKey("test_fact", 2));
+      for (int i = 0; i < numberOfFacts; i++) {
+         assertEquals("test_fact(" + i + ", value " + i + ")", facts.getClauseModel(i).getOriginal().toString());
+      }
+      assertNull(facts.getClauseModel(numberOfFacts));
+      UserDefinedPredicateFactory dynamic = getUserDefinedPredicate(kb, new PredicateKey("test_dynamic", 1));
+      for (int i = 0; i < numberOfFacts / 1000; i++) {
+         assertEquals("test_dynamic(" + (i * 1000) + ")", dynamic.getClauseModel(i).getOriginal().toString());
+      }
+   }
+
+   @Test
+   public void testParseFileInParallelCommentsAndQuotes() {
+      // large enough to be split into multiple chunks, with lines ending in a '.' that do not end a clause
+      int numberOfRules = 60000;
+      StringBuilder sb = new StringBuilder();
+      for (int i = 0; i < numberOfRules; i++) {
+         sb.append("test_rule(").append(i).append(", X, Y) :- % first.\n");
+         sb.append("   % second.\n");
+         sb.append("   /* third.\n");
+         sb.append("   fourth. */\n");
+         sb.append("   X = 0'%, Y = '% not a comment.'.\n");
+      }
+      KnowledgeBase kb = createKnowledgeBase();
+      File f = writeToFile(sb.toString());
+
+      ProjogSourceReader.parseFileInParallel(kb, f, 3);
+
+      UserDefinedPredicateFactory rules = getUserDefinedPredicate(kb, new PredicateKey("test_rule", 3));
+      for (int i = 0; i < numberOfRules; i++) {
+         assertEquals(":-(test_rule(" + i + ", X, Y), ,(=(X, 37), =(Y, % not a comment.)))", rules.getClauseModel(i).getOriginal().toString());
+      }
+      assertNull(rules.getClauseModel(numberOfRules));
+   }
+
+   @Test
+   public void testParseFileInParallelParserException() {
+      int lineWithSyntaxError = 80000;
+      StringBuilder sb = new StringBuilder();
+      for (int i = 1; i < lineWithSyntaxError; i++) {
+         sb.append("test_fact(").append(i).append(", 'value ").append(i).append("').\n");
+      }
+      sb.append("test_fact(a b).\n");
+      sb.append("test_fact(x, y).\n");
+      File f = writeToFile(sb.toString());
+      try {
+         ProjogSourceReader.parseFileInParallel(createKnowledgeBase(), f, 3);
+         fail();
+      } catch (ProjogException e) {
+         assertEquals("Could not parse line " + lineWithSyntaxError + ": No suitable operands Line: test_fact(a b).", e.getMessage());
+         assertSame(ParserException.class, e.getCause().getClass());
+      }
+   }
+
+   @Test
+   public void testParseFileInParallelInvalidNumberOfThreads() {
+      try {
+         ProjogSourceReader.parseFileInParallel(createKnowledgeBase(), writeToFile("test."), 0);
+         fail();
+      } catch (IllegalArgumentException e) {
+         assertEquals("Number of threads must be greater than zero but was: 0", e.getMessage());
+      }
+   }
+
    private String[] getDescription(ParserException p) {
       ByteArrayOutputStream os = new ByteArrayOutputStream();
       PrintStream out = new PrintStream(os);
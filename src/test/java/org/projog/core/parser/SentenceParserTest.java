@@ -29,6 +29,7 @@ import static org.projog.TestUtils.write;
 
 import org.junit.Test;
 import org.projog.TestUtils;
+import org.projog.core.term.AtomTable;
 import org.projog.core.term.Term;
 import org.projog.core.term.Variable;
 
@@ -169,6 +170,30 @@ public class SentenceParserTest {
       assertNotSame(_1, b);
    }
 
+   @Test
+   public void testAtomsShareInstance() {
+      Term t = parseSentence("test(a, a, b, a(x), test).");
+      // atoms in same sentence with same name should reference the same object
+      assertSame(t.firstArgument(), t.secondArgument());
+      assertNotSame(t.firstArgument(), t.thirdArgument());
+      // names of structures should share the same string as atoms with the same name
+      assertSame(t.firstArgument().getName(), t.fourthArgument().getName());
+      assertSame(t.getName(), t.getArgument(4).getName());
+   }
+
+   @Test
+   public void testAtomTable() {
+      AtomTable atomTable = new AtomTable();
+      Term t1 = SentenceParser.getInstance("a(b, c).", TestUtils.createKnowledgeBase().getOperands(), atomTable).parseSentence();
+      Term t2 = SentenceParser.getInstance("b(c, a).", TestUtils.createKnowledgeBase().getOperands(), atomTable).parseSentence();
+      // atoms parsed by different parsers that use the same table should reference the same object
+      assertSame(t1.firstArgument(), atomTable.getAtom("b"));
+      assertSame(t1.secondArgument(), t2.firstArgument());
+      assertSame(t1.getName(), t2.secondArgument().getName());
+      assertSame(t1.firstArgument().getName(), t2.getName());
+      assertEquals(3, atomTable.size());
+   }
+
    @Test
    public void testConjunction() {
       assertParse("a, b, c.", "a , b , c", ",(a, ,(b, c))");
@@ -224,18 +224,19 @@ public class TermParserTest {
    }
 
    // Check if a term appears twice in a single sentence whether two Term objects are created or if the same instance is referenced twice.
-   // Currently only certain integer terms are cached.
+   // Currently only atoms and certain integer terms are cached.
    // A possible future performance improvement would be to enable caching for all terms.
    @Test
-   public void testNoCache() {
+   public void testCache() {
       Term t = parseTerm("p(1,a,0.5)=p(a,0.5,1).");
 
       // the integer number 1 will be reused due to th use of IntegerNumberCache
       assertEquals(t.firstArgument().firstArgument(), t.secondArgument().thirdArgument());
       assertSame(t.firstArgument().firstArgument(), t.secondArgument().thirdArgument());
 
+      // the atom a will be reused due to the use of AtomTable
       assertEquals(t.firstArgument().secondArgument(), t.secondArgument().firstArgument());
-      assertNotSame(t.firstArgument().secondArgument(), t.secondArgument().firstArgument());
+      assertSame(t.firstArgument().secondArgument(), t.secondArgument().firstArgument());
 
       assertEquals(t.firstArgument().thirdArgument(), t.secondArgument().secondArgument());
       assertNotSame(t.firstArgument().thirdArgument(), t.secondArgument().secondArgument());
@@ -0,0 +1,100 @@
+/*
+ * Copyright 2026 S. Webber
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projog.core.predicate;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+import static org.projog.TermFactory.atom;
+import static org.projog.TermFactory.structure;
+
+import org.junit.Test;
+import org.projog.TestUtils;
+import org.projog.core.ProjogException;
+import org.projog.core.predicate.udp.PredicateUtils;
+import org.projog.core.term.Term;
+import org.projog.core.term.Variable;
+
+public class PredicateFactoryCacheTest {
+   private final Predicates predicates = TestUtils.createKnowledgeBase().getPredicates();
+   private final PredicateFactoryCache cache = new PredicateFactoryCache(predicates);
+
+   @Test
+   public void testGetPredicateFactory() {
+      PredicateFactory pf1 = mock(PredicateFactory.class);
+      PredicateFactory pf2 = mock(PredicateFactory.class);
+      predicates.addPredicateFactory(new PredicateKey("test", 1), pf1);
+      predicates.addPredicateFactory(new PredicateKey("test", 2), pf2);
+
+      assertSame(pf1, cache.getPredicateFactory(structure("test", atom("a"))));
+      assertSame(pf2, cache.getPredicateFactory(structure("test", atom("a"), atom("b"))));
+      assertSame(pf1, cache.getPredicateFactory(structure("test", atom("c"))));
+      assertSame(pf2, cache.getPredicateFactory(atom("test"), 2));
+      assertSame(pf1, cache.getPredicateFactory(atom("test"), 1));
+   }
+
+   @Test
+   public void testMoreGoalsThanEntries() {
+      PredicateFactory[] factories = new PredicateFactory[10];
+      for (int i = 0; i < factories.length; i++) {
+         factories[i] = mock(PredicateFactory.class);
+         predicates.addPredicateFactory(new PredicateKey("test" + i, 1), factories[i]);
+      }
+
+      for (int n = 0; n < 3; n++) {
+         for (int i = 0; i < factories.length; i++) {
+            assertSame(factories[i], cache.getPredicateFactory(structure("test" + i, atom("a"))));
+         }
+      }
+   }
+
+   @Test
+   public void testEntriesDiscardedWhenPredicateAdded() {
+      Term goal = structure("test", atom("a"));
+      PredicateFactory unknown = cache.getPredicateFactory(goal);
+      assertSame(UnknownPredicate.class, unknown.getClass());
+      assertSame(unknown, cache.getPredicateFactory(goal));
+
+      PredicateFactory pf = mock(PredicateFactory.class);
+      predicates.addPredicateFactory(new PredicateKey("test", 1), pf);
+
+      assertSame(pf, cache.getPredicateFactory(goal));
+   }
+
+   @Test
+   public void testGetPredicate() {
+      assertSame(PredicateUtils.TRUE, cache.getPredicate(atom("true")));
+      assertSame(PredicateUtils.FALSE, cache.getPredicate(atom("fail")));
+   }
+
+   @Test
+   public void testInvalidGoal() {
+      try {
+         cache.getPredicateFactory(new Variable("X"));
+         fail();
+      } catch (ProjogException e) {
+         assertEquals("Expected an atom or a predicate but got a VARIABLE with value: X", e.getMessage());
+      }
+   }
+
+   @Test
+   public void testInvalidPartiallyAppliedGoal() {
+      assertSame(cache, cache.getPredicateFactory(new Variable("X"), 2));
+      assertTrue(cache.isRetryable());
+   }
+}
@@ -17,6 +17,7 @@ package org.projog.core.predicate;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
@@ -24,7 +25,14 @@ import static org.mockito.Mockito.mock;
 import static org.projog.TermFactory.atom;
 
 import java.io.StringReader;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.junit.Test;
 import org.projog.TestUtils;
@@ -33,6 +41,7 @@ import org.projog.api.QueryPlan;
 import org.projog.api.QueryResult;
 import org.projog.core.ProjogException;
 import org.projog.core.predicate.udp.PredicateUtils;
+import org.projog.core.predicate.udp.UserDefinedPredicateFactory;
 
 /**
  * Tests of attempting to replace or update an already defined predicate.
@@ -373,11 +382,77 @@ public class PredicatesTest {
    public void testPlaceholder() {
       Predicates predicates = TestUtils.createKnowledgeBase().getPredicates();
       PredicateFactory placeholder = predicates.placeholder();
-      assertSame(placeholder, predicates.placeholder());
+      assertNotSame(placeholder, predicates.placeholder());
+      assertSame(PredicateFactoryCache.class, placeholder.getClass());
       assertSame(placeholder, placeholder.preprocess(null));
       assertTrue(placeholder.isRetryable());
       assertFalse(placeholder.isAlwaysCutOnBacktrack());
       assertSame(PredicateUtils.TRUE, placeholder.getPredicate(atom("true")));
       assertSame(PredicateUtils.FALSE, placeholder.getPredicate(atom("does_not_exist")));
    }
+
+   @Test
+   public void testGetUserDefinedPredicatesIsSortedSnapshot() {
+      Predicates predicates = TestUtils.createKnowledgeBase().getPredicates();
+      PredicateKey b = new PredicateKey("b", 1);
+      PredicateKey a2 = new PredicateKey("a", 2);
+      PredicateKey a1 = new PredicateKey("a", 1);
+      predicates.createOrReturnUserDefinedPredicate(b);
+      predicates.createOrReturnUserDefinedPredicate(a2);
+      predicates.createOrReturnUserDefinedPredicate(a1);
+
+      Map<PredicateKey, UserDefinedPredicateFactory> snapshot = predicates.getUserDefinedPredicates();
+      assertEquals(Arrays.asList(a1, a2, b), new ArrayList<>(snapshot.keySet()));
+      assertSame(snapshot, predicates.getUserDefinedPredicates());
+
+      // adding a predicate does not alter a previously returned snapshot
+      PredicateKey c = new PredicateKey("c", 0);
+      predicates.createOrReturnUserDefinedPredicate(c);
+      assertEquals(3, snapshot.size());
+      assertEquals(Arrays.asList(a1, a2, b, c), new ArrayList<>(predicates.getUserDefinedPredicates().keySet()));
+   }
+
+   @Test
+   public void testLookupWhileAddingPredicates() throws Exception {
+      final int numReaders = 4;
+      final int numPredicates = 2000;
+      final Predicates predicates = TestUtils.createKnowledgeBase().getPredicates();
+      final CountDownLatch start = new CountDownLatch(1);
+      ExecutorService executor = Executors.newFixedThreadPool(numReaders + 1);
+      try {
+         List<Future<?>> futures = new ArrayList<>();
+         futures.add(executor.submit(() -> {
+            start.await();
+            for (int i = 0; i < numPredicates; i++) {
+               predicates.createOrReturnUserDefinedPredicate(new PredicateKey("p" + i, 1));
+            }
+            return null;
+         }));
+         for (int r = 0; r < numReaders; r++) {
+            futures.add(executor.submit(() -> {
+               start.await();
+               for (int i = 0; i < numPredicates; i++) {
+                  PredicateKey key = new PredicateKey("p" + i, 1);
+                  // the predicate may or may not have been added yet, but the lookup should never fail
+                  predicates.getPredicateFactory(key);
+                  assertSame(PredicateUtils.TRUE, predicates.getPredicate(atom("true")));
+                  predicates.getUserDefinedPredicates();
+               }
+               return null;
+            }));
+         }
+         start.countDown();
+         for (Future<?> f : futures) {
+            f.get();
+         }
+      } finally {
+         executor.shutdown();
+      }
+
+      assertEquals(numPredicates, predicates.getUserDefinedPredicates().size());
+      for (int i = 0; i < numPredicates; i++) {
+         PredicateKey key = new PredicateKey("p" + i, 1);
+         assertSame(predicates.createOrReturnUserDefinedPredicate(key), predicates.getPredicateFactory(key));
+      }
+   }
 }
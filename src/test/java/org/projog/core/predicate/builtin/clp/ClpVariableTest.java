@@ -648,7 +648,7 @@ public class ClpVariableTest {
       when(constraint.enforce(environment)).thenReturn(ConstraintResult.MATCHED);
       v.getTerm().addConstraint(constraint);
 
-      assertSame(ExpressionResult.VALID, v.setNot(environment, 6));
+      assertSame(ExpressionResult.VALID, v.setNot(environment, 10));
 
       verifyNoMoreInteractions(constraint);
 
@@ -657,6 +657,24 @@ public class ClpVariableTest {
       verify(constraint).enforce(environment);
    }
 
+   @Test
+   public void testSetNot_updated_between_min_and_max() {
+      ClpVariable v = new ClpVariable();
+      CoreConstraintStore environment = new CoreConstraintStore();
+      v.setMin(environment, 0);
+      v.setMax(environment, 10);
+      Constraint constraint = mock(Constraint.class);
+      v.getTerm().addConstraint(constraint);
+
+      assertSame(ExpressionResult.VALID, v.setNot(environment, 6));
+      assertEquals("{0, 1, 2, 3, 4, 5, 7, 8, 9, 10}", v.toString());
+
+      // constraints only use the minimum and maximum values, so do not need to be enforced again
+      assertTrue(environment.resolve());
+
+      verifyNoMoreInteractions(constraint);
+   }
+
    @Test
    public void testSetMax_updated() {
       ClpVariable v = new ClpVariable();
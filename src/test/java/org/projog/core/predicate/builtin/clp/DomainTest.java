@@ -0,0 +1,239 @@
+/*
+ * Copyright 2026 S. Webber
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projog.core.predicate.builtin.clp;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.junit.Test;
+import org.projog.clp.VariableStateResult;
+
+public class DomainTest {
+   @Test
+   public void testDefault() {
+      Domain d = new Domain();
+      assertEquals(Long.MIN_VALUE, d.getMin());
+      assertEquals(Long.MAX_VALUE, d.getMax());
+      assertEquals(Long.MAX_VALUE, d.count());
+      assertEquals("-9223372036854775808..9223372036854775807", d.toString());
+   }
+
+   @Test
+   public void testRange() {
+      Domain d = new Domain(-3, 7);
+      assertEquals(-3, d.getMin());
+      assertEquals(7, d.getMax());
+      assertEquals(11, d.count());
+      assertFalse(d.isSingleValue());
+      assertFalse(d.contains(-4));
+      assertTrue(d.contains(-3));
+      assertTrue(d.contains(7));
+      assertFalse(d.contains(8));
+      assertEquals("-3..7", d.toString());
+   }
+
+   @Test
+   public void testRanges() {
+      Domain d = new Domain(new long[] {1, 3, 4, 4, 6, 8});
+      assertEquals(1, d.getMin());
+      assertEquals(8, d.getMax());
+      assertEquals(7, d.count());
+      assertFalse(d.contains(5));
+      assertEquals("{1, 2, 3, 4, 6, 7, 8}", d.toString());
+
+      assertEquals("1..4", new Domain(new long[] {1, 2, 3, 4}).toString());
+   }
+
+   @Test
+   public void testInvalidRanges() {
+      assertInvalidRanges(new long[] {});
+      assertInvalidRanges(new long[] {1, 2, 3});
+      assertInvalidRanges(new long[] {2, 1});
+      assertInvalidRanges(new long[] {1, 3, 3, 4});
+      assertInvalidRanges(new long[] {5, 6, 1, 2});
+   }
+
+   private void assertInvalidRanges(long[] ranges) {
+      try {
+         new Domain(ranges);
+         fail();
+      } catch (IllegalArgumentException e) {
+         // expected
+      }
+   }
+
+   @Test
+   public void testSetValue() {
+      Domain d = new Domain(1, 10);
+      assertSame(VariableStateResult.UPDATED, d.setValue(4));
+      assertTrue(d.isSingleValue());
+      assertEquals(1, d.count());
+      assertEquals("4", d.toString());
+      assertSame(VariableStateResult.NO_CHANGE, d.setValue(4));
+      assertSame(VariableStateResult.FAILED, d.setValue(5));
+      assertTrue(d.isCorrupt());
+      assertEquals("corrupt", d.toString());
+   }
+
+   @Test
+   public void testSetValueRemovedValue() {
+      Domain d = new Domain(1, 10);
+      d.setNot(4);
+      assertSame(VariableStateResult.FAILED, d.setValue(4));
+   }
+
+   @Test
+   public void testCorrupt() {
+      Domain d = new Domain(1, 10);
+      d.setMin(11);
+      try {
+         d.getMin();
+         fail();
+      } catch (IllegalStateException e) {
+         // expected
+      }
+   }
+
+   @Test
+   public void testSetMinAndMax() {
+      Domain d = new Domain(1, 10);
+      assertSame(VariableStateResult.NO_CHANGE, d.setMin(1));
+      assertSame(VariableStateResult.NO_CHANGE, d.setMax(10));
+      assertSame(VariableStateResult.UPDATED, d.setMin(3));
+      assertSame(VariableStateResult.UPDATED, d.setMax(8));
+      assertEquals("3..8", d.toString());
+      assertEquals(6, d.count());
+      assertSame(VariableStateResult.FAILED, d.setMin(9));
+   }
+
+   @Test
+   public void testSetNotSmallRange() {
+      Domain d = new Domain(1, 10);
+      assertSame(VariableStateResult.UPDATED, d.setNot(5));
+      assertSame(VariableStateResult.NO_CHANGE, d.setNot(5));
+      assertSame(VariableStateResult.UPDATED, d.setNot(7));
+      assertEquals(8, d.count());
+      assertEquals("{1, 2, 3, 4, 6, 8, 9, 10}", d.toString());
+
+      // narrowing the bounds skips values that have been removed
+      assertSame(VariableStateResult.UPDATED, d.setMin(5));
+      assertEquals(6, d.getMin());
+      assertSame(VariableStateResult.UPDATED, d.setMax(7));
+      assertEquals(6, d.getMax());
+      assertTrue(d.isSingleValue());
+   }
+
+   @Test
+   public void testSetNotBounds() {
+      Domain d = new Domain(1, 3);
+      assertSame(VariableStateResult.UPDATED, d.setNot(1));
+      assertEquals("2..3", d.toString());
+      assertSame(VariableStateResult.UPDATED, d.setNot(3));
+      assertEquals("2", d.toString());
+      assertSame(VariableStateResult.NO_CHANGE, d.setNot(3));
+      assertSame(VariableStateResult.FAILED, d.setNot(2));
+   }
+
+   @Test
+   public void testRemovingGaps() {
+      Domain d = new Domain(1, 10);
+      d.setNot(2);
+      d.setMin(2);
+      assertEquals("3..10", d.toString());
+      assertEquals(8, d.count());
+   }
+
+   @Test
+   public void testSetNotLargeRange() {
+      Domain d = new Domain(1, 1000000);
+      assertSame(VariableStateResult.UPDATED, d.setNot(500));
+      assertSame(VariableStateResult.NO_CHANGE, d.setNot(500));
+      assertSame(VariableStateResult.UPDATED, d.setNot(502));
+      assertSame(VariableStateResult.UPDATED, d.setNot(501));
+      assertSame(VariableStateResult.UPDATED, d.setNot(20000));
+      assertEquals("{1..499, 503..19999, 20001..1000000}", d.toString());
+      assertEquals(999996, d.count());
+      assertFalse(d.contains(501));
+      assertTrue(d.contains(503));
+
+      assertSame(VariableStateResult.UPDATED, d.setMin(500));
+      assertEquals(503, d.getMin());
+      assertSame(VariableStateResult.UPDATED, d.setMax(20000));
+      assertEquals(19999, d.getMax());
+      assertEquals("503..19999", d.toString());
+   }
+
+   @Test
+   public void testLargeRangeBecomesBitset() {
+      Domain d = new Domain(1, 1000000);
+      d.setNot(5);
+      d.setMax(Domain.MAX_BITSET_RANGE);
+      assertEquals(Domain.MAX_BITSET_RANGE - 1, d.count());
+      assertFalse(d.contains(5));
+      assertSame(VariableStateResult.UPDATED, d.setMax(7));
+      assertEquals("{1, 2, 3, 4, 6, 7}", d.toString());
+   }
+
+   @Test
+   public void testSetNotFullRange() {
+      Domain d = new Domain();
+      assertSame(VariableStateResult.UPDATED, d.setNot(0));
+      assertEquals(Long.MAX_VALUE, d.count());
+      assertFalse(d.contains(0));
+      assertSame(VariableStateResult.UPDATED, d.setMin(-1));
+      assertEquals("{-1, 1..9223372036854775807}", d.toString());
+   }
+
+   @Test
+   public void testCopy() {
+      Domain original = new Domain(1, 10);
+      original.setNot(5);
+      Domain copy = original.copy();
+      copy.setNot(6);
+      assertEquals("{1, 2, 3, 4, 6, 7, 8, 9, 10}", original.toString());
+      assertEquals("{1, 2, 3, 4, 7, 8, 9, 10}", copy.toString());
+   }
+
+   @Test
+   public void testAnd() {
+      Domain a = new Domain(1, 10);
+      Domain b = new Domain(5, 20);
+      assertSame(a, Domain.and(a, a));
+      assertEquals("5..10", Domain.and(a, b).toString());
+      assertSame(a, Domain.and(a, new Domain()));
+      assertSame(a, Domain.and(new Domain(), a));
+      assertNull(Domain.and(a, new Domain(11, 20)));
+   }
+
+   @Test
+   public void testAndWithGaps() {
+      Domain a = new Domain(new long[] {1, 3, 7, 9});
+      Domain b = new Domain(new long[] {3, 7, 9, 2000000});
+      assertEquals("{3, 7, 9}", Domain.and(a, b).toString());
+      assertSame(a, Domain.and(a, new Domain(1, 9)));
+      assertSame(a, Domain.and(new Domain(0, 10), a));
+      assertNull(Domain.and(a, new Domain(4, 6)));
+      assertNull(Domain.and(a, new Domain(new long[] {0, 0, 4, 6, 10, 10})));
+
+      Domain c = new Domain(new long[] {1, 3, 1000000, 2000000});
+      assertEquals("{1..3, 1000000..1500000}", Domain.and(c, new Domain(0, 1500000)).toString());
+      assertEquals("1000000..1500000", Domain.and(c, new Domain(5, 1500000)).toString());
+   }
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright 2026 S. Webber
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projog.core.predicate.builtin.clp;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Test;
+import org.projog.clp.LeafExpression;
+import org.projog.core.term.Trail;
+
+public class ParallelLabelingTest {
+   private final ForkJoinPool pool = new ForkJoinPool(2);
+
+   @After
+   public void shutdown() {
+      pool.shutdownNow();
+   }
+
+   @Test
+   public void testAllSolutionsFound() {
+      LabelingSearch.Builder builder = new LabelingSearch.Builder();
+      LeafExpression x = builder.createVariable(new Domain(1, 10));
+      LeafExpression y = builder.createVariable(new Domain(1, 10));
+      builder.label(x).label(y);
+      ParallelLabeling labeling = new ParallelLabeling(builder.build(), pool, true);
+
+      for (int i = 1; i <= 10; i++) {
+         for (int j = 1; j <= 10; j++) {
+            assertTrue(labeling.next());
+            assertEquals(i, labeling.getDomain(x).getMin());
+            assertEquals(j, labeling.getDomain(y).getMin());
+         }
+      }
+      assertFalse(labeling.next());
+      assertStopped(labeling);
+   }
+
+   @Test
+   public void testPartsStopWhenBacktrackedPast() {
+      Trail trail = new Trail();
+      Trail previous = Trail.setCurrent(trail);
+      try {
+         int choicePoint = trail.mark();
+         ParallelLabeling labeling = new ParallelLabeling(createLargeSearch(), pool, true);
+         assertTrue(labeling.next());
+         assertFalse(labeling.isStopped());
+
+         // e.g. backtracking to a cut after the first solution
+         trail.undo(choicePoint);
+
+         assertStopped(labeling);
+      } finally {
+         Trail.setCurrent(previous);
+      }
+   }
+
+   @Test
+   public void testPartsStopWhenQueryInterrupted() {
+      Trail trail = new Trail();
+      Trail previous = Trail.setCurrent(trail);
+      try {
+         ParallelLabeling labeling = new ParallelLabeling(createLargeSearch(), pool, false);
+         assertTrue(labeling.next());
+
+         assertFalse(labeling.isStopped());
+
+         trail.interrupt();
+
+         assertStopped(labeling);
+      } finally {
+         Trail.setCurrent(previous);
+      }
+   }
+
+   private static void assertStopped(ParallelLabeling labeling) {
+      long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(10);
+      while (!labeling.isStopped()) {
+         assertTrue("parts still searching", System.currentTimeMillis() < deadline);
+         Thread.yield();
+      }
+   }
+
+   /** Returns a search with more solutions than could be found during the test. */
+   private static LabelingSearch createLargeSearch() {
+      LabelingSearch.Builder builder = new LabelingSearch.Builder();
+      for (int i = 0; i < 4; i++) {
+         builder.label(builder.createVariable(new Domain(1, 1000)));
+      }
+      return builder.build();
+   }
+}
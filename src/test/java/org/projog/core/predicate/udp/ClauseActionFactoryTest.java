@@ -77,7 +77,7 @@ public class ClauseActionFactoryTest {
       mockPredicate2 = mock(Predicate.class);
 
       mockPredicateFactory = mock(PredicateFactory.class);
-      when(mockPredicateFactory.preprocess(PREDICATE_TERM)).thenReturn(mockPredicateFactory);
+      when(mockPredicateFactory.preprocessClauseBody(PREDICATE_TERM)).thenReturn(mockPredicateFactory);
       when(mockPredicateFactory.getPredicate(PREDICATE_TERM)).thenReturn(mockPredicate1, mockPredicate2);
 
       kb = KnowledgeBaseUtils.createKnowledgeBase();
@@ -87,7 +87,7 @@ public class ClauseActionFactoryTest {
 
    @After
    public void after() {
-      verify(mockPredicateFactory, atMost(1)).preprocess(any(Term.class));
+      verify(mockPredicateFactory, atMost(1)).preprocessClauseBody(any(Term.class));
       verifyNoInteractions(mockPredicate1, mockPredicate2);
       verifyNoMoreInteractions(mockPredicateFactory);
    }
@@ -390,7 +390,7 @@ public class ClauseActionFactoryTest {
    @Test
    public void testZeroArgConsequentRule_getPredicate_antecedent_mutable() {
       PredicateFactory pf = mock(PredicateFactory.class);
-      when(pf.preprocess(any(Term.class))).thenReturn(pf);
+      when(pf.preprocessClauseBody(any(Term.class))).thenReturn(pf);
 
       kb.getPredicates().addPredicateFactory(new PredicateKey("test", 5), pf);
 
@@ -419,7 +419,7 @@ public class ClauseActionFactoryTest {
       assertNotSame(values1.getArgument(3), values2.getArgument(3));
       assertNotSame(values1.getArgument(4), values2.getArgument(4));
 
-      verify(pf).preprocess(any(Term.class));
+      verify(pf).preprocessClauseBody(any(Term.class));
       verify(pf, times(2)).getPredicate(any(Term.class));
       verifyNoMoreInteractions(pf, p1, p2);
    }
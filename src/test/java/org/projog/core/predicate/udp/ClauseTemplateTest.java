@@ -0,0 +1,91 @@
+/*
+ * Copyright 2026 S. Webber
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projog.core.predicate.udp;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.projog.TestUtils.createClauseModel;
+import static org.projog.TestUtils.parseTerm;
+import static org.projog.TestUtils.write;
+
+import org.junit.Test;
+import org.projog.core.term.StructureFactory;
+import org.projog.core.term.Term;
+import org.projog.core.term.Variable;
+
+public class ClauseTemplateTest {
+   @Test
+   public void testUnifyConsequent() {
+      ClauseTemplate t = new ClauseTemplate(createClauseModel("p(X, f(Y, X), [a|T]) :- q(X, Y, T, Z)."));
+      Term query = parseTerm("p(1, f(B, C), [D, b, c])");
+      Term[] frame = t.createFrame();
+      assertEquals(4, frame.length);
+
+      assertTrue(t.unifyConsequent(query, frame));
+      assertEquals("p(1, f(Y, 1), [a,b,c])", write(query.getTerm()));
+      assertEquals("q(1, Y, [b,c], Z)", write(t.createAntecedent(frame)));
+   }
+
+   @Test
+   public void testQueryVariableBoundToClauseVariable() {
+      ClauseTemplate t = new ClauseTemplate(createClauseModel("p(X, X)."));
+      Variable a = new Variable("A");
+      Variable b = new Variable("B");
+      Term[] frame = t.createFrame();
+
+      assertTrue(t.unifyConsequent(StructureFactory.createStructure("p", new Term[] {a, b}), frame));
+      assertSame(frame[0], a.getTerm());
+      assertSame(frame[0], b.getTerm());
+      assertEquals("X", write(frame[0]));
+   }
+
+   @Test
+   public void testFailsBeforeCreatingLaterArguments() {
+      ClauseTemplate t = new ClauseTemplate(createClauseModel("p(a, X, Y) :- q(X, Y)."));
+      Term[] frame = t.createFrame();
+
+      assertFalse(t.unifyConsequent(parseTerm("p(b, C, D)"), frame));
+      assertNull(frame[0]);
+      assertNull(frame[1]);
+   }
+
+   @Test
+   public void testEachFrameHasNewVariables() {
+      ClauseTemplate t = new ClauseTemplate(createClauseModel("p(X) :- q(X, Y)."));
+      Term[] frame1 = t.createFrame();
+      Term[] frame2 = t.createFrame();
+      Term antecedent1 = t.createAntecedent(frame1);
+      Term antecedent2 = t.createAntecedent(frame2);
+
+      assertEquals("q(X, Y)", write(antecedent1));
+      assertEquals("q(X, Y)", write(antecedent2));
+      assertNotSame(antecedent1.firstArgument(), antecedent2.firstArgument());
+      assertNotSame(antecedent1.secondArgument(), antecedent2.secondArgument());
+      assertSame(frame1[0], antecedent1.firstArgument());
+      assertSame(frame2[1], antecedent2.secondArgument());
+   }
+
+   @Test
+   public void testImmutableAntecedentNotCopied() {
+      ClauseModel model = createClauseModel("p(X) :- q(a, [b, c]).");
+      ClauseTemplate t = new ClauseTemplate(model);
+      assertSame(model.getAntecedent(), t.createAntecedent(t.createFrame()));
+   }
+}
@@ -229,9 +229,124 @@ public class DynamicUserDefinedPredicateFactoryTest {
       assertSame(inputArg, args[0].getTerm());
    }
 
+   @Test
+   public void testIndexWithDuplicateKeys() {
+      DynamicUserDefinedPredicateFactory dp = createDynamicPredicate(2);
+      for (int i = 0; i < 100; i++) {
+         addLast(dp, "k" + (i % 10) + ", " + i);
+      }
+
+      assertSolutions(dp, "k3, X", "k3, 3", "k3, 13", "k3, 23", "k3, 33", "k3, 43", "k3, 53", "k3, 63", "k3, 73", "k3, 83", "k3, 93");
+      assertSolutions(dp, "k3, 33", "k3, 33");
+      assertSolutions(dp, "k3, 34");
+      assertSolutions(dp, "z, X");
+   }
+
+   @Test
+   public void testIndexOfSecondArgument() {
+      DynamicUserDefinedPredicateFactory dp = createDynamicPredicate(2);
+      for (int i = 0; i < 100; i++) {
+         addLast(dp, "k" + (i % 10) + ", v" + (i % 20));
+      }
+
+      // first query that uses the second argument will cause an index to be created for it
+      assertSolutions(dp, "X, v7", "k7, v7", "k7, v7", "k7, v7", "k7, v7", "k7, v7");
+      assertSolutions(dp, "X, v20");
+
+      // index of second argument is updated when new clauses are added
+      addFirst(dp, "a, v7");
+      addLast(dp, "b, v7");
+      addLast(dp, "c, v20");
+      assertSolutions(dp, "X, v7", "a, v7", "k7, v7", "k7, v7", "k7, v7", "k7, v7", "k7, v7", "b, v7");
+      assertSolutions(dp, "X, v20", "c, v20");
+
+      // index of second argument is updated when clauses are removed
+      Iterator<ClauseModel> itr = dp.getImplications();
+      itr.next();
+      itr.remove(); // a
+      while (itr.hasNext()) {
+         if (itr.next().getConsequent().secondArgument().getName().equals("v7")) {
+            itr.remove();
+         }
+      }
+      assertSolutions(dp, "X, v7");
+      assertSolutions(dp, "X, v20", "c, v20");
+      assertSolutions(dp, "X, v8", "k8, v8", "k8, v8", "k8, v8", "k8, v8", "k8, v8");
+   }
+
+   @Test
+   public void testIndexIncludesClausesWithVariableArguments() {
+      DynamicUserDefinedPredicateFactory dp = createDynamicPredicate(2);
+      addLast(dp, "a, 1");
+      addLast(dp, "Y, 2");
+      addLast(dp, "b, 3");
+      addLast(dp, "a, 4");
+      addFirst(dp, "_, 5");
+      addLast(dp, "f(Z), 6");
+
+      assertSolutions(dp, "a, X", "a, 5", "a, 1", "a, 2", "a, 4");
+      assertSolutions(dp, "b, X", "b, 5", "b, 2", "b, 3");
+      assertSolutions(dp, "c, X", "c, 5", "c, 2");
+      assertSolutions(dp, "f(c), X", "f(c), 5", "f(c), 2", "f(c), 6");
+   }
+
+   @Test
+   public void testGetImplicationsForClauseHead() {
+      DynamicUserDefinedPredicateFactory dp = createDynamicPredicate(2);
+      for (int i = 0; i < 20; i++) {
+         addLast(dp, "k" + (i % 5) + ", " + i);
+      }
+      addLast(dp, "X, 20");
+
+      assertIterator(dp.getImplications(TestUtils.parseTerm("test(k3, X)")), "k3, 3", "k3, 8", "k3, 13", "k3, 18", "X, 20");
+      assertIterator(dp.getImplications(TestUtils.parseTerm("test(X, 13)")), "k3, 13");
+      assertIterator(dp.getImplications(TestUtils.parseTerm("test(z, 99)")));
+      assertIterator(dp.getImplications(TestUtils.parseTerm("test(z, Y)")), "X, 20");
+
+      // remove clauses using an iterator returned by an index lookup
+      Iterator<ClauseModel> itr = dp.getImplications(TestUtils.parseTerm("test(k3, X)"));
+      itr.next();
+      itr.remove(); // k3, 3
+      itr.next();
+      itr.next();
+      itr.remove(); // k3, 13
+
+      assertIterator(dp.getImplications(TestUtils.parseTerm("test(k3, X)")), "k3, 8", "k3, 18", "X, 20");
+      assertIterator(dp.getImplications(TestUtils.parseTerm("test(X, 13)")));
+      assertSolutions(dp, "X, 3");
+      assertSolutions(dp, "k3, X", "k3, 8", "k3, 18", "k3, 20");
+      assertEquals(19, countImplications(dp));
+
+      // removing an already removed clause has no effect
+      itr.remove();
+      assertEquals(19, countImplications(dp));
+   }
+
+   private int countImplications(DynamicUserDefinedPredicateFactory dp) {
+      int ctr = 0;
+      for (Iterator<ClauseModel> itr = dp.getImplications(); itr.hasNext(); itr.next()) {
+         ctr++;
+      }
+      return ctr;
+   }
+
+   private void assertSolutions(DynamicUserDefinedPredicateFactory dp, String query, String... expectedSolutions) {
+      Term term = TestUtils.parseTerm(createStructureSyntax(query));
+      Predicate p = dp.getPredicate(term);
+      for (String expected : expectedSolutions) {
+         assertTrue(query, p.evaluate());
+         assertEquals(query, createStructureSyntax(expected), term.getTerm().toString());
+      }
+      assertFalse(query, p.couldReevaluationSucceed() && p.evaluate());
+   }
+
    private DynamicUserDefinedPredicateFactory createDynamicPredicate() {
+      return createDynamicPredicate(1);
+   }
+
+   private DynamicUserDefinedPredicateFactory createDynamicPredicate(int numArgs) {
       KnowledgeBase kb = TestUtils.createKnowledgeBase();
-      PredicateKey key = new PredicateKey(TEST_PREDICATE_NAME, 1);
+      PredicateKey key = new PredicateKey(TEST_PREDICATE_NAME, numArgs);
       DynamicUserDefinedPredicateFactory dp = new DynamicUserDefinedPredicateFactory(kb, key);
       assertEquals(key, dp.getPredicateKey());
       assertTrue(dp.isDynamic());
@@ -0,0 +1,100 @@
+/*
+ * Copyright 2026 S. Webber
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projog.core.predicate.udp;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.projog.TermFactory.atom;
+import static org.projog.TermFactory.integerNumber;
+import static org.projog.TermFactory.list;
+import static org.projog.TermFactory.structure;
+import static org.projog.TermFactory.variable;
+
+import org.junit.Test;
+import org.projog.TestUtils;
+import org.projog.core.kb.KnowledgeBase;
+import org.projog.core.predicate.PredicateKey;
+import org.projog.core.term.EmptyList;
+import org.projog.core.term.Term;
+import org.projog.core.term.Variable;
+
+public class FunctorIndexTest {
+   private static final KnowledgeBase KB = TestUtils.createKnowledgeBase();
+
+   @Test
+   public void testCreateKey() {
+      assertEquals(new PredicateKey("add", 2), FunctorIndex.createKey(structure("add", variable("X"), atom("y"))));
+      assertEquals(new PredicateKey(".", 2), FunctorIndex.createKey(list(atom("a"), atom("b"))));
+      assertSame(EmptyList.EMPTY_LIST, FunctorIndex.createKey(EmptyList.EMPTY_LIST));
+      assertEquals(atom("a"), FunctorIndex.createKey(atom("a")));
+      assertEquals(integerNumber(42), FunctorIndex.createKey(integerNumber(42)));
+      assertNull(FunctorIndex.createKey(variable("X")));
+   }
+
+   @Test
+   public void testCreateKeyOfInstantiatedVariable() {
+      Variable v = variable("X");
+      v.unify(structure("mul", atom("a"), atom("b")));
+      assertEquals(new PredicateKey("mul", 2), FunctorIndex.createKey(v));
+   }
+
+   @Test
+   public void testGetMatches() {
+      ClauseAction add1 = clause(structure("add", variable("X"), variable("Y")), atom("a"));
+      ClauseAction mul = clause(structure("mul", variable("X"), variable("Y")), atom("b"));
+      ClauseAction any = clause(variable("X"), atom("c"));
+      ClauseAction add2 = clause(structure("add", integerNumber(1), variable("Y")), atom("d"));
+      ClauseAction atom = clause(atom("z"), atom("e"));
+
+      FunctorIndex index = FunctorIndex.create(new ClauseAction[] {add1, mul, any, add2, atom}, 0);
+      assertEquals(0, index.getArgumentIndex());
+      assertEquals(3, index.getKeyCount());
+
+      // clauses with a variable argument are included, in their original order, with the clauses that have the same functor
+      assertArrayEquals(new ClauseAction[] {add1, any, add2}, index.getMatches(query(structure("add", integerNumber(1), integerNumber(2)))));
+      assertArrayEquals(new ClauseAction[] {mul, any}, index.getMatches(query(structure("mul", integerNumber(1), integerNumber(2)))));
+      assertArrayEquals(new ClauseAction[] {any, atom}, index.getMatches(query(atom("z"))));
+
+      // when there is no clause with the same functor then only the clauses with a variable argument can match
+      assertArrayEquals(new ClauseAction[] {any}, index.getMatches(query(structure("add", integerNumber(1)))));
+      assertArrayEquals(new ClauseAction[] {any}, index.getMatches(query(atom("y"))));
+
+      // when the query argument is a variable then the index cannot be used
+      assertNull(index.getMatches(query(variable("X"))));
+   }
+
+   @Test
+   public void testNotCreatedWhenAllArgumentsHaveSameFunctor() {
+      ClauseAction[] clauses = {clause(structure("f", variable("X")), atom("a")), clause(structure("f", atom("b")), atom("b"))};
+      assertNull(FunctorIndex.create(clauses, 0));
+   }
+
+   @Test
+   public void testNotCreatedWhenAllArgumentsAreVariables() {
+      ClauseAction[] clauses = {clause(atom("a"), variable("X")), clause(atom("b"), variable("Y"))};
+      assertNull(FunctorIndex.create(clauses, 1));
+   }
+
+   private static Term query(Term arg) {
+      return structure("test", arg, variable("Q"));
+   }
+
+   private static ClauseAction clause(Term t1, Term t2) {
+      return ClauseActionFactory.createClauseAction(KB, ClauseModel.createClauseModel(structure("test", t1, t2)));
+   }
+}
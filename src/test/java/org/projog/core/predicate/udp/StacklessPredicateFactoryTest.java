@@ -0,0 +1,63 @@
+/*
+ * Copyright 2026 S. Webber
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projog.core.predicate.udp;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.StringReader;
+
+import org.junit.Test;
+import org.projog.api.Projog;
+import org.projog.api.QueryResult;
+import org.projog.core.kb.ProjogDefaultProperties;
+
+public class StacklessPredicateFactoryTest {
+   private static final int DEPTH = 100000;
+
+   @Test
+   public void testDeepRecursion() {
+      Projog p = createProjog("count(0). count(N) :- N > 0, N1 is N - 1, count(N1), true.");
+      QueryResult r = p.executeQuery("count(" + DEPTH + ").");
+      assertTrue(r.next());
+      assertFalse(r.next());
+   }
+
+   @Test
+   public void testBacktrackingIntoDeepRecursion() {
+      Projog p = createProjog("count(0, X) :- member(X, [a,b,c]). count(N, X) :- N > 0, N1 is N - 1, count(N1, X), true.");
+      QueryResult r = p.executeQuery("count(" + DEPTH + ", X).");
+      assertTrue(r.next());
+      assertEquals("a", r.getAtomName("X"));
+      assertTrue(r.next());
+      assertEquals("b", r.getAtomName("X"));
+      assertTrue(r.next());
+      assertEquals("c", r.getAtomName("X"));
+      assertFalse(r.next());
+   }
+
+   private static Projog createProjog(String source) {
+      Projog p = new Projog(new ProjogDefaultProperties() {
+         @Override
+         public boolean isStacklessExecution() {
+            return true;
+         }
+      });
+      p.consultReader(new StringReader(source));
+      return p;
+   }
+}
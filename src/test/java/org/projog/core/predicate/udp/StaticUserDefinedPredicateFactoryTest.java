@@ -20,7 +20,9 @@ import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.projog.TermFactory.atom;
+import static org.projog.TermFactory.integerNumber;
 import static org.projog.TermFactory.structure;
+import static org.projog.TermFactory.variable;
 import static org.projog.TestUtils.createClauseModel;
 import static org.projog.TestUtils.createKnowledgeBase;
 import static org.projog.TestUtils.parseSentence;
@@ -37,6 +39,7 @@ import org.projog.core.predicate.PredicateKey;
 import org.projog.core.term.Atom;
 import org.projog.core.term.StructureFactory;
 import org.projog.core.term.Term;
+import org.projog.core.term.Variable;
 
 /**
  * Tests {@link StaticUserDefinedPredicateFactory}.
@@ -184,12 +187,33 @@ public class StaticUserDefinedPredicateFactoryTest {
 
    @Test
    public void testNotIndexablePredicate() {
-      // not args are indexable as none are always immutable
-      PredicateFactory pf = getActualPredicateFactory("p(a,b,c).", "p(1,2,3).", "p(X,Y,Z).");
+      // no args are indexable as none are always immutable and none have different principal functors
+      PredicateFactory pf = getActualPredicateFactory("p(f(a),X).", "p(f(1),Y).", "p(f(Z),W).");
       assertEquals("org.projog.core.predicate.udp.StaticUserDefinedPredicateFactory$NotIndexablePredicateFactory", pf.getClass().getName());
       assertTrue(pf.isRetryable());
    }
 
+   @Test
+   public void testFunctorIndexPredicate() {
+      // no args are always immutable but they can be indexed by their principal functor
+      PredicateFactory pf = getActualPredicateFactory("p(a,b,c).", "p(1,2,3).", "p(X,Y,Z).");
+      assertEquals("org.projog.core.predicate.udp.StaticUserDefinedPredicateFactory$FunctorIndexPredicateFactory", pf.getClass().getName());
+      assertTrue(pf.isRetryable());
+   }
+
+   @Test
+   public void testFunctorIndexPredicateSelectsClausesByPrincipalFunctor() {
+      PredicateFactory pf = getActualPredicateFactory("eval(add(X,Y),Z) :- Z is X+Y.", "eval(mul(X,Y),Z) :- Z is X*Y.", "eval(neg(X),Z) :- Z is -X.");
+      assertEquals("org.projog.core.predicate.udp.StaticUserDefinedPredicateFactory$FunctorIndexPredicateFactory", pf.getClass().getName());
+
+      // only one clause can match so no choice point is left
+      Variable result = variable("Z");
+      Predicate p = pf.getPredicate(structure("eval", structure("mul", integerNumber(6), integerNumber(7)), result));
+      assertTrue(p.evaluate());
+      assertEquals(integerNumber(42), result.getTerm());
+      assertFalse(p.couldReevaluationSucceed());
+   }
+
    @Test
    public void testNeverSucceedsPredicateFactory() {
       PredicateFactory pf = getActualPredicateFactory("p(a,b,c).", "p(1,2,3).", "p(x,y,Z).");
@@ -26,11 +26,15 @@ import static org.projog.TestUtils.parseSentence;
 import static org.projog.TestUtils.write;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import org.junit.Test;
@@ -39,9 +43,11 @@ import org.projog.core.kb.KnowledgeBase;
 import org.projog.core.predicate.Predicate;
 import org.projog.core.predicate.PredicateFactory;
 import org.projog.core.predicate.PredicateKey;
+import org.projog.core.term.Atom;
 import org.projog.core.term.IntegerNumber;
 import org.projog.core.term.StructureFactory;
 import org.projog.core.term.Term;
+import org.projog.core.term.Trail;
 import org.projog.core.term.Variable;
 
 public class TabledUserDefinedPredicateFactoryTest {
@@ -170,4 +176,314 @@ public class TabledUserDefinedPredicateFactoryTest {
       input.firstArgument().unify(new IntegerNumber(180));
       assertEquals("test(180, 180)", input.toString());
    }
+
+   @Test
+   public void testLeastRecentlyUsedTablesDiscarded() {
+      KnowledgeBase kb = createKnowledgeBase();
+      AtomicInteger counter = addCounter(kb);
+      PredicateKey key = new PredicateKey("test", 2);
+      TabledUserDefinedPredicateFactory f = new TabledUserDefinedPredicateFactory(kb, key, 2);
+      kb.getPredicates().addUserDefinedPredicate(f);
+      f.addLast(createClauseModel("test(X, Y) :- count, Y is X * 2."));
+
+      assertAnswer(f, "test(1, A).", "test(1, 2)");
+      assertAnswer(f, "test(2, A).", "test(2, 4)");
+      assertEquals(2, counter.get());
+      assertEquals(2, f.getNumberOfTables());
+
+      // use test(1, A) so test(2, A) becomes the least recently used table
+      assertAnswer(f, "test(1, A).", "test(1, 2)");
+      assertEquals(2, counter.get());
+
+      // exceed the limit of 2 answers, so test(2, A) is discarded
+      assertAnswer(f, "test(3, A).", "test(3, 6)");
+      assertEquals(3, counter.get());
+      assertEquals(2, f.getNumberOfTables());
+      assertAnswer(f, "test(1, A).", "test(1, 2)");
+      assertEquals(3, counter.get());
+      assertAnswer(f, "test(2, A).", "test(2, 4)");
+      assertEquals(4, counter.get());
+   }
+
+   @Test
+   public void testAbolishTables() {
+      KnowledgeBase kb = createKnowledgeBase();
+      AtomicInteger counter = addCounter(kb);
+      PredicateKey key = new PredicateKey("test", 2);
+      TabledUserDefinedPredicateFactory f = new TabledUserDefinedPredicateFactory(kb, key);
+      kb.getPredicates().addUserDefinedPredicate(f);
+      f.addLast(createClauseModel("test(X, Y) :- count, Y is X * 2."));
+
+      assertAnswer(f, "test(1, A).", "test(1, 2)");
+      assertAnswer(f, "test(2, A).", "test(2, 4)");
+      assertAnswer(f, "test(1, A).", "test(1, 2)");
+      assertEquals(2, counter.get());
+      assertEquals(2, f.getNumberOfTables());
+
+      f.abolishTables();
+      assertEquals(0, f.getNumberOfTables());
+
+      assertAnswer(f, "test(1, A).", "test(1, 2)");
+      assertEquals(3, counter.get());
+      assertEquals(1, f.getNumberOfTables());
+   }
+
+   @Test
+   public void testAnswersAvailableBeforeTableComplete() throws Exception {
+      KnowledgeBase kb = createKnowledgeBase();
+      PredicateKey key = new PredicateKey("test", 1);
+      TabledUserDefinedPredicateFactory f = new TabledUserDefinedPredicateFactory(kb, key);
+      kb.getPredicates().addUserDefinedPredicate(f);
+
+      // add "block/0" build-in predicate that does not succeed until released by the test
+      CountDownLatch started = new CountDownLatch(1);
+      CountDownLatch release = new CountDownLatch(1);
+      kb.getPredicates().addPredicateFactory(new PredicateKey("block", 0), new PredicateFactory() {
+         @Override
+         public boolean isRetryable() {
+            return false;
+         }
+
+         @Override
+         public Predicate getPredicate(Term term) {
+            started.countDown();
+            try {
+               release.await();
+            } catch (InterruptedException e) {
+            }
+            return PredicateUtils.TRUE;
+         }
+      });
+      f.addLast(createClauseModel("test(a)."));
+      f.addLast(createClauseModel("test(X) :- block, X = b."));
+
+      // start populating the table in another thread
+      ExecutorService executor = Executors.newSingleThreadExecutor();
+      Future<Predicate> producer = executor.submit(() -> f.getPredicate(parseSentence("test(X).")));
+      started.await();
+
+      // the first answer is available while the other thread is still populating the table
+      Term input = parseSentence("test(Y).");
+      Predicate p = f.getPredicate(input);
+      assertTrue(p.evaluate());
+      assertEquals(new Atom("a"), input.firstArgument().getTerm());
+      assertTrue(p.couldReevaluationSucceed());
+
+      // the second answer is available once the other thread has found it
+      release.countDown();
+      assertTrue(p.evaluate());
+      assertEquals(new Atom("b"), input.firstArgument().getTerm());
+      assertFalse(p.couldReevaluationSucceed() && p.evaluate());
+
+      producer.get();
+      executor.shutdown();
+   }
+
+   @Test
+   public void testOnlyDependentTablesDiscardedWhenDynamicPredicateChanged() {
+      KnowledgeBase kb = createKnowledgeBase();
+      AtomicInteger counter = addCounter(kb);
+      UserDefinedPredicateFactory d = kb.getPredicates().createOrReturnUserDefinedPredicate(new PredicateKey("d", 1));
+      d.addLast(createClauseModel("d(1)."));
+      UserDefinedPredicateFactory e = kb.getPredicates().createOrReturnUserDefinedPredicate(new PredicateKey("e", 1));
+      e.addLast(createClauseModel("e(2)."));
+
+      // p/1 uses d/1 via q/1, r/1 uses e/1
+      TabledUserDefinedPredicateFactory p = new TabledUserDefinedPredicateFactory(kb, new PredicateKey("p", 1));
+      kb.getPredicates().addUserDefinedPredicate(p);
+      p.addLast(createClauseModel("p(X) :- count, q(X)."));
+      TabledUserDefinedPredicateFactory q = new TabledUserDefinedPredicateFactory(kb, new PredicateKey("q", 1));
+      kb.getPredicates().addUserDefinedPredicate(q);
+      q.addLast(createClauseModel("q(X) :- count, d(X)."));
+      TabledUserDefinedPredicateFactory r = new TabledUserDefinedPredicateFactory(kb, new PredicateKey("r", 1));
+      kb.getPredicates().addUserDefinedPredicate(r);
+      r.addLast(createClauseModel("r(X) :- count, e(X)."));
+
+      assertAnswer(p, "p(A).", "p(1)");
+      assertAnswer(r, "r(A).", "r(2)");
+      assertEquals(3, counter.get());
+      assertEquals(1, p.getNumberOfTables());
+      assertEquals(1, q.getNumberOfTables());
+      assertEquals(1, r.getNumberOfTables());
+
+      // changing d/1 discards the tables of p/1 and q/1 but not r/1
+      d.addFirst(createClauseModel("d(0)."));
+      assertEquals(0, p.getNumberOfTables());
+      assertEquals(0, q.getNumberOfTables());
+      assertEquals(1, r.getNumberOfTables());
+
+      Term input = parseSentence("p(A).");
+      Predicate predicate = p.getPredicate(input);
+      assertTrue(predicate.evaluate());
+      assertEquals("p(0)", write(input.getTerm()));
+      assertTrue(predicate.couldReevaluationSucceed());
+      assertTrue(predicate.evaluate());
+      assertEquals("p(1)", write(input.getTerm()));
+      assertFalse(predicate.couldReevaluationSucceed());
+      assertAnswer(r, "r(A).", "r(2)");
+      assertEquals(5, counter.get());
+
+      // removing a clause from e/1 only discards the table of r/1
+      Iterator<ClauseModel> itr = e.getImplications();
+      itr.next();
+      itr.remove();
+      assertEquals(1, p.getNumberOfTables());
+      assertEquals(1, q.getNumberOfTables());
+      assertEquals(0, r.getNumberOfTables());
+   }
+
+   @Test
+   public void testTableTooLargeToKeep() {
+      KnowledgeBase kb = createKnowledgeBase();
+      AtomicInteger counter = addCounter(kb);
+      PredicateKey key = new PredicateKey("test", 2);
+      TabledUserDefinedPredicateFactory f = new TabledUserDefinedPredicateFactory(kb, key, 2);
+      kb.getPredicates().addUserDefinedPredicate(f);
+      f.addLast(createClauseModel("test(X, Y) :- count, between(1, X, Y)."));
+
+      assertAnswer(f, "test(1, A).", "test(1, 1)");
+      assertEquals(1, f.getNumberOfTables());
+
+      // all of the answers are returned, but the table is not kept as it has more answers than the limit
+      Term input = parseSentence("test(3, A).");
+      Predicate p = f.getPredicate(input);
+      for (int i = 1; i <= 3; i++) {
+         assertTrue(p.couldReevaluationSucceed() && p.evaluate());
+         assertEquals("test(3, " + i + ")", write(input.getTerm()));
+      }
+      assertFalse(p.couldReevaluationSucceed());
+      assertEquals(1, f.getNumberOfTables());
+      assertEquals(2, counter.get());
+
+      assertAnswer(f, "test(1, A).", "test(1, 1)");
+      assertEquals(2, counter.get());
+   }
+
+   @Test
+   public void testMutuallyRecursivePredicatesTabledByDifferentThreads() throws Exception {
+      KnowledgeBase kb = createKnowledgeBase();
+      // "slow/0" does not succeed until both threads have started populating a table
+      CountDownLatch started = new CountDownLatch(2);
+      kb.getPredicates().addPredicateFactory(new PredicateKey("slow", 0), new PredicateFactory() {
+         @Override
+         public boolean isRetryable() {
+            return false;
+         }
+
+         @Override
+         public Predicate getPredicate(Term term) {
+            started.countDown();
+            try {
+               started.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+            }
+            return PredicateUtils.TRUE;
+         }
+      });
+      TabledUserDefinedPredicateFactory p = new TabledUserDefinedPredicateFactory(kb, new PredicateKey("p", 1));
+      kb.getPredicates().addUserDefinedPredicate(p);
+      p.addLast(createClauseModel("p(X) :- slow, q(X)."));
+      p.addLast(createClauseModel("p(1)."));
+      TabledUserDefinedPredicateFactory q = new TabledUserDefinedPredicateFactory(kb, new PredicateKey("q", 1));
+      kb.getPredicates().addUserDefinedPredicate(q);
+      q.addLast(createClauseModel("q(X) :- slow, p(X)."));
+      q.addLast(createClauseModel("q(2)."));
+
+      ExecutorService executor = Executors.newFixedThreadPool(2);
+      try {
+         Future<List<String>> pAnswers = executor.submit(() -> findAll(p, "p(X)."));
+         Future<List<String>> qAnswers = executor.submit(() -> findAll(q, "q(X)."));
+         assertEquals("[p(1), p(2)]", pAnswers.get(10, TimeUnit.SECONDS).toString());
+         assertEquals("[q(1), q(2)]", qAnswers.get(10, TimeUnit.SECONDS).toString());
+      } finally {
+         executor.shutdownNow();
+      }
+   }
+
+   @Test
+   public void testWaitingForAnswersStopsWhenQueryInterrupted() throws Exception {
+      KnowledgeBase kb = createKnowledgeBase();
+      PredicateKey key = new PredicateKey("test", 1);
+      TabledUserDefinedPredicateFactory f = new TabledUserDefinedPredicateFactory(kb, key);
+      kb.getPredicates().addUserDefinedPredicate(f);
+
+      // add "block/0" build-in predicate that does not succeed until released by the test
+      CountDownLatch started = new CountDownLatch(1);
+      CountDownLatch release = new CountDownLatch(1);
+      kb.getPredicates().addPredicateFactory(new PredicateKey("block", 0), new PredicateFactory() {
+         @Override
+         public boolean isRetryable() {
+            return false;
+         }
+
+         @Override
+         public Predicate getPredicate(Term term) {
+            started.countDown();
+            try {
+               release.await();
+            } catch (InterruptedException e) {
+            }
+            return PredicateUtils.TRUE;
+         }
+      });
+      f.addLast(createClauseModel("test(X) :- block, X = a."));
+
+      // start populating the table in another thread
+      ExecutorService executor = Executors.newSingleThreadExecutor();
+      Future<Predicate> producer = executor.submit(() -> f.getPredicate(parseSentence("test(X).")));
+      started.await();
+
+      Trail trail = new Trail();
+      Trail previous = Trail.setCurrent(trail);
+      try {
+         Predicate p = f.getPredicate(parseSentence("test(Y)."));
+         trail.interrupt();
+         p.evaluate();
+         fail();
+      } catch (ProjogException e) {
+         assertEquals("Query has been interrupted.", e.getMessage());
+      } finally {
+         Trail.setCurrent(previous);
+         release.countDown();
+      }
+
+      producer.get();
+      executor.shutdown();
+   }
+
+   private static List<String> findAll(TabledUserDefinedPredicateFactory f, String query) {
+      Term input = parseSentence(query);
+      Predicate p = f.getPredicate(input);
+      List<String> answers = new ArrayList<>();
+      while (p.couldReevaluationSucceed() && p.evaluate()) {
+         answers.add(write(input.getTerm()));
+      }
+      Collections.sort(answers);
+      return answers;
+   }
+
+   private static AtomicInteger addCounter(KnowledgeBase kb) {
+      AtomicInteger counter = new AtomicInteger();
+      kb.getPredicates().addPredicateFactory(new PredicateKey("count", 0), new PredicateFactory() {
+         @Override
+         public boolean isRetryable() {
+            return false;
+         }
+
+         @Override
+         public Predicate getPredicate(Term term) {
+            counter.incrementAndGet();
+            return PredicateUtils.TRUE;
+         }
+      });
+      return counter;
+   }
+
+   private static void assertAnswer(TabledUserDefinedPredicateFactory f, String query, String expected) {
+      Term input = parseSentence(query);
+      Predicate p = f.getPredicate(input);
+      assertTrue(p.evaluate());
+      assertEquals(expected, write(input.getTerm()));
+      assertFalse(p.couldReevaluationSucceed());
+   }
 }
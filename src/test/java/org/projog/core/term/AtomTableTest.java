@@ -0,0 +1,77 @@
+/*
+ * Copyright 2026 S. Webber
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projog.core.term;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Test;
+
+public class AtomTableTest {
+   @Test
+   public void testGetAtom() {
+      AtomTable t = new AtomTable();
+      assertEquals(0, t.size());
+
+      Atom a = t.getAtom("a");
+      assertEquals("a", a.getName());
+      assertEquals(1, t.size());
+
+      // same instance returned for the same name, even if the name is a different String instance
+      assertSame(a, t.getAtom("a"));
+      assertSame(a, t.getAtom(new String("a")));
+      assertEquals(1, t.size());
+
+      Atom b = t.getAtom("b");
+      assertEquals("b", b.getName());
+      assertNotSame(a, b);
+      assertEquals(2, t.size());
+   }
+
+   @Test
+   public void testGetName() {
+      AtomTable t = new AtomTable();
+      String name = new String("test");
+      assertSame(name, t.getName(name));
+      assertSame(name, t.getName(new String("test")));
+      assertSame(name, t.getAtom("test").getName());
+   }
+
+   @Test
+   public void testSeparateTables() {
+      AtomTable t1 = new AtomTable();
+      AtomTable t2 = new AtomTable();
+      Atom a = t1.getAtom("a");
+      assertEquals(a, t2.getAtom("a"));
+      assertNotSame(a, t2.getAtom("a"));
+   }
+
+   @Test
+   public void testSharedTable() {
+      AtomTable shared = new AtomTable();
+      Atom a = shared.getAtom("a");
+      AtomTable t = new AtomTable(shared);
+
+      // uses the atoms of the shared table, but only adds to itself
+      assertSame(a, t.getAtom("a"));
+      Atom b = t.getAtom("b");
+      assertSame(b, t.getAtom("b"));
+      assertEquals(1, shared.size());
+      assertEquals(1, t.size());
+      assertNotSame(b, shared.getAtom("b"));
+   }
+}
@@ -0,0 +1,317 @@
+/*
+ * Copyright 2026 S. Webber
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.projog.core.term;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.projog.core.ProjogException;
+
+public class TrailTest {
+   private final Trail trail = new Trail();
+   private Trail previous;
+
+   @Before
+   public void setCurrent() {
+      previous = Trail.setCurrent(trail);
+   }
+
+   @After
+   public void restoreCurrent() {
+      assertSame(trail, Trail.setCurrent(previous));
+   }
+
+   @Test
+   public void testGetCurrent() {
+      assertSame(trail, Trail.getCurrent());
+      Trail other = new Trail();
+      assertSame(trail, Trail.setCurrent(other));
+      assertSame(other, Trail.getCurrent());
+      assertSame(other, Trail.setCurrent(null));
+      assertNull(Trail.getCurrent());
+      assertNull(Trail.setCurrent(trail));
+   }
+
+   @Test
+   public void testBindingsNotRecordedWithoutMark() {
+      Variable x = new Variable("X");
+      assertTrue(x.unify(new Atom("a")));
+      assertEquals(0, trail.getNumberOfBindings());
+   }
+
+   @Test
+   public void testBindingsNotRecordedWithoutCurrentTrail() {
+      Trail.setCurrent(null);
+      try {
+         trail.mark();
+         Variable x = new Variable("X");
+         assertTrue(x.unify(new Atom("a")));
+         assertEquals(0, trail.getNumberOfBindings());
+      } finally {
+         Trail.setCurrent(trail);
+      }
+   }
+
+   @Test
+   public void testUndo() {
+      Variable x = new Variable("X");
+      Variable y = new Variable("Y");
+      Variable z = new Variable("Z");
+      assertTrue(x.unify(new Atom("a")));
+
+      int mark = trail.mark();
+      assertTrue(y.unify(new Atom("b")));
+      assertTrue(z.unify(y));
+      assertEquals(2, trail.getNumberOfBindings());
+
+      assertTrue(trail.undo(mark));
+      assertEquals(0, trail.getNumberOfBindings());
+      assertEquals(new Atom("a"), x.getTerm());
+      assertSame(y, y.getTerm());
+      assertSame(z, z.getTerm());
+
+      // mark remains after undo so can be undone again
+      assertTrue(y.unify(new Atom("c")));
+      assertEquals(1, trail.getNumberOfBindings());
+      assertTrue(trail.undo(mark));
+      assertSame(y, y.getTerm());
+   }
+
+   @Test
+   public void testRecordUndo() {
+      List<String> undone = new ArrayList<>();
+      Trail.recordUndo(() -> undone.add("not recorded without a mark"));
+
+      int outer = trail.mark();
+      Variable x = new Variable("X");
+      Trail.recordUndo(() -> undone.add("a"));
+      assertTrue(x.unify(new Atom("b")));
+      int inner = trail.mark();
+      Trail.recordUndo(() -> undone.add("c:" + x.getTerm()));
+
+      assertTrue(trail.undo(inner));
+      assertEquals(Arrays.asList("c:b"), undone);
+      assertTrue(trail.undo(outer));
+      // each action is run once, when backtracking to a choice point created before it was recorded
+      assertEquals(Arrays.asList("c:b", "a"), undone);
+      assertSame(x, x.getTerm());
+      assertEquals(0, trail.getNumberOfBindings());
+   }
+
+   @Test
+   public void testUndoVariableBoundToVariable() {
+      Variable x = new Variable("X");
+      Variable y = new Variable("Y");
+      int mark = trail.mark();
+      assertTrue(x.unify(y));
+      assertTrue(y.unify(new Atom("a")));
+      assertEquals(new Atom("a"), x.getTerm());
+
+      assertTrue(trail.undo(mark));
+      assertSame(x, x.getTerm());
+      assertSame(y, y.getTerm());
+   }
+
+   @Test
+   public void testUndoNested() {
+      Variable x = new Variable("X");
+      Variable y = new Variable("Y");
+      int outer = trail.mark();
+      assertTrue(x.unify(new Atom("a")));
+      int inner = trail.mark();
+      assertTrue(y.unify(new Atom("b")));
+      assertEquals(2, trail.getNumberOfMarks());
+
+      assertTrue(trail.undo(inner));
+      assertEquals(new Atom("a"), x.getTerm());
+      assertSame(y, y.getTerm());
+
+      assertTrue(y.unify(new Atom("c")));
+      assertTrue(trail.undo(outer));
+      assertSame(x, x.getTerm());
+      assertSame(y, y.getTerm());
+
+      // undoing the outer mark discards the inner mark
+      assertEquals(1, trail.getNumberOfMarks());
+      assertFalse(trail.undo(inner));
+   }
+
+   @Test
+   public void testRelease() {
+      Variable x = new Variable("X");
+      int mark = trail.mark();
+      assertTrue(x.unify(new Atom("a")));
+      assertEquals(1, trail.getNumberOfBindings());
+
+      trail.release(mark);
+      assertEquals(0, trail.getNumberOfMarks());
+      assertEquals(0, trail.getNumberOfBindings());
+      assertEquals(new Atom("a"), x.getTerm());
+      assertFalse(trail.undo(mark));
+
+      // releasing again has no effect
+      trail.release(mark);
+      assertEquals(0, trail.getNumberOfMarks());
+   }
+
+   @Test
+   public void testReleaseOutOfOrder() {
+      Variable x = new Variable("X");
+      Variable y = new Variable("Y");
+      int first = trail.mark();
+      assertTrue(x.unify(new Atom("a")));
+      int second = trail.mark();
+      assertTrue(y.unify(new Atom("b")));
+
+      // bindings kept, as the second mark could still be undone
+      trail.release(first);
+      assertEquals(2, trail.getNumberOfMarks());
+      assertEquals(2, trail.getNumberOfBindings());
+
+      trail.release(second);
+      assertEquals(0, trail.getNumberOfMarks());
+      assertEquals(0, trail.getNumberOfBindings());
+      assertEquals(new Atom("a"), x.getTerm());
+      assertEquals(new Atom("b"), y.getTerm());
+   }
+
+   @Test
+   public void testReleaseInnerKeepsBindingsForOuter() {
+      Variable x = new Variable("X");
+      Variable y = new Variable("Y");
+      int outer = trail.mark();
+      assertTrue(x.unify(new Atom("a")));
+      int inner = trail.mark();
+      assertTrue(y.unify(new Atom("b")));
+
+      trail.release(inner);
+      assertEquals(1, trail.getNumberOfMarks());
+      assertEquals(2, trail.getNumberOfBindings());
+
+      assertTrue(trail.undo(outer));
+      assertSame(x, x.getTerm());
+      assertSame(y, y.getTerm());
+   }
+
+   @Test
+   public void testCut() {
+      assertFalse(trail.isCutPending());
+      assertFalse(trail.clearCut());
+
+      trail.cut();
+      assertTrue(trail.isCutPending());
+      assertTrue(trail.clearCut());
+      assertFalse(trail.isCutPending());
+      assertFalse(trail.clearCut());
+   }
+
+   @Test
+   public void testGrowth() {
+      int mark = trail.mark();
+      Variable[] variables = new Variable[1000];
+      for (int i = 0; i < variables.length; i++) {
+         trail.mark();
+         variables[i] = new Variable();
+         assertTrue(variables[i].unify(new IntegerNumber(i)));
+      }
+      assertEquals(1001, trail.getNumberOfMarks());
+      assertEquals(1000, trail.getNumberOfBindings());
+
+      assertTrue(trail.undo(mark));
+      for (Variable v : variables) {
+         assertSame(v, v.getTerm());
+      }
+   }
+
+   @Test
+   public void testInterrupt() {
+      assertFalse(trail.isInterrupted());
+      trail.interrupt();
+      assertTrue(trail.isInterrupted());
+      try {
+         trail.mark();
+         fail();
+      } catch (ProjogException e) {
+         assertEquals("Query has been interrupted.", e.getMessage());
+      }
+      try {
+         new Variable("X").unify(new Atom("a"));
+         fail();
+      } catch (ProjogException e) {
+         assertEquals("Query has been interrupted.", e.getMessage());
+      }
+   }
+
+   @Test
+   public void testInterruptParent() {
+      Trail child = new Trail(trail);
+      child.checkInterrupted();
+      trail.interrupt();
+      assertTrue(child.isInterrupted());
+      try {
+         child.checkInterrupted();
+         fail();
+      } catch (ProjogException e) {
+         assertEquals("Query has been interrupted.", e.getMessage());
+      }
+   }
+
+   @Test
+   public void testAttributes() {
+      Object key = new Object();
+      assertNull(trail.getAttribute(key));
+      trail.setAttribute(key, "a");
+      assertEquals("a", trail.getAttribute(key));
+      assertNull(trail.getAttribute(new Object()));
+      assertNull(new Trail().getAttribute(key));
+
+      // a child shares the attributes of its parent
+      Trail child = new Trail(trail);
+      assertEquals("a", child.getAttribute(key));
+      child.setAttribute(key, "b");
+      assertEquals("b", trail.getAttribute(key));
+   }
+
+   @Test
+   public void testActive() {
+      assertTrue(trail.isActive());
+
+      Trail other = new Trail();
+      Trail child = new Trail(other);
+      assertFalse(other.isActive());
+
+      Trail.setCurrent(child);
+      try {
+         assertTrue(other.isActive());
+         assertTrue(child.isActive());
+         assertFalse(trail.isActive());
+      } finally {
+         Trail.setCurrent(trail);
+      }
+      assertFalse(other.isActive());
+   }
+}
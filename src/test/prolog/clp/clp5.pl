@@ -8,12 +8,12 @@
 % Y = 2
 % X = 2
 % Y = 2
+% X = 2
+% Y = 3
 % X = 3
 % Y = 2
 % X = 4
 % Y = 2
-% X = 2
-% Y = 3
 %NO
 
 %?- X#>=2, Y#>=2, Y#=<X+1, 2*Y#=<8-X, Z#=2*X+3*Y, label([Z])
@@ -23,12 +23,12 @@
 % X = 3
 % Y = 2
 % Z = 12
-% X = 4
-% Y = 2
-% Z = 14
 % X = 2
 % Y = 3
 % Z = 13
+% X = 4
+% Y = 2
+% Z = 14
 %NO
 
 %?- X#>=2, Y#>=2, Y*2#=<8-X
@@ -0,0 +1,48 @@
+% Compares the solutions found by labeling using multiple threads to those found by a single thread.
+
+queens(N, Qs, Options) :-
+  length(Qs, N),
+  Qs ins 1..N,
+  safe(Qs),
+  labeling(Options, Qs).
+
+safe([]).
+safe([Q|Qs]) :-
+  no_attack(Q, Qs, 1),
+  safe(Qs).
+
+no_attack(_, [], _).
+no_attack(Q, [Q1|Qs], D) :-
+  Q #\= Q1,
+  abs(Q - Q1) #\= D,
+  D1 is D + 1,
+  no_attack(Q, Qs, D1).
+
+same_solutions(N, Options) :-
+  findall(Qs, queens(N, Qs, Options), Expected),
+  append(Options, [parallel], ParallelOptions),
+  findall(Qs, queens(N, Qs, ParallelOptions), Actual),
+  Expected == Actual.
+
+count_solutions(N, Options, Count) :-
+  findall(Qs, queens(N, Qs, Options), L),
+  length(L, Count).
+
+same_unordered_solutions(N) :-
+  findall(Qs, queens(N, Qs, []), Expected),
+  findall(Qs, queens(N, Qs, [parallel(unordered)]), Unordered),
+  msort(Unordered, Actual),
+  Expected == Actual.
+
+%TRUE same_solutions(8, [])
+%TRUE same_solutions(8, [ff])
+%TRUE same_solutions(8, [bisect, down])
+%TRUE same_solutions(8, [enum, max])
+%TRUE same_unordered_solutions(8)
+%TRUE same_solutions(3, [])
+
+%?- once(queens(8, Qs, [parallel]))
+% Qs=[1,5,8,6,3,7,2,4]
+
+%?- count_solutions(10, [ff, parallel(unordered)], Count)
+% Count=724
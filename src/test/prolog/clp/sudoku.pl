@@ -44,10 +44,10 @@ sudoku(X) :-
   label(X).
 
 %?- sudoku(X)
-% X = [1,2,3,4,5,6,7,8,9,4,5,6,7,8,9,1,2,3,7,8,9,1,2,3,4,5,6,2,6,1,9,3,4,8,7,5,8,3,4,5,1,7,6,9,2,5,9,7,2,6,8,3,1,4,3,1,2,6,7,5,9,4,8,6,4,5,8,9,1,2,3,7,9,7,8,3,4,2,5,6,1]
-% X = [1,2,3,4,5,6,7,8,9,4,5,6,7,8,9,1,2,3,7,8,9,1,2,3,4,5,6,2,6,1,9,3,4,8,7,5,8,3,4,5,1,7,6,9,2,5,9,7,2,6,8,3,1,4,3,1,2,6,7,5,9,4,8,9,7,8,3,4,2,5,6,1,6,4,5,8,9,1,2,3,7]
-% X = [1,2,3,4,5,6,7,8,9,4,5,6,7,8,9,1,2,3,7,8,9,1,2,3,4,5,6,2,6,1,9,3,4,8,7,5,8,3,4,5,1,7,6,9,2,5,9,7,2,6,8,3,1,4,3,1,5,6,7,2,9,4,8,6,4,2,8,9,1,5,3,7,9,7,8,3,4,5,2,6,1]
-% X = [1,2,3,4,5,6,7,8,9,4,5,6,7,8,9,1,2,3,7,8,9,1,2,3,4,5,6,2,6,1,9,3,4,8,7,5,8,3,4,5,1,7,6,9,2,5,9,7,2,6,8,3,1,4,3,1,5,6,7,2,9,4,8,9,7,8,3,4,5,2,6,1,6,4,2,8,9,1,5,3,7]
+% X = [1,2,3,4,5,6,7,8,9,4,5,6,7,8,9,1,2,3,7,8,9,1,2,3,4,5,6,2,1,4,3,6,5,8,9,7,3,6,5,8,9,7,2,1,4,8,9,7,2,1,4,3,6,5,5,3,1,6,4,2,9,7,8,6,4,2,9,7,8,5,3,1,9,7,8,5,3,1,6,4,2]
+% X = [1,2,3,4,5,6,7,8,9,4,5,6,7,8,9,1,2,3,7,8,9,1,2,3,4,5,6,2,1,4,3,6,5,8,9,7,3,6,5,8,9,7,2,1,4,8,9,7,2,1,4,3,6,5,5,3,1,6,4,2,9,7,8,6,4,8,9,7,1,5,3,2,9,7,2,5,3,8,6,4,1]
+% X = [1,2,3,4,5,6,7,8,9,4,5,6,7,8,9,1,2,3,7,8,9,1,2,3,4,5,6,2,1,4,3,6,5,8,9,7,3,6,5,8,9,7,2,1,4,8,9,7,2,1,4,3,6,5,5,3,1,6,4,2,9,7,8,6,7,2,9,3,8,5,4,1,9,4,8,5,7,1,6,3,2]
+% X = [1,2,3,4,5,6,7,8,9,4,5,6,7,8,9,1,2,3,7,8,9,1,2,3,4,5,6,2,1,4,3,6,5,8,9,7,3,6,5,8,9,7,2,1,4,8,9,7,2,1,4,3,6,5,5,3,1,6,4,2,9,7,8,6,7,8,9,3,1,5,4,2,9,4,2,5,7,8,6,3,1]
 %QUIT
 
 data([
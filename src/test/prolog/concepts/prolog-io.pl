@@ -50,6 +50,12 @@
 %?- current_input(X)
 % X=user_input
 
+% If the current input stream is user_input then "seen" does not close it.
+%TRUE seen
+
+%?- current_input(X)
+% X=user_input
+
 % If the argument of "see/1" is a file handle, rather than a filename, then the current input stream is set to the stream represented by the handle.
 %?- open('io_test.tmp', read, W), see(W), current_input(X), get_char(Y), seen, current_input(Z)
 % W=io_test.tmp_input_handle
@@ -61,3 +67,25 @@
 % "told" is a convenient way, with a single statement, to both close the current output stream and set user_output as the current output stream.
 %?- tell('io_test.tmp'), put_char(x), told, see('io_test.tmp'), get_char(Y), seen
 % Y=x
+
+% Terms and characters read from the same stream share the same buffer, so no characters are lost between reads.
+%?- tell('io_test.tmp'), write('a(1).'), nl, write('b(2). c(3).xyz'), told, see('io_test.tmp'), read(A), get_code(N), read(B), read(C), get_char(D), get_char(E), seen
+% A=a(1)
+% B=b(2)
+% C=c(3)
+% D=x
+% E=y
+% N=10
+
+% "consult/2" with the option "bulk(true)" uses multiple threads to parse the file. The order of the clauses is retained.
+%?- tell('io_test.tmp'), write('bulk_fact(x).'), nl, write('bulk_fact(y).'), nl, write('bulk_fact(z).'), nl, told, consult('io_test.tmp', [bulk(true), threads(2)]), bulk_fact(X)
+% X=x
+% X=y
+% X=z
+
+%?- consult('io_test.tmp', [unknown(true)])
+%ERROR Unknown consult option: unknown(true)
+%?- consult('io_test.tmp', [bulk(foo)])
+%ERROR Invalid consult option: bulk(foo)
+%?- consult('io_test.tmp', [bulk(true), threads(0)])
+%ERROR Invalid consult option: threads(0)
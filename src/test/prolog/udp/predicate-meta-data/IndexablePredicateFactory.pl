@@ -113,7 +113,7 @@ p(f, 8).
 % X=actual_class : org.projog.core.predicate.udp.StaticUserDefinedPredicateFactory$IndexablePredicateFactory
 % X=actual_isRetryable : true
 % X=actual_isAlwaysCutOnBacktrack : false
-% X=processed_class : org.projog.core.predicate.udp.StaticUserDefinedPredicateFactory$NotIndexablePredicateFactory
+% X=processed_class : org.projog.core.predicate.udp.StaticUserDefinedPredicateFactory$FunctorIndexPredicateFactory
 % X=processed_isRetryable : true
 % X=processed_isAlwaysCutOnBacktrack : false
 
@@ -154,7 +154,7 @@ p(f, 8).
 % X=actual_class : org.projog.core.predicate.udp.StaticUserDefinedPredicateFactory$IndexablePredicateFactory
 % X=actual_isRetryable : true
 % X=actual_isAlwaysCutOnBacktrack : false
-% X=processed_class : org.projog.core.predicate.udp.StaticUserDefinedPredicateFactory$NotIndexablePredicateFactory
+% X=processed_class : org.projog.core.predicate.udp.StaticUserDefinedPredicateFactory$FunctorIndexPredicateFactory
 % X=processed_isRetryable : true
 % X=processed_isAlwaysCutOnBacktrack : false
 
@@ -1,18 +1,19 @@
 ?- pj_add_predicate(meta_data/2, 'org.projog.core.predicate.udp.PredicateMetaData').
 
-p(a).
-p(b(_)).
-p(c(1)).
-p(c(2)).
-p(c(3)).
-p(d) :- repeat(2).
-p(e(X,X)) :- repeat(2).
-p(f(1)).
-p(f(_)).
-p(f(2)).
-p(g).
-
-%?- meta_data(p(_), X)
+% all clauses have the same principal functor, so indexing by it would not reduce the number of clauses to try
+p(x(a)).
+p(x(b(_))).
+p(x(c(1))).
+p(x(c(2))).
+p(x(c(3))).
+p(x(d)) :- repeat(2).
+p(x(e(X,X))) :- repeat(2).
+p(x(f(1))).
+p(x(f(_))).
+p(x(f(2))).
+p(x(g)).
+
+%?- meta_data(p(x(_)), X)
 % X=factory_class : org.projog.core.predicate.udp.StaticUserDefinedPredicateFactory
 % X=factory_isRetryable : true
 % X=factory_isAlwaysCutOnBacktrack : false
@@ -23,7 +24,7 @@ p(g).
 % X=processed_isRetryable : true
 % X=processed_isAlwaysCutOnBacktrack : false
 
-%?- p(X)
+%?- p(x(X))
 % X=a
 % X=b(_)
 % X=c(1)
@@ -38,7 +39,7 @@ p(g).
 % X=f(2)
 % X=g
 
-%?- meta_data(p(a), X)
+%?- meta_data(p(x(a)), X)
 % X=factory_class : org.projog.core.predicate.udp.StaticUserDefinedPredicateFactory
 % X=factory_isRetryable : true
 % X=factory_isAlwaysCutOnBacktrack : false
@@ -49,9 +50,9 @@ p(g).
 % X=processed_isRetryable : false
 % X=processed_isAlwaysCutOnBacktrack : false
 
-%TRUE p(a)
+%TRUE p(x(a))
 
-%?- meta_data(p(d), X)
+%?- meta_data(p(x(d)), X)
 % X=factory_class : org.projog.core.predicate.udp.StaticUserDefinedPredicateFactory
 % X=factory_isRetryable : true
 % X=factory_isAlwaysCutOnBacktrack : false
@@ -62,11 +63,11 @@ p(g).
 % X=processed_isRetryable : true
 % X=processed_isAlwaysCutOnBacktrack : false
 
-%?- p(d)
+%?- p(x(d))
 %YES
 %YES
 
-%?- meta_data(p(b(z)), X)
+%?- meta_data(p(x(b(z))), X)
 % X=factory_class : org.projog.core.predicate.udp.StaticUserDefinedPredicateFactory
 % X=factory_isRetryable : true
 % X=factory_isAlwaysCutOnBacktrack : false
@@ -77,9 +78,9 @@ p(g).
 % X=processed_isRetryable : false
 % X=processed_isAlwaysCutOnBacktrack : false
 
-%TRUE p(b(z))
+%TRUE p(x(b(z)))
 
-%?- meta_data(p(c(_)), X)
+%?- meta_data(p(x(c(_))), X)
 % X=factory_class : org.projog.core.predicate.udp.StaticUserDefinedPredicateFactory
 % X=factory_isRetryable : true
 % X=factory_isAlwaysCutOnBacktrack : false
@@ -90,12 +91,12 @@ p(g).
 % X=processed_isRetryable : true
 % X=processed_isAlwaysCutOnBacktrack : false
 
-%?- p(c(X))
+%?- p(x(c(X)))
 % X=1
 % X=2
 % X=3
 
-%?- meta_data(p(e(1,1)), X)
+%?- meta_data(p(x(e(1,1))), X)
 % X=factory_class : org.projog.core.predicate.udp.StaticUserDefinedPredicateFactory
 % X=factory_isRetryable : true
 % X=factory_isAlwaysCutOnBacktrack : false
@@ -106,11 +107,11 @@ p(g).
 % X=processed_isRetryable : true
 % X=processed_isAlwaysCutOnBacktrack : false
 
-%?- p(e(1,1))
+%?- p(x(e(1,1)))
 %YES
 %YES
 
-%?- meta_data(p(e(1,2)), X)
+%?- meta_data(p(x(e(1,2))), X)
 % X=factory_class : org.projog.core.predicate.udp.StaticUserDefinedPredicateFactory
 % X=factory_isRetryable : true
 % X=factory_isAlwaysCutOnBacktrack : false
@@ -121,9 +122,9 @@ p(g).
 % X=processed_isRetryable : false
 % X=processed_isAlwaysCutOnBacktrack : false
 
-%FAIL p(e(1,2))
+%FAIL p(x(e(1,2)))
 
-%?- meta_data(p(f(3)), X)
+%?- meta_data(p(x(f(3))), X)
 % X=factory_class : org.projog.core.predicate.udp.StaticUserDefinedPredicateFactory
 % X=factory_isRetryable : true
 % X=factory_isAlwaysCutOnBacktrack : false
@@ -134,9 +135,9 @@ p(g).
 % X=processed_isRetryable : false
 % X=processed_isAlwaysCutOnBacktrack : false
 
-%TRUE p(f(3))
+%TRUE p(x(f(3)))
 
-%?- meta_data(p(f(_)), X)
+%?- meta_data(p(x(f(_))), X)
 % X=factory_class : org.projog.core.predicate.udp.StaticUserDefinedPredicateFactory
 % X=factory_isRetryable : true
 % X=factory_isAlwaysCutOnBacktrack : false
@@ -147,12 +148,12 @@ p(g).
 % X=processed_isRetryable : true
 % X=processed_isAlwaysCutOnBacktrack : false
 
-%?- p(f(X))
+%?- p(x(f(X)))
 % X=1
 % X=UNINSTANTIATED VARIABLE
 % X=2
 
-%?- meta_data(p(z), X)
+%?- meta_data(p(x(z)), X)
 % X=factory_class : org.projog.core.predicate.udp.StaticUserDefinedPredicateFactory
 % X=factory_isRetryable : true
 % X=factory_isAlwaysCutOnBacktrack : false
@@ -163,5 +164,5 @@ p(g).
 % X=processed_isRetryable : false
 % X=processed_isAlwaysCutOnBacktrack : false
 
-%FAIL p(z)
+%FAIL p(x(z))
 